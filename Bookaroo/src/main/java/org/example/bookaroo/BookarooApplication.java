@@ -1,13 +1,19 @@
 package org.example.bookaroo;
 
+import org.example.bookaroo.config.DatabaseRestoreListener;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 
-@SpringBootApplication
+// R2DBC konfigurowane ręcznie (ReactiveCatalogConfig) - JPA/JDBC pozostaje głównym dostępem do bazy
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class BookarooApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(BookarooApplication.class, args);
+		SpringApplication application = new SpringApplication(BookarooApplication.class);
+		// odtworzenie bazy z kopii (--bookaroo.db.restore-from) przed otwarciem puli połączeń
+		application.addListeners(new DatabaseRestoreListener());
+		application.run(args);
 	}
 
 }
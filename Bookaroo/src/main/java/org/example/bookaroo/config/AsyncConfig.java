@@ -0,0 +1,61 @@
+package org.example.bookaroo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+// @Async korzysta z applicationTaskExecutor - przy spring.threads.virtual.enabled=true (Java 21+) są to wirtualne wątki
+// @Scheduled - zadania okresowe (np. GC magazynu plików)
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class AsyncConfig {
+
+    // pula do równoległego pobierania danych na stronach (szczegóły książki, profil)
+    @Bean
+    public AsyncTaskExecutor pageAssemblyExecutor(@Value("${bookaroo.page.max-concurrency:64}") int maxConcurrency,
+                                                  Environment environment) {
+        // wirtualne wątki tylko w trybie opt-in (profil "virtual") i gdy JVM je wspiera (Java 21+)
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("page-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(maxConcurrency);
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("page-");
+        executor.setCorePoolSize(maxConcurrency);
+        executor.setMaxPoolSize(maxConcurrency);
+        executor.setQueueCapacity(maxConcurrency * 4);
+        executor.setAllowCoreThreadTimeOut(true);
+        // przy przeciążeniu zadanie wykonuje wątek żądania - strona działa dalej, tylko sekwencyjnie
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    // pula zadań w tle (eksport/import) - mała i ograniczona, żeby długie eksporty nie zabierały
+    // wątków i połączeń z bazy obsłudze zwykłych żądań; pełna kolejka = odrzucenie (TaskRejectedException)
+    @Bean
+    public AsyncTaskExecutor jobExecutor(@Value("${bookaroo.jobs.workers:2}") int workers,
+                                         @Value("${bookaroo.jobs.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("job-");
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.initialize();
+        return executor;
+    }
+}
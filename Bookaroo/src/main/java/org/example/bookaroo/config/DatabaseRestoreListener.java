@@ -0,0 +1,114 @@
+package org.example.bookaroo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+// Odtworzenie bazy z kopii (DatabaseMaintenanceService.backup) przy starcie, zanim powstanie pula połączeń:
+//   --bookaroo.db.restore-from=data/backups/bookaroo-20261019-030000.zip
+// Plik bazy z archiwum trafia na miejsce bieżącego atomową zmianą nazwy, bieżący zostaje obok jako *.before-restore-*.
+// Jednorazowo: znacznik obok bazy (*.restored) pamięta odtworzoną kopię - opcja pozostawiona w poleceniu startowym
+// nie cofa bazy przy każdym restarcie. Ponowne odtworzenie tej samej kopii: --bookaroo.db.restore-force=true
+public class DatabaseRestoreListener implements ApplicationListener<ApplicationEnvironmentPreparedEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseRestoreListener.class);
+    private static final String DB_SUFFIX = ".mv.db";
+    private static final String MARKER_SUFFIX = ".restored";
+    private static final DateTimeFormatter KEPT_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    @Override
+    public void onApplicationEvent(ApplicationEnvironmentPreparedEvent event) {
+        Environment environment = event.getEnvironment();
+        String from = environment.getProperty("bookaroo.db.restore-from");
+        if (!StringUtils.hasText(from)) {
+            return;
+        }
+        String database = environment.getProperty("bookaroo.db.file");
+        if (!StringUtils.hasText(database)) {
+            throw new IllegalStateException("Odtworzenie bazy wymaga bazy w pliku (bookaroo.db.file, profil prod)");
+        }
+        boolean force = environment.getProperty("bookaroo.db.restore-force", Boolean.class, false);
+        try {
+            restoreOnce(Path.of(from), Path.of(database), force);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nie udało się odtworzyć bazy z kopii " + from, e);
+        }
+    }
+
+    // false - baza została już odtworzona z tej kopii i od tego czasu mogła przyjąć zapisy
+    static boolean restoreOnce(Path backup, Path database, boolean force) throws IOException {
+        Path target = target(database);
+        Path marker = marker(target);
+        if (!force && Files.exists(target) && Files.exists(marker) && Files.readString(marker).equals(backupId(backup))) {
+            log.warn("Baza była już odtworzona z kopii {} - pomijam. Usuń bookaroo.db.restore-from z polecenia startowego "
+                    + "albo ustaw bookaroo.db.restore-force=true, żeby odtworzyć ją ponownie", backup);
+            return false;
+        }
+        restore(backup, database);
+        return true;
+    }
+
+    // database - ścieżka jak w adresie jdbc:h2:file:..., bez rozszerzenia
+    static Path restore(Path backup, Path database) throws IOException {
+        long start = System.currentTimeMillis();
+        Path target = target(database);
+        Path temp = target.resolveSibling(target.getFileName() + ".restore");
+        Files.createDirectories(target.getParent());
+
+        // najpierw rozpakowanie obok - uszkodzona lub obca kopia nie rusza bieżącej bazy
+        boolean found = false;
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(backup))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null && !found; entry = zip.getNextEntry()) {
+                if (!entry.isDirectory() && entry.getName().endsWith(DB_SUFFIX)) {
+                    Files.copy(zip, temp, StandardCopyOption.REPLACE_EXISTING);
+                    found = true;
+                }
+            }
+        }
+        if (!found) {
+            throw new IOException("Kopia " + backup + " nie zawiera pliku bazy (*" + DB_SUFFIX + ")");
+        }
+
+        if (Files.exists(target)) {
+            String keptName = target.getFileName() + ".before-restore-" + KEPT_TIME.format(LocalDateTime.now());
+            Path kept = target.resolveSibling(keptName);
+            // dwa odtworzenia w tej samej sekundzie
+            for (int n = 2; Files.exists(kept); n++) {
+                kept = target.resolveSibling(keptName + "-" + n);
+            }
+            Files.move(target, kept);
+            log.info("Bieżąca baza przeniesiona do {}", kept);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        Files.writeString(marker(target), backupId(backup));
+        log.info("Baza {} odtworzona z kopii {} w {} ms", target, backup, System.currentTimeMillis() - start);
+        return target;
+    }
+
+    private static Path target(Path database) {
+        return database.toAbsolutePath().resolveSibling(database.getFileName() + DB_SUFFIX);
+    }
+
+    private static Path marker(Path target) {
+        return target.resolveSibling(target.getFileName() + MARKER_SUFFIX);
+    }
+
+    // ta sama ścieżka, rozmiar i czas modyfikacji - ta sama kopia
+    private static String backupId(Path backup) throws IOException {
+        return backup.toAbsolutePath().normalize() + "|" + Files.size(backup) + "|"
+                + Files.getLastModifiedTime(backup).toMillis();
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.bookaroo.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+// Reaktywny dostęp (R2DBC) do tej samej bazy H2 - tylko dla odczytów katalogu.
+// Pula R2DBC nie jest domyślnym kandydatem ConnectionFactory, żeby autokonfiguracja nie przejęła
+// inicjalizacji bazy (data.sql) ani nie zastąpiła menedżera transakcji JPA.
+@Configuration
+public class ReactiveCatalogConfig {
+
+    @Bean(destroyMethod = "dispose", defaultCandidate = false)
+    public ConnectionPool catalogConnectionPool(@Value("${bookaroo.reactive.r2dbc-url}") String url,
+                                                @Value("${spring.datasource.username:sa}") String username,
+                                                @Value("${spring.datasource.password:}") String password,
+                                                @Value("${bookaroo.reactive.pool-size:10}") int poolSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .maxSize(poolSize)
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient catalogDatabaseClient(@Qualifier("catalogConnectionPool") ConnectionPool catalogConnectionPool) {
+        return DatabaseClient.create(catalogConnectionPool);
+    }
+}
@@ -28,6 +28,7 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/h2-console/**", "/swagger-ui/**", "/v3/api-docs/**").permitAll()
                         .requestMatchers("/css/**", "/js/**", "/images/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/uploads/**").permitAll() // avatary w recenzjach widoczne też dla gości
 
                         //widoki
                         .requestMatchers("/", "/index", "/register", "/login").permitAll()
@@ -36,6 +37,7 @@ public class SecurityConfig {
                         // api
                         .requestMatchers(HttpMethod.POST, "/api/v1/users").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/v1/books/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/v1/reactive/books/**").permitAll()
 
                         .requestMatchers("/api/**").authenticated()
                         // panel admina
@@ -0,0 +1,95 @@
+package org.example.bookaroo.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Nasłuchuje zdarzeń JFR jdk.VirtualThreadPinned - wirtualny wątek zablokowany wewnątrz synchronized
+// (lub natywnej ramki) trzyma wątek nośny i ogranicza skalowanie. Aktywny tylko w trybie wirtualnych wątków.
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APP_PACKAGE = "org.example.bookaroo";
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${bookaroo.virtual.pinning-threshold-ms:20}") long thresholdMs) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = Duration.ofMillis(thresholdMs);
+    }
+
+    @Override
+    public synchronized void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Monitor przypięć wirtualnych wątków uruchomiony (próg {} ms)", threshold.toMillis());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return stream != null;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<RecordedFrame> frames = frames(event.getStackTrace());
+        String location = frames.stream()
+                .filter(f -> f.getMethod().getType().getName().startsWith(APP_PACKAGE))
+                .findFirst()
+                .or(() -> frames.stream().findFirst())
+                .map(VirtualThreadPinningMonitor::describe)
+                .orElse("unknown");
+
+        Timer.builder("bookaroo.virtual.pinned")
+                .description("Czas przypięcia wirtualnego wątku do wątku nośnego")
+                .tag("location", location)
+                .register(meterRegistry)
+                .record(event.getDuration());
+
+        if (log.isWarnEnabled()) {
+            String stack = frames.stream()
+                    .limit(12)
+                    .map(f -> "    at " + describe(f) + ":" + f.getLineNumber())
+                    .collect(Collectors.joining(System.lineSeparator()));
+            log.warn("Wirtualny wątek przypięty na {} ms w {}{}{}",
+                    event.getDuration().toMillis(), location, System.lineSeparator(), stack);
+        }
+    }
+
+    private static List<RecordedFrame> frames(RecordedStackTrace stackTrace) {
+        return stackTrace == null ? List.of() : stackTrace.getFrames();
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+}
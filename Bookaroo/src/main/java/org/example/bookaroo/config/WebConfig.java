@@ -1,12 +1,16 @@
 package org.example.bookaroo.config;
 
+import org.example.bookaroo.service.ContentAddressedStore;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
 
-import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
@@ -16,10 +20,27 @@ public class WebConfig implements WebMvcConfigurer {
 
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        Path uploadPath = Paths.get(uploadDir);
-        String uploadAbsolutePath = uploadPath.toFile().getAbsolutePath();
+        // URI zamiast "file:/" + ścieżka - na Linuksie dawało file://root/... (pierwszy katalog jako host)
+        String uploadLocation = Paths.get(uploadDir).toAbsolutePath().toUri().toString();
+        if (!uploadLocation.endsWith("/")) {
+            uploadLocation += "/";
+        }
 
+        // Nazwa pliku = skrót treści (ContentAddressedStore), więc pod danym URL-em treść nigdy się nie zmienia -
+        // przeglądarka może trzymać plik rok i nie wysyłać żądań warunkowych (immutable).
+        // Zakresy (Range) i 304 obsługuje ResourceHttpRequestHandler.
         registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:/" + uploadAbsolutePath + "/");
+                .addResourceLocations(uploadLocation)
+                .setCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                .setEtagGenerator(WebConfig::contentEtag)
+                .resourceChain(true)
+                // gotowe warianty .br/.gz leżące obok pliku, wybierane wg Accept-Encoding
+                .addResolver(new EncodedResourceResolver());
     }
-}
\ No newline at end of file
+
+    // mocny ETag z nazwy pliku (zawiera skrót treści) - bez czytania pliku; stare pliki tylko z Last-Modified
+    static String contentEtag(Resource resource) {
+        String filename = resource.getFilename();
+        return ContentAddressedStore.hashOf(filename) != null ? filename : null;
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.bookaroo.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.example.bookaroo.dto.AuthorSummaryDTO;
+import org.example.bookaroo.service.BookService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/authors")
+@Tag(name = "Author Lookup", description = "Podpowiedzi autorów dla formularzy")
+public class AuthorRestController {
+
+    private final BookService bookService;
+
+    public AuthorRestController(BookService bookService) {
+        this.bookService = bookService;
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Wyszukaj autorów po prefiksie",
+            description = "Dopasowanie początku imienia lub nazwiska (bez rozróżniania wielkości liter); maksymalnie "
+                    + BookService.MAX_AUTHOR_SUGGESTIONS + " wyników")
+    @ApiResponse(
+            responseCode = "200",
+            description = "OK - Lista podpowiedzi (pusta dla pustego zapytania)",
+            content = @Content(
+                    array = @ArraySchema(schema = @Schema(implementation = AuthorSummaryDTO.class)),
+                    examples = @ExampleObject(value = """
+                            [{"id": "uuid-1", "name": "J.R.R.", "surname": "Tolkien"}]
+                            """)
+            )
+    )
+    public ResponseEntity<List<AuthorSummaryDTO>> searchAuthors(@RequestParam("q") String query,
+                                                                @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(bookService.searchAuthors(query, limit));
+    }
+}
@@ -1,6 +1,7 @@
 package org.example.bookaroo.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
@@ -9,17 +10,28 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.example.bookaroo.dto.BookDTO;
+import org.example.bookaroo.dto.BrowseResultDTO;
+import org.example.bookaroo.dto.TrendingBookDTO;
 import org.example.bookaroo.dto.mapper.BookMapper;
 import org.example.bookaroo.entity.Book;
+import org.example.bookaroo.entity.UuidV7Generator;
 import org.example.bookaroo.exception.ErrorResponse;
+import org.example.bookaroo.service.BookFacetService;
+import org.example.bookaroo.service.BookRankingService;
 import org.example.bookaroo.service.BookService;
+import org.example.bookaroo.service.CatalogExportService;
+import org.example.bookaroo.service.GenreSimilarityService;
+import org.example.bookaroo.service.TrendingService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.UUID;
@@ -30,9 +42,21 @@ import java.util.UUID;
 public class BookRestController {
 
     private final BookService bookService;
+    private final CatalogExportService catalogExportService;
+    private final BookFacetService bookFacetService;
+    private final TrendingService trendingService;
+    private final GenreSimilarityService genreSimilarityService;
 
-    public BookRestController(BookService bookService) {
+    public BookRestController(BookService bookService,
+                              CatalogExportService catalogExportService,
+                              BookFacetService bookFacetService,
+                              TrendingService trendingService,
+                              GenreSimilarityService genreSimilarityService) {
         this.bookService = bookService;
+        this.catalogExportService = catalogExportService;
+        this.bookFacetService = bookFacetService;
+        this.trendingService = trendingService;
+        this.genreSimilarityService = genreSimilarityService;
     }
 
     // GET ALL
@@ -66,9 +90,7 @@ public class BookRestController {
             @RequestParam(defaultValue = "10") int size
     ) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Book> bookPage = bookService.findAll(pageable);
-
-        return ResponseEntity.ok(bookPage.map(BookMapper::toDto));
+        return ResponseEntity.ok(bookService.findAll(pageable));
     }
 
     // GET BY ID
@@ -89,10 +111,8 @@ public class BookRestController {
             content = @Content(schema = @Schema(implementation = ErrorResponse.class))
     )
     public ResponseEntity<BookDTO> getBookById(@PathVariable UUID id) {
-        return bookService.findById(id)
-                .map(BookMapper::toDto)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+        // z migawki katalogu; brak książki - 404 z GlobalExceptionHandler
+        return ResponseEntity.ok(bookService.getBookDetails(id));
     }
 
     // CREATE
@@ -180,8 +200,7 @@ public class BookRestController {
             @RequestParam(defaultValue = "10") int size
     ) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Book> foundBooks = bookService.searchBooks(query, pageable);
-        return ResponseEntity.ok(foundBooks.map(BookMapper::toDto));
+        return ResponseEntity.ok(bookService.searchBooks(query, pageable));
     }
 
     // filtrowanie po autorze
@@ -195,9 +214,7 @@ public class BookRestController {
     ) {
         Pageable pageable = PageRequest.of(page, size);
 
-        Page<Book> bookPage = bookService.getBooksByAuthorId(authorId, pageable);
-
-        return ResponseEntity.ok(bookPage.map(BookMapper::toDto));
+        return ResponseEntity.ok(bookService.getBooksByAuthorId(authorId, pageable));
     }
 
     // filtrowanie po Gatunku
@@ -211,14 +228,14 @@ public class BookRestController {
     ) {
         Pageable pageable = PageRequest.of(page, size);
 
-        Page<Book> bookPage = bookService.findByGenresId(genreId, pageable);
-
-        return ResponseEntity.ok(bookPage.map(BookMapper::toDto));
+        return ResponseEntity.ok(bookService.findByGenresId(genreId, pageable));
     }
 
     // TOP
     @GetMapping("/top")
-    @Operation(summary = "Najlepiej oceniane książki", description = "Pobiera najlepiej oceniane książki")
+    @Operation(summary = "Najlepiej oceniane książki",
+            description = "Ranking z pamięci według średniej ważonej liczbą recenzji (maks. " + BookRankingService.MAX_LIMIT
+                    + " pozycji). Opcjonalnie zawężony do gatunku albo do roku wydania")
     @ApiResponse(
             responseCode = "200",
             description = "OK - Lista TOP",
@@ -227,14 +244,74 @@ public class BookRestController {
                     array = @ArraySchema(schema = @Schema(implementation = BookDTO.class))
             )
     )
-    public ResponseEntity<List<BookDTO>> getTopBooks(@RequestParam(defaultValue = "5") int limit) {
-        List<Book> books = bookService.getTopRatedBooksViaSql(limit);
+    @ApiResponse(responseCode = "400", description = "Podano jednocześnie gatunek i rok", content = @Content)
+    public ResponseEntity<List<BookDTO>> getTopBooks(
+            @RequestParam(defaultValue = "5") int limit,
+            @Parameter(description = "ID gatunku") @RequestParam(required = false) UUID genreId,
+            @Parameter(description = "Rok wydania") @RequestParam(required = false) Integer year) {
+        return ResponseEntity.ok(bookService.getTopRatedBooks(limit, genreId, year));
+    }
 
-        List<BookDTO> dtos = books.stream()
-                .map(BookMapper::toDto)
-                .toList();
+    // TRENDING
+    @GetMapping("/trending")
+    @Operation(summary = "Popularne teraz",
+            description = "Książki najczęściej dodawane na półki i recenzowane w oknie hour, day lub week; "
+                    + "świeższa aktywność waży więcej. weightedEvents to suma wag zdarzeń w oknie "
+                    + "(półka = 1, recenzja = 3), nie ich liczba. Lista przeliczana co minutę")
+    @ApiResponse(
+            responseCode = "200",
+            description = "OK - Lista popularnych",
+            content = @Content(
+                    mediaType = "application/json",
+                    array = @ArraySchema(schema = @Schema(implementation = TrendingBookDTO.class))
+            )
+    )
+    @ApiResponse(responseCode = "400", description = "Nieznane okno", content = @Content)
+    public ResponseEntity<List<TrendingBookDTO>> getTrending(
+            @Parameter(description = "Okno: hour, day, week") @RequestParam(defaultValue = "day") String window,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(trendingService.top(TrendingService.Window.parse(window), limit));
+    }
+
+    // MORE LIKE THIS
+    @GetMapping("/{id}/similar")
+    @Operation(summary = "Więcej takich",
+            description = "Książki o najbardziej podobnym zestawie gatunków (podobieństwo Jaccarda, maks. "
+                    + GenreSimilarityService.MAX_LIMIT + " pozycji). Wynik z pamięci")
+    @ApiResponse(
+            responseCode = "200",
+            description = "OK - Lista podobnych",
+            content = @Content(
+                    mediaType = "application/json",
+                    array = @ArraySchema(schema = @Schema(implementation = BookDTO.class))
+            )
+    )
+    @ApiResponse(responseCode = "404", description = "Książka nie istnieje", content = @Content)
+    public ResponseEntity<List<BookDTO>> getSimilarBooks(
+            @Parameter(description = "ID książki") @PathVariable UUID id,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(genreSimilarityService.similarTo(id, limit));
+    }
 
-        return ResponseEntity.ok(dtos);
+    // BROWSE - filtry łączone z licznikami faset
+    @GetMapping("/browse")
+    @Operation(summary = "Przeglądanie z fasetami",
+            description = "Filtruje jednocześnie po gatunkach, dekadach wydania i minimalnej ocenie; zwraca stronę książek "
+                    + "i liczniki dla każdej wartości fasety. Gatunki łączone przez OR, albo AND gdy allGenres=true")
+    @ApiResponse(
+            responseCode = "200",
+            description = "OK - Wynik z licznikami",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = BrowseResultDTO.class))
+    )
+    @ApiResponse(responseCode = "400", description = "Błędna strona, rozmiar lub ocena", content = @Content)
+    public ResponseEntity<BrowseResultDTO> browse(
+            @Parameter(description = "ID gatunków") @RequestParam(required = false) List<UUID> genreId,
+            @Parameter(description = "Książka musi mieć wszystkie wybrane gatunki") @RequestParam(defaultValue = "false") boolean allGenres,
+            @Parameter(description = "Dekady wydania, np. 1990") @RequestParam(required = false) List<Integer> decade,
+            @Parameter(description = "Minimalna średnia ocena (1-9)") @RequestParam(required = false) Integer minRating,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(bookFacetService.browse(genreId, allGenres, decade, minRating, page, size));
     }
 
     // BY YEAR
@@ -242,13 +319,39 @@ public class BookRestController {
     @Operation(summary = "Książki z danego roku", description = "Pobiera książki z danego roku")
     @ApiResponse(responseCode = "200", description = "OK", content = @Content(array = @ArraySchema(schema = @Schema(implementation = BookDTO.class))))
     public ResponseEntity<List<BookDTO>> getBooksByYear(@PathVariable int year) {
-        List<Book> books = bookService.getBooksByYearViaSql(year);
+        return ResponseEntity.ok(bookService.getBooksByYearViaSql(year));
+    }
 
-        List<BookDTO> dtos = books.stream()
-                .map(BookMapper::toDto)
-                .toList();
+    // EXPORT - cały katalog jednym strumieniem zamiast stronicowania OFFSET
+    @GetMapping("/export")
+    @Operation(summary = "Eksport całego katalogu", description = "Strumień NDJSON (jedna książka na linię) z autorami i gatunkami, gzip gdy klient wyśle Accept-Encoding: gzip")
+    @ApiResponse(
+            responseCode = "200",
+            description = "OK - Strumień katalogu",
+            content = @Content(
+                    mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = BookDTO.class),
+                    examples = @ExampleObject(value = """
+                            {"id": "uuid-1", "title": "Wiedźmin", "authorName": "Andrzej Sapkowski", "genres": ["Fantasy"]}
+                            {"id": "uuid-2", "title": "Pan Tadeusz", "authorName": "Adam Mickiewicz", "genres": ["Epopeja"]}
+                            """)
+            )
+    )
+    public ResponseEntity<StreamingResponseBody> exportCatalog(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
 
-        return ResponseEntity.ok(dtos);
+        StreamingResponseBody body = out -> catalogExportService.exportNdjson(out, gzip);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"bookaroo-catalog.ndjson\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
     }
 
     // CREATE JDBC
@@ -259,7 +362,7 @@ public class BookRestController {
         Book book = BookMapper.toEntity(bookDto);
 
         if (book.getId() == null) {
-            book.setId(UUID.randomUUID());
+            book.setId(UuidV7Generator.next());
         }
 
         bookService.createBookViaSql(book);
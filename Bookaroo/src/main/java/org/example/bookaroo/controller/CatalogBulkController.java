@@ -0,0 +1,83 @@
+package org.example.bookaroo.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.parameters.RequestBody;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.example.bookaroo.dto.BulkImportReportDTO;
+import org.example.bookaroo.exception.ErrorResponse;
+import org.example.bookaroo.service.CatalogBulkImportService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// Ciało żądania czytane strumieniowo (InputStream) - plik z setkami tysięcy wierszy nie trafia w całości do pamięci
+@RestController
+@RequestMapping("/api/v1/admin/books")
+@Tag(name = "Catalog Bulk Import", description = "Masowe ładowanie katalogu z feedu wydawcy (tylko ADMIN)")
+public class CatalogBulkController {
+
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final CatalogBulkImportService catalogBulkImportService;
+
+    public CatalogBulkController(CatalogBulkImportService catalogBulkImportService) {
+        this.catalogBulkImportService = catalogBulkImportService;
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Import masowy (NDJSON)", description = "Jedna książka na linię; autorzy i gatunki tworzeni w razie potrzeby")
+    @RequestBody(content = @Content(
+            mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+            examples = @ExampleObject(value = """
+                    {"title": "Hobbit", "isbn": "978-83-240-0001-1", "authorName": "J.R.R.", "authorSurname": "Tolkien", "publicationYear": 1937, "genres": ["Fantasy"]}
+                    {"title": "Rok 1984", "isbn": "978-83-240-0002-8", "authorName": "George", "authorSurname": "Orwell", "publicationYear": 1949, "genres": ["Science Fiction", "Dystopia"]}
+                    """)
+    ))
+    @ApiResponse(
+            responseCode = "200",
+            description = "OK - Raport importu z błędami per wiersz",
+            content = @Content(
+                    schema = @Schema(implementation = BulkImportReportDTO.class),
+                    examples = @ExampleObject(value = """
+                            {
+                              "totalRows": 3, "inserted": 2, "failed": 1, "authorsCreated": 1, "genresCreated": 0, "elapsedMs": 42,
+                              "errors": [{"row": 3, "isbn": "978-83-240-0001-1", "message": "Książka o tym ISBN już istnieje"}],
+                              "errorsTruncated": false
+                            }
+                            """)
+            )
+    )
+    @ApiResponse(responseCode = "403", description = "Forbidden - Wymagana rola ADMIN", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    public ResponseEntity<BulkImportReportDTO> importNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok(catalogBulkImportService.importNdjson(body));
+    }
+
+    @PostMapping(value = "/bulk", consumes = TEXT_CSV_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Import masowy (CSV)", description = "Nagłówek: title, isbn, authorName, authorSurname, publicationYear, description, genres (rozdzielane |); separator , lub ;")
+    @RequestBody(content = @Content(
+            mediaType = TEXT_CSV_VALUE,
+            examples = @ExampleObject(value = """
+                    title,isbn,authorName,authorSurname,publicationYear,genres
+                    Hobbit,978-83-240-0001-1,J.R.R.,Tolkien,1937,Fantasy
+                    Rok 1984,978-83-240-0002-8,George,Orwell,1949,Science Fiction|Dystopia
+                    """)
+    ))
+    @ApiResponse(responseCode = "200", description = "OK - Raport importu z błędami per wiersz", content = @Content(schema = @Schema(implementation = BulkImportReportDTO.class)))
+    @ApiResponse(responseCode = "400", description = "Bad Request - Brak wymaganych kolumn w nagłówku", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    @ApiResponse(responseCode = "403", description = "Forbidden - Wymagana rola ADMIN", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    public ResponseEntity<BulkImportReportDTO> importCsv(InputStream body) throws IOException {
+        return ResponseEntity.ok(catalogBulkImportService.importCsv(body));
+    }
+}
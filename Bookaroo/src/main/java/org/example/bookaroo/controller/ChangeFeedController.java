@@ -0,0 +1,68 @@
+package org.example.bookaroo.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.example.bookaroo.dto.ChangeFeedDTO;
+import org.example.bookaroo.service.ChangeFeedService;
+import org.example.bookaroo.service.CustomUserDetailsService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/changes")
+@Tag(name = "Change Feed", description = "Przyrostowa synchronizacja katalogu i półek")
+public class ChangeFeedController {
+
+    private final ChangeFeedService changeFeedService;
+
+    public ChangeFeedController(ChangeFeedService changeFeedService) {
+        this.changeFeedService = changeFeedService;
+    }
+
+    @GetMapping
+    @Operation(summary = "Zmiany od numeru sekwencji", description = "Zwraca zmiany katalogu oraz półek i recenzji zalogowanego użytkownika nowsze niż since")
+    @ApiResponse(
+            responseCode = "200",
+            description = "OK - Lista zmian",
+            content = @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ChangeFeedDTO.class),
+                    examples = @ExampleObject(value = """
+                            {
+                              "changes": [
+                                {"seq": 41, "type": "BOOK", "op": "UPSERT", "id": "uuid-1"},
+                                {"seq": 42, "type": "SHELF_ITEM", "op": "DELETE", "id": "uuid-1"},
+                                {"seq": 43, "type": "REVIEW", "op": "UPSERT", "id": "uuid-9", "parentId": "uuid-1"}
+                              ],
+                              "nextSince": 43,
+                              "hasMore": false
+                            }
+                            """)
+            )
+    )
+    public ResponseEntity<ChangeFeedDTO> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int limit,
+            @AuthenticationPrincipal UserDetails currentUser
+    ) {
+        // prywatne zmiany tylko własne - użytkownik z sesji, nie z parametru
+        UUID userId = currentUser instanceof CustomUserDetailsService.BookarooUserDetails details ? details.getId() : null;
+        return ResponseEntity.ok(changeFeedService.getChanges(since, limit, userId));
+    }
+
+    @GetMapping("/latest")
+    @Operation(summary = "Aktualny numer sekwencji", description = "Kursor startowy dla klienta, który właśnie pobrał pełne dane")
+    @ApiResponse(responseCode = "200", description = "OK", content = @Content(examples = @ExampleObject(value = "{\"latest\": 43}")))
+    public ResponseEntity<Map<String, Long>> getLatestSequence() {
+        return ResponseEntity.ok(Map.of("latest", changeFeedService.getLatestSequence()));
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.bookaroo.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.example.bookaroo.dto.JobDTO;
+import org.example.bookaroo.exception.ErrorResponse;
+import org.example.bookaroo.service.JobService;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/jobs")
+@Tag(name = "Background Jobs", description = "Eksport i import profilu w tle - zlecenie, postęp, pobranie pliku")
+public class JobController {
+
+    private final JobService jobService;
+
+    public JobController(JobService jobService) {
+        this.jobService = jobService;
+    }
+
+    @PostMapping("/export")
+    @Operation(summary = "Zleć eksport", description = "Eksport danych zalogowanego użytkownika (json, csv lub pdf) wykonywany w tle")
+    @ApiResponse(
+            responseCode = "202",
+            description = "Accepted - Zadanie przyjęte",
+            content = @Content(
+                    schema = @Schema(implementation = JobDTO.class),
+                    examples = @ExampleObject(value = """
+                            {"id": "uuid-1", "type": "EXPORT_PDF", "status": "QUEUED", "progress": 0, "createdAt": "2025-01-10T12:00:00"}
+                            """)
+            )
+    )
+    @ApiResponse(responseCode = "429", description = "Too Many Requests - Limit zadań użytkownika lub pełna kolejka", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    public ResponseEntity<JobDTO> submitExport(@AuthenticationPrincipal UserDetails currentUser,
+                                               @RequestParam(defaultValue = "json") String format) {
+        return accepted(jobService.submitExport(currentUser.getUsername(), format));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Zleć import", description = "Przywraca półki i recenzje z pliku backupu JSON w tle")
+    @ApiResponse(responseCode = "202", description = "Accepted - Zadanie przyjęte", content = @Content(schema = @Schema(implementation = JobDTO.class)))
+    @ApiResponse(responseCode = "400", description = "Bad Request - Pusty plik", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    @ApiResponse(responseCode = "429", description = "Too Many Requests - Limit zadań użytkownika lub pełna kolejka", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    public ResponseEntity<JobDTO> submitImport(@AuthenticationPrincipal UserDetails currentUser,
+                                               @RequestParam("file") MultipartFile file) throws IOException {
+        return accepted(jobService.submitImport(currentUser.getUsername(), file));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Stan zadania", description = "Status i postęp (0-100); po zakończeniu eksportu zawiera downloadUrl")
+    @ApiResponse(
+            responseCode = "200",
+            description = "OK",
+            content = @Content(
+                    schema = @Schema(implementation = JobDTO.class),
+                    examples = @ExampleObject(value = """
+                            {"id": "uuid-1", "type": "EXPORT_PDF", "status": "SUCCEEDED", "progress": 100, "createdAt": "2025-01-10T12:00:00", "finishedAt": "2025-01-10T12:00:04", "downloadUrl": "/api/v1/jobs/uuid-1/download"}
+                            """)
+            )
+    )
+    @ApiResponse(responseCode = "404", description = "Not Found - Brak zadania (lub należy do innego użytkownika)", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    public ResponseEntity<JobDTO> getJob(@AuthenticationPrincipal UserDetails currentUser, @PathVariable UUID id) {
+        return ResponseEntity.ok(jobService.getJob(id, currentUser.getUsername()));
+    }
+
+    @GetMapping("/{id}/download")
+    @Operation(summary = "Pobierz plik", description = "Plik wygenerowany przez zakończone zadanie eksportu")
+    @ApiResponse(responseCode = "200", description = "OK - Plik")
+    @ApiResponse(responseCode = "409", description = "Conflict - Zadanie jeszcze trwa lub się nie powiodło", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    public ResponseEntity<ByteArrayResource> download(@AuthenticationPrincipal UserDetails currentUser, @PathVariable UUID id) {
+        JobService.JobArtifact artifact = jobService.getArtifact(id, currentUser.getUsername());
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + artifact.filename() + "\"")
+                .contentType(artifact.contentType())
+                .contentLength(artifact.data().length)
+                .body(new ByteArrayResource(artifact.data()));
+    }
+
+    private static ResponseEntity<JobDTO> accepted(JobDTO job) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/jobs/" + job.id()))
+                .body(job);
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.bookaroo.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.example.bookaroo.dto.BookDTO;
+import org.example.bookaroo.exception.ErrorResponse;
+import org.example.bookaroo.exception.ResourceNotFoundException;
+import org.example.bookaroo.repository.ReactiveBookRepository;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+// Reaktywne API tylko do odczytu - wyniki strumieniowane jako NDJSON (jedna książka na linię).
+// Zapis nadal przez BookRestController.
+@RestController
+@RequestMapping("/api/v1/reactive/books")
+@Tag(name = "Book Catalog (reactive)", description = "Strumieniowy odczyt katalogu książek (NDJSON)")
+public class ReactiveBookController {
+
+    private final ReactiveBookRepository reactiveBookRepository;
+
+    public ReactiveBookController(ReactiveBookRepository reactiveBookRepository) {
+        this.reactiveBookRepository = reactiveBookRepository;
+    }
+
+    // GET ALL
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Strumień całego katalogu", description = "Zwraca wszystkie książki jako NDJSON, z backpressure")
+    @ApiResponse(
+            responseCode = "200",
+            description = "OK - Strumień książek",
+            content = @Content(
+                    mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = BookDTO.class),
+                    examples = @ExampleObject(value = """
+                            {"id": "uuid-1", "title": "Hobbit", "authorName": "J.R.R. Tolkien", "genres": ["Fantasy"]}
+                            {"id": "uuid-2", "title": "Rok 1984", "authorName": "George Orwell", "genres": ["Science Fiction"]}
+                            """)
+            )
+    )
+    public Flux<BookDTO> streamAllBooks() {
+        return reactiveBookRepository.findAll();
+    }
+
+    // GET BY ID
+    @GetMapping("/{id}")
+    @Operation(summary = "Pobierz książkę po ID", description = "Zwraca szczegóły pojedynczej książki")
+    @ApiResponse(responseCode = "200", description = "OK - Znaleziono książkę", content = @Content(schema = @Schema(implementation = BookDTO.class)))
+    @ApiResponse(
+            responseCode = "404",
+            description = "Not Found - Nie znaleziono książki",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+    )
+    public Mono<BookDTO> getBookById(@PathVariable UUID id) {
+        return reactiveBookRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Book", "id", id)));
+    }
+
+    // wyszukiwanie
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Wyszukaj książki", description = "Szuka po tytule, ISBN lub autorze")
+    @ApiResponse(responseCode = "200", description = "OK - Wyniki wyszukiwania", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE))
+    public Flux<BookDTO> searchBooks(@RequestParam String query) {
+        return reactiveBookRepository.search(query);
+    }
+
+    // TOP
+    @GetMapping(value = "/top", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Najlepiej oceniane książki", description = "Pobiera najlepiej oceniane książki")
+    @ApiResponse(responseCode = "200", description = "OK - Lista TOP", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE))
+    public Flux<BookDTO> getTopBooks(@RequestParam(defaultValue = "5") int limit) {
+        return reactiveBookRepository.findTopRated(limit);
+    }
+
+    // BY YEAR
+    @GetMapping(value = "/year/{year}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Książki z danego roku", description = "Pobiera książki z danego roku")
+    @ApiResponse(responseCode = "200", description = "OK", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE))
+    public Flux<BookDTO> getBooksByYear(@PathVariable int year) {
+        return reactiveBookRepository.findByPublicationYear(year);
+    }
+}
@@ -45,7 +45,6 @@ public class AdminController {
         BookDTO emptyBook = new BookDTO(null, "", "", "", 2024, null, "", 0.0, new ArrayList<>());
 
         model.addAttribute("book", emptyBook);
-        model.addAttribute("authors", bookService.getAllAuthors());
         return "admin/book-form";
     }
 
@@ -64,8 +63,8 @@ public class AdminController {
     public String showEditBookForm(@PathVariable UUID id, Model model) {
         BookDTO bookDto = bookService.getBookDetails(id);
 
+        // autor wybierany przez podpowiedzi (/api/v1/authors/search) - bez ładowania całej tabeli autorów
         model.addAttribute("book", bookDto);
-        model.addAttribute("authors", bookService.getAllAuthors());
 
         return "admin/book-form";
     }
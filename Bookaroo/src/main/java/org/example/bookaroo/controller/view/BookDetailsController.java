@@ -8,6 +8,8 @@ import org.example.bookaroo.entity.Bookshelf;
 import org.example.bookaroo.service.BookService;
 import org.example.bookaroo.service.BookshelfService;
 import org.example.bookaroo.service.CustomUserDetailsService;
+import org.example.bookaroo.service.PageAssembler;
+import org.example.bookaroo.service.RecommendationService;
 import org.example.bookaroo.service.ReviewService;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -18,6 +20,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 public class BookDetailsController {
@@ -25,34 +28,52 @@ public class BookDetailsController {
     private final BookService bookService;
     private final ReviewService reviewService;
     private final BookshelfService bookshelfService;
+    private final PageAssembler pageAssembler;
+    private final RecommendationService recommendationService;
 
-    public BookDetailsController(BookService bookService, ReviewService reviewService, BookshelfService bookshelfService) {
+    // liczba poleceń pod książką
+    private static final int SIMILAR_BOOKS = 6;
+
+    public BookDetailsController(BookService bookService, ReviewService reviewService, BookshelfService bookshelfService,
+                                 PageAssembler pageAssembler, RecommendationService recommendationService) {
         this.bookService = bookService;
         this.reviewService = reviewService;
         this.bookshelfService = bookshelfService;
+        this.pageAssembler = pageAssembler;
+        this.recommendationService = recommendationService;
     }
 
     @GetMapping("/book/{id}")
     public String showBookDetails(@PathVariable UUID id, Model model,
                                   @AuthenticationPrincipal UserDetails currentUser) {
-        BookDTO bookDto = bookService.getBookDetails(id);
-
-        List<ReviewDTO> reviews = reviewService.getReviewsForBook(id);
-
-        BookStatisticsDTO stats = bookService.getBookStatistics(id);
+        // zapytania są od siebie niezależne - uruchamiane równolegle
+        PageAssembler.Assembly page = pageAssembler.begin("book-details");
 
-        model.addAttribute("stats", stats);
-        model.addAttribute("book", bookDto);
-        model.addAttribute("reviews", reviews);
+        CompletableFuture<BookDTO> bookDto = page.required("book", () -> bookService.getBookDetails(id));
+        CompletableFuture<List<ReviewDTO>> reviews = page.optional("reviews", () -> reviewService.getReviewsForBook(id), List.of());
+        CompletableFuture<BookStatisticsDTO> stats = page.optional("stats", () -> bookService.getBookStatistics(id),
+                new BookStatisticsDTO(0, 0.0, Map.of()));
 
         // obsługa półek użytkownika
+        CompletableFuture<List<Bookshelf>> userShelves = null;
+        CompletableFuture<String> currentShelfName = null;
         if (currentUser instanceof CustomUserDetailsService.BookarooUserDetails userDetails) {
             UUID userId = userDetails.getId();
-            List<Bookshelf> userShelves = bookshelfService.getUserShelves(userId);
-            String currentShelfName = bookshelfService.getShelfNameForBook(userId, id);
+            userShelves = page.optional("user-shelves", () -> bookshelfService.getUserShelves(userId), List.of());
+            currentShelfName = page.optional("current-shelf", () -> bookshelfService.getShelfNameForBook(userId, id), null);
+        }
+
+        page.await();
+
+        model.addAttribute("stats", stats.join());
+        model.addAttribute("book", bookDto.join());
+        model.addAttribute("reviews", reviews.join());
+        // z pamięci - bez zapytania, poza równoległym składaniem strony
+        model.addAttribute("similarBooks", recommendationService.similarTo(id, SIMILAR_BOOKS));
 
-            model.addAttribute("userShelves", userShelves);
-            model.addAttribute("currentShelfName", currentShelfName);
+        if (userShelves != null) {
+            model.addAttribute("userShelves", userShelves.join());
+            model.addAttribute("currentShelfName", currentShelfName.join());
         }
 
         return "book-details";
@@ -1,11 +1,16 @@
 package org.example.bookaroo.controller.view;
 
 import org.example.bookaroo.dto.BookshelfDTO;
+import org.example.bookaroo.dto.JobDTO;
 import org.example.bookaroo.dto.UserStatisticsDTO;
 import org.example.bookaroo.entity.User;
+import org.example.bookaroo.exception.ResourceNotFoundException;
+import org.example.bookaroo.exception.TooManyJobsException;
 import org.example.bookaroo.service.BackupService;
 import org.example.bookaroo.service.BookshelfService;
 import org.example.bookaroo.service.CustomUserDetailsService;
+import org.example.bookaroo.service.JobService;
+import org.example.bookaroo.service.PageAssembler;
 import org.example.bookaroo.service.UserService;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.HttpHeaders;
@@ -21,9 +26,12 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 public class ProfileController {
@@ -31,30 +39,45 @@ public class ProfileController {
     private final UserService userService;
     private final BookshelfService bookshelfService;
     private final BackupService backupService;
+    private final PageAssembler pageAssembler;
+    private final JobService jobService;
 
-    public ProfileController(UserService userService, BookshelfService bookshelfService, BackupService backupService) {
+    public ProfileController(UserService userService, BookshelfService bookshelfService, BackupService backupService,
+                             PageAssembler pageAssembler, JobService jobService) {
         this.userService = userService;
         this.bookshelfService = bookshelfService;
         this.backupService = backupService;
+        this.pageAssembler = pageAssembler;
+        this.jobService = jobService;
     }
 
     // profil użytkownika
     @GetMapping("/profile/{userId}")
-    public String showProfile(@PathVariable UUID userId, Model model, @AuthenticationPrincipal UserDetails currentUser) {
-        User user = userService.findById(userId);
+    public String showProfile(@PathVariable UUID userId, Model model, @AuthenticationPrincipal UserDetails currentUser,
+                              @RequestParam(name = "job", required = false) UUID jobId) {
+        PageAssembler.Assembly page = pageAssembler.begin("profile");
 
-        List<BookshelfDTO> shelvesDtos = bookshelfService.getUserShelvesWithDetails(userId);
+        CompletableFuture<User> userFuture = page.required("user", () -> userService.findById(userId));
+        CompletableFuture<List<BookshelfDTO>> shelvesDtos = page.optional("shelves", () -> bookshelfService.getUserShelvesWithDetails(userId), List.of());
+        CompletableFuture<UserStatisticsDTO> stats = page.optional("stats", () -> userService.getUserStats(userId),
+                new UserStatisticsDTO(0, LocalDate.now().getYear()));
 
-        UserStatisticsDTO stats = userService.getUserStats(userId);
+        page.await();
+        User user = userFuture.join();
 
         // czy to właściciel? (edycja i backup)
         boolean isOwner = currentUser != null && currentUser.getUsername().equals(user.getUsername());
 
         model.addAttribute("user", user);
-        model.addAttribute("shelves", shelvesDtos);
-        model.addAttribute("stats", stats);
+        model.addAttribute("shelves", shelvesDtos.join());
+        model.addAttribute("stats", stats.join());
         model.addAttribute("isOwner", isOwner);
 
+        // stan zleconego eksportu/importu (po przekierowaniu z ?job=)
+        if (isOwner && jobId != null) {
+            findJob(jobId, currentUser.getUsername()).ifPresent(job -> model.addAttribute("job", job));
+        }
+
         return "profile"; // templates/profile.html
     }
 
@@ -116,6 +139,21 @@ public class ProfileController {
         }
     }
 
+    // eksport w tle - strona profilu pokazuje postęp i link do pobrania
+    @PostMapping("/profile/export/job")
+    public String exportProfileJob(@AuthenticationPrincipal UserDetails currentUser,
+                                   @RequestParam(defaultValue = "json") String format) {
+        User user = userService.findByUsername(currentUser.getUsername());
+
+        try {
+            JobDTO job = jobService.submitExport(currentUser.getUsername(), format);
+            return "redirect:/profile/" + user.getId() + "?job=" + job.id();
+        } catch (TooManyJobsException e) {
+            return "redirect:/profile/" + user.getId() + "?error=too_many_jobs";
+        }
+    }
+
+    // import w tle - plik kopiowany od razu, przetwarzanie poza wątkiem żądania
     @PostMapping("/profile/import")
     public String importProfile(@AuthenticationPrincipal UserDetails currentUser,
                                 @RequestParam("file") MultipartFile file) {
@@ -127,10 +165,12 @@ public class ProfileController {
         }
 
         try {
-            backupService.importUserData(currentUser.getUsername(), file);
+            JobDTO job = jobService.submitImport(currentUser.getUsername(), file);
 
-            return "redirect:/profile/" + user.getId() + "?success=restored";
+            return "redirect:/profile/" + user.getId() + "?job=" + job.id();
 
+        } catch (TooManyJobsException e) {
+            return "redirect:/profile/" + user.getId() + "?error=too_many_jobs";
         } catch (Exception e) {
             e.printStackTrace();
 
@@ -163,4 +203,13 @@ public class ProfileController {
         User user = userService.findByUsername(currentUser.getUsername());
         return "redirect:/profile/" + user.getId();
     }
-}
\ No newline at end of file
+
+    private Optional<JobDTO> findJob(UUID jobId, String username) {
+        try {
+            return Optional.of(jobService.getJob(jobId, username));
+        } catch (ResourceNotFoundException e) {
+            // zadanie wygasło (retencja) albo nie należy do użytkownika
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.bookaroo.dto;
+
+import java.util.UUID;
+
+public record AuthorSummaryDTO(
+        UUID id,
+        String name,
+        String surname
+) {}
@@ -1,5 +1,6 @@
 package org.example.bookaroo.dto;
 
+import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -19,7 +20,7 @@ public record BookDTO(
 
         String description,
 
-        int publicationYear,
+        Integer publicationYear,
 
         @NotNull(message = "ID autora jest wymagane")
         UUID authorId,
@@ -28,5 +29,14 @@ public record BookDTO(
 
         Double averageRating,
 
-        List<String> genres
-) {}
\ No newline at end of file
+        List<String> genres,
+
+        // liczba czytelników (wpisów na półkach) - tylko do odczytu, ignorowana przy zapisie
+        @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+        int readersCount
+) {
+    public BookDTO(UUID id, String title, String isbn, String description, Integer publicationYear,
+                   UUID authorId, String authorName, Double averageRating, List<String> genres) {
+        this(id, title, isbn, description, publicationYear, authorId, authorName, averageRating, genres, 0);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package org.example.bookaroo.dto;
+
+import java.util.List;
+
+// liczniki faset policzone przy pozostałych filtrach - klient widzi, ile książek da każda zmiana wyboru
+public record BrowseResultDTO(
+        int total,
+        int page,
+        int size,
+        List<BookDTO> books,
+        List<FacetCountDTO> genres,
+        List<FacetCountDTO> decades,
+        List<FacetCountDTO> ratings
+) {}
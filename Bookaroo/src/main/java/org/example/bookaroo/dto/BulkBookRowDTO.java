@@ -0,0 +1,17 @@
+package org.example.bookaroo.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+// jeden wiersz importu masowego (linia NDJSON lub wiersz CSV)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record BulkBookRowDTO(
+        String title,
+        String isbn,
+        String authorName,
+        String authorSurname,
+        Integer publicationYear,
+        String description,
+        List<String> genres
+) {}
@@ -0,0 +1,16 @@
+package org.example.bookaroo.dto;
+
+import java.util.List;
+
+public record BulkImportReportDTO(
+        long totalRows,
+        long inserted,
+        long failed,
+        int authorsCreated,
+        int genresCreated,
+        long elapsedMs,
+        List<BulkRowErrorDTO> errors,
+
+        // true gdy błędów było więcej niż zwrócono w errors
+        boolean errorsTruncated
+) {}
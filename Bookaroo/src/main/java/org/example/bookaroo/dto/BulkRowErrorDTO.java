@@ -0,0 +1,11 @@
+package org.example.bookaroo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// row - numer wiersza danych (CSV bez nagłówka) lub linii (NDJSON), od 1
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkRowErrorDTO(
+        long row,
+        String isbn,
+        String message
+) {}
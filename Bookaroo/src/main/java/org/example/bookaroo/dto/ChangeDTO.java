@@ -0,0 +1,15 @@
+package org.example.bookaroo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.UUID;
+
+// pojedyncza zmiana - tylko co i gdzie się zmieniło, klient dociąga obiekt po ID
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ChangeDTO(
+        long seq,
+        String type,
+        String op,
+        UUID id,
+        UUID parentId
+) {}
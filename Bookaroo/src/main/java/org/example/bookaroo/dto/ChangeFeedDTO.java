@@ -0,0 +1,12 @@
+package org.example.bookaroo.dto;
+
+import java.util.List;
+
+public record ChangeFeedDTO(
+        List<ChangeDTO> changes,
+
+        // kursor do następnego zapytania (?since=)
+        long nextSince,
+
+        boolean hasMore
+) {}
@@ -0,0 +1,8 @@
+package org.example.bookaroo.dto;
+
+// value - wartość do przekazania w filtrze (id gatunku, dekada, próg oceny), label - do wyświetlenia
+public record FacetCountDTO(
+        String value,
+        String label,
+        int count
+) {}
@@ -0,0 +1,23 @@
+package org.example.bookaroo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record JobDTO(
+        UUID id,
+        String type,
+        String status,
+
+        // 0-100
+        int progress,
+
+        String error,
+        LocalDateTime createdAt,
+        LocalDateTime finishedAt,
+
+        // tylko dla zakończonego eksportu
+        String downloadUrl
+) {}
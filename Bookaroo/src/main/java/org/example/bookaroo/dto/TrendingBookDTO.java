@@ -0,0 +1,9 @@
+package org.example.bookaroo.dto;
+
+// score - aktywność z wygaszaniem wykładniczym, weightedEvents - suma wag zdarzeń w oknie bez wygaszania
+// (półka = 1, recenzja = 3), nie liczba zdarzeń
+public record TrendingBookDTO(
+        BookDTO book,
+        double score,
+        long weightedEvents
+) {}
@@ -39,7 +39,8 @@ public class BookMapper {
                 authorId,
                 authorFullName,
                 book.getAverageRating(),
-                genreNames
+                genreNames,
+                book.getReadersCount()
         );
     }
 
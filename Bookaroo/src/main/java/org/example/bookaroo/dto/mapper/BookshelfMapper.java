@@ -22,4 +22,16 @@ public class BookshelfMapper {
                 bookDtos
         );
     }
+
+    // książki już jako karty (BookCardDao) - bez ładowania encji Book z półki
+    public static BookshelfDTO toDto(Bookshelf shelf, List<BookDTO> books) {
+        if (shelf == null) return null;
+
+        return new BookshelfDTO(
+                shelf.getId(),
+                shelf.getName(),
+                shelf.getIsDefault(),
+                books
+        );
+    }
 }
\ No newline at end of file
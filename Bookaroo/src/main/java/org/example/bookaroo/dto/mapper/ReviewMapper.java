@@ -16,7 +16,8 @@ public class ReviewMapper {
                 review.getCreatedAt(),
                 review.getUser().getId(),
                 review.getUser().getUsername(),
-                review.getUser().getAvatar(),
+                // lista recenzji pokazuje avatar 30px - miniatura 64px wystarcza także dla ekranów HiDPI
+                UserMapper.avatarVariant(review.getUser().getAvatar(), UserMapper.AVATAR_MEDIUM),
                 review.getBook().getId(),
                 review.getBook().getTitle()
         );
@@ -4,8 +4,25 @@ import org.example.bookaroo.dto.CreateUserDTO;
 import org.example.bookaroo.dto.UserDTO;
 import org.example.bookaroo.entity.User;
 
+import java.util.regex.Pattern;
+
 public class UserMapper {
 
+    // rozmiary miniatur tworzonych przez FileStorageService.saveAvatar
+    public static final int AVATAR_SMALL = 32;
+    public static final int AVATAR_MEDIUM = 64;
+    public static final int AVATAR_LARGE = 256;
+
+    private static final Pattern AVATAR_VARIANT = Pattern.compile("_(32|64|256)\\.jpg$");
+
+    // URL miniatury w danym rozmiarze; starsze avatary (bez miniatur) i zewnętrzne URL-e bez zmian
+    public static String avatarVariant(String avatarUrl, int size) {
+        if (avatarUrl == null || !avatarUrl.startsWith("/uploads/")) {
+            return avatarUrl;
+        }
+        return AVATAR_VARIANT.matcher(avatarUrl).replaceFirst("_" + size + ".jpg");
+    }
+
     public static UserDTO toDto(User user) {
         if (user == null) {
             return null;
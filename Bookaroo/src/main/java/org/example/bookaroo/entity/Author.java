@@ -9,11 +9,14 @@ import java.util.UUID;
 
 @Getter
 @Setter
-@Table(name="authors")
+@Table(name="authors", indexes = {
+        @Index(name = "idx_authors_surname_lower", columnList = "surname_lower, name_lower"),
+        @Index(name = "idx_authors_name_lower", columnList = "name_lower")
+})
 @Entity
 public class Author {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(name="name", nullable=false)
@@ -22,6 +25,15 @@ public class Author {
     @Column(name="surname", nullable=false)
     private String surname;
 
+    // kolumny wyliczane przez bazę - indeksowane wyszukiwanie po prefiksie bez LOWER() w WHERE
+    @Column(name="name_lower", insertable=false, updatable=false,
+            columnDefinition = "VARCHAR(255) GENERATED ALWAYS AS (LOWER(name))")
+    private String nameLower;
+
+    @Column(name="surname_lower", insertable=false, updatable=false,
+            columnDefinition = "VARCHAR(255) GENERATED ALWAYS AS (LOWER(surname))")
+    private String surnameLower;
+
     // Relacje
     @OneToMany(mappedBy = "author", cascade = CascadeType.ALL)
     private List<Book> books;
@@ -3,6 +3,7 @@ package org.example.bookaroo.entity;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -10,11 +11,15 @@ import java.util.UUID;
 
 @Getter
 @Setter
-@Table(name="books")
+@Table(name="books", indexes = {
+        @Index(name = "idx_books_author", columnList = "author_id"),
+        @Index(name = "idx_books_year_title", columnList = "publication_year, title"),
+        @Index(name = "idx_books_rating", columnList = "average_rating")
+})
 @Entity
 public class Book {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(name="title", nullable=false)
@@ -29,12 +34,20 @@ public class Book {
     @Column(name="publication_year")
     private Integer publicationYear;
 
-    @Column(name="average_rating")
+    // średnią i liczbę recenzji zmienia tylko ReviewJdbcDao (różnicą w UPDATE) - zapis encji
+    // (pełny UPDATE wiersza w BookService.updateBook) nie może nadpisać równoległej zmiany
+    @Column(name="average_rating", insertable=false, updatable=false)
     private Double averageRating;
 
-    @Column(name="total_reviews")
+    @Column(name="total_reviews", insertable=false, updatable=false)
     private Integer totalReviews;
 
+    // licznik wpisów na półkach - zmieniany tylko atomowym UPDATE (StatisticsRepository.adjustReadersCount),
+    // encja go nie nadpisuje; nowy wiersz dostaje DEFAULT 0 także przy INSERT-ach z pominięciem JPA
+    @ColumnDefault("0")
+    @Column(name="readers_count", nullable=false, insertable=false, updatable=false)
+    private int readersCount;
+
     // Relacje
     @ManyToOne
     @JoinColumn(name="author_id", nullable=false)
@@ -0,0 +1,57 @@
+package org.example.bookaroo.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+import java.util.UUID;
+
+// Zdenormalizowana karta książki dla list (strona główna, autor, gatunek, rok, półki).
+// Utrzymywana przez BookCardDao w transakcji zapisu - encja tylko opisuje tabelę, JPA jej nie zapisuje.
+@Getter
+@Setter
+@NoArgsConstructor
+@Immutable
+@Entity
+@Table(name = "book_cards", indexes = {
+        @Index(name = "idx_book_cards_title", columnList = "title, id"),
+        @Index(name = "idx_book_cards_author", columnList = "author_id, title"),
+        @Index(name = "idx_book_cards_year", columnList = "publication_year, title")
+})
+public class BookCard {
+
+    // to samo id co w books
+    @Id
+    private UUID id;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(nullable = false)
+    private String isbn;
+
+    @Column(name = "publication_year")
+    private Integer publicationYear;
+
+    @Column(name = "author_id", nullable = false)
+    private UUID authorId;
+
+    // "Imię Nazwisko"
+    @Column(name = "author_name", nullable = false, length = 511)
+    private String authorName;
+
+    @Column(name = "average_rating")
+    private Double averageRating;
+
+    @Column(name = "review_count", nullable = false)
+    private int reviewCount;
+
+    @Column(name = "readers_count", nullable = false)
+    private int readersCount;
+
+    // nazwy gatunków posortowane alfabetycznie, rozdzielone BookCardDao.GENRE_SEPARATOR
+    @Column(length = 2000)
+    private String genres;
+}
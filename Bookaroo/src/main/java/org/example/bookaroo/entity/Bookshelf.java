@@ -3,6 +3,7 @@ package org.example.bookaroo.entity;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -10,11 +11,15 @@ import java.util.UUID;
 
 @Getter
 @Setter
-@Table(name = "bookshelf")
+@Table(name = "bookshelf", indexes = @Index(name = "idx_bookshelf_user_type", columnList = "user_id, shelf_type"))
 @Entity
 public class Bookshelf {
+
+    // rola półki niezależna od nazwy - statystyki szukają półki READ, nie "Przeczytane"
+    public enum ShelfType { READ, WANT_TO_READ, CURRENTLY_READING, CUSTOM }
+
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column
@@ -23,6 +28,11 @@ public class Bookshelf {
     @Column(name="is_default", nullable=false)
     private Boolean isDefault = false; // czy to domyślna półka
 
+    @Enumerated(EnumType.STRING)
+    @ColumnDefault("'CUSTOM'")
+    @Column(name = "shelf_type", nullable = false, length = 20)
+    private ShelfType type = ShelfType.CUSTOM;
+
     @ManyToOne
     @JoinColumn(name = "user_id", nullable = false)
     private User user; // właściciel
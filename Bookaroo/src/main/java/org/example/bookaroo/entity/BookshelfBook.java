@@ -12,7 +12,13 @@ import java.time.LocalDateTime;
 @Setter
 @NoArgsConstructor
 @Entity
-@Table(name = "bookshelf_books")
+@Table(name = "bookshelf_books", indexes = {
+        @Index(name = "idx_bookshelf_books_book", columnList = "book_id"),
+        // przenoszenie/usuwanie książki z konkretnej półki
+        @Index(name = "idx_bookshelf_books_shelf_book", columnList = "bookshelf_id, book_id"),
+        // zakres dat na jednej półce (statystyki lat bez licznika)
+        @Index(name = "idx_bookshelf_books_shelf_added", columnList = "bookshelf_id, added_at")
+})
 public class BookshelfBook {
 
     @Id
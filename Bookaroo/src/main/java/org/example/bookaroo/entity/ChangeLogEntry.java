@@ -0,0 +1,64 @@
+package org.example.bookaroo.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Dziennik zmian (tylko dopisywanie) - numer sekwencyjny to kursor synchronizacji klientów
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "change_log",
+        uniqueConstraints = @UniqueConstraint(name = "uk_change_log_sequence", columnNames = "sequence"))
+public class ChangeLogEntry {
+
+    public enum EntityType { BOOK, BOOKSHELF, SHELF_ITEM, REVIEW }
+
+    public enum Operation { UPSERT, DELETE }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // nadawany po zatwierdzeniu transakcji (ChangeFeedService.publish) - w kolejności widoczności wpisów,
+    // więc wpis zatwierdzony później nie dostanie numeru niższego niż kursor klienta; null = jeszcze niewidoczny
+    @Column(name = "sequence")
+    private Long sequence;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 16)
+    private EntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private UUID entityId;
+
+    // obiekt nadrzędny: półka dla SHELF_ITEM, książka dla REVIEW
+    @Column(name = "parent_id")
+    private UUID parentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private Operation operation;
+
+    // właściciel zmiany (półki, recenzje); null = zmiana katalogu widoczna dla wszystkich
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @CreationTimestamp
+    @Column(name = "changed_at", updatable = false)
+    private LocalDateTime changedAt;
+
+    public ChangeLogEntry(EntityType entityType, UUID entityId, UUID parentId, Operation operation, UUID userId) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.parentId = parentId;
+        this.operation = operation;
+        this.userId = userId;
+    }
+}
@@ -14,7 +14,7 @@ import java.util.UUID;
 @Entity
 public class Genre {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(unique = true, nullable = false)
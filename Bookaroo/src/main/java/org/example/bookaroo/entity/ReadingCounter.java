@@ -0,0 +1,44 @@
+package org.example.bookaroo.entity;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+// Liczba książek dodanych na półkę READ użytkownika w danym roku (wyzwanie czytelnicze).
+// Utrzymywana przez StatisticsRepository przy przenoszeniu książek - encja tylko opisuje tabelę.
+@Getter
+@Setter
+@NoArgsConstructor
+@Immutable
+@Entity
+@IdClass(ReadingCounter.Key.class)
+@Table(name = "reading_counters")
+public class ReadingCounter {
+
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    // YEAR to słowo kluczowe w H2
+    @Id
+    @Column(name = "read_year")
+    private int readYear;
+
+    @Column(name = "read_count", nullable = false)
+    private int readCount;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private UUID userId;
+        private int readYear;
+    }
+}
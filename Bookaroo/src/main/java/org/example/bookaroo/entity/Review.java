@@ -17,12 +17,20 @@ import java.util.UUID;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "reviews")
+@Table(name = "reviews", uniqueConstraints = {
+        // jedna recenzja użytkownika na książkę - ponowne wysłanie aktualizuje ją (ReviewJdbcDao.upsert);
+        // indeks klucza służy też wyszukiwaniu po użytkowniku
+        @UniqueConstraint(name = "uk_reviews_user_book", columnNames = {"user_id", "book_id"})
+}, indexes = {
+        // recenzje książki od najnowszych; rating w indeksie - średnia i rozkład ocen bez czytania wierszy
+        @Index(name = "idx_reviews_book_created", columnList = "book_id, created_at"),
+        @Index(name = "idx_reviews_book_rating", columnList = "book_id, rating")
+})
 @Entity
 public class Review {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @NotNull(message = "Rating jest wymagany")
@@ -0,0 +1,52 @@
+package org.example.bookaroo.entity;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Klucze UUIDv7 (RFC 9562): 48 bitów czasu w ms, 12 bitów licznika, 62 bity losowe.
+// Kolejne klucze rosną, więc wstawienia trafiają na koniec indeksu B-drzewa zamiast w losowe strony (v4).
+// Licznik zapewnia kolejność także w obrębie jednej milisekundy i przy cofnięciu zegara.
+public class UuidV7Generator implements BeforeExecutionGenerator {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    // wspólna dla wszystkich encji - klucze rosną w całej aplikacji
+    private static final Sequence SEQUENCE = new Sequence();
+
+    public static UUID next() {
+        return SEQUENCE.next(System.currentTimeMillis());
+    }
+
+    static final class Sequence {
+        // ostatni znacznik: ms << 12 | licznik
+        private final AtomicLong last = new AtomicLong();
+
+        UUID next(long millis) {
+            long tick = last.updateAndGet(previous -> Math.max(millis << 12, previous + 1));
+            long msb = (tick >>> 12) << 16 | 0x7000L | (tick & 0xFFFL);
+            long lsb = RANDOM.nextLong() & 0x3FFF_FFFF_FFFF_FFFFL | 0x8000_0000_0000_0000L;
+            return new UUID(msb, lsb);
+        }
+    }
+
+    // czas utworzenia zapisany w kluczu
+    public static long timestamp(UUID uuid) {
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
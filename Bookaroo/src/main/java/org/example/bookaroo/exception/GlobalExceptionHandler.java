@@ -44,6 +44,30 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.CONFLICT);
     }
 
+    // 409 - zadanie w tle jeszcze nie skończone
+    @ExceptionHandler(JobNotReadyException.class)
+    public ResponseEntity<ErrorResponse> handleJobNotReady(JobNotReadyException ex) {
+        log.debug("Job not ready: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                ex.getMessage(),
+                LocalDateTime.now()
+        );
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+
+    // 429 - limit zadań w tle
+    @ExceptionHandler(TooManyJobsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyJobs(TooManyJobsException ex) {
+        log.warn("Too many jobs: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                ex.getMessage(),
+                LocalDateTime.now()
+        );
+        return new ResponseEntity<>(error, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
     // 400 - walidacja
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidationExceptions(MethodArgumentNotValidException ex) {
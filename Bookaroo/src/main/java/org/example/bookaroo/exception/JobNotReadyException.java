@@ -0,0 +1,8 @@
+package org.example.bookaroo.exception;
+
+public class JobNotReadyException extends RuntimeException {
+
+    public JobNotReadyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package org.example.bookaroo.exception;
+
+public class TooManyJobsException extends RuntimeException {
+
+    public TooManyJobsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.bookaroo.repository;
+
+import org.example.bookaroo.dto.AuthorSummaryDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+// Podpowiedzi autorów dla formularza książki - wyszukiwanie po prefiksie imienia lub nazwiska.
+// Prefiks zamieniany na zakres (>= prefiks AND < prefiks + U+FFFF) po kolumnach name_lower/surname_lower,
+// więc każda gałąź to przejście po indeksie ucięte LIMIT-em, niezależnie od liczby autorów.
+@Repository
+public class AuthorLookupDao {
+
+    private static final String RANGE_END = String.valueOf(Character.MAX_VALUE);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AuthorLookupDao(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    private final RowMapper<AuthorSummaryDTO> summaryRowMapper = (rs, rowNum) -> new AuthorSummaryDTO(
+            rs.getObject("id", UUID.class),
+            rs.getString("name"),
+            rs.getString("surname")
+    );
+
+    // "tol" - nazwisko albo imię zaczyna się od "tol"
+    // "george orw" / "orwell geo" - pierwsze słowo pasuje do imienia, reszta do nazwiska (lub odwrotnie)
+    public List<AuthorSummaryDTO> searchByPrefix(String query, int limit) {
+        String[] tokens = query.trim().toLowerCase(Locale.ROOT).split("\\s+");
+        String whole = String.join(" ", tokens);
+
+        List<Object> args = new ArrayList<>();
+        StringJoiner branches = new StringJoiner(" UNION ");
+        branches.add(branch("surname_lower", whole, null, null, limit, args));
+        if (tokens.length == 1) {
+            branches.add(branch("name_lower", whole, null, null, limit, args));
+        } else {
+            String first = tokens[0];
+            String rest = String.join(" ", Arrays.copyOfRange(tokens, 1, tokens.length));
+            branches.add(branch("surname_lower", rest, "name_lower", first, limit, args));
+            branches.add(branch("surname_lower", first, "name_lower", rest, limit, args));
+            branches.add(branch("name_lower", whole, null, null, limit, args));
+        }
+        args.add(limit);
+
+        String sql = "SELECT id, name, surname FROM (" + branches + ") a "
+                + "ORDER BY surname_lower, name_lower, id LIMIT ?";
+        return jdbcTemplate.query(sql, summaryRowMapper, args.toArray());
+    }
+
+    // tabela autorów migawki katalogu
+    public List<AuthorSummaryDTO> findAll() {
+        return jdbcTemplate.query("SELECT id, name, surname FROM authors ORDER BY surname_lower, name_lower, id",
+                summaryRowMapper);
+    }
+
+    // brakujący (usunięty) autor nie ma wiersza
+    public List<AuthorSummaryDTO> findByIds(Collection<UUID> authorIds) {
+        if (authorIds.isEmpty()) {
+            return List.of();
+        }
+        String in = String.join(", ", Collections.nCopies(authorIds.size(), "?"));
+        return jdbcTemplate.query("SELECT id, name, surname FROM authors WHERE id IN (" + in + ")",
+                summaryRowMapper, authorIds.toArray());
+    }
+
+    private static String branch(String column, String prefix, String filterColumn, String filterPrefix,
+                                 int limit, List<Object> args) {
+        StringBuilder sql = new StringBuilder("(SELECT id, name, surname, surname_lower, name_lower FROM authors WHERE ")
+                .append(column).append(" >= ? AND ").append(column).append(" < ?");
+        args.add(prefix);
+        args.add(prefix + RANGE_END);
+        if (filterColumn != null) {
+            sql.append(" AND ").append(filterColumn).append(" >= ? AND ").append(filterColumn).append(" < ?");
+            args.add(filterPrefix);
+            args.add(filterPrefix + RANGE_END);
+        }
+        sql.append(" ORDER BY ").append(column).append(" LIMIT ?)");
+        args.add(limit);
+        return sql.toString();
+    }
+}
@@ -0,0 +1,280 @@
+package org.example.bookaroo.repository;
+
+import org.example.bookaroo.dto.BookDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+// Tabela book_cards - gotowe karty książek dla list. Zapis: MERGE z books/authors/genres/reviews/bookshelf_books
+// dla zmienionych książek, w transakcji zapisu źródła. Odczyt: jedna tabela, bez JOIN-ów i bez kolumny description.
+@Repository
+public class BookCardDao {
+
+    public static final String GENRE_SEPARATOR = "|";
+
+    // paczka identyfikatorów w jednym IN (...)
+    private static final int ID_BATCH = 500;
+
+    private static final String CARD_COLUMNS = """
+            c.id, c.title, c.isbn, c.publication_year, c.author_id, c.author_name,
+            c.average_rating, c.review_count, c.readers_count, c.genres
+            """;
+
+    private static final String MERGE_SQL = """
+            MERGE INTO book_cards (id, title, isbn, publication_year, author_id, author_name,
+                                   average_rating, review_count, readers_count, genres)
+            KEY (id)
+            SELECT b.id, b.title, b.isbn, b.publication_year, a.id, CONCAT(a.name, ' ', a.surname),
+                   b.average_rating,
+                   (SELECT COUNT(*) FROM reviews r WHERE r.book_id = b.id),
+                   b.readers_count,
+                   (SELECT LISTAGG(g.name, '|') WITHIN GROUP (ORDER BY g.name)
+                      FROM book_genres bg JOIN genres g ON g.id = bg.genre_id
+                     WHERE bg.book_id = b.id)
+            FROM books b
+            JOIN authors a ON a.id = b.author_id
+            """;
+
+    // karta + agregaty recenzji liczone z reviews (indeks book_id, rating) + id gatunków w kolejności nazw
+    private static final String ROW_COLUMNS = """
+            %s,
+                   (SELECT COUNT(*) FROM reviews r WHERE r.book_id = c.id) AS review_total,
+                   (SELECT AVG(CAST(r.rating AS DOUBLE)) FROM reviews r WHERE r.book_id = c.id) AS review_average,
+                   (SELECT ARRAY_AGG(bg.genre_id ORDER BY g.name)
+                      FROM book_genres bg JOIN genres g ON g.id = bg.genre_id
+                     WHERE bg.book_id = c.id) AS genre_ids
+            """.formatted(CARD_COLUMNS);
+
+    private static final String ROW_SQL = "SELECT " + ROW_COLUMNS + " FROM book_cards c";
+
+    // wiersz migawki katalogu - jak wiersz indeksu, z opisem dla strony książki
+    private static final String CATALOG_SQL = "SELECT " + ROW_COLUMNS + ", b.description "
+            + "FROM book_cards c JOIN books b ON b.id = c.id";
+
+    // tytuł, "Imię Nazwisko" lub ISBN zawiera frazę
+    private static final String SEARCH_CONDITION =
+            "(LOWER(c.title) LIKE ? ESCAPE '\\' OR LOWER(c.author_name) LIKE ? ESCAPE '\\' OR LOWER(c.isbn) LIKE ? ESCAPE '\\')";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BookCardDao(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    private final RowMapper<BookDTO> cardRowMapper = (rs, rowNum) -> {
+        String genres = rs.getString("genres");
+        return new BookDTO(
+                rs.getObject("id", UUID.class),
+                rs.getString("title"),
+                rs.getString("isbn"),
+                null,
+                rs.getObject("publication_year", Integer.class),
+                rs.getObject("author_id", UUID.class),
+                rs.getString("author_name"),
+                rs.getObject("average_rating", Double.class),
+                genres == null || genres.isEmpty()
+                        ? List.of()
+                        : Arrays.asList(genres.split("\\" + GENRE_SEPARATOR)),
+                rs.getInt("readers_count")
+        );
+    };
+
+    // karta z liczbą recenzji i gatunkami - wejście indeksów w pamięci (ranking, fasety);
+    // genreIds w tej samej kolejności co card.genres()
+    public record CardRow(BookDTO card, int reviewCount, List<UUID> genreIds) {}
+
+    // średnia w karcie podmieniona na policzoną z recenzji - books.average_rating bywa pusty (data.sql)
+    private final RowMapper<CardRow> indexRowMapper = (rs, rowNum) -> {
+        BookDTO card = cardRowMapper.mapRow(rs, rowNum);
+        Array genreIds = rs.getArray("genre_ids");
+        return new CardRow(
+                new BookDTO(card.id(), card.title(), card.isbn(), card.description(), card.publicationYear(),
+                        card.authorId(), card.authorName(), rs.getObject("review_average", Double.class),
+                        card.genres(), card.readersCount()),
+                rs.getInt("review_total"),
+                genreIds == null
+                        ? List.of()
+                        : Arrays.stream((Object[]) genreIds.getArray()).map(UUID.class::cast).toList()
+        );
+    };
+
+    private final RowMapper<CardRow> catalogRowMapper = (rs, rowNum) -> {
+        CardRow row = indexRowMapper.mapRow(rs, rowNum);
+        BookDTO c = row.card();
+        return new CardRow(
+                new BookDTO(c.id(), c.title(), c.isbn(), rs.getString("description"), c.publicationYear(),
+                        c.authorId(), c.authorName(), c.averageRating(), c.genres(), c.readersCount()),
+                row.reviewCount(),
+                row.genreIds()
+        );
+    };
+
+    // ZAPIS
+
+    // karty wskazanych książek; usunięte książki tracą kartę
+    public void refreshBooks(Collection<UUID> bookIds) {
+        List<UUID> ids = new ArrayList<>(bookIds);
+        for (int from = 0; from < ids.size(); from += ID_BATCH) {
+            List<UUID> batch = ids.subList(from, Math.min(from + ID_BATCH, ids.size()));
+            String in = placeholders(batch.size());
+            Object[] args = batch.toArray();
+
+            jdbcTemplate.update(MERGE_SQL + " WHERE b.id IN (" + in + ")", args);
+            jdbcTemplate.update("DELETE FROM book_cards c WHERE c.id IN (" + in + ") "
+                    + "AND NOT EXISTS (SELECT 1 FROM books b WHERE b.id = c.id)", args);
+        }
+    }
+
+    // zmiana imienia/nazwiska autora lub usunięcie autora razem z książkami
+    public void refreshAuthor(UUID authorId) {
+        jdbcTemplate.update(MERGE_SQL + " WHERE b.author_id = ?", authorId);
+        jdbcTemplate.update("DELETE FROM book_cards c WHERE c.author_id = ? "
+                + "AND NOT EXISTS (SELECT 1 FROM books b WHERE b.id = c.id)", authorId);
+    }
+
+    // pełna przebudowa - start aplikacji (data.sql) i naprawa po zapisach z pominięciem serwisów
+    public void rebuildAll() {
+        jdbcTemplate.update(MERGE_SQL);
+        jdbcTemplate.update("DELETE FROM book_cards c WHERE NOT EXISTS (SELECT 1 FROM books b WHERE b.id = c.id)");
+    }
+
+    // ODCZYT
+
+    public List<BookDTO> findAll() {
+        return jdbcTemplate.query("SELECT " + CARD_COLUMNS + " FROM book_cards c ORDER BY c.title, c.id", cardRowMapper);
+    }
+
+    public List<BookDTO> findPage(long offset, int limit) {
+        String sql = "SELECT " + CARD_COLUMNS + " FROM book_cards c ORDER BY c.title, c.id LIMIT ? OFFSET ?";
+        return jdbcTemplate.query(sql, cardRowMapper, limit, offset);
+    }
+
+    public long count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM book_cards", Long.class);
+    }
+
+    public List<BookDTO> findByAuthor(UUID authorId, long offset, int limit) {
+        String sql = "SELECT " + CARD_COLUMNS + " FROM book_cards c WHERE c.author_id = ? "
+                + "ORDER BY c.title, c.id LIMIT ? OFFSET ?";
+        return jdbcTemplate.query(sql, cardRowMapper, authorId, limit, offset);
+    }
+
+    public long countByAuthor(UUID authorId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM book_cards WHERE author_id = ?", Long.class, authorId);
+    }
+
+    public List<BookDTO> findByGenre(UUID genreId, long offset, int limit) {
+        String sql = "SELECT " + CARD_COLUMNS + " FROM book_genres bg JOIN book_cards c ON c.id = bg.book_id "
+                + "WHERE bg.genre_id = ? ORDER BY c.title, c.id LIMIT ? OFFSET ?";
+        return jdbcTemplate.query(sql, cardRowMapper, genreId, limit, offset);
+    }
+
+    public long countByGenre(UUID genreId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM book_genres WHERE genre_id = ?", Long.class, genreId);
+    }
+
+    public List<BookDTO> findByYear(int year) {
+        String sql = "SELECT " + CARD_COLUMNS + " FROM book_cards c WHERE c.publication_year = ? ORDER BY c.title, c.id";
+        return jdbcTemplate.query(sql, cardRowMapper, year);
+    }
+
+    // WIERSZE INDEKSÓW
+
+    // cały katalog strumieniem, w kolejności tytułów
+    public void forEachRow(Consumer<CardRow> action) {
+        forEach(ROW_SQL, indexRowMapper, action);
+    }
+
+    // usunięte książki nie mają wiersza
+    public List<CardRow> findRows(Collection<UUID> bookIds) {
+        return findByIds(ROW_SQL, indexRowMapper, bookIds);
+    }
+
+    public List<CardRow> findRowsByAuthor(UUID authorId) {
+        return jdbcTemplate.query(ROW_SQL + " WHERE c.author_id = ?", indexRowMapper, authorId);
+    }
+
+    // wiersze z opisem - migawka katalogu (CatalogSnapshotService)
+    public void forEachCatalogRow(Consumer<CardRow> action) {
+        forEach(CATALOG_SQL, catalogRowMapper, action);
+    }
+
+    public List<CardRow> findCatalogRows(Collection<UUID> bookIds) {
+        return findByIds(CATALOG_SQL, catalogRowMapper, bookIds);
+    }
+
+    public List<CardRow> findCatalogRowsByAuthor(UUID authorId) {
+        return jdbcTemplate.query(CATALOG_SQL + " WHERE c.author_id = ?", catalogRowMapper, authorId);
+    }
+
+    private void forEach(String sql, RowMapper<CardRow> mapper, Consumer<CardRow> action) {
+        jdbcTemplate.query(sql + " ORDER BY c.title, c.id", rs -> {
+            action.accept(mapper.mapRow(rs, 0));
+        });
+    }
+
+    private List<CardRow> findByIds(String sql, RowMapper<CardRow> mapper, Collection<UUID> bookIds) {
+        List<UUID> ids = new ArrayList<>(bookIds);
+        List<CardRow> rows = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += ID_BATCH) {
+            List<UUID> batch = ids.subList(from, Math.min(from + ID_BATCH, ids.size()));
+            rows.addAll(jdbcTemplate.query(sql + " WHERE c.id IN (" + placeholders(batch.size()) + ")",
+                    mapper, batch.toArray()));
+        }
+        return rows;
+    }
+
+    // bez JOIN-a z authors - nazwisko autora jest już w karcie
+    public List<BookDTO> search(String term, long offset, int limit) {
+        String sql = "SELECT " + CARD_COLUMNS + " FROM book_cards c WHERE " + SEARCH_CONDITION
+                + " ORDER BY c.title, c.id LIMIT ? OFFSET ?";
+        String pattern = likePattern(term);
+        return jdbcTemplate.query(sql, cardRowMapper, pattern, pattern, pattern, limit, offset);
+    }
+
+    public long countSearch(String term) {
+        String pattern = likePattern(term);
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM book_cards c WHERE " + SEARCH_CONDITION,
+                Long.class, pattern, pattern, pattern);
+    }
+
+    // karty książek z półek, w kolejności dodania; klucz: id półki
+    public Map<UUID, List<BookDTO>> findByShelfIds(Collection<UUID> shelfIds) {
+        if (shelfIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<UUID, List<BookDTO>> byShelf = new LinkedHashMap<>();
+        String sql = "SELECT bb.bookshelf_id, " + CARD_COLUMNS
+                + " FROM bookshelf_books bb JOIN book_cards c ON c.id = bb.book_id"
+                + " WHERE bb.bookshelf_id IN (" + placeholders(shelfIds.size()) + ")"
+                + " ORDER BY bb.added_at, c.title";
+        jdbcTemplate.query(sql, rs -> {
+            UUID shelfId = rs.getObject("bookshelf_id", UUID.class);
+            byShelf.computeIfAbsent(shelfId, id -> new ArrayList<>()).add(cardRowMapper.mapRow(rs, 0));
+        }, shelfIds.toArray());
+        return byShelf;
+    }
+
+    private static String likePattern(String term) {
+        String escaped = term.toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -7,7 +7,6 @@ import java.util.UUID;
 public interface BookDAO {
     List<Book> findTopRatedBooks(int limit);
     List<Book> findBooksByPublicationYear(int year);
-    int updateBookRating(UUID bookId, Double newRating);
     int deleteBook(UUID bookId);
     int insertBook(Book book);
 }
\ No newline at end of file
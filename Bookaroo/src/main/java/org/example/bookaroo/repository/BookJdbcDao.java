@@ -24,11 +24,11 @@ public class BookJdbcDao implements BookDAO {
         @Override
         public Book mapRow(ResultSet rs, int rowNum) throws SQLException {
             Book book = new Book();
-            book.setId(UUID.fromString(rs.getString("id")));
+            book.setId(rs.getObject("id", UUID.class));
             book.setTitle(rs.getString("title"));
             book.setIsbn(rs.getString("isbn"));
             book.setDescription(rs.getString("description"));
-            book.setPublicationYear(rs.getInt("publication_year"));
+            book.setPublicationYear(rs.getObject("publication_year", Integer.class));
             book.setAverageRating(rs.getDouble("average_rating"));
             book.setTotalReviews(rs.getInt("total_reviews"));
             return book;
@@ -53,18 +53,11 @@ public class BookJdbcDao implements BookDAO {
         return jdbcTemplate.query(sql, bookRowMapper, year);
     }
 
-    @Override
-    // UPDATE - aktualizowanie oceny książki
-    public int updateBookRating(UUID bookId, Double newRating) {
-        String sql = "UPDATE books SET average_rating = ? WHERE id = ?";
-        return jdbcTemplate.update(sql, newRating, bookId.toString());
-    }
-
     @Override
     // DELETE - usuwanie książki
     public int deleteBook(UUID bookId) {
         String sql = "DELETE FROM books WHERE id = ?";
-        return jdbcTemplate.update(sql, bookId.toString());
+        return jdbcTemplate.update(sql, bookId);
     }
 
     @Override
@@ -75,7 +68,7 @@ public class BookJdbcDao implements BookDAO {
             VALUES (?, ?, ?, ?, ?, ?, ?)
         """;
         return jdbcTemplate.update(sql,
-                book.getId().toString(),
+                book.getId(),
                 book.getTitle(),
                 book.getIsbn(),
                 book.getPublicationYear(),
@@ -8,6 +8,6 @@ import java.util.UUID;
 
 @Repository
 public interface BookshelfBookRepository extends JpaRepository<BookshelfBook, Long> {
-    // do usuwania konkretnej książki z konkretnej półki
-    void deleteByBookshelfIdAndBookId(UUID bookshelfId, UUID bookId);
+    // do usuwania konkretnej książki z konkretnej półki; zwraca liczbę usuniętych wpisów (licznik czytelników)
+    long deleteByBookshelfIdAndBookId(UUID bookshelfId, UUID bookId);
 }
\ No newline at end of file
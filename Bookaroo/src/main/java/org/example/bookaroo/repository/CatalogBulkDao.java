@@ -0,0 +1,121 @@
+package org.example.bookaroo.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// Masowy zapis katalogu - JdbcTemplate.batchUpdate, jedno przygotowane zapytanie na całą paczkę wierszy.
+// Słowniki (autorzy, gatunki, ISBN-y) ładowane raz do pamięci, żeby import nie robił SELECT-a na każdy wiersz.
+@Repository
+public class CatalogBulkDao {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CatalogBulkDao(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public record NewAuthor(UUID id, String name, String surname) {}
+
+    public record NewGenre(UUID id, String name) {}
+
+    public record NewBook(UUID id, String title, String isbn, String description, Integer publicationYear, UUID authorId) {}
+
+    public record BookGenreLink(UUID bookId, UUID genreId) {}
+
+    // klucz: authorKey(imię, nazwisko)
+    public Map<String, UUID> loadAuthorIds() {
+        Map<String, UUID> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name, surname FROM authors", rs -> {
+            ids.putIfAbsent(authorKey(rs.getString("name"), rs.getString("surname")), rs.getObject("id", UUID.class));
+        });
+        return ids;
+    }
+
+    // klucz: genreKey(nazwa)
+    public Map<String, UUID> loadGenreIds() {
+        Map<String, UUID> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM genres", rs -> {
+            ids.put(genreKey(rs.getString("name")), rs.getObject("id", UUID.class));
+        });
+        return ids;
+    }
+
+    // duplikaty ISBN odrzucane przed zapisem - naruszenie UNIQUE w batchu wycofałoby całą paczkę
+    public Set<String> loadIsbns() {
+        Set<String> isbns = new HashSet<>();
+        jdbcTemplate.query("SELECT isbn FROM books", rs -> {
+            isbns.add(rs.getString("isbn"));
+        });
+        return isbns;
+    }
+
+    public void insertAuthors(List<NewAuthor> authors) {
+        jdbcTemplate.batchUpdate("INSERT INTO authors (id, name, surname) VALUES (?, ?, ?)", authors, authors.size(),
+                (ps, author) -> {
+                    ps.setObject(1, author.id());
+                    ps.setString(2, author.name());
+                    ps.setString(3, author.surname());
+                });
+    }
+
+    public void insertGenres(List<NewGenre> genres) {
+        jdbcTemplate.batchUpdate("INSERT INTO genres (id, name) VALUES (?, ?)", genres, genres.size(),
+                (ps, genre) -> {
+                    ps.setObject(1, genre.id());
+                    ps.setString(2, genre.name());
+                });
+    }
+
+    public void insertBooks(List<NewBook> books) {
+        String sql = """
+                INSERT INTO books (id, title, isbn, description, publication_year, total_reviews, author_id)
+                VALUES (?, ?, ?, ?, ?, 0, ?)
+                """;
+        jdbcTemplate.batchUpdate(sql, books, books.size(), (ps, book) -> {
+            ps.setObject(1, book.id());
+            ps.setString(2, book.title());
+            ps.setString(3, book.isbn());
+            ps.setString(4, book.description());
+            if (book.publicationYear() != null) {
+                ps.setInt(5, book.publicationYear());
+            } else {
+                ps.setNull(5, Types.INTEGER);
+            }
+            ps.setObject(6, book.authorId());
+        });
+    }
+
+    public void insertBookGenres(List<BookGenreLink> links) {
+        jdbcTemplate.batchUpdate("INSERT INTO book_genres (book_id, genre_id) VALUES (?, ?)", links, links.size(),
+                (ps, link) -> {
+                    ps.setObject(1, link.bookId());
+                    ps.setObject(2, link.genreId());
+                });
+    }
+
+    // wpisy change feedu dla nowych książek - ten sam efekt co ChangeFeedService.record, ale jednym batchem
+    public void insertBookChanges(List<UUID> bookIds) {
+        String sql = """
+                INSERT INTO change_log (entity_type, entity_id, operation, changed_at)
+                VALUES ('BOOK', ?, 'UPSERT', CURRENT_TIMESTAMP)
+                """;
+        jdbcTemplate.batchUpdate(sql, bookIds, bookIds.size(), (ps, id) -> ps.setObject(1, id));
+    }
+
+    public static String authorKey(String name, String surname) {
+        return name.trim().toLowerCase(Locale.ROOT) + "|" + surname.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public static String genreKey(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
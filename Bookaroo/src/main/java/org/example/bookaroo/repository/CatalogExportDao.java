@@ -0,0 +1,79 @@
+package org.example.bookaroo.repository;
+
+import org.example.bookaroo.dto.BookDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+// Eksport całego katalogu stronami po kluczu (WHERE b.id > ostatnie id ORDER BY b.id LIMIT n)
+// Kolejność daje indeks klucza głównego, gatunki są agregowane osobno dla każdej książki
+// - baza nie sortuje całego złączenia książek z gatunkami, a w pamięci jest tylko jedna strona
+@Repository
+public class CatalogExportDao {
+
+    private static final String EXPORT_SQL = """
+            SELECT b.id, b.title, b.isbn, b.description, b.publication_year, b.average_rating,
+                   a.id AS author_id, a.name AS author_name, a.surname AS author_surname,
+                   (SELECT ARRAY_AGG(g.name ORDER BY g.name)
+                      FROM book_genres bg JOIN genres g ON g.id = bg.genre_id
+                     WHERE bg.book_id = b.id) AS genre_names
+            FROM books b
+            LEFT JOIN authors a ON a.id = b.author_id
+            """;
+
+    private static final String FIRST_PAGE_SQL = EXPORT_SQL + " ORDER BY b.id LIMIT ?";
+    private static final String NEXT_PAGE_SQL = EXPORT_SQL + " WHERE b.id > ? ORDER BY b.id LIMIT ?";
+
+    private static final RowMapper<BookDTO> BOOK_MAPPER = (rs, rowNum) -> {
+        UUID authorId = rs.getObject("author_id", UUID.class);
+        Array genres = rs.getArray("genre_names");
+        return new BookDTO(
+                rs.getObject("id", UUID.class),
+                rs.getString("title"),
+                rs.getString("isbn"),
+                rs.getString("description"),
+                rs.getObject("publication_year", Integer.class),
+                authorId,
+                authorId != null ? rs.getString("author_name") + " " + rs.getString("author_surname") : null,
+                rs.getObject("average_rating", Double.class),
+                genres == null
+                        ? List.of()
+                        : Arrays.stream((Object[]) genres.getArray()).map(String.class::cast).toList()
+        );
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int pageSize;
+
+    public CatalogExportDao(JdbcTemplate jdbcTemplate,
+                            @Value("${bookaroo.export.page-size:500}") int pageSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pageSize = pageSize;
+    }
+
+    // przekazuje kolejne książki do consumera strona po stronie, zwraca ich liczbę
+    public long streamCatalog(Consumer<BookDTO> consumer) {
+        long count = 0;
+        UUID lastId = null;
+
+        while (true) {
+            List<BookDTO> page = lastId == null
+                    ? jdbcTemplate.query(FIRST_PAGE_SQL, BOOK_MAPPER, pageSize)
+                    : jdbcTemplate.query(NEXT_PAGE_SQL, BOOK_MAPPER, lastId, pageSize);
+
+            page.forEach(consumer);
+            count += page.size();
+            if (page.size() < pageSize) {
+                return count;
+            }
+            lastId = page.get(page.size() - 1).id();
+        }
+    }
+}
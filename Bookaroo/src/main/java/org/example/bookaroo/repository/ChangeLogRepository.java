@@ -0,0 +1,32 @@
+package org.example.bookaroo.repository;
+
+import org.example.bookaroo.entity.ChangeLogEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+
+    // zmiany katalogu (bez właściciela)
+    List<ChangeLogEntry> findBySequenceGreaterThanAndUserIdIsNullOrderBySequenceAsc(long since, Pageable pageable);
+
+    // zmiany katalogu + prywatne zmiany użytkownika (półki, recenzje)
+    @Query("""
+            SELECT c FROM ChangeLogEntry c
+            WHERE c.sequence > :since AND (c.userId IS NULL OR c.userId = :userId)
+            ORDER BY c.sequence ASC
+            """)
+    List<ChangeLogEntry> findChangesForUser(@Param("since") long since, @Param("userId") UUID userId, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(c.sequence), 0) FROM ChangeLogEntry c")
+    long findLatestSequence();
+
+    // zatwierdzone wpisy bez numeru - w kolejności zapisu
+    List<ChangeLogEntry> findBySequenceIsNullOrderByIdAsc();
+}
@@ -0,0 +1,109 @@
+package org.example.bookaroo.repository;
+
+import io.r2dbc.spi.Readable;
+import org.example.bookaroo.dto.BookDTO;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+// Odczyty katalogu przez R2DBC - wiersze są mapowane i wysyłane pojedynczo, bez budowania List<Book>
+@Repository
+public class ReactiveBookRepository {
+
+    // autor i gatunki dołączane w jednym zapytaniu (bez encji i leniwych relacji)
+    private static final String SELECT_BOOK_DTO = """
+            SELECT b.id, b.title, b.isbn, b.description, b.publication_year, b.average_rating, b.readers_count,
+                   a.id AS author_id, a.name AS author_name, a.surname AS author_surname,
+                   (SELECT LISTAGG(g.name, '|') WITHIN GROUP (ORDER BY g.name)
+                      FROM book_genres bg JOIN genres g ON g.id = bg.genre_id
+                     WHERE bg.book_id = b.id) AS genre_names
+            FROM books b
+            LEFT JOIN authors a ON a.id = b.author_id
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveBookRepository(DatabaseClient catalogDatabaseClient) {
+        this.databaseClient = catalogDatabaseClient;
+    }
+
+    public Flux<BookDTO> findAll() {
+        String sql = SELECT_BOOK_DTO + " ORDER BY b.title ASC";
+        return databaseClient.sql(sql)
+                .map(ReactiveBookRepository::toDto)
+                .all();
+    }
+
+    public Mono<BookDTO> findById(UUID id) {
+        String sql = SELECT_BOOK_DTO + " WHERE b.id = :id";
+        return databaseClient.sql(sql)
+                .bind("id", id)
+                .map(ReactiveBookRepository::toDto)
+                .one();
+    }
+
+    // tytuł LUB autor LUB ISBN
+    public Flux<BookDTO> search(String searchTerm) {
+        String sql = SELECT_BOOK_DTO + """
+                 WHERE LOWER(b.title) LIKE :term
+                    OR LOWER(a.name) LIKE :term
+                    OR LOWER(a.surname) LIKE :term
+                    OR LOWER(b.isbn) LIKE :term
+                 ORDER BY b.title ASC
+                """;
+        return databaseClient.sql(sql)
+                .bind("term", "%" + searchTerm.toLowerCase() + "%")
+                .map(ReactiveBookRepository::toDto)
+                .all();
+    }
+
+    public Flux<BookDTO> findTopRated(int limit) {
+        String sql = SELECT_BOOK_DTO + """
+                 WHERE b.average_rating IS NOT NULL
+                 ORDER BY b.average_rating DESC
+                 LIMIT :limit
+                """;
+        return databaseClient.sql(sql)
+                .bind("limit", limit)
+                .map(ReactiveBookRepository::toDto)
+                .all();
+    }
+
+    public Flux<BookDTO> findByPublicationYear(int year) {
+        String sql = SELECT_BOOK_DTO + " WHERE b.publication_year = :year ORDER BY b.title ASC";
+        return databaseClient.sql(sql)
+                .bind("year", year)
+                .map(ReactiveBookRepository::toDto)
+                .all();
+    }
+
+    private static BookDTO toDto(Readable row) {
+        String authorName = row.get("author_name", String.class);
+        String authorSurname = row.get("author_surname", String.class);
+        String genreNames = row.get("genre_names", String.class);
+        Integer year = row.get("publication_year", Integer.class);
+        Integer readers = row.get("readers_count", Integer.class);
+
+        List<String> genres = genreNames == null || genreNames.isEmpty()
+                ? List.of()
+                : Arrays.asList(genreNames.split("\\|"));
+
+        return new BookDTO(
+                row.get("id", UUID.class),
+                row.get("title", String.class),
+                row.get("isbn", String.class),
+                row.get("description", String.class),
+                year,
+                row.get("author_id", UUID.class),
+                authorName != null ? authorName + " " + authorSurname : null,
+                row.get("average_rating", Double.class),
+                genres,
+                readers != null ? readers : 0
+        );
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.bookaroo.repository;
+
+import org.example.bookaroo.entity.UuidV7Generator;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+// Zapis recenzji z unikalnym kluczem (user_id, book_id): MERGE aktualizuje istniejącą recenzję w miejscu,
+// a średnia i liczba recenzji książki zmieniają się o różnicę w tej samej transakcji
+// - bez ponownego czytania wszystkich recenzji książki.
+@Repository
+public class ReviewJdbcDao {
+
+    private static final String MERGE_SQL = """
+            MERGE INTO reviews r
+            USING (VALUES (CAST(? AS UUID), CAST(? AS UUID), CAST(? AS UUID), CAST(? AS INTEGER), CAST(? AS VARCHAR)))
+                  AS s (id, user_id, book_id, rating, content)
+               ON r.user_id = s.user_id AND r.book_id = s.book_id
+            WHEN MATCHED THEN UPDATE SET rating = s.rating, content = s.content
+            WHEN NOT MATCHED THEN INSERT (id, user_id, book_id, rating, content, created_at)
+                 VALUES (s.id, s.user_id, s.book_id, s.rating, s.content, CURRENT_TIMESTAMP)
+            """;
+
+    // import kopii - istniejącej recenzji nie nadpisujemy
+    private static final String INSERT_IF_ABSENT_SQL = """
+            MERGE INTO reviews r
+            USING (VALUES (CAST(? AS UUID), CAST(? AS UUID), CAST(? AS UUID), CAST(? AS INTEGER), CAST(? AS VARCHAR)))
+                  AS s (id, user_id, book_id, rating, content)
+               ON r.user_id = s.user_id AND r.book_id = s.book_id
+            WHEN NOT MATCHED THEN INSERT (id, user_id, book_id, rating, content, created_at)
+                 VALUES (s.id, s.user_id, s.book_id, s.rating, s.content, CURRENT_TIMESTAMP)
+            """;
+
+    // prawa strona SET widzi wartości sprzed zmiany; brak recenzji = średnia 0.0 (jak wcześniej w ReviewService)
+    private static final String RATING_DELTA_SQL = """
+            UPDATE books SET
+                   average_rating = CASE WHEN COALESCE(total_reviews, 0) + ? <= 0 THEN 0.0
+                       ELSE (COALESCE(average_rating, 0) * COALESCE(total_reviews, 0) + ?) / (COALESCE(total_reviews, 0) + ?) END,
+                   total_reviews = COALESCE(total_reviews, 0) + ?
+             WHERE id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReviewJdbcDao(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public record Upserted(UUID reviewId, boolean created) {}
+
+    private record Existing(UUID id, UUID bookId, int rating) {}
+
+    // FOR UPDATE - równoległa edycja tej samej recenzji czeka, więc różnica liczona jest od aktualnej oceny;
+    // równoległe pierwsze wstawienie kończy się naruszeniem klucza - przegrany ponawia zapis jako edycję
+    public Upserted upsert(UUID userId, UUID bookId, int rating, String content) {
+        Existing existing = lock("user_id = ? AND book_id = ?", userId, bookId).orElse(null);
+        if (existing == null) {
+            UUID id = UuidV7Generator.next();
+            try {
+                jdbcTemplate.update(MERGE_SQL, id, userId, bookId, rating, content);
+                applyRatingDelta(bookId, 1, rating);
+                return new Upserted(id, true);
+            } catch (DuplicateKeyException e) {
+                // recenzja zwycięzcy jest już zatwierdzona - widoczna dla ponownej blokady
+                existing = lock("user_id = ? AND book_id = ?", userId, bookId).orElseThrow(() -> e);
+            }
+        }
+
+        jdbcTemplate.update(MERGE_SQL, existing.id(), userId, bookId, rating, content);
+        if (existing.rating() != rating) {
+            applyRatingDelta(bookId, 0, rating - existing.rating());
+        }
+        return new Upserted(existing.id(), false);
+    }
+
+    // id dodanej recenzji; pusty, gdy recenzja tej książki już była
+    public Optional<UUID> insertIfAbsent(UUID userId, UUID bookId, int rating, String content) {
+        UUID id = UuidV7Generator.next();
+        if (jdbcTemplate.update(INSERT_IF_ABSENT_SQL, id, userId, bookId, rating, content) == 0) {
+            return Optional.empty();
+        }
+        applyRatingDelta(bookId, 1, rating);
+        return Optional.of(id);
+    }
+
+    // id książki usuniętej recenzji; pusty, gdy recenzji nie było
+    public Optional<UUID> delete(UUID reviewId) {
+        Optional<Existing> existing = lock("id = ?", reviewId);
+        existing.ifPresent(review -> {
+            jdbcTemplate.update("DELETE FROM reviews WHERE id = ?", review.id());
+            applyRatingDelta(review.bookId(), -1, -review.rating());
+        });
+        return existing.map(Existing::bookId);
+    }
+
+    public List<UUID> findIdsByUser(UUID userId) {
+        return jdbcTemplate.queryForList("SELECT id FROM reviews WHERE user_id = ?", UUID.class, userId);
+    }
+
+    private Optional<Existing> lock(String condition, Object... args) {
+        List<Existing> rows = jdbcTemplate.query("SELECT id, book_id, rating FROM reviews WHERE " + condition + " FOR UPDATE",
+                (rs, rowNum) -> new Existing(rs.getObject("id", UUID.class), rs.getObject("book_id", UUID.class),
+                        rs.getInt("rating")), args);
+        return rows.stream().findFirst();
+    }
+
+    private void applyRatingDelta(UUID bookId, int countDelta, int ratingSumDelta) {
+        jdbcTemplate.update(RATING_DELTA_SQL, countDelta, ratingSumDelta, countDelta, countDelta, bookId);
+    }
+}
@@ -4,10 +4,14 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.BiConsumer;
 
 @Repository
 public class StatisticsRepository {
@@ -18,29 +22,115 @@ public class StatisticsRepository {
         this.jdbcTemplate = jdbcTemplate;
     }
 
-    public Integer countBooksOnShelfInYear(UUID userId, String shelfName, int year) {
+    // książki z półki READ dodane w [od, do) - predykaty zakresowe po indeksach (user_id, shelf_type)
+    // i (bookshelf_id, added_at), bez LOWER(name) i YEAR(added_at)
+    private static final String READ_IN_RANGE = """
+            SELECT COUNT(*)
+            FROM bookshelf b
+            JOIN bookshelf_books bb ON bb.bookshelf_id = b.id
+            WHERE b.user_id = ?
+              AND b.shelf_type = 'READ'
+              AND bb.added_at >= ?
+              AND bb.added_at < ?
+            """;
+
+    // licznik roku po kluczu; lata bez licznika (historia sprzed liczników, data.sql) liczone zakresem dat
+    public int countBooksReadInYear(UUID userId, int year) {
+        List<Integer> counter = jdbcTemplate.queryForList(
+                "SELECT read_count FROM reading_counters WHERE user_id = ? AND read_year = ?",
+                Integer.class, userId, year);
+        if (!counter.isEmpty()) {
+            return counter.get(0);
+        }
+        return jdbcTemplate.queryForObject(READ_IN_RANGE, Integer.class, userId, yearStart(year), yearStart(year + 1));
+    }
+
+    // zmiana licznika roku o delta po dodaniu/zdjęciu książki z półki READ.
+    // Brakujący licznik powstaje z liczby pozostałych książek tego roku (bez bookId - niezależnie od tego,
+    // czy zmiana wpisu jest już we flushu) plus ta książka przy dodaniu.
+    public void adjustBooksReadInYear(UUID userId, int year, UUID bookId, int delta) {
         String sql = """
-            SELECT COUNT(*) 
-            FROM bookshelf_books bb 
-            JOIN bookshelf b ON bb.bookshelf_id = b.id 
-            WHERE b.user_id = ? 
-              AND LOWER(b.name) = LOWER(?) 
-              AND YEAR(bb.added_at) = ?
-        """;
-
-        return jdbcTemplate.queryForObject(sql, Integer.class, userId, shelfName, year);
+                MERGE INTO reading_counters rc
+                USING (VALUES (CAST(? AS UUID), CAST(? AS INT))) AS s(user_id, read_year)
+                ON rc.user_id = s.user_id AND rc.read_year = s.read_year
+                WHEN MATCHED THEN UPDATE SET rc.read_count = rc.read_count + ?
+                WHEN NOT MATCHED THEN INSERT (user_id, read_year, read_count)
+                    VALUES (s.user_id, s.read_year, (%s AND bb.book_id <> ?) + ?)
+                """.formatted(READ_IN_RANGE);
+        jdbcTemplate.update(sql, userId, year, delta,
+                userId, yearStart(year), yearStart(year + 1), bookId, delta > 0 ? 1 : 0);
+    }
+
+    public void deleteReadingCounters(UUID userId) {
+        jdbcTemplate.update("DELETE FROM reading_counters WHERE user_id = ?", userId);
     }
 
+    private static LocalDateTime yearStart(int year) {
+        return LocalDate.of(year, 1, 1).atStartOfDay();
+    }
+
+    // licznik utrzymywany w books - odczyt po kluczu zamiast COUNT(*) po bookshelf_books
     public Integer getReadersCount(UUID bookId) {
-        String sql = "SELECT COUNT(*) FROM BOOKSHELF_BOOKS WHERE book_id = ?";
+        String sql = "SELECT readers_count FROM books WHERE id = ?";
         return jdbcTemplate.queryForObject(sql, Integer.class, bookId);
     }
 
+    // atomowa zmiana licznika - współbieżne dodania na półki nie gubią się jak przy odczyt-zapis
+    public void adjustReadersCount(UUID bookId, int delta) {
+        jdbcTemplate.update("UPDATE books SET readers_count = readers_count + ? WHERE id = ?", delta, bookId);
+    }
+
+    // kolejna paczka id książek (keyset po id) do uzgadniania liczników
+    public List<UUID> findBookIdsAfter(UUID afterId, int limit) {
+        RowMapper<UUID> idMapper = (rs, rowNum) -> rs.getObject("id", UUID.class);
+        if (afterId == null) {
+            return jdbcTemplate.query("SELECT id FROM books ORDER BY id LIMIT ?", idMapper, limit);
+        }
+        return jdbcTemplate.query("SELECT id FROM books WHERE id > ? ORDER BY id LIMIT ?", idMapper, afterId, limit);
+    }
+
+    // ustawia licznik na rzeczywistą liczbę wpisów tam, gdzie się rozjechał; zwraca id poprawionych książek
+    public List<UUID> reconcileReadersCounts(List<UUID> bookIds) {
+        if (bookIds.isEmpty()) {
+            return List.of();
+        }
+        String in = String.join(", ", Collections.nCopies(bookIds.size(), "?"));
+        String actual = "(SELECT COUNT(*) FROM bookshelf_books bb WHERE bb.book_id = b.id)";
+
+        List<UUID> drifted = jdbcTemplate.query(
+                "SELECT b.id FROM books b WHERE b.id IN (" + in + ") AND b.readers_count <> " + actual,
+                (rs, rowNum) -> rs.getObject("id", UUID.class), bookIds.toArray());
+        if (!drifted.isEmpty()) {
+            String driftedIn = String.join(", ", Collections.nCopies(drifted.size(), "?"));
+            jdbcTemplate.update("UPDATE books b SET readers_count = " + actual + " WHERE b.id IN (" + driftedIn + ")",
+                    drifted.toArray());
+        }
+        return drifted;
+    }
+
     public Double getAverageRating(UUID bookId) {
         String sql = "SELECT AVG(rating) FROM reviews WHERE book_id = ?";
         return jdbcTemplate.queryForObject(sql, Double.class, bookId);
     }
 
+    // pary (użytkownik, książka) z półek i recenzji, bez powtórzeń, pogrupowane po użytkowniku - wejście rekomendacji
+    public void forEachUserBook(BiConsumer<UUID, UUID> action) {
+        String sql = """
+                SELECT s.user_id, bb.book_id FROM bookshelf_books bb JOIN bookshelf s ON s.id = bb.bookshelf_id
+                UNION
+                SELECT r.user_id, r.book_id FROM reviews r
+                ORDER BY 1
+                """;
+        jdbcTemplate.query(sql, rs -> {
+            action.accept(rs.getObject(1, UUID.class), rs.getObject(2, UUID.class));
+        });
+    }
+
+    // średnia wszystkich ocen w serwisie - wartość a priori rankingu; null gdy brak recenzji
+    public Double getGlobalAverageRating() {
+        return jdbcTemplate.queryForObject("SELECT AVG(CAST(rating AS DOUBLE)) FROM reviews", Double.class);
+    }
+
     public List<Map<String, Object>> getRawRatingDistribution(UUID bookId) {
         String sql = "SELECT rating, COUNT(*) as count FROM reviews WHERE book_id = ? GROUP BY rating";
         return jdbcTemplate.queryForList(sql, bookId);
@@ -50,7 +140,7 @@ public class StatisticsRepository {
         String sql = "SELECT book_id, AVG(CAST(rating AS FLOAT)) as avg_rating FROM reviews GROUP BY book_id";
 
         RowMapper<Map.Entry<UUID, Double>> mapper = (rs, rowNum) -> {
-            UUID id = UUID.fromString(rs.getString("book_id"));
+            UUID id = rs.getObject("book_id", UUID.class);
             Double avg = rs.getDouble("avg_rating");
             return Map.entry(id, avg);
         };
@@ -4,6 +4,7 @@ import org.example.bookaroo.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -26,4 +27,8 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     List<User> findAllByOrderByUsernameAsc();
 
+    // referencje do plików w uploads - używane przez GC magazynu plików
+    @Query("SELECT u.avatar FROM User u WHERE u.avatar IS NOT NULL")
+    List<String> findAllAvatars();
+
 }
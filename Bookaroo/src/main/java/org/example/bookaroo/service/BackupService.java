@@ -11,12 +11,14 @@ import org.example.bookaroo.dto.ShelfBackupDTO;
 import org.example.bookaroo.dto.UserBackupDTO;
 import org.example.bookaroo.entity.Book;
 import org.example.bookaroo.entity.Bookshelf;
-import org.example.bookaroo.entity.Review;
+import org.example.bookaroo.entity.ChangeLogEntry.EntityType;
+import org.example.bookaroo.entity.ChangeLogEntry.Operation;
 import org.example.bookaroo.entity.User;
 import org.example.bookaroo.exception.ResourceNotFoundException;
 import org.example.bookaroo.repository.BookRepository;
 import org.example.bookaroo.repository.BookshelfRepository;
-import org.example.bookaroo.repository.ReviewRepository;
+import org.example.bookaroo.repository.ReviewJdbcDao;
+import org.example.bookaroo.repository.StatisticsRepository;
 import org.example.bookaroo.repository.UserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,7 +27,14 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.IntConsumer;
 
 @Service
 public class BackupService {
@@ -33,19 +42,27 @@ public class BackupService {
     private final UserRepository userRepository;
     private final BookRepository bookRepository;
     private final BookshelfRepository bookshelfRepository;
-    private final ReviewRepository reviewRepository;
+    private final ReviewJdbcDao reviewJdbcDao;
     private final ObjectMapper objectMapper;
+    private final ContentAddressedStore backupStore;
+    private final BookCardService bookCardService;
+    private final StatisticsRepository statisticsRepository;
+    private final ChangeFeedService changeFeedService;
 
     private static final String UPLOAD_DIR = "backups/";
 
     public BackupService(UserRepository userRepository, BookRepository bookRepository,
-                         BookshelfRepository bookshelfRepository, ReviewRepository reviewRepository,
-                         ObjectMapper objectMapper) {
+                         BookshelfRepository bookshelfRepository, ReviewJdbcDao reviewJdbcDao,
+                         ObjectMapper objectMapper, BookCardService bookCardService,
+                         StatisticsRepository statisticsRepository, ChangeFeedService changeFeedService) {
         this.userRepository = userRepository;
         this.bookRepository = bookRepository;
         this.bookshelfRepository = bookshelfRepository;
-        this.reviewRepository = reviewRepository;
+        this.reviewJdbcDao = reviewJdbcDao;
         this.objectMapper = objectMapper;
+        this.bookCardService = bookCardService;
+        this.statisticsRepository = statisticsRepository;
+        this.changeFeedService = changeFeedService;
 
         // czy na pewno katalog istnieje
         try {
@@ -53,12 +70,19 @@ public class BackupService {
         } catch (IOException e) {
             throw new RuntimeException("Nie można utworzyć katalogu na backupy", e);
         }
+        this.backupStore = new ContentAddressedStore(Paths.get(UPLOAD_DIR));
     }
 
     // EKSPORT DANYCH (JSON)
     @Transactional(readOnly = true)
     public byte[] exportUserDataToJson(String username) throws IOException {
-        UserBackupDTO backupData = gatherUserData(username);
+        return exportUserDataToJson(username, progress -> {});
+    }
+
+    // progress dostaje procent (0-100) zebranych półek i recenzji
+    @Transactional(readOnly = true)
+    public byte[] exportUserDataToJson(String username, IntConsumer progress) throws IOException {
+        UserBackupDTO backupData = gatherUserData(username, progress);
         // obiekt Java na JSON
         return objectMapper.writeValueAsBytes(backupData);
     }
@@ -66,8 +90,16 @@ public class BackupService {
     // EKSPORT DANYCH (CSV)
     @Transactional(readOnly = true)
     public byte[] exportUserReviewsToCsv(String username) {
+        return exportUserReviewsToCsv(username, progress -> {});
+    }
+
+    // progress dostaje procent (0-100) zapisanych recenzji
+    @Transactional(readOnly = true)
+    public byte[] exportUserReviewsToCsv(String username, IntConsumer progress) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("Nie znaleziono użytkownika o loginie: " + username));
+        int total = Math.max(1, user.getGivenReviews().size());
+        int done = 0;
         try (StringWriter sw = new StringWriter()) {
             sw.write('\uFEFF'); // polski
 
@@ -91,6 +123,7 @@ public class BackupService {
                             String.valueOf(review.getRating()),
                             review.getContent()
                     });
+                    progress.accept(++done * 100 / total);
                 }
             }
 
@@ -102,8 +135,16 @@ public class BackupService {
 
     @Transactional(readOnly = true)
     public byte[] exportUserReviewsToPdf(String username) {
+        return exportUserReviewsToPdf(username, progress -> {});
+    }
+
+    // progress dostaje procent (0-100) recenzji dodanych do tabeli
+    @Transactional(readOnly = true)
+    public byte[] exportUserReviewsToPdf(String username, IntConsumer progress) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("Nie znaleziono użytkownika o loginie: " + username));
+        int total = Math.max(1, user.getGivenReviews().size());
+        int done = 0;
 
         try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
             Document document = new Document();
@@ -135,6 +176,7 @@ public class BackupService {
                 table.addCell(new Phrase(review.getBook().getTitle(), fontCell));
                 table.addCell(new Phrase(String.valueOf(review.getRating()), fontCell));
                 table.addCell(new Phrase(review.getContent(), fontCell));
+                progress.accept(++done * 100 / total);
             }
 
             document.add(table);
@@ -147,37 +189,66 @@ public class BackupService {
     }
 
     // m. pomocnicza zbierająca dane
-    private UserBackupDTO gatherUserData(String username) {
+    private UserBackupDTO gatherUserData(String username, IntConsumer progress) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("Nie znaleziono użytkownika: " + username));
 
-        var shelfDtos = user.getBookshelves().stream().map(
-                shelf -> new ShelfBackupDTO(
-                shelf.getName(),
-                shelf.getBooks().stream().map(Book::getIsbn).toList()
-        )).toList();
+        int total = Math.max(1, user.getBookshelves().size() + user.getGivenReviews().size());
+        int done = 0;
 
-        var reviewDtos = user.getGivenReviews().stream().map(
-                review -> new ReviewBackupDTO(
-                review.getBook().getIsbn(),
-                review.getContent(),
-                review.getRating()
-        )).toList();
+        List<ShelfBackupDTO> shelfDtos = new ArrayList<>();
+        for (Bookshelf shelf : user.getBookshelves()) {
+            shelfDtos.add(new ShelfBackupDTO(
+                    shelf.getName(),
+                    shelf.getBooks().stream().map(Book::getIsbn).toList()
+            ));
+            progress.accept(++done * 100 / total);
+        }
+
+        List<ReviewBackupDTO> reviewDtos = new ArrayList<>();
+        for (var review : user.getGivenReviews()) {
+            reviewDtos.add(new ReviewBackupDTO(
+                    review.getBook().getIsbn(),
+                    review.getContent(),
+                    review.getRating()
+            ));
+            progress.accept(++done * 100 / total);
+        }
 
         return new UserBackupDTO(shelfDtos, reviewDtos);
     }
 
+    // usuwa kopie importowanych backupów starsze niż okres przechowywania
+    public long purgeImportedBackups(Duration retention) throws IOException {
+        return backupStore.collectGarbage(hash -> false, retention);
+    }
+
     // IMPORT DANYCH
     @Transactional
     public void importUserData(String username, MultipartFile file) throws IOException {
-        String filename = UUID.randomUUID() + "_" + file.getOriginalFilename();
-        Path targetLocation = Paths.get(UPLOAD_DIR).resolve(filename);
-        Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+        importUserData(username, stageImport(file), progress -> {});
+    }
 
-        UserBackupDTO backupDto = objectMapper.readValue(file.getInputStream(), UserBackupDTO.class);
+    // kopia pliku adresowana skrótem - ten sam backup importowany wielokrotnie zapisuje się raz.
+    // Plik z żądania multipart znika po jego zakończeniu, więc import w tle czyta tę kopię.
+    public Path stageImport(MultipartFile file) throws IOException {
+        return backupStore.store(file.getInputStream(), ".json").path();
+    }
+
+    // progress dostaje procent (0-100) przetworzonych pozycji backupu
+    @Transactional
+    public void importUserData(String username, Path backupFile, IntConsumer progress) throws IOException {
+        UserBackupDTO backupDto;
+        try (InputStream in = Files.newInputStream(backupFile)) {
+            backupDto = objectMapper.readValue(in, UserBackupDTO.class);
+        }
 
         User user = userRepository.findByUsername(username).orElseThrow();
 
+        int total = countItems(backupDto);
+        int done = 0;
+        Set<UUID> touchedBooks = new HashSet<>();
+
         // Import Półek
         if (backupDto.shelves() != null) {
             for (var shelfDto : backupDto.shelves()) {
@@ -189,7 +260,9 @@ public class BackupService {
                             newShelf.setName(shelfDto.name());
                             newShelf.setUser(user);
                             newShelf.setIsDefault(false);
-                            return bookshelfRepository.save(newShelf);
+                            Bookshelf saved = bookshelfRepository.save(newShelf);
+                            changeFeedService.record(EntityType.BOOKSHELF, saved.getId(), null, Operation.UPSERT, user.getId());
+                            return saved;
                         });
 
                 for (String isbn : shelfDto.bookIsbns()) {
@@ -199,31 +272,53 @@ public class BackupService {
 
                         if (!alreadyOnShelf) {
                             shelf.addBook(book);
+                            statisticsRepository.adjustReadersCount(book.getId(), 1);
+                            if (shelf.getType() == Bookshelf.ShelfType.READ) {
+                                statisticsRepository.adjustBooksReadInYear(user.getId(), LocalDate.now().getYear(), book.getId(), 1);
+                            }
+                            changeFeedService.record(EntityType.SHELF_ITEM, book.getId(), shelf.getId(), Operation.UPSERT, user.getId());
+                            touchedBooks.add(book.getId());
                         }
                     });
                 }
                 bookshelfRepository.save(shelf);
+                done += shelfDto.bookIsbns().size();
+                progress.accept(done * 100 / total);
             }
         }
 
         // Import Recenzji
+        Set<UUID> ratedBooks = new HashSet<>();
         if (backupDto.reviews() != null) {
             for (var reviewDto : backupDto.reviews()) {
-                bookRepository.findByIsbn(reviewDto.bookIsbn()).ifPresent(book -> {
-                    boolean reviewExists = user.getGivenReviews().stream()
-                            .anyMatch(r -> r.getBook().getId().equals(book.getId()));
-
-                    if (!reviewExists) {
-                        Review review = new Review();
-                        review.setUser(user);
-                        review.setBook(book);
-                        review.setContent(reviewDto.content());
-                        review.setRating(reviewDto.rating());
-                        reviewRepository.save(review);
-                    }
-                });
+                // istniejącej recenzji tej książki nie nadpisujemy - rozstrzyga klucz (user_id, book_id)
+                bookRepository.findByIsbn(reviewDto.bookIsbn()).ifPresent(book ->
+                        reviewJdbcDao.insertIfAbsent(user.getId(), book.getId(), reviewDto.rating(), reviewDto.content())
+                                .ifPresent(reviewId -> {
+                                    changeFeedService.record(EntityType.REVIEW, reviewId, book.getId(), Operation.UPSERT, null);
+                                    ratedBooks.add(book.getId());
+                                }));
+                progress.accept(++done * 100 / total);
             }
         }
+        // nowa średnia i liczba recenzji - jak BookService.ratingChanged, karty odświeżane razem niżej
+        ratedBooks.forEach(bookId -> changeFeedService.record(EntityType.BOOK, bookId, Operation.UPSERT));
+        touchedBooks.addAll(ratedBooks);
+        bookCardService.refreshBooks(touchedBooks);
+        progress.accept(100);
+    }
 
+    // min. 1, żeby pusty backup nie dzielił przez zero
+    private static int countItems(UserBackupDTO backupDto) {
+        int items = 0;
+        if (backupDto.shelves() != null) {
+            for (var shelfDto : backupDto.shelves()) {
+                items += shelfDto.bookIsbns().size();
+            }
+        }
+        if (backupDto.reviews() != null) {
+            items += backupDto.reviews().size();
+        }
+        return Math.max(items, 1);
     }
 }
\ No newline at end of file
@@ -0,0 +1,177 @@
+package org.example.bookaroo.service;
+
+import jakarta.persistence.EntityManager;
+import org.example.bookaroo.repository.BookCardDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Utrzymanie kart książek (book_cards) i indeksów w pamięci (ranking, fasety, podobieństwo gatunków, migawka katalogu) przy zapisach. Metody dołączają do transakcji wywołującego,
+// więc wycofanie zapisu wycofuje też zmianę karty.
+// Indeksy w pamięci odświeżane paczkami: zmienione książki zbierane po commicie, po krótkim opóźnieniu
+// (bookaroo.catalog.index-refresh-delay-ms) jedno odświeżenie obejmuje wszystkie zmiany z tego czasu.
+@Service
+public class BookCardService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookCardService.class);
+
+    private final BookCardDao bookCardDao;
+    private final EntityManager entityManager;
+    private final BookRankingService bookRankingService;
+    private final BookFacetService bookFacetService;
+    private final GenreSimilarityService genreSimilarityService;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final TaskScheduler taskScheduler;
+    private final Duration refreshDelay;
+
+    // książki zmienione od ostatniego odświeżenia indeksów, w kolejności zmian
+    private final Set<UUID> pendingBooks = new LinkedHashSet<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    public BookCardService(BookCardDao bookCardDao,
+                           EntityManager entityManager,
+                           BookRankingService bookRankingService,
+                           BookFacetService bookFacetService,
+                           GenreSimilarityService genreSimilarityService,
+                           CatalogSnapshotService catalogSnapshotService,
+                           @Qualifier("taskScheduler") TaskScheduler taskScheduler,
+                           @Value("${bookaroo.catalog.index-refresh-delay-ms:200}") long refreshDelayMs) {
+        this.bookCardDao = bookCardDao;
+        this.entityManager = entityManager;
+        this.bookRankingService = bookRankingService;
+        this.bookFacetService = bookFacetService;
+        this.genreSimilarityService = genreSimilarityService;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.taskScheduler = taskScheduler;
+        this.refreshDelay = Duration.ofMillis(refreshDelayMs);
+    }
+
+    @Transactional
+    public void refreshBook(UUID bookId) {
+        refreshBooks(List.of(bookId));
+    }
+
+    @Transactional
+    public void refreshBooks(Collection<UUID> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        // MERGE idzie przez JDBC - niezapisane zmiany encji muszą być już w bazie
+        entityManager.flush();
+        bookCardDao.refreshBooks(bookIds);
+        refreshIndexes(bookIds);
+    }
+
+    // same indeksy w pamięci - dla zapisów, które odświeżają karty samodzielnie (import CSV, uzgadnianie liczników)
+    public void refreshIndexes(Collection<UUID> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        List<UUID> ids = List.copyOf(bookIds);
+        afterCommit(() -> {
+            synchronized (pendingBooks) {
+                pendingBooks.addAll(ids);
+            }
+            scheduleFlush();
+        });
+    }
+
+    // opóźnienie 0 - odświeżenie od razu w wątku zapisu
+    private void scheduleFlush() {
+        if (refreshDelay.isZero()) {
+            flushIndexes();
+            return;
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            taskScheduler.schedule(() -> {
+                // zmiany dodane od tej chwili zlecą kolejne odświeżenie
+                flushScheduled.set(false);
+                flushIndexes();
+            }, Instant.now().plus(refreshDelay));
+        }
+    }
+
+    // jedno zapytanie do bazy i jedna nowa migawka na indeks dla wszystkich zebranych książek
+    void flushIndexes() {
+        List<UUID> ids;
+        synchronized (pendingBooks) {
+            ids = List.copyOf(pendingBooks);
+            pendingBooks.clear();
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            bookRankingService.refreshBooks(ids);
+            bookFacetService.refreshBooks(ids);
+            genreSimilarityService.refreshBooks(ids);
+            catalogSnapshotService.refreshBooks(ids);
+        } catch (RuntimeException e) {
+            // książki wracają do kolejki - kolejna zmiana ponowi odświeżenie
+            synchronized (pendingBooks) {
+                pendingBooks.addAll(ids);
+            }
+            log.warn("Odświeżenie indeksów dla {} książek nie powiodło się", ids.size(), e);
+        }
+    }
+
+    @Transactional
+    public void refreshAuthor(UUID authorId) {
+        entityManager.flush();
+        bookCardDao.refreshAuthor(authorId);
+        afterCommit(() -> {
+            bookRankingService.refreshAuthor(authorId);
+            bookFacetService.refreshAuthor(authorId);
+            genreSimilarityService.refreshAuthor(authorId);
+            catalogSnapshotService.refreshAuthor(authorId);
+        });
+    }
+
+    // data.sql ładuje katalog z pominięciem serwisów - karty budowane raz po starcie, przed innymi odbiorcami startu
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        bookCardDao.rebuildAll();
+        log.info("Karty książek przebudowane w {} ms", System.currentTimeMillis() - start);
+        // indeksy w pamięci czytają karty - budowane po nich
+        bookRankingService.rebuild();
+        bookFacetService.rebuild();
+        genreSimilarityService.rebuild();
+        catalogSnapshotService.rebuild();
+    }
+
+    // indeksy w pamięci czytają bazę dopiero po commicie - wycofany zapis ich nie rusza
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package org.example.bookaroo.service;
+
+import org.example.bookaroo.dto.BookDTO;
+import org.example.bookaroo.dto.BrowseResultDTO;
+import org.example.bookaroo.dto.FacetCountDTO;
+import org.example.bookaroo.repository.BookCardDao;
+import org.example.bookaroo.repository.BookCardDao.CardRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Przeglądanie katalogu z fasetami: gatunek, dekada wydania, ocena. Każda wartość fasety to bitmapa
+// nad numerami porządkowymi książek (pozycja w cards), filtr to AND/OR bitmap, licznik - cardinality.
+// Numery nadawane w kolejności tytułów przy przebudowie; nowe książki dopisywane na końcu
+// (do następnej przebudowy), usunięte zostawiają pustą pozycję wyzerowaną w alive.
+@Service
+public class BookFacetService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookFacetService.class);
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // pasmo k: średnia w [k, k + 1); ocena 10 w paśmie 9
+    private static final int RATING_BANDS = 10;
+
+    private final BookCardDao bookCardDao;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<BookDTO> cards = new ArrayList<>();
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final BitSet alive = new BitSet();
+    private final Map<UUID, BitSet> byGenre = new HashMap<>();
+    private final Map<UUID, String> genreNames = new HashMap<>();
+    private final Map<Integer, BitSet> byDecade = new TreeMap<>();
+    private final BitSet[] byRating = new BitSet[RATING_BANDS];
+
+    public BookFacetService(BookCardDao bookCardDao) {
+        this.bookCardDao = bookCardDao;
+        for (int band = 0; band < RATING_BANDS; band++) {
+            byRating[band] = new BitSet();
+        }
+    }
+
+    // ODCZYT
+
+    // gatunki: OR (dowolny z wybranych) albo AND (allGenres); dekady: OR; minRating: średnia >= próg.
+    // Między fasetami AND. Liczniki fasety liczone bez jej własnego filtra (poza trybem AND gatunków).
+    public BrowseResultDTO browse(Collection<UUID> genreIds, boolean allGenres, Collection<Integer> decades,
+                                  Integer minRating, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Strona od 0, rozmiar od 1 do " + MAX_PAGE_SIZE);
+        }
+        if (minRating != null && (minRating < 1 || minRating >= RATING_BANDS)) {
+            throw new IllegalArgumentException("Minimalna ocena musi być z zakresu 1-" + (RATING_BANDS - 1));
+        }
+
+        lock.readLock().lock();
+        try {
+            BitSet genreFilter = genreFilter(genreIds, allGenres);
+            BitSet decadeFilter = decadeFilter(decades);
+            BitSet ratingFilter = minRating == null ? null : ratingsFrom(minRating);
+            BitSet result = and(alive, genreFilter, decadeFilter, ratingFilter);
+
+            return new BrowseResultDTO(
+                    result.cardinality(),
+                    page,
+                    size,
+                    page(result, page, size),
+                    genreCounts(allGenres ? result : and(alive, decadeFilter, ratingFilter)),
+                    decadeCounts(and(alive, genreFilter, ratingFilter)),
+                    ratingCounts(and(alive, genreFilter, decadeFilter))
+            );
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet genreFilter(Collection<UUID> genreIds, boolean allGenres) {
+        if (genreIds == null || genreIds.isEmpty()) {
+            return null;
+        }
+        BitSet filter = null;
+        for (UUID genreId : genreIds) {
+            BitSet genre = byGenre.getOrDefault(genreId, new BitSet());
+            if (filter == null) {
+                filter = (BitSet) genre.clone();
+            } else if (allGenres) {
+                filter.and(genre);
+            } else {
+                filter.or(genre);
+            }
+        }
+        return filter;
+    }
+
+    private BitSet decadeFilter(Collection<Integer> decades) {
+        if (decades == null || decades.isEmpty()) {
+            return null;
+        }
+        BitSet filter = new BitSet();
+        decades.forEach(year -> {
+            BitSet decade = byDecade.get(decade(year));
+            if (decade != null) {
+                filter.or(decade);
+            }
+        });
+        return filter;
+    }
+
+    private BitSet ratingsFrom(int minRating) {
+        BitSet filter = new BitSet();
+        for (int band = minRating; band < RATING_BANDS; band++) {
+            filter.or(byRating[band]);
+        }
+        return filter;
+    }
+
+    // pomijane filtry (null) nie zawężają
+    private static BitSet and(BitSet base, BitSet... filters) {
+        BitSet result = (BitSet) base.clone();
+        for (BitSet filter : filters) {
+            if (filter != null) {
+                result.and(filter);
+            }
+        }
+        return result;
+    }
+
+    private static int countAnd(BitSet base, BitSet values) {
+        BitSet common = (BitSet) base.clone();
+        common.and(values);
+        return common.cardinality();
+    }
+
+    private List<BookDTO> page(BitSet result, int page, int size) {
+        List<BookDTO> books = new ArrayList<>(size);
+        long skip = (long) page * size;
+        for (int ord = result.nextSetBit(0); ord >= 0 && books.size() < size; ord = result.nextSetBit(ord + 1)) {
+            if (skip > 0) {
+                skip--;
+            } else {
+                books.add(cards.get(ord));
+            }
+        }
+        return books;
+    }
+
+    private List<FacetCountDTO> genreCounts(BitSet base) {
+        List<FacetCountDTO> counts = new ArrayList<>();
+        byGenre.forEach((genreId, books) -> {
+            int count = countAnd(base, books);
+            if (count > 0) {
+                counts.add(new FacetCountDTO(genreId.toString(), genreNames.get(genreId), count));
+            }
+        });
+        counts.sort(Comparator.comparingInt(FacetCountDTO::count).reversed().thenComparing(FacetCountDTO::label));
+        return counts;
+    }
+
+    private List<FacetCountDTO> decadeCounts(BitSet base) {
+        List<FacetCountDTO> counts = new ArrayList<>();
+        byDecade.forEach((decade, books) -> {
+            int count = countAnd(base, books);
+            if (count > 0) {
+                counts.add(new FacetCountDTO(String.valueOf(decade), decade + "-" + (decade + 9), count));
+            }
+        });
+        return counts;
+    }
+
+    // narastająco od najwyższego progu: "8+" obejmuje pasma 8 i 9
+    private List<FacetCountDTO> ratingCounts(BitSet base) {
+        List<FacetCountDTO> counts = new ArrayList<>();
+        int cumulative = 0;
+        for (int band = RATING_BANDS - 1; band >= 1; band--) {
+            cumulative += countAnd(base, byRating[band]);
+            if (cumulative > 0) {
+                counts.add(new FacetCountDTO(String.valueOf(band), band + "+", cumulative));
+            }
+        }
+        return counts;
+    }
+
+    // ZAPIS
+
+    // wywoływane po commicie (BookCardService); odczyt bazy poza blokadą, podmiana bitów pod blokadą zapisu
+    public synchronized void refreshBooks(Collection<UUID> bookIds) {
+        List<CardRow> rows = bookCardDao.findRows(bookIds);
+        lock.writeLock().lock();
+        try {
+            bookIds.forEach(bookId -> {
+                Integer ord = ordinals.get(bookId);
+                if (ord != null) {
+                    unindex(ord);
+                }
+            });
+            rows.forEach(this::index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // usunięcie autora usuwa jego książki - zdejmowane są wszystkie pozycje autora, nie tylko te z wyniku
+    public synchronized void refreshAuthor(UUID authorId) {
+        List<CardRow> rows = bookCardDao.findRowsByAuthor(authorId);
+        lock.writeLock().lock();
+        try {
+            for (int ord = alive.nextSetBit(0); ord >= 0; ord = alive.nextSetBit(ord + 1)) {
+                if (authorId.equals(cards.get(ord).authorId())) {
+                    unindex(ord);
+                }
+            }
+            rows.forEach(this::index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // start (po kartach) i okresowo - numery znów w kolejności tytułów, bez pustych pozycji
+    @Scheduled(initialDelayString = "${bookaroo.facets.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${bookaroo.facets.rebuild-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        List<CardRow> rows = new ArrayList<>();
+        bookCardDao.forEachRow(rows::add);
+        lock.writeLock().lock();
+        try {
+            cards.clear();
+            ordinals.clear();
+            alive.clear();
+            byGenre.clear();
+            genreNames.clear();
+            byDecade.clear();
+            for (BitSet band : byRating) {
+                band.clear();
+            }
+            rows.forEach(this::index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indeks faset przebudowany w {} ms ({} książek)", System.currentTimeMillis() - start, rows.size());
+    }
+
+    private void index(CardRow row) {
+        BookDTO card = row.card();
+        Integer existing = ordinals.get(card.id());
+        int ord;
+        if (existing == null) {
+            ord = cards.size();
+            cards.add(card);
+            ordinals.put(card.id(), ord);
+        } else {
+            ord = existing;
+            cards.set(ord, card);
+        }
+        alive.set(ord);
+
+        // genreIds w tej samej kolejności co nazwy w karcie
+        for (int i = 0; i < row.genreIds().size(); i++) {
+            UUID genreId = row.genreIds().get(i);
+            byGenre.computeIfAbsent(genreId, id -> new BitSet()).set(ord);
+            genreNames.put(genreId, card.genres().get(i));
+        }
+        if (card.publicationYear() != null) {
+            byDecade.computeIfAbsent(decade(card.publicationYear()), d -> new BitSet()).set(ord);
+        }
+        if (card.averageRating() != null) {
+            byRating[Math.min(RATING_BANDS - 1, (int) Math.floor(card.averageRating()))].set(ord);
+        }
+    }
+
+    // pozycja zostaje przypisana do książki - zmieniona książka wraca na to samo miejsce
+    private void unindex(int ord) {
+        alive.clear(ord);
+        byGenre.values().forEach(books -> books.clear(ord));
+        byDecade.values().forEach(books -> books.clear(ord));
+        for (BitSet band : byRating) {
+            band.clear(ord);
+        }
+    }
+
+    private static int decade(int year) {
+        return year / 10 * 10;
+    }
+}
@@ -0,0 +1,174 @@
+package org.example.bookaroo.service;
+
+import org.example.bookaroo.dto.BookDTO;
+import org.example.bookaroo.repository.BookCardDao;
+import org.example.bookaroo.repository.BookCardDao.CardRow;
+import org.example.bookaroo.repository.StatisticsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+// Ranking najlepiej ocenianych książek w pamięci - /top bez sortowania tabeli.
+// Wynik bayesowski: (C * m + n * średnia) / (C + n), gdzie m to średnia wszystkich ocen, C - waga a priori,
+// więc książka z jedną oceną 10 nie wyprzedza książki z setkami ocen 9.
+// Tablice: ogólna, per gatunek i per rok wydania. Zmiany recenzji trafiają tu po commicie (BookCardService),
+// pełna przebudowa przy starcie i okresowo - wtedy też przeliczana jest średnia m.
+@Service
+public class BookRankingService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookRankingService.class);
+
+    // górny limit /top - tablice trzymają co najmniej tyle pozycji
+    public static final int MAX_LIMIT = 100;
+
+    private final BookCardDao bookCardDao;
+    private final StatisticsRepository statisticsRepository;
+    private final Executor rebuildExecutor;
+    private final double priorWeight;
+    private final int capacity;
+
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    private volatile Boards boards;
+
+    private record Boards(double prior,
+                          Leaderboard global,
+                          Map<UUID, Leaderboard> byGenre,
+                          Map<Integer, Leaderboard> byYear) {}
+
+    public BookRankingService(BookCardDao bookCardDao,
+                              StatisticsRepository statisticsRepository,
+                              @Qualifier("taskScheduler") Executor rebuildExecutor,
+                              @Value("${bookaroo.ranking.prior-weight:10}") double priorWeight,
+                              @Value("${bookaroo.ranking.capacity:200}") int capacity) {
+        this.bookCardDao = bookCardDao;
+        this.statisticsRepository = statisticsRepository;
+        this.rebuildExecutor = rebuildExecutor;
+        this.priorWeight = priorWeight;
+        this.capacity = Math.max(capacity, MAX_LIMIT);
+        this.boards = emptyBoards(0.0);
+    }
+
+    // ODCZYT
+
+    // genreId i year wzajemnie się wykluczają; bez obu - ranking ogólny
+    public List<BookDTO> top(int limit, UUID genreId, Integer year) {
+        if (genreId != null && year != null) {
+            throw new IllegalArgumentException("Ranking można zawęzić do gatunku albo do roku, nie do obu naraz");
+        }
+        int n = Math.max(1, Math.min(limit, MAX_LIMIT));
+        Leaderboard board = board(genreId, year);
+        if (board != null && !board.covers(n)) {
+            // członkowie spadli pod próg - poza tablicą mogą być lepsze książki; żądanie dostaje tyle pozycji,
+            // ile tablica ma pewnych, a przebudowa idzie w tle na wątku harmonogramu
+            requestRebuild();
+        }
+        return board == null ? List.of() : board.top(n);
+    }
+
+    // wiele żądań naraz zleca jedną przebudowę
+    private void requestRebuild() {
+        if (!rebuildPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            rebuildExecutor.execute(() -> {
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.warn("Przebudowa rankingu w tle nie powiodła się", e);
+                } finally {
+                    rebuildPending.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            rebuildPending.set(false);
+            log.warn("Nie udało się zlecić przebudowy rankingu", e);
+        }
+    }
+
+    private Leaderboard board(UUID genreId, Integer year) {
+        Boards current = boards;
+        if (genreId != null) {
+            return current.byGenre().get(genreId);
+        }
+        if (year != null) {
+            return current.byYear().get(year);
+        }
+        return current.global();
+    }
+
+    // ZAPIS
+
+    // refresh i rebuild pod tą samą blokadą - odświeżenie nie zginie w podmienianej tablicy
+    public synchronized void refreshBooks(Collection<UUID> bookIds) {
+        Set<UUID> ids = Set.copyOf(bookIds);
+        refresh(entry -> ids.contains(entry.bookId()), bookCardDao.findRows(ids));
+    }
+
+    // usunięcie autora usuwa jego książki - zdejmowane są wszystkie wpisy autora, nie tylko te z wyniku
+    public synchronized void refreshAuthor(UUID authorId) {
+        refresh(entry -> authorId.equals(entry.card().authorId()), bookCardDao.findRowsByAuthor(authorId));
+    }
+
+    // najpierw zdjęcie ze wszystkich tablic - książka mogła zmienić gatunek, rok lub stracić recenzje
+    private void refresh(Predicate<Leaderboard.Entry> stale, List<CardRow> rows) {
+        Boards current = boards;
+        current.global().removeIf(stale);
+        current.byGenre().values().forEach(board -> board.removeIf(stale));
+        current.byYear().values().forEach(board -> board.removeIf(stale));
+        rows.forEach(row -> offer(current, row));
+    }
+
+    @Scheduled(initialDelayString = "${bookaroo.ranking.rebuild-interval-ms:900000}",
+            fixedDelayString = "${bookaroo.ranking.rebuild-interval-ms:900000}")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Double globalAverage = statisticsRepository.getGlobalAverageRating();
+        Boards rebuilt = emptyBoards(globalAverage == null ? 0.0 : globalAverage);
+        bookCardDao.forEachRow(row -> offer(rebuilt, row));
+        boards = rebuilt;
+        log.info("Ranking książek przebudowany w {} ms ({} w tablicy ogólnej)",
+                System.currentTimeMillis() - start, rebuilt.global().size());
+    }
+
+    double score(double average, int reviewCount, double prior) {
+        return (priorWeight * prior + reviewCount * average) / (priorWeight + reviewCount);
+    }
+
+    // książki bez recenzji nie są rankingowane
+    private void offer(Boards target, CardRow row) {
+        if (row.reviewCount() == 0) {
+            return;
+        }
+        BookDTO card = row.card();
+        Leaderboard.Entry entry = new Leaderboard.Entry(card.id(),
+                score(card.averageRating(), row.reviewCount(), target.prior()), card);
+        target.global().offer(entry);
+        row.genreIds().forEach(genreId -> target.byGenre().computeIfAbsent(genreId, id -> newBoard()).offer(entry));
+        if (card.publicationYear() != null) {
+            target.byYear().computeIfAbsent(card.publicationYear(), y -> newBoard()).offer(entry);
+        }
+    }
+
+    private Boards emptyBoards(double prior) {
+        return new Boards(prior, newBoard(), new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    }
+
+    private Leaderboard newBoard() {
+        return new Leaderboard(capacity);
+    }
+}
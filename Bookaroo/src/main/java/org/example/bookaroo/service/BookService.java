@@ -1,14 +1,18 @@
 package org.example.bookaroo.service;
 
 import jakarta.validation.Valid;
+import org.example.bookaroo.dto.AuthorSummaryDTO;
 import org.example.bookaroo.dto.BookDTO;
 import org.example.bookaroo.dto.BookStatisticsDTO;
 import org.example.bookaroo.dto.mapper.BookMapper;
 import org.example.bookaroo.entity.Book;
 import org.example.bookaroo.entity.Author;
+import org.example.bookaroo.entity.ChangeLogEntry.EntityType;
+import org.example.bookaroo.entity.ChangeLogEntry.Operation;
 import org.example.bookaroo.exception.ResourceNotFoundException;
 import org.example.bookaroo.repository.*;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,19 +28,45 @@ public class BookService {
     private final BookDAO bookDAO;
     private final StatisticsRepository statisticsRepository;
     private final AuthorRepository authorRepository;
+    private final ChangeFeedService changeFeedService;
+    private final AuthorLookupDao authorLookupDao;
+    private final BookCardDao bookCardDao;
+    private final BookCardService bookCardService;
+    private final BookRankingService bookRankingService;
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    // górny limit podpowiedzi - odpowiedź zawsze mała, niezależnie od parametru
+    public static final int MAX_AUTHOR_SUGGESTIONS = 50;
 
     public BookService(BookRepository bookRepository,
                        BookDAO bookDAO,
                        StatisticsRepository statisticsRepository,
-                       AuthorRepository authorRepository) {
+                       AuthorRepository authorRepository,
+                       ChangeFeedService changeFeedService,
+                       AuthorLookupDao authorLookupDao,
+                       BookCardDao bookCardDao,
+                       BookCardService bookCardService,
+                       BookRankingService bookRankingService,
+                       CatalogSnapshotService catalogSnapshotService) {
         this.bookRepository = bookRepository;
         this.bookDAO = bookDAO;
         this.statisticsRepository = statisticsRepository;
         this.authorRepository = authorRepository;
+        this.changeFeedService = changeFeedService;
+        this.authorLookupDao = authorLookupDao;
+        this.bookCardDao = bookCardDao;
+        this.bookCardService = bookCardService;
+        this.bookRankingService = bookRankingService;
+        this.catalogSnapshotService = catalogSnapshotService;
     }
 
-    @Transactional(readOnly = true)
+    // Odczyty katalogu z migawki (CatalogSnapshotService) - bez transakcji, żeby nie brać połączenia z puli.
+    // Przed pierwszą budową migawki (start aplikacji) - z bazy, jak dotąd.
     public BookDTO getBookDetails(UUID id) {
+        CatalogSnapshot catalog = catalogSnapshotService.current();
+        if (catalog != null) {
+            return catalog.book(id).orElseThrow(() -> new ResourceNotFoundException("Book", "id", id));
+        }
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Book", "id", id));
 
@@ -52,6 +82,8 @@ public class BookService {
         book.setAuthor(author);
 
         Book savedBook = bookRepository.save(book);
+        changeFeedService.record(EntityType.BOOK, savedBook.getId(), Operation.UPSERT);
+        bookCardService.refreshBook(savedBook.getId());
 
         return BookMapper.toDto(savedBook);
     }
@@ -71,22 +103,36 @@ public class BookService {
         }
 
         Book savedBook = bookRepository.save(book);
+        changeFeedService.record(EntityType.BOOK, id, Operation.UPSERT);
+        bookCardService.refreshBook(id);
         return BookMapper.toDto(savedBook);
     }
 
     @Transactional
     public void deleteById(UUID id) {
         bookRepository.deleteById(id);
+        changeFeedService.record(EntityType.BOOK, id, Operation.DELETE);
+        bookCardService.refreshBook(id);
     }
 
-    @Transactional(readOnly = true)
-    public Page<Book> findAll(Pageable pageable) {
-        return bookRepository.findAll(pageable);
+    // listy czytają karty (book_cards) - bez mapowania encji i bez kolumny description
+    public Page<BookDTO> findAll(Pageable pageable) {
+        CatalogSnapshot catalog = catalogSnapshotService.current();
+        if (catalog != null) {
+            return new PageImpl<>(catalog.page(pageable.getOffset(), pageable.getPageSize()), pageable, catalog.size());
+        }
+        return new PageImpl<>(bookCardDao.findPage(pageable.getOffset(), pageable.getPageSize()),
+                pageable, bookCardDao.count());
     }
 
-    @Transactional(readOnly = true)
-    public Page<Book> findByGenresId(UUID genreId, Pageable pageable) {
-        return bookRepository.findByGenresId(genreId, pageable);
+    public Page<BookDTO> findByGenresId(UUID genreId, Pageable pageable) {
+        CatalogSnapshot catalog = catalogSnapshotService.current();
+        if (catalog != null) {
+            return new PageImpl<>(catalog.byGenre(genreId, pageable.getOffset(), pageable.getPageSize()),
+                    pageable, catalog.countByGenre(genreId));
+        }
+        return new PageImpl<>(bookCardDao.findByGenre(genreId, pageable.getOffset(), pageable.getPageSize()),
+                pageable, bookCardDao.countByGenre(genreId));
     }
 
     @Transactional(readOnly = true)
@@ -94,64 +140,79 @@ public class BookService {
         return bookRepository.findById(id);
     }
 
-    @Transactional(readOnly = true)
     public List<BookDTO> searchBooksList(String query) {
-        return bookRepository.searchBooks(query)
-                .stream()
-                .map(BookMapper::toDto)
-                .toList();
+        CatalogSnapshot catalog = catalogSnapshotService.current();
+        if (catalog != null) {
+            return catalog.search(query, 0, Integer.MAX_VALUE);
+        }
+        return bookCardDao.search(query, 0, Integer.MAX_VALUE);
     }
 
-    @Transactional(readOnly = true)
-    public Page<Book> searchBooks(String query, Pageable pageable) {
-        return bookRepository.searchBooks(query, pageable);
+    public Page<BookDTO> searchBooks(String query, Pageable pageable) {
+        CatalogSnapshot catalog = catalogSnapshotService.current();
+        if (catalog != null) {
+            return new PageImpl<>(catalog.search(query, pageable.getOffset(), pageable.getPageSize()),
+                    pageable, catalog.countSearch(query));
+        }
+        return new PageImpl<>(bookCardDao.search(query, pageable.getOffset(), pageable.getPageSize()),
+                pageable, bookCardDao.countSearch(query));
     }
 
-    @Transactional(readOnly = true)
-    public Page<Book> getBooksByAuthorId(UUID authorId, Pageable pageable) {
-        Author author = authorRepository.findById(authorId)
-                .orElseThrow(() -> new ResourceNotFoundException("Author", "id", authorId));
-
-        return bookRepository.findByAuthor(author, pageable);
+    public Page<BookDTO> getBooksByAuthorId(UUID authorId, Pageable pageable) {
+        CatalogSnapshot catalog = catalogSnapshotService.current();
+        if (catalog != null) {
+            if (!catalog.hasAuthor(authorId)) {
+                throw new ResourceNotFoundException("Author", "id", authorId);
+            }
+            return new PageImpl<>(catalog.byAuthor(authorId, pageable.getOffset(), pageable.getPageSize()),
+                    pageable, catalog.countByAuthor(authorId));
+        }
+        if (!authorRepository.existsById(authorId)) {
+            throw new ResourceNotFoundException("Author", "id", authorId);
+        }
+        return new PageImpl<>(bookCardDao.findByAuthor(authorId, pageable.getOffset(), pageable.getPageSize()),
+                pageable, bookCardDao.countByAuthor(authorId));
     }
 
     @Transactional
     public void createBookViaSql(Book book) {
         bookDAO.insertBook(book);
+        changeFeedService.record(EntityType.BOOK, book.getId(), Operation.UPSERT);
+        bookCardService.refreshBook(book.getId());
     }
 
     @Transactional
     public void deleteBookViaSql(UUID id) {
         bookDAO.deleteBook(id);
+        changeFeedService.record(EntityType.BOOK, id, Operation.DELETE);
+        bookCardService.refreshBook(id);
     }
 
-    @Transactional(readOnly = true)
     public List<BookDTO> findAllList() {
-        return bookRepository.findAll()
-                .stream()
-                .map(BookMapper::toDto)
-                .toList();
-    }
-
-    public List<Book> getTopRatedBooksViaSql(int limit) {
-        return bookDAO.findTopRatedBooks(limit);
+        CatalogSnapshot catalog = catalogSnapshotService.current();
+        if (catalog != null) {
+            return catalog.cards();
+        }
+        return bookCardDao.findAll();
     }
 
-    public List<Book> getBooksByYearViaSql(int year) {
-        return bookDAO.findBooksByPublicationYear(year);
+    // ranking w pamięci - bez zapytania do bazy
+    public List<BookDTO> getTopRatedBooks(int limit, UUID genreId, Integer year) {
+        return bookRankingService.top(limit, genreId, year);
     }
 
-    public void updateBookRatingViaSql(UUID bookId, Double newRating) {
-        bookDAO.updateBookRating(bookId, newRating);
+    public List<BookDTO> getBooksByYearViaSql(int year) {
+        CatalogSnapshot catalog = catalogSnapshotService.current();
+        if (catalog != null) {
+            return catalog.byYear(year);
+        }
+        return bookCardDao.findByYear(year);
     }
 
-    @Transactional
-    public void updateBookRating(UUID bookId, double newAverageRating) {
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new IllegalArgumentException("Książka nie istnieje o ID: " + bookId));
-
-        book.setAverageRating(newAverageRating);
-        bookRepository.save(book);
+    // średnią i liczbę recenzji zmienił już ReviewJdbcDao - zostaje dziennik zmian i karta
+    public void ratingChanged(UUID bookId) {
+        changeFeedService.record(EntityType.BOOK, bookId, Operation.UPSERT);
+        bookCardService.refreshBook(bookId);
     }
 
     public BookStatisticsDTO getBookStatistics(UUID bookId) {
@@ -197,6 +258,10 @@ public class BookService {
     }
 
     public Map<UUID, Double> getAllBookAverageRatings() {
+        CatalogSnapshot catalog = catalogSnapshotService.current();
+        if (catalog != null) {
+            return catalog.averageRatings();
+        }
         return statisticsRepository.getAllBookAverageRatings();
     }
 
@@ -204,6 +269,14 @@ public class BookService {
         return authorRepository.findAll();
     }
 
+    public List<AuthorSummaryDTO> searchAuthors(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        int safeLimit = Math.max(1, Math.min(limit, MAX_AUTHOR_SUGGESTIONS));
+        return authorLookupDao.searchByPrefix(query, safeLimit);
+    }
+
     public Author getAuthorById(UUID id) {
         return authorRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Author", "id", id));
@@ -212,10 +285,30 @@ public class BookService {
     @Transactional
     public void saveAuthor(Author author) {
         authorRepository.save(author);
+        // zmiana imienia lub nazwiska - karty wszystkich książek autora
+        if (author.getId() != null) {
+            bookCardService.refreshAuthor(author.getId());
+        }
     }
 
     @Transactional
     public void deleteAuthor(UUID id) {
+        // książki autora i ich recenzje znikają kaskadowo - identyfikatory do dziennika zmian zbierane przed usunięciem
+        List<Book> books = authorRepository.findById(id)
+                .map(author -> author.getBooks() == null ? List.<Book>of() : List.copyOf(author.getBooks()))
+                .orElse(List.of());
+        Map<UUID, UUID> reviewBooks = new HashMap<>();
+        for (Book book : books) {
+            if (book.getReviews() != null) {
+                book.getReviews().forEach(review -> reviewBooks.put(review.getId(), book.getId()));
+            }
+        }
+
         authorRepository.deleteById(id);
+        reviewBooks.forEach((reviewId, bookId) ->
+                changeFeedService.record(EntityType.REVIEW, reviewId, bookId, Operation.DELETE, null));
+        books.forEach(book -> changeFeedService.record(EntityType.BOOK, book.getId(), Operation.DELETE));
+        // razem z książkami znikają ich karty
+        bookCardService.refreshAuthor(id);
     }
 }
\ No newline at end of file
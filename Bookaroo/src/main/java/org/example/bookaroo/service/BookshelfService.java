@@ -1,21 +1,29 @@
 package org.example.bookaroo.service;
 
+import org.example.bookaroo.dto.BookDTO;
 import org.example.bookaroo.dto.BookshelfDTO;
 import org.example.bookaroo.dto.mapper.BookshelfMapper;
 import org.example.bookaroo.entity.Book;
 import org.example.bookaroo.entity.Bookshelf;
+import org.example.bookaroo.entity.Bookshelf.ShelfType;
 import org.example.bookaroo.entity.BookshelfBook;
+import org.example.bookaroo.entity.ChangeLogEntry.EntityType;
+import org.example.bookaroo.entity.ChangeLogEntry.Operation;
 import org.example.bookaroo.entity.User;
 import org.example.bookaroo.exception.ResourceNotFoundException;
+import org.example.bookaroo.repository.BookCardDao;
 import org.example.bookaroo.repository.BookRepository;
 import org.example.bookaroo.repository.BookshelfBookRepository;
 import org.example.bookaroo.repository.BookshelfRepository;
+import org.example.bookaroo.repository.StatisticsRepository;
 import org.example.bookaroo.repository.UserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -25,26 +33,39 @@ public class BookshelfService {
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
     private final BookshelfBookRepository bookshelfBookRepository;
-
-    public BookshelfService(BookshelfRepository bookshelfRepository, BookRepository bookRepository, UserRepository userRepository, BookshelfBookRepository bookshelfBookRepository) {
+    private final ChangeFeedService changeFeedService;
+    private final BookCardDao bookCardDao;
+    private final BookCardService bookCardService;
+    private final StatisticsRepository statisticsRepository;
+    private final TrendingService trendingService;
+
+    public BookshelfService(BookshelfRepository bookshelfRepository, BookRepository bookRepository, UserRepository userRepository, BookshelfBookRepository bookshelfBookRepository, ChangeFeedService changeFeedService,
+                            BookCardDao bookCardDao, BookCardService bookCardService, StatisticsRepository statisticsRepository,
+                            TrendingService trendingService) {
         this.bookshelfRepository = bookshelfRepository;
         this.bookRepository = bookRepository;
         this.userRepository = userRepository;
         this.bookshelfBookRepository = bookshelfBookRepository;
+        this.changeFeedService = changeFeedService;
+        this.bookCardDao = bookCardDao;
+        this.bookCardService = bookCardService;
+        this.statisticsRepository = statisticsRepository;
+        this.trendingService = trendingService;
     }
 
     public List<Bookshelf> generateDefaultShelves(User user) {
         List<Bookshelf> shelves = new ArrayList<>();
-        shelves.add(createShelfEntity(user, "Przeczytane", true));
-        shelves.add(createShelfEntity(user, "Chcę przeczytać", true));
-        shelves.add(createShelfEntity(user, "Teraz czytam", true));
+        shelves.add(createShelfEntity(user, "Przeczytane", true, ShelfType.READ));
+        shelves.add(createShelfEntity(user, "Chcę przeczytać", true, ShelfType.WANT_TO_READ));
+        shelves.add(createShelfEntity(user, "Teraz czytam", true, ShelfType.CURRENTLY_READING));
         return shelves;
     }
 
-    private Bookshelf createShelfEntity(User user, String name, boolean isDefault) {
+    private Bookshelf createShelfEntity(User user, String name, boolean isDefault, ShelfType type) {
         Bookshelf shelf = new Bookshelf();
         shelf.setName(name);
         shelf.setIsDefault(isDefault);
+        shelf.setType(type);
         shelf.setUser(user);
         return shelf;
     }
@@ -62,8 +83,9 @@ public class BookshelfService {
             throw new IllegalArgumentException("Półka " + shelfName + " już istnieje");
         }
 
-        Bookshelf shelf = createShelfEntity(user, shelfName, false);
+        Bookshelf shelf = createShelfEntity(user, shelfName, false, ShelfType.CUSTOM);
         bookshelfRepository.save(shelf);
+        changeFeedService.record(EntityType.BOOKSHELF, shelf.getId(), null, Operation.UPSERT, userId);
     }
 
     @Transactional(readOnly = true)
@@ -74,19 +96,21 @@ public class BookshelfService {
     @Transactional(readOnly = true)
     public List<BookshelfDTO> getUserShelvesByUsername(String username) {
         return userRepository.findByUsername(username)
-                .map(user -> bookshelfRepository.findAllByUserId(user.getId()))
-                .orElseGet(java.util.Collections::emptyList)
-                .stream()
-                .map(BookshelfMapper::toDto)
-                .toList();
+                .map(user -> toDtosWithCards(bookshelfRepository.findAllByUserId(user.getId())))
+                .orElseGet(java.util.Collections::emptyList);
     }
 
     @Transactional(readOnly = true)
     public List<BookshelfDTO> getUserShelvesWithDetails(UUID userId) {
-        List<Bookshelf> shelves = bookshelfRepository.findAllByUserId(userId);
+        return toDtosWithCards(bookshelfRepository.findAllByUserId(userId));
+    }
+
+    // książki wszystkich półek jednym zapytaniem do book_cards
+    private List<BookshelfDTO> toDtosWithCards(List<Bookshelf> shelves) {
+        Map<UUID, List<BookDTO>> cards = bookCardDao.findByShelfIds(shelves.stream().map(Bookshelf::getId).toList());
 
         return shelves.stream()
-                .map(BookshelfMapper::toDto)
+                .map(shelf -> BookshelfMapper.toDto(shelf, cards.getOrDefault(shelf.getId(), List.of())))
                 .toList();
     }
 
@@ -129,13 +153,30 @@ public class BookshelfService {
             return;
         }
         // przenoszenie książki
+        BookshelfBook readItem = findReadItem(user, bookId);
+        long removed = 0;
         for (Bookshelf shelf : user.getBookshelves()) {
-            bookshelfBookRepository.deleteByBookshelfIdAndBookId(shelf.getId(), book.getId());
+            removed += bookshelfBookRepository.deleteByBookshelfIdAndBookId(shelf.getId(), book.getId());
         }
 
         // dodanie do nowej półki
         BookshelfBook newItem = new BookshelfBook(targetShelf, book);
         bookshelfBookRepository.save(newItem);
+        // przeniesienie nie zmienia licznika, pierwsze dodanie zwiększa o 1
+        adjustReadersCount(bookId, 1 - removed);
+        if (readItem != null) {
+            adjustBooksRead(userId, bookId, readItem.getAddedAt(), -1);
+        }
+        if (targetShelf.getType() == ShelfType.READ) {
+            adjustBooksRead(userId, bookId, newItem.getAddedAt(), 1);
+        }
+        // książka jest na co najwyżej jednej półce - wpis oznacza też zdjęcie jej z poprzedniej
+        changeFeedService.record(EntityType.SHELF_ITEM, bookId, targetShelfId, Operation.UPSERT, userId);
+        bookCardService.refreshBook(bookId);
+        // przeniesienie między półkami to nie nowe dodanie
+        if (removed == 0) {
+            trendingService.recordShelfAdd(bookId);
+        }
     }
 
     @Transactional
@@ -143,8 +184,42 @@ public class BookshelfService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
 
+        BookshelfBook readItem = findReadItem(user, bookId);
+        long removed = 0;
         for (Bookshelf shelf : user.getBookshelves()) {
-            bookshelfBookRepository.deleteByBookshelfIdAndBookId(shelf.getId(), bookId);
+            removed += bookshelfBookRepository.deleteByBookshelfIdAndBookId(shelf.getId(), bookId);
+        }
+        // książki nie było na półkach - nic się nie zmieniło, bez wpisu DELETE w change feedzie
+        if (removed == 0) {
+            return;
+        }
+        adjustReadersCount(bookId, -removed);
+        if (readItem != null) {
+            adjustBooksRead(userId, bookId, readItem.getAddedAt(), -1);
+        }
+        changeFeedService.record(EntityType.SHELF_ITEM, bookId, null, Operation.DELETE, userId);
+        bookCardService.refreshBook(bookId);
+    }
+
+    // wpis książki na półce READ użytkownika (przed przeniesieniem/usunięciem)
+    private BookshelfBook findReadItem(User user, UUID bookId) {
+        return user.getBookshelves().stream()
+                .filter(shelf -> shelf.getType() == ShelfType.READ)
+                .flatMap(shelf -> shelf.getItems().stream())
+                .filter(item -> item.getBook().getId().equals(bookId))
+                .findFirst()
+                .orElse(null);
+    }
+
+    // licznik wyzwania liczy rok dodania na półkę READ
+    private void adjustBooksRead(UUID userId, UUID bookId, LocalDateTime addedAt, int delta) {
+        int year = (addedAt != null ? addedAt : LocalDateTime.now()).getYear();
+        statisticsRepository.adjustBooksReadInYear(userId, year, bookId, delta);
+    }
+
+    private void adjustReadersCount(UUID bookId, long delta) {
+        if (delta != 0) {
+            statisticsRepository.adjustReadersCount(bookId, (int) delta);
         }
     }
-}
\ No newline at end of file
+}
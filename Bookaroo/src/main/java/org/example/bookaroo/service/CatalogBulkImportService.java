@@ -0,0 +1,370 @@
+package org.example.bookaroo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.exceptions.CsvValidationException;
+import org.example.bookaroo.dto.BulkBookRowDTO;
+import org.example.bookaroo.dto.BulkImportReportDTO;
+import org.example.bookaroo.dto.BulkRowErrorDTO;
+import org.example.bookaroo.entity.UuidV7Generator;
+import org.example.bookaroo.repository.BookCardDao;
+import org.example.bookaroo.repository.CatalogBulkDao;
+import org.example.bookaroo.repository.CatalogBulkDao.BookGenreLink;
+import org.example.bookaroo.repository.CatalogBulkDao.NewAuthor;
+import org.example.bookaroo.repository.CatalogBulkDao.NewBook;
+import org.example.bookaroo.repository.CatalogBulkDao.NewGenre;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// Import masowy katalogu (feed wydawcy: CSV lub NDJSON) - strumieniowo, paczkami po chunkSize książek.
+// Każda paczka to osobna transakcja z batchUpdate; gdy paczka się nie zapisze, jej wiersze są
+// ponawiane pojedynczo, żeby raport wskazał dokładnie wadliwe wiersze, a reszta weszła do katalogu.
+@Service
+public class CatalogBulkImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogBulkImportService.class);
+
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final String GENRE_SEPARATOR = "\\|";
+
+    private final CatalogBulkDao catalogBulkDao;
+    private final BookCardDao bookCardDao;
+    private final BookCardService bookCardService;
+    private final ChangeFeedService changeFeedService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    public CatalogBulkImportService(CatalogBulkDao catalogBulkDao, BookCardDao bookCardDao,
+                                    BookCardService bookCardService, ChangeFeedService changeFeedService,
+                                    ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${bookaroo.bulk.chunk-size:1000}") int chunkSize,
+                                    @Value("${bookaroo.bulk.max-reported-errors:1000}") int maxReportedErrors) {
+        this.catalogBulkDao = catalogBulkDao;
+        this.bookCardDao = bookCardDao;
+        this.bookCardService = bookCardService;
+        this.changeFeedService = changeFeedService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    // NDJSON: jeden obiekt BulkBookRowDTO na linię
+    public BulkImportReportDTO importNdjson(InputStream input) throws IOException {
+        Ingest ingest = new Ingest();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                ingest.accept(lineNumber, objectMapper.readValue(line, BulkBookRowDTO.class));
+            } catch (JsonProcessingException e) {
+                ingest.reject(lineNumber, null, "Niepoprawny JSON: " + e.getOriginalMessage());
+            }
+        }
+        return ingest.finish();
+    }
+
+    // CSV z nagłówkiem: title, isbn, authorName, authorSurname, publicationYear, description, genres (rozdzielane |)
+    // separator ',' lub ';' (jak w eksporcie recenzji) - wykrywany z nagłówka
+    public BulkImportReportDTO importCsv(InputStream input) throws IOException {
+        Ingest ingest = new Ingest();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        reader.mark(64 * 1024);
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            return ingest.finish();
+        }
+        reader.reset();
+        char separator = count(headerLine, ';') > count(headerLine, ',') ? ';' : ',';
+
+        try (CSVReader csv = new CSVReaderBuilder(reader)
+                .withCSVParser(new CSVParserBuilder().withSeparator(separator).build())
+                .build()) {
+            Map<String, Integer> columns = columnIndex(csv.readNext());
+            for (String required : List.of("title", "isbn", "authorname", "authorsurname")) {
+                if (!columns.containsKey(required)) {
+                    throw new IllegalArgumentException("Brak wymaganej kolumny w nagłówku CSV: " + required);
+                }
+            }
+
+            long rowNumber = 0;
+            while (true) {
+                String[] values;
+                try {
+                    values = csv.readNext();
+                } catch (CsvValidationException e) {
+                    ingest.reject(++rowNumber, null, "Niepoprawny wiersz CSV: " + e.getMessage());
+                    continue;
+                }
+                if (values == null) {
+                    break;
+                }
+                rowNumber++;
+                if (values.length == 1 && values[0].isBlank()) {
+                    continue;
+                }
+
+                String year = column(values, columns, "publicationyear");
+                Integer publicationYear;
+                try {
+                    publicationYear = year == null || year.isBlank() ? null : Integer.valueOf(year.trim());
+                } catch (NumberFormatException e) {
+                    ingest.reject(rowNumber, column(values, columns, "isbn"), "Niepoprawny rok wydania: " + year);
+                    continue;
+                }
+
+                String genres = column(values, columns, "genres");
+                ingest.accept(rowNumber, new BulkBookRowDTO(
+                        column(values, columns, "title"),
+                        column(values, columns, "isbn"),
+                        column(values, columns, "authorname"),
+                        column(values, columns, "authorsurname"),
+                        publicationYear,
+                        column(values, columns, "description"),
+                        genres == null || genres.isBlank() ? List.of() : List.of(genres.split(GENRE_SEPARATOR))
+                ));
+            }
+        } catch (CsvValidationException e) {
+            throw new IllegalArgumentException("Niepoprawny nagłówek CSV: " + e.getMessage(), e);
+        }
+        return ingest.finish();
+    }
+
+    private static Map<String, Integer> columnIndex(String[] header) {
+        if (header == null) {
+            return Map.of();
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            // BOM na początku pliku (np. z eksportu do Excela)
+            String name = header[i].replace("\uFEFF", "").trim().replace("_", "").toLowerCase(Locale.ROOT);
+            columns.put(name, i);
+        }
+        return columns;
+    }
+
+    private static String column(String[] values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index != null && index < values.length ? values[index] : null;
+    }
+
+    private static int count(String text, char c) {
+        return (int) text.chars().filter(ch -> ch == c).count();
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static boolean tooLong(String value) {
+        return value != null && value.trim().length() > MAX_TEXT_LENGTH;
+    }
+
+    private record PendingRow(long rowNumber, String isbn, BulkBookRowDTO data) {}
+
+    // stan jednego importu - słowniki w pamięci zamiast zapytań o autora/gatunek dla każdego wiersza
+    private class Ingest {
+
+        private final long startNanos = System.nanoTime();
+        private final Map<String, UUID> authorIds = catalogBulkDao.loadAuthorIds();
+        private final Map<String, UUID> genreIds = catalogBulkDao.loadGenreIds();
+        // ISBN-y z bazy i z przyjętych wierszy - wykrywa też duplikaty w samym pliku
+        private final Set<String> isbns = catalogBulkDao.loadIsbns();
+
+        private final List<PendingRow> chunk = new ArrayList<>(chunkSize);
+        private final List<BulkRowErrorDTO> errors = new ArrayList<>();
+
+        private long totalRows;
+        private long inserted;
+        private long failed;
+        private int authorsCreated;
+        private int genresCreated;
+
+        void accept(long rowNumber, BulkBookRowDTO row) {
+            totalRows++;
+            String isbn = trimToNull(row.isbn());
+
+            String problem = validate(row, isbn);
+            if (problem != null) {
+                fail(rowNumber, isbn, problem);
+                return;
+            }
+            if (!isbns.add(isbn)) {
+                fail(rowNumber, isbn, "Książka o tym ISBN już istnieje");
+                return;
+            }
+
+            chunk.add(new PendingRow(rowNumber, isbn, row));
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        // wiersz, którego nie dało się nawet sparsować
+        void reject(long rowNumber, String isbn, String message) {
+            totalRows++;
+            fail(rowNumber, isbn, message);
+        }
+
+        private void fail(long rowNumber, String isbn, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new BulkRowErrorDTO(rowNumber, isbn, message));
+            }
+        }
+
+        BulkImportReportDTO finish() {
+            flush();
+            long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+            log.info("Import masowy: {} wierszy, zapisano {}, błędnych {}, nowych autorów {}, gatunków {} w {} ms",
+                    totalRows, inserted, failed, authorsCreated, genresCreated, elapsedMs);
+            return new BulkImportReportDTO(totalRows, inserted, failed, authorsCreated, genresCreated, elapsedMs,
+                    List.copyOf(errors), failed > errors.size());
+        }
+
+        private String validate(BulkBookRowDTO row, String isbn) {
+            if (trimToNull(row.title()) == null) {
+                return "Tytuł jest wymagany";
+            }
+            if (isbn == null) {
+                return "ISBN jest wymagany";
+            }
+            if (trimToNull(row.authorName()) == null || trimToNull(row.authorSurname()) == null) {
+                return "Imię i nazwisko autora są wymagane";
+            }
+            if (tooLong(row.title()) || tooLong(isbn) || tooLong(row.description())
+                    || tooLong(row.authorName()) || tooLong(row.authorSurname())) {
+                return "Pole dłuższe niż " + MAX_TEXT_LENGTH + " znaków";
+            }
+            if (row.genres() != null && row.genres().stream().anyMatch(CatalogBulkImportService::tooLong)) {
+                return "Nazwa gatunku dłuższa niż " + MAX_TEXT_LENGTH + " znaków";
+            }
+            return null;
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<PendingRow> rows = List.copyOf(chunk);
+            chunk.clear();
+
+            if (!write(rows)) {
+                // paczka wycofana - pojedynczo, żeby błąd dotyczył tylko wadliwego wiersza
+                for (PendingRow row : rows) {
+                    if (!write(List.of(row))) {
+                        isbns.remove(row.isbn());
+                    }
+                }
+            }
+        }
+
+        // zapis paczki w jednej transakcji; nowych autorów/gatunków dopisujemy do słowników dopiero po commicie
+        private boolean write(List<PendingRow> rows) {
+            Map<String, UUID> newAuthorIds = new HashMap<>();
+            Map<String, UUID> newGenreIds = new HashMap<>();
+            List<NewAuthor> authors = new ArrayList<>();
+            List<NewGenre> genres = new ArrayList<>();
+            List<NewBook> books = new ArrayList<>(rows.size());
+            List<BookGenreLink> links = new ArrayList<>();
+            List<UUID> bookIds = new ArrayList<>(rows.size());
+
+            for (PendingRow row : rows) {
+                BulkBookRowDTO data = row.data();
+                String name = data.authorName().trim();
+                String surname = data.authorSurname().trim();
+                String authorKey = CatalogBulkDao.authorKey(name, surname);
+
+                UUID authorId = authorIds.get(authorKey);
+                if (authorId == null) {
+                    authorId = newAuthorIds.computeIfAbsent(authorKey, key -> {
+                        UUID id = UuidV7Generator.next();
+                        authors.add(new NewAuthor(id, name, surname));
+                        return id;
+                    });
+                }
+
+                UUID bookId = UuidV7Generator.next();
+                books.add(new NewBook(bookId, data.title().trim(), row.isbn(), trimToNull(data.description()),
+                        data.publicationYear(), authorId));
+                bookIds.add(bookId);
+
+                Set<UUID> bookGenres = new LinkedHashSet<>();
+                if (data.genres() != null) {
+                    for (String genre : data.genres()) {
+                        String genreName = trimToNull(genre);
+                        if (genreName == null) {
+                            continue;
+                        }
+                        String genreKey = CatalogBulkDao.genreKey(genreName);
+                        UUID genreId = genreIds.get(genreKey);
+                        if (genreId == null) {
+                            genreId = newGenreIds.computeIfAbsent(genreKey, key -> {
+                                UUID id = UuidV7Generator.next();
+                                genres.add(new NewGenre(id, genreName));
+                                return id;
+                            });
+                        }
+                        bookGenres.add(genreId);
+                    }
+                }
+                bookGenres.forEach(genreId -> links.add(new BookGenreLink(bookId, genreId)));
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    catalogBulkDao.insertAuthors(authors);
+                    catalogBulkDao.insertGenres(genres);
+                    catalogBulkDao.insertBooks(books);
+                    catalogBulkDao.insertBookGenres(links);
+                    catalogBulkDao.insertBookChanges(bookIds);
+                    changeFeedService.publishAfterCommit();
+                    bookCardDao.refreshBooks(bookIds);
+                    // indeksy w pamięci i migawka katalogu - po commicie paczki
+                    bookCardService.refreshIndexes(bookIds);
+                });
+            } catch (DataAccessException e) {
+                if (rows.size() == 1) {
+                    PendingRow row = rows.get(0);
+                    fail(row.rowNumber(), row.isbn(), "Błąd zapisu: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                } else {
+                    log.debug("Paczka {} wierszy wycofana, ponawianie pojedynczo", rows.size(), e);
+                }
+                return false;
+            }
+
+            authorIds.putAll(newAuthorIds);
+            genreIds.putAll(newGenreIds);
+            authorsCreated += authors.size();
+            genresCreated += genres.size();
+            inserted += rows.size();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.bookaroo.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.bookaroo.repository.CatalogExportDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+// Strumieniowy eksport katalogu jako NDJSON (jedna książka na linię), opcjonalnie gzip
+@Service
+public class CatalogExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogExportService.class);
+    private static final int FLUSH_EVERY = 500;
+
+    private final CatalogExportDao catalogExportDao;
+    private final ObjectMapper objectMapper;
+
+    public CatalogExportService(CatalogExportDao catalogExportDao, ObjectMapper objectMapper) {
+        this.catalogExportDao = catalogExportDao;
+        this.objectMapper = objectMapper;
+    }
+
+    // readOnly - wszystkie strony eksportu czytane w jednej transakcji tylko do odczytu
+    @Transactional(readOnly = true)
+    public long exportNdjson(OutputStream out, boolean gzip) throws IOException {
+        long start = System.currentTimeMillis();
+        OutputStream target = gzip ? new GZIPOutputStream(out, 8192) : out;
+
+        long count;
+        // strumień odpowiedzi zamyka kontener, generator tylko go opróżnia
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(target)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            long[] written = {0};
+            count = catalogExportDao.streamCatalog(book -> {
+                try {
+                    generator.writeObject(book);
+                    generator.writeRaw('\n');
+                    if (++written[0] % FLUSH_EVERY == 0) {
+                        generator.flush();
+                    }
+                } catch (IOException e) {
+                    // np. klient zerwał połączenie - przerywa czytanie kolejnych stron
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        if (target instanceof GZIPOutputStream gzipStream) {
+            gzipStream.finish();
+        }
+        target.flush();
+
+        log.info("Eksport katalogu: {} książek w {} ms (gzip: {})", count, System.currentTimeMillis() - start, gzip);
+        return count;
+    }
+}
@@ -0,0 +1,434 @@
+package org.example.bookaroo.service;
+
+import org.example.bookaroo.dto.AuthorSummaryDTO;
+import org.example.bookaroo.dto.BookDTO;
+import org.example.bookaroo.repository.BookCardDao.CardRow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+// Niezmienna migawka katalogu: karty w kolejności list (tytuł, id), tabele autorów i gatunków,
+// mapy id -> numer porządkowy i listy numerów książek per autor/gatunek. Po publikacji nic się nie zmienia -
+// odczyt bez blokad, zmiana katalogu tworzy nową migawkę (apply) i podmienia referencję.
+public final class CatalogSnapshot {
+
+    // jak ORDER BY c.title, c.id w bazie - H2 porównuje UUID bez znaku
+    static final Comparator<BookDTO> CATALOG_ORDER = Comparator.comparing(BookDTO::title)
+            .thenComparing(BookDTO::id, CatalogSnapshot::compareUnsigned);
+
+    private final CardRow[] rows;
+    private final BookDTO[] cards;
+    private final String[] searchKeys;
+    private final Map<UUID, Integer> ordinals;
+
+    private final AuthorSummaryDTO[] authors;
+    private final Map<UUID, Integer> authorOrdinals;
+    private final int[][] booksByAuthor;
+
+    private final UUID[] genreIds;
+    private final String[] genreNames;
+    private final Map<UUID, Integer> genreOrdinals;
+    private final int[][] booksByGenre;
+
+    private final long heapBytes;
+
+    private CatalogSnapshot(CardRow[] rows, BookDTO[] cards, String[] searchKeys, Map<UUID, Integer> ordinals,
+                            AuthorSummaryDTO[] authors, Map<UUID, Integer> authorOrdinals, int[][] booksByAuthor,
+                            UUID[] genreIds, String[] genreNames, Map<UUID, Integer> genreOrdinals,
+                            int[][] booksByGenre, long heapBytes) {
+        this.rows = rows;
+        this.cards = cards;
+        this.searchKeys = searchKeys;
+        this.ordinals = ordinals;
+        this.authors = authors;
+        this.authorOrdinals = authorOrdinals;
+        this.booksByAuthor = booksByAuthor;
+        this.genreIds = genreIds;
+        this.genreNames = genreNames;
+        this.genreOrdinals = genreOrdinals;
+        this.booksByGenre = booksByGenre;
+        this.heapBytes = heapBytes;
+    }
+
+    // BUDOWA
+
+    // wiersze z opisem (BookCardDao.forEachCatalogRow), autorzy z AuthorLookupDao; gatunki z wierszy
+    public static CatalogSnapshot of(Collection<CardRow> catalogRows, Collection<AuthorSummaryDTO> authorRows) {
+        CardRow[] rows = catalogRows.toArray(CardRow[]::new);
+        Arrays.sort(rows, Comparator.comparing(CardRow::card, CATALOG_ORDER));
+
+        int n = rows.length;
+        BookDTO[] cards = new BookDTO[n];
+        String[] searchKeys = new String[n];
+        Map<UUID, Integer> ordinals = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            cards[i] = withoutDescription(rows[i].card());
+            searchKeys[i] = searchKey(rows[i].card());
+            ordinals.put(rows[i].card().id(), i);
+        }
+
+        AuthorSummaryDTO[] authors = authorRows.toArray(AuthorSummaryDTO[]::new);
+        Map<UUID, Integer> authorOrdinals = new HashMap<>(authors.length * 2);
+        for (int a = 0; a < authors.length; a++) {
+            authorOrdinals.put(authors[a].id(), a);
+        }
+
+        // gatunki z wierszy - genreIds w tej samej kolejności co nazwy w karcie
+        Map<UUID, String> genres = new LinkedHashMap<>();
+        for (CardRow row : rows) {
+            for (int g = 0; g < row.genreIds().size(); g++) {
+                genres.putIfAbsent(row.genreIds().get(g), row.card().genres().get(g));
+            }
+        }
+        UUID[] genreIds = genres.keySet().toArray(UUID[]::new);
+        String[] genreNames = genres.values().toArray(String[]::new);
+        Map<UUID, Integer> genreOrdinals = new HashMap<>(genreIds.length * 2);
+        for (int g = 0; g < genreIds.length; g++) {
+            genreOrdinals.put(genreIds[g], g);
+        }
+
+        int[][] booksByAuthor = group(rows, authors.length,
+                row -> List.of(Objects.requireNonNullElse(authorOrdinals.get(row.card().authorId()), -1)));
+        int[][] booksByGenre = group(rows, genreIds.length,
+                row -> row.genreIds().stream().map(genreOrdinals::get).toList());
+
+        CatalogSnapshot snapshot = new CatalogSnapshot(rows, cards, searchKeys, ordinals, authors, authorOrdinals,
+                booksByAuthor, genreIds, genreNames, genreOrdinals, booksByGenre, 0);
+        return snapshot.withHeapBytes(snapshot.estimateHeapBytes());
+    }
+
+    public static CatalogSnapshot empty() {
+        return of(List.of(), List.of());
+    }
+
+    // numery książek per grupa, rosnąco - czyli w kolejności list
+    private static int[][] group(CardRow[] rows, int groups, Function<CardRow, List<Integer>> keys) {
+        int[] counts = new int[groups];
+        for (CardRow row : rows) {
+            for (int key : keys.apply(row)) {
+                if (key >= 0) {
+                    counts[key]++;
+                }
+            }
+        }
+        int[][] grouped = new int[groups][];
+        for (int g = 0; g < groups; g++) {
+            grouped[g] = new int[counts[g]];
+            counts[g] = 0;
+        }
+        for (int i = 0; i < rows.length; i++) {
+            for (int key : keys.apply(rows[i])) {
+                if (key >= 0) {
+                    grouped[key][counts[key]++] = i;
+                }
+            }
+        }
+        return grouped;
+    }
+
+    // Nowa migawka po zmianie wskazanych książek i autorów; wiersze/autorzy nieobecni w argumentach - usunięci.
+    // Zmiana samej karty (ocena, liczniki, opis) to kopia tablic kart z podmienionymi pozycjami,
+    // reszta struktur współdzielona. Zmiana tytułu, autora, gatunków lub skład katalogu - budowa z pamięci, bez bazy.
+    public CatalogSnapshot apply(Collection<UUID> bookIds, Collection<CardRow> changedRows,
+                                 Collection<UUID> authorIds, Collection<AuthorSummaryDTO> changedAuthors) {
+        if (authorIds.isEmpty() && changedRows.size() == bookIds.size() && changedRows.stream().allMatch(this::sameShape)) {
+            CardRow[] newRows = rows.clone();
+            BookDTO[] newCards = cards.clone();
+            long bytes = heapBytes;
+            for (CardRow row : changedRows) {
+                int ord = ordinals.get(row.card().id());
+                bytes += rowBytes(row) - rowBytes(rows[ord]);
+                newRows[ord] = row;
+                newCards[ord] = withoutDescription(row.card());
+            }
+            return new CatalogSnapshot(newRows, newCards, searchKeys, ordinals, authors, authorOrdinals,
+                    booksByAuthor, genreIds, genreNames, genreOrdinals, booksByGenre, bytes);
+        }
+
+        Set<UUID> removedBooks = new HashSet<>(bookIds);
+        List<CardRow> mergedRows = new ArrayList<>(rows.length + changedRows.size());
+        for (CardRow row : rows) {
+            if (!removedBooks.contains(row.card().id())) {
+                mergedRows.add(row);
+            }
+        }
+        mergedRows.addAll(changedRows);
+
+        Set<UUID> removedAuthors = new HashSet<>(authorIds);
+        List<AuthorSummaryDTO> mergedAuthors = new ArrayList<>(authors.length + changedAuthors.size());
+        for (AuthorSummaryDTO author : authors) {
+            if (!removedAuthors.contains(author.id())) {
+                mergedAuthors.add(author);
+            }
+        }
+        mergedAuthors.addAll(changedAuthors);
+        return of(mergedRows, mergedAuthors);
+    }
+
+    // pozycja na listach, indeksy autora/gatunku i klucz wyszukiwania bez zmian
+    private boolean sameShape(CardRow row) {
+        Integer ord = ordinals.get(row.card().id());
+        if (ord == null) {
+            return false;
+        }
+        BookDTO before = rows[ord].card();
+        BookDTO after = row.card();
+        return before.title().equals(after.title())
+                && Objects.equals(before.isbn(), after.isbn())
+                && Objects.equals(before.authorId(), after.authorId())
+                && Objects.equals(before.authorName(), after.authorName())
+                && rows[ord].genreIds().equals(row.genreIds());
+    }
+
+    // ODCZYT
+
+    public int size() {
+        return cards.length;
+    }
+
+    public boolean contains(UUID bookId) {
+        return ordinals.containsKey(bookId);
+    }
+
+    // pełne dane z opisem - strona książki
+    public Optional<BookDTO> book(UUID bookId) {
+        Integer ord = ordinals.get(bookId);
+        return ord == null ? Optional.empty() : Optional.of(rows[ord].card());
+    }
+
+    // widok bez kopiowania - tablica nie zmienia się po publikacji
+    public List<BookDTO> cards() {
+        return Collections.unmodifiableList(Arrays.asList(cards));
+    }
+
+    public List<BookDTO> page(long offset, int limit) {
+        int from = (int) Math.min(offset, cards.length);
+        return cards().subList(from, (int) Math.min((long) from + limit, cards.length));
+    }
+
+    public boolean hasAuthor(UUID authorId) {
+        return authorOrdinals.containsKey(authorId);
+    }
+
+    public Optional<AuthorSummaryDTO> author(UUID authorId) {
+        Integer ord = authorOrdinals.get(authorId);
+        return ord == null ? Optional.empty() : Optional.of(authors[ord]);
+    }
+
+    public List<BookDTO> byAuthor(UUID authorId, long offset, int limit) {
+        Integer ord = authorOrdinals.get(authorId);
+        return ord == null ? List.of() : slice(booksByAuthor[ord], offset, limit);
+    }
+
+    public int countByAuthor(UUID authorId) {
+        Integer ord = authorOrdinals.get(authorId);
+        return ord == null ? 0 : booksByAuthor[ord].length;
+    }
+
+    public Optional<String> genreName(UUID genreId) {
+        Integer ord = genreOrdinals.get(genreId);
+        return ord == null ? Optional.empty() : Optional.of(genreNames[ord]);
+    }
+
+    public List<BookDTO> byGenre(UUID genreId, long offset, int limit) {
+        Integer ord = genreOrdinals.get(genreId);
+        return ord == null ? List.of() : slice(booksByGenre[ord], offset, limit);
+    }
+
+    public int countByGenre(UUID genreId) {
+        Integer ord = genreOrdinals.get(genreId);
+        return ord == null ? 0 : booksByGenre[ord].length;
+    }
+
+    public List<BookDTO> byYear(int year) {
+        List<BookDTO> books = new ArrayList<>();
+        for (BookDTO card : cards) {
+            if (card.publicationYear() != null && card.publicationYear() == year) {
+                books.add(card);
+            }
+        }
+        return books;
+    }
+
+    // jak LIKE '%fraza%' po tytule, "Imię Nazwisko" i ISBN (BookCardDao.search)
+    public List<BookDTO> search(String term, long offset, int limit) {
+        String needle = term.toLowerCase(Locale.ROOT);
+        List<BookDTO> books = new ArrayList<>(Math.min(limit, 64));
+        long skip = offset;
+        for (int i = 0; i < searchKeys.length && books.size() < limit; i++) {
+            if (searchKeys[i].contains(needle)) {
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    books.add(cards[i]);
+                }
+            }
+        }
+        return books;
+    }
+
+    public int countSearch(String term) {
+        String needle = term.toLowerCase(Locale.ROOT);
+        int count = 0;
+        for (String key : searchKeys) {
+            if (key.contains(needle)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // średnie z recenzji (karta migawki ma średnią policzoną z reviews); książki bez recenzji pominięte
+    public Map<UUID, Double> averageRatings() {
+        Map<UUID, Double> ratings = new HashMap<>(cards.length * 2);
+        for (BookDTO card : cards) {
+            if (card.averageRating() != null) {
+                ratings.put(card.id(), card.averageRating());
+            }
+        }
+        return ratings;
+    }
+
+    public long heapBytes() {
+        return heapBytes;
+    }
+
+    // dla zapisu do pliku (CatalogSnapshotFile) - wiersze z opisem w kolejności list, autorzy, tabela gatunków
+
+    List<CardRow> rows() {
+        return Collections.unmodifiableList(Arrays.asList(rows));
+    }
+
+    List<AuthorSummaryDTO> authors() {
+        return Collections.unmodifiableList(Arrays.asList(authors));
+    }
+
+    List<UUID> genreIds() {
+        return Collections.unmodifiableList(Arrays.asList(genreIds));
+    }
+
+    List<String> genreNames() {
+        return Collections.unmodifiableList(Arrays.asList(genreNames));
+    }
+
+    int genreOrdinal(UUID genreId) {
+        return genreOrdinals.get(genreId);
+    }
+
+    private List<BookDTO> slice(int[] ordinalsInOrder, long offset, int limit) {
+        int from = (int) Math.min(offset, ordinalsInOrder.length);
+        int to = (int) Math.min((long) from + limit, ordinalsInOrder.length);
+        List<BookDTO> books = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            books.add(cards[ordinalsInOrder[i]]);
+        }
+        return books;
+    }
+
+    private static BookDTO withoutDescription(BookDTO book) {
+        return new BookDTO(book.id(), book.title(), book.isbn(), null, book.publicationYear(), book.authorId(),
+                book.authorName(), book.averageRating(), book.genres(), book.readersCount());
+    }
+
+    // znak nowej linii nie występuje we frazie - dopasowanie nie przechodzi przez granicę pól
+    private static String searchKey(BookDTO book) {
+        return (book.title() + "\n" + Objects.toString(book.authorName(), "") + "\n"
+                + Objects.toString(book.isbn(), "")).toLowerCase(Locale.ROOT);
+    }
+
+    private static int compareUnsigned(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    // ROZMIAR NA STERCIE
+
+    // Szacunek dla 64-bitowej JVM ze skompresowanymi wskaźnikami (nagłówek 12 B, referencja 4 B, wyrównanie do 8 B)
+    // i zwartymi napisami (LATIN1 - 1 B na znak). Napisy współdzielone między kartą a wierszem liczone raz.
+    private static final int HEADER = 12;
+    private static final int REF = 4;
+    private static final long UUID_BYTES = align(HEADER + 16);
+    private static final long BOOK_DTO_BYTES = align(HEADER + 8 * REF + 2 * 4);
+    private static final long MAP_ENTRY_BYTES = align(HEADER + 4 + 3 * REF) + align(HEADER + 4);
+
+    private CatalogSnapshot withHeapBytes(long bytes) {
+        return new CatalogSnapshot(rows, cards, searchKeys, ordinals, authors, authorOrdinals, booksByAuthor,
+                genreIds, genreNames, genreOrdinals, booksByGenre, bytes);
+    }
+
+    private long estimateHeapBytes() {
+        long bytes = 0;
+        for (int i = 0; i < rows.length; i++) {
+            bytes += rowBytes(rows[i]) + string(searchKeys[i]);
+        }
+        bytes += 3 * array(rows.length) + map(ordinals.size());
+        for (AuthorSummaryDTO author : authors) {
+            bytes += align(HEADER + 3 * REF) + UUID_BYTES + string(author.name()) + string(author.surname());
+        }
+        bytes += array(authors.length) + map(authorOrdinals.size());
+        for (int g = 0; g < genreIds.length; g++) {
+            bytes += UUID_BYTES + string(genreNames[g]);
+        }
+        bytes += 2 * array(genreIds.length) + map(genreOrdinals.size());
+        bytes += lists(booksByAuthor) + lists(booksByGenre);
+        return bytes;
+    }
+
+    // wiersz z kartą i opisem + karta bez opisu (te same napisy)
+    private static long rowBytes(CardRow row) {
+        BookDTO book = row.card();
+        long bytes = align(HEADER + 4 + 2 * REF) + 2L * BOOK_DTO_BYTES + UUID_BYTES
+                + string(book.title()) + string(book.isbn()) + string(book.description()) + string(book.authorName())
+                + (book.averageRating() == null ? 0 : align(HEADER + 8));
+        bytes += align(HEADER + 4) + array(book.genres().size());
+        for (String genre : book.genres()) {
+            bytes += string(genre);
+        }
+        bytes += align(HEADER + 4) + array(row.genreIds().size()) + row.genreIds().size() * UUID_BYTES;
+        return bytes;
+    }
+
+    private static long lists(int[][] lists) {
+        long bytes = array(lists.length);
+        for (int[] list : lists) {
+            bytes += align(16 + 4L * list.length);
+        }
+        return bytes;
+    }
+
+    private static long string(String value) {
+        if (value == null) {
+            return 0;
+        }
+        boolean latin1 = value.chars().allMatch(c -> c < 256);
+        return align(HEADER + 4 + 4 + REF) + align(16 + (long) value.length() * (latin1 ? 1 : 2));
+    }
+
+    // tablica referencji
+    private static long array(int length) {
+        return align(16 + (long) length * REF);
+    }
+
+    // HashMap: tablica kubełków (2x zapas) + węzeł i Integer na wpis; klucz UUID liczony przy właścicielu
+    private static long map(int size) {
+        return align(HEADER + 6 * 4) + array(Integer.highestOneBit(Math.max(1, size * 2 - 1)) * 2) + size * MAP_ENTRY_BYTES;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -0,0 +1,311 @@
+package org.example.bookaroo.service;
+
+import org.example.bookaroo.dto.AuthorSummaryDTO;
+import org.example.bookaroo.dto.BookDTO;
+import org.example.bookaroo.repository.BookCardDao.CardRow;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+// Migawka katalogu w pliku - nowy węzeł po starcie czyta ją przez FileChannel.map i obsługuje odczyty katalogu,
+// zanim baza zdąży się rozgrzać. Układ (little-endian):
+//   nagłówek (64 B): magia, wersja, czas zapisu, liczności sekcji, długość sterty napisów, CRC32C reszty pliku
+//   gatunki, autorzy, książki - rekordy stałej długości (napis = przesunięcie + długość w stercie)
+//   numery gatunków książek (int), sterta napisów UTF-8 (powtarzające się napisy zapisane raz)
+// Zmiana układu rekordów wymaga podbicia VERSION - plik z inną wersją jest pomijany, migawka budowana z bazy.
+public final class CatalogSnapshotFile {
+
+    static final int MAGIC = 0x53434B42; // "BKCS"
+    static final int VERSION = 2;
+
+    private static final int HEADER_BYTES = 64;
+    private static final int CRC_OFFSET = 40;
+    private static final int GENRE_RECORD = 16 + 8;
+    private static final int AUTHOR_RECORD = 16 + 2 * 8;
+    private static final int BOOK_RECORD = 2 * 16 + 4 * 8 + 4 * 4 + 8 + 2 * 4;
+
+    private static final int FLAG_AUTHOR = 1;
+    private static final int FLAG_YEAR = 2;
+    private static final long NULL_STRING = -1L;
+
+    public record Contents(CatalogSnapshot snapshot, Instant writtenAt) {}
+
+    private CatalogSnapshotFile() {
+    }
+
+    // ZAPIS
+
+    // do pliku tymczasowego obok docelowego, potem atomowa podmiana - czytelnik nie zobaczy połowy pliku
+    public static void write(CatalogSnapshot snapshot, Path file) throws IOException {
+        List<CardRow> rows = snapshot.rows();
+        List<AuthorSummaryDTO> authors = snapshot.authors();
+        List<UUID> genreIds = snapshot.genreIds();
+        List<String> genreNames = snapshot.genreNames();
+
+        // najpierw sterta napisów - po niej znany jest rozmiar pliku
+        StringHeap heap = new StringHeap();
+        long[] genreRefs = new long[genreIds.size()];
+        for (int g = 0; g < genreRefs.length; g++) {
+            genreRefs[g] = heap.add(genreNames.get(g));
+        }
+        long[] authorRefs = new long[authors.size() * 2];
+        for (int a = 0; a < authors.size(); a++) {
+            authorRefs[2 * a] = heap.add(authors.get(a).name());
+            authorRefs[2 * a + 1] = heap.add(authors.get(a).surname());
+        }
+        long[] bookRefs = new long[rows.size() * 4];
+        int genreRefCount = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            BookDTO card = rows.get(i).card();
+            bookRefs[4 * i] = heap.add(card.title());
+            bookRefs[4 * i + 1] = heap.add(card.isbn());
+            bookRefs[4 * i + 2] = heap.add(card.description());
+            bookRefs[4 * i + 3] = heap.add(card.authorName());
+            genreRefCount += rows.get(i).genreIds().size();
+        }
+        byte[] strings = heap.toByteArray();
+
+        long size = HEADER_BYTES + (long) genreIds.size() * GENRE_RECORD + (long) authors.size() * AUTHOR_RECORD
+                + (long) rows.size() * BOOK_RECORD + 4L * genreRefCount + strings.length;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Migawka katalogu za duża na jeden plik mapowany: " + size + " B");
+        }
+
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = parent.resolve(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(System.currentTimeMillis())
+                    .putInt(rows.size()).putInt(authors.size()).putInt(genreIds.size()).putInt(genreRefCount)
+                    .putInt(strings.length);
+            buffer.position(HEADER_BYTES);
+
+            for (int g = 0; g < genreRefs.length; g++) {
+                putUuid(buffer, genreIds.get(g));
+                putRef(buffer, genreRefs[g]);
+            }
+            for (int a = 0; a < authors.size(); a++) {
+                putUuid(buffer, authors.get(a).id());
+                putRef(buffer, authorRefs[2 * a]);
+                putRef(buffer, authorRefs[2 * a + 1]);
+            }
+            int genreStart = 0;
+            for (int i = 0; i < rows.size(); i++) {
+                CardRow row = rows.get(i);
+                BookDTO card = row.card();
+                putUuid(buffer, card.id());
+                putUuid(buffer, card.authorId() == null ? new UUID(0, 0) : card.authorId());
+                for (int r = 0; r < 4; r++) {
+                    putRef(buffer, bookRefs[4 * i + r]);
+                }
+                int flags = (card.authorId() == null ? 0 : FLAG_AUTHOR) | (card.publicationYear() == null ? 0 : FLAG_YEAR);
+                buffer.putInt(card.publicationYear() == null ? 0 : card.publicationYear())
+                        .putInt(row.reviewCount())
+                        .putInt(card.readersCount())
+                        .putInt(flags)
+                        // NaN - brak średniej (książka bez recenzji)
+                        .putDouble(card.averageRating() == null ? Double.NaN : card.averageRating())
+                        .putInt(genreStart)
+                        .putInt(row.genreIds().size());
+                genreStart += row.genreIds().size();
+            }
+            for (CardRow row : rows) {
+                for (UUID genreId : row.genreIds()) {
+                    buffer.putInt(snapshot.genreOrdinal(genreId));
+                }
+            }
+            buffer.put(strings);
+
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.slice(HEADER_BYTES, (int) size - HEADER_BYTES));
+            buffer.putLong(CRC_OFFSET, crc.getValue());
+            buffer.force();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // ODCZYT
+
+    // plik uszkodzony, obcięty albo z innej wersji - IOException, wołający buduje migawkę z bazy
+    public static Contents read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Nieprawidłowy rozmiar pliku migawki katalogu: " + size + " B");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Plik nie jest migawką katalogu: " + file);
+            }
+            int version = buffer.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Nieobsługiwana wersja migawki katalogu: " + version + " (oczekiwana " + VERSION + ")");
+            }
+            Instant writtenAt = Instant.ofEpochMilli(buffer.getLong(8));
+            int bookCount = buffer.getInt(16);
+            int authorCount = buffer.getInt(20);
+            int genreCount = buffer.getInt(24);
+            int genreRefCount = buffer.getInt(28);
+            int heapLength = buffer.getInt(32);
+
+            long genresAt = HEADER_BYTES;
+            long authorsAt = genresAt + (long) genreCount * GENRE_RECORD;
+            long booksAt = authorsAt + (long) authorCount * AUTHOR_RECORD;
+            long genreRefsAt = booksAt + (long) bookCount * BOOK_RECORD;
+            long heapAt = genreRefsAt + 4L * genreRefCount;
+            if (Math.min(Math.min(bookCount, authorCount), Math.min(genreCount, Math.min(genreRefCount, heapLength))) < 0
+                    || heapAt + heapLength != size) {
+                throw new IOException("Liczności sekcji migawki katalogu nie zgadzają się z rozmiarem pliku");
+            }
+
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.slice(HEADER_BYTES, (int) size - HEADER_BYTES));
+            if (crc.getValue() != buffer.getLong(CRC_OFFSET)) {
+                throw new IOException("Suma kontrolna migawki katalogu nie zgadza się: " + file);
+            }
+
+            Strings strings = new Strings(buffer, (int) heapAt, heapLength);
+
+            UUID[] genreIds = new UUID[genreCount];
+            String[] genreNames = new String[genreCount];
+            for (int g = 0; g < genreCount; g++) {
+                int at = (int) genresAt + g * GENRE_RECORD;
+                genreIds[g] = getUuid(buffer, at);
+                genreNames[g] = strings.get(at + 16);
+            }
+
+            List<AuthorSummaryDTO> authors = new ArrayList<>(authorCount);
+            for (int a = 0; a < authorCount; a++) {
+                int at = (int) authorsAt + a * AUTHOR_RECORD;
+                authors.add(new AuthorSummaryDTO(getUuid(buffer, at), strings.get(at + 16), strings.get(at + 24)));
+            }
+
+            List<CardRow> rows = new ArrayList<>(bookCount);
+            for (int i = 0; i < bookCount; i++) {
+                int at = (int) booksAt + i * BOOK_RECORD;
+                int fields = at + 64;
+                int flags = buffer.getInt(fields + 12);
+                boolean hasAuthor = (flags & FLAG_AUTHOR) != 0;
+                Integer year = (flags & FLAG_YEAR) != 0 ? buffer.getInt(fields) : null;
+                double rating = buffer.getDouble(fields + 16);
+                int genreStart = buffer.getInt(fields + 24);
+                int genreSize = buffer.getInt(fields + 28);
+                if (genreStart < 0 || genreSize < 0 || (long) genreStart + genreSize > genreRefCount) {
+                    throw new IOException("Nieprawidłowe gatunki książki w migawce katalogu");
+                }
+                UUID[] bookGenreIds = new UUID[genreSize];
+                String[] bookGenreNames = new String[genreSize];
+                for (int k = 0; k < genreSize; k++) {
+                    int genre = buffer.getInt((int) genreRefsAt + 4 * (genreStart + k));
+                    if (genre < 0 || genre >= genreCount) {
+                        throw new IOException("Nieprawidłowy numer gatunku w migawce katalogu: " + genre);
+                    }
+                    bookGenreIds[k] = genreIds[genre];
+                    bookGenreNames[k] = genreNames[genre];
+                }
+                BookDTO card = new BookDTO(getUuid(buffer, at), strings.get(at + 32), strings.get(at + 40),
+                        strings.get(at + 48), year, hasAuthor ? getUuid(buffer, at + 16) : null,
+                        strings.get(at + 56), Double.isNaN(rating) ? null : rating, Arrays.asList(bookGenreNames),
+                        buffer.getInt(fields + 8));
+                rows.add(new CardRow(card, buffer.getInt(fields + 4), Arrays.asList(bookGenreIds)));
+            }
+            return new Contents(CatalogSnapshot.of(rows, authors), writtenAt);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Uszkodzony plik migawki katalogu: " + file, e);
+        }
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID id) {
+        buffer.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(ByteBuffer buffer, int at) {
+        return new UUID(buffer.getLong(at), buffer.getLong(at + 8));
+    }
+
+    private static void putRef(ByteBuffer buffer, long ref) {
+        buffer.putInt((int) (ref >>> 32)).putInt((int) ref);
+    }
+
+    // przesunięcie w starszej połowie, długość w młodszej; NULL_STRING - null
+    private static final class StringHeap {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final Map<String, Long> refs = new HashMap<>();
+
+        long add(String value) {
+            if (value == null) {
+                return NULL_STRING;
+            }
+            return refs.computeIfAbsent(value, v -> {
+                byte[] encoded = v.getBytes(StandardCharsets.UTF_8);
+                long ref = ((long) bytes.size() << 32) | encoded.length;
+                bytes.writeBytes(encoded);
+                return ref;
+            });
+        }
+
+        byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+
+    // dekodowanie ze sterty w zmapowanym pliku; ten sam napis (np. nazwisko autora) - jeden obiekt
+    private static final class Strings {
+        private final ByteBuffer buffer;
+        private final int heapAt;
+        private final int heapLength;
+        private final Map<Long, String> decoded = new HashMap<>();
+
+        Strings(ByteBuffer buffer, int heapAt, int heapLength) {
+            this.buffer = buffer;
+            this.heapAt = heapAt;
+            this.heapLength = heapLength;
+        }
+
+        String get(int refAt) throws IOException {
+            int offset = buffer.getInt(refAt);
+            int length = buffer.getInt(refAt + 4);
+            if (offset == -1 && length == -1) {
+                return null;
+            }
+            if (offset < 0 || length < 0 || (long) offset + length > heapLength) {
+                throw new IOException("Napis poza stertą migawki katalogu");
+            }
+            long key = ((long) offset << 32) | length;
+            String value = decoded.get(key);
+            if (value == null) {
+                byte[] encoded = new byte[length];
+                buffer.get(heapAt + offset, encoded);
+                value = new String(encoded, StandardCharsets.UTF_8);
+                decoded.put(key, value);
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package org.example.bookaroo.service;
+
+import io.micrometer.core.instrument.Gauge;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import org.example.bookaroo.dto.AuthorSummaryDTO;
+import org.example.bookaroo.repository.AuthorLookupDao;
+import org.example.bookaroo.repository.BookCardDao;
+import org.example.bookaroo.repository.BookCardDao.CardRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+// Migawka katalogu dla odczytów (listy, strona książki, wyszukiwanie) - czytelnicy biorą bieżącą referencję
+// bez blokad. Zapis katalogu (po commicie, z BookCardService) buduje nową migawkę: mała zmiana jako delta
+// na poprzedniej (odczyt z bazy tylko zmienionych wierszy), duża - pełne przeładowanie.
+// Z ustawionym plikiem (bookaroo.catalog.snapshot.file) migawka jest okresowo zapisywana (CatalogSnapshotFile),
+// a po restarcie wczytywana przy tworzeniu serwisu - odczyty katalogu działają, zanim baza się rozgrzeje.
+@Service
+public class CatalogSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    private final BookCardDao bookCardDao;
+    private final AuthorLookupDao authorLookupDao;
+    private final int deltaLimit;
+    private final Path file;
+
+    // null do pierwszej budowy (ApplicationReadyEvent) lub wczytania pliku - odczyty idą wtedy do bazy
+    private volatile CatalogSnapshot snapshot;
+
+    // ostatnio zapisana do pliku - zapis tylko po zmianie; pod fileLock, nie blokuje odświeżania
+    private final Object fileLock = new Object();
+    private CatalogSnapshot written;
+
+    public CatalogSnapshotService(BookCardDao bookCardDao,
+                                  AuthorLookupDao authorLookupDao,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${bookaroo.catalog.snapshot.delta-limit:500}") int deltaLimit,
+                                  @Value("${bookaroo.catalog.snapshot.file:}") String file) {
+        this.bookCardDao = bookCardDao;
+        this.authorLookupDao = authorLookupDao;
+        this.deltaLimit = deltaLimit;
+        this.file = file.isBlank() ? null : Path.of(file);
+        Gauge.builder("bookaroo.catalog.snapshot.heap", this, service -> service.heapBytes())
+                .description("Szacowany rozmiar migawki katalogu na stercie")
+                .baseUnit(BaseUnits.BYTES)
+                .register(meterRegistry);
+        Gauge.builder("bookaroo.catalog.snapshot.books", this, service -> service.size())
+                .description("Liczba książek w migawce katalogu")
+                .register(meterRegistry);
+    }
+
+    public CatalogSnapshot current() {
+        return snapshot;
+    }
+
+    // PLIK
+
+    // przed ApplicationReadyEvent - migawka z pliku zostaje podmieniona przez pełną budowę z bazy (rebuild)
+    @PostConstruct
+    void load() {
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            CatalogSnapshotFile.Contents contents = CatalogSnapshotFile.read(file);
+            snapshot = contents.snapshot();
+            written = contents.snapshot();
+            log.info("Migawka katalogu wczytana z pliku {} w {} ms ({} książek, zapisana {})", file,
+                    System.currentTimeMillis() - start, contents.snapshot().size(), contents.writtenAt());
+        } catch (IOException e) {
+            log.warn("Pominięto plik migawki katalogu {}: {}", file, e.getMessage());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${bookaroo.catalog.snapshot.write-interval-ms:60000}",
+            fixedDelayString = "${bookaroo.catalog.snapshot.write-interval-ms:60000}")
+    public void persist() {
+        if (file == null) {
+            return;
+        }
+        synchronized (fileLock) {
+            CatalogSnapshot current = snapshot;
+            if (current == null || current == written) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            try {
+                CatalogSnapshotFile.write(current, file);
+                written = current;
+                log.debug("Migawka katalogu zapisana do {} w {} ms", file, System.currentTimeMillis() - start);
+            } catch (IOException e) {
+                log.warn("Nie udało się zapisać migawki katalogu do {}", file, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        persist();
+    }
+
+    // ZAPIS
+
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        List<CardRow> rows = new ArrayList<>();
+        bookCardDao.forEachCatalogRow(rows::add);
+        snapshot = CatalogSnapshot.of(rows, authorLookupDao.findAll());
+        log.info("Migawka katalogu zbudowana w {} ms ({} książek, ~{} KB)",
+                System.currentTimeMillis() - start, rows.size(), snapshot.heapBytes() / 1024);
+    }
+
+    // deltaLimit 0 - zawsze pełne przeładowanie
+    public synchronized void refreshBooks(Collection<UUID> bookIds) {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        if (bookIds.size() > deltaLimit) {
+            rebuild();
+            return;
+        }
+        List<CardRow> rows = bookCardDao.findCatalogRows(bookIds);
+        // nowy autor (np. z importu) trafia do tabeli razem z pierwszą książką
+        Set<UUID> newAuthorIds = new HashSet<>();
+        rows.forEach(row -> {
+            if (!current.hasAuthor(row.card().authorId())) {
+                newAuthorIds.add(row.card().authorId());
+            }
+        });
+        snapshot = current.apply(bookIds, rows, newAuthorIds, authorLookupDao.findByIds(newAuthorIds));
+    }
+
+    // zmiana danych autora albo usunięcie autora razem z książkami
+    public synchronized void refreshAuthor(UUID authorId) {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        List<CardRow> rows = bookCardDao.findCatalogRowsByAuthor(authorId);
+        Set<UUID> bookIds = new HashSet<>();
+        current.byAuthor(authorId, 0, Integer.MAX_VALUE).forEach(book -> bookIds.add(book.id()));
+        rows.forEach(row -> bookIds.add(row.card().id()));
+        List<AuthorSummaryDTO> author = authorLookupDao.findByIds(List.of(authorId));
+        snapshot = current.apply(bookIds, rows, List.of(authorId), author);
+    }
+
+    private long heapBytes() {
+        CatalogSnapshot current = snapshot;
+        return current == null ? 0 : current.heapBytes();
+    }
+
+    private int size() {
+        CatalogSnapshot current = snapshot;
+        return current == null ? 0 : current.size();
+    }
+}
@@ -0,0 +1,140 @@
+package org.example.bookaroo.service;
+
+import org.example.bookaroo.dto.ChangeDTO;
+import org.example.bookaroo.dto.ChangeFeedDTO;
+import org.example.bookaroo.entity.ChangeLogEntry;
+import org.example.bookaroo.entity.ChangeLogEntry.EntityType;
+import org.example.bookaroo.entity.ChangeLogEntry.Operation;
+import org.example.bookaroo.repository.ChangeLogRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Zapis i odczyt dziennika zmian - klienci synchronizują się od ostatniego numeru sekwencji.
+// Numer nie pochodzi z IDENTITY przy wstawieniu: transakcje zatwierdzane w innej kolejności niż wstawiały
+// zostawiłyby niższy numer za kursorem klienta. Numery nadaje po commicie jeden wydawca (publish),
+// który widzi tylko zatwierdzone wpisy - wpis zatwierdzony później zawsze dostaje wyższy numer.
+@Service
+public class ChangeFeedService {
+
+    private final ChangeLogRepository changeLogRepository;
+    private final TransactionTemplate publishTransaction;
+    private final int maxLimit;
+
+    private final ReentrantLock publishLock = new ReentrantLock();
+    private final AtomicBoolean publishRequested = new AtomicBoolean();
+
+    public ChangeFeedService(ChangeLogRepository changeLogRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${bookaroo.changes.max-limit:1000}") int maxLimit) {
+        this.changeLogRepository = changeLogRepository;
+        // po commicie zmiany - osobna transakcja, nie ta już zatwierdzona
+        this.publishTransaction = new TransactionTemplate(transactionManager);
+        this.publishTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxLimit = maxLimit;
+    }
+
+    // wpis w tej samej transakcji co zmiana - wycofanie zapisu wycofuje też wpis
+    @Transactional
+    public void record(EntityType entityType, UUID entityId, Operation operation) {
+        record(entityType, entityId, null, operation, null);
+    }
+
+    @Transactional
+    public void record(EntityType entityType, UUID entityId, UUID parentId, Operation operation, UUID userId) {
+        if (entityId == null) {
+            return;
+        }
+        changeLogRepository.save(new ChangeLogEntry(entityType, entityId, parentId, operation, userId));
+        publishAfterCommit();
+    }
+
+    // dla wpisów dopisywanych poza record (np. import masowy) - numery zaraz po zatwierdzeniu transakcji
+    public void publishAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish();
+            }
+        });
+    }
+
+    // nadaje numery zatwierdzonym wpisom; okresowo także jako zabezpieczenie (np. restart tuż po commicie).
+    // Wątek, który nie dostał blokady, nie czeka (trzyma jeszcze połączenie swojej transakcji) - zostawia
+    // flagę, a aktualny wydawca wykonuje kolejny przebieg i obejmuje także jego wpisy.
+    @Scheduled(fixedDelayString = "${bookaroo.changes.publish-interval-ms:5000}")
+    public void publish() {
+        publishRequested.set(true);
+        while (publishRequested.get() && publishLock.tryLock()) {
+            try {
+                publishRequested.set(false);
+                publishTransaction.executeWithoutResult(status -> assignSequences());
+            } finally {
+                publishLock.unlock();
+            }
+        }
+    }
+
+    private void assignSequences() {
+        List<ChangeLogEntry> pending = changeLogRepository.findBySequenceIsNullOrderByIdAsc();
+        if (pending.isEmpty()) {
+            return;
+        }
+        long next = changeLogRepository.findLatestSequence();
+        for (ChangeLogEntry entry : pending) {
+            entry.setSequence(++next);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public ChangeFeedDTO getChanges(long since, int limit, UUID userId) {
+        int pageSize = Math.max(1, Math.min(limit, maxLimit));
+        // o jeden więcej, żeby wiedzieć czy są kolejne zmiany
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+
+        List<ChangeLogEntry> entries = userId != null
+                ? changeLogRepository.findChangesForUser(since, userId, page)
+                : changeLogRepository.findBySequenceGreaterThanAndUserIdIsNullOrderBySequenceAsc(since, page);
+
+        boolean hasMore = entries.size() > pageSize;
+        List<ChangeDTO> changes = entries.stream()
+                .limit(pageSize)
+                .map(ChangeFeedService::toDto)
+                .toList();
+
+        long nextSince = changes.isEmpty() ? since : changes.get(changes.size() - 1).seq();
+        return new ChangeFeedDTO(changes, nextSince, hasMore);
+    }
+
+    // punkt startowy dla klienta po pełnym pobraniu danych
+    @Transactional(readOnly = true)
+    public long getLatestSequence() {
+        return changeLogRepository.findLatestSequence();
+    }
+
+    private static ChangeDTO toDto(ChangeLogEntry entry) {
+        return new ChangeDTO(
+                entry.getSequence(),
+                entry.getEntityType().name(),
+                entry.getOperation().name(),
+                entry.getEntityId(),
+                entry.getParentId()
+        );
+    }
+}
@@ -0,0 +1,186 @@
+package org.example.bookaroo.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Magazyn plików adresowanych treścią: nazwa = SHA-256 zawartości, liczony w trakcie kopiowania.
+// Ten sam plik wgrany wiele razy zajmuje miejsce raz. Katalogi dzielone po 2 pierwszych bajtach
+// skrótu (ab/cd/abcd...), żeby żaden katalog nie urósł do setek tysięcy wpisów.
+// Pliki pochodne (np. miniatury <hash>_256.jpg) leżą obok oryginału i dzielą jego skrót.
+public class ContentAddressedStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentAddressedStore.class);
+
+    private static final int HASH_LENGTH = 64;
+    private static final String TMP_DIR = ".tmp";
+    private static final Pattern SAFE_SUFFIX = Pattern.compile("[._A-Za-z0-9]{0,16}");
+    private static final Pattern BLOB_NAME = Pattern.compile("[0-9a-f]{64}[._A-Za-z0-9]*");
+
+    private final Path root;
+    private final Path tmp;
+
+    public ContentAddressedStore(Path root) {
+        this.root = root;
+        this.tmp = root.resolve(TMP_DIR);
+        try {
+            Files.createDirectories(tmp);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nie można utworzyć katalogu " + root, e);
+        }
+    }
+
+    // klucz = ścieżka względna (ab/cd/<hash><suffix>), created = false gdy identyczny plik już był
+    public record Blob(String hash, String key, Path path, boolean created) {}
+
+    public Blob store(InputStream content, String suffix) throws IOException {
+        if (!SAFE_SUFFIX.matcher(suffix).matches()) {
+            throw new IllegalArgumentException("Niedozwolony sufiks pliku: " + suffix);
+        }
+
+        Path temp = tmp.resolve(UUID.randomUUID() + ".part");
+        MessageDigest digest = sha256();
+
+        // jedno przejście: kopiowanie i liczenie skrótu jednocześnie
+        try (DigestInputStream in = new DigestInputStream(content, digest);
+             OutputStream out = Files.newOutputStream(temp, StandardOpenOption.CREATE_NEW)) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        String hash = HexFormat.of().formatHex(digest.digest());
+        String key = keyOf(hash, suffix);
+        Path target = root.resolve(key);
+
+        if (Files.exists(target)) {
+            Files.delete(temp);
+            touch(target);
+            return new Blob(hash, key, target, false);
+        }
+
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            return new Blob(hash, key, target, true);
+        } catch (FileAlreadyExistsException e) {
+            // równoległy zapis tej samej treści wygrał wyścig
+            Files.deleteIfExists(temp);
+            touch(target);
+            return new Blob(hash, key, target, false);
+        }
+    }
+
+    // ścieżka pliku pochodnego obok oryginału (np. miniatury)
+    public Path derived(String hash, String suffix) {
+        return root.resolve(keyOf(hash, suffix));
+    }
+
+    public String keyOf(String hash, String suffix) {
+        return hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + suffix;
+    }
+
+    // skrót z klucza lub URL-a kończącego się nazwą bloba; null gdy to nie jest plik z magazynu
+    public static String hashOf(String keyOrUrl) {
+        if (keyOrUrl == null) {
+            return null;
+        }
+        String name = keyOrUrl.substring(keyOrUrl.lastIndexOf('/') + 1);
+        return BLOB_NAME.matcher(name).matches() ? name.substring(0, HASH_LENGTH) : null;
+    }
+
+    public void deleteAll(String hash) throws IOException {
+        Path dir = root.resolve(keyOf(hash, "")).getParent();
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().startsWith(hash)).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    // Usuwa bloby, których skrót nie jest żywy, gdy cała grupa (oryginał + pliki pochodne) jest starsza
+    // niż okres karencji - chroni pliki wgrane, ale jeszcze niezapisane w bazie. Zwraca liczbę zwolnionych bajtów.
+    public long collectGarbage(Predicate<String> isLive, Duration gracePeriod) throws IOException {
+        Instant cutoff = Instant.now().minus(gracePeriod);
+
+        Map<String, List<Path>> groups;
+        try (Stream<Path> files = Files.walk(root)) {
+            groups = files
+                    .filter(Files::isRegularFile)
+                    .filter(f -> !f.startsWith(tmp))
+                    .filter(f -> hashOf(f.getFileName().toString()) != null)
+                    .collect(Collectors.groupingBy(f -> hashOf(f.getFileName().toString())));
+        }
+
+        long freedBytes = 0;
+        int deleted = 0;
+        for (Map.Entry<String, List<Path>> group : groups.entrySet()) {
+            if (isLive.test(group.getKey()) || !group.getValue().stream().allMatch(f -> olderThan(f, cutoff))) {
+                continue;
+            }
+            for (Path file : group.getValue()) {
+                freedBytes += Files.size(file);
+                Files.deleteIfExists(file);
+                deleted++;
+            }
+        }
+
+        // porzucone pliki tymczasowe (przerwane wgrywanie)
+        try (Stream<Path> parts = Files.list(tmp)) {
+            for (Path part : parts.filter(f -> olderThan(f, cutoff)).toList()) {
+                freedBytes += Files.size(part);
+                Files.deleteIfExists(part);
+                deleted++;
+            }
+        }
+
+        if (deleted > 0) {
+            log.info("GC magazynu {}: usunięto {} plików, zwolniono {} KB", root, deleted, freedBytes / 1024);
+        }
+        return freedBytes;
+    }
+
+    // ponowne użycie istniejącego bloba odnawia karencję - GC nie usunie go przed zapisem referencji
+    private static void touch(Path file) throws IOException {
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+    }
+
+    private static boolean olderThan(Path file, Instant cutoff) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(cutoff);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 niedostępny", e);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package org.example.bookaroo.service;
+
+import org.h2.engine.Session;
+import org.h2.engine.SessionLocal;
+import org.h2.jdbc.JdbcConnection;
+import org.h2.mvstore.MVStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Utrzymanie bazy H2 w pliku (profil prod): kopie pełnej bazy w trakcie pracy i kompaktowanie pliku.
+// BACKUP TO kopiuje plik MVStore bez zatrzymywania zapisów - na czas kopii magazyn nie nadpisuje starych
+// fragmentów, więc kopia jest spójnym stanem z chwili rozpoczęcia. Odtworzenie: DatabaseRestoreListener przy starcie.
+@Service
+@ConditionalOnProperty(name = "bookaroo.db.maintenance.enabled", havingValue = "true")
+public class DatabaseMaintenanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseMaintenanceService.class);
+
+    // nazwy po czasie UTC - kolejność alfabetyczna = chronologiczna
+    private static final DateTimeFormatter BACKUP_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+    private static final Pattern BACKUP_NAME = Pattern.compile("bookaroo-\\d{8}-\\d{6}\\.zip");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Path backupDir;
+    private final int keep;
+    private final int targetFillRate;
+    private final int maxWriteBytes;
+
+    public DatabaseMaintenanceService(JdbcTemplate jdbcTemplate,
+                                      @Value("${bookaroo.db.backup.dir}") String backupDir,
+                                      @Value("${bookaroo.db.backup.keep:7}") int keep,
+                                      @Value("${bookaroo.db.compact.target-fill-rate:80}") int targetFillRate,
+                                      @Value("${bookaroo.db.compact.max-write-mb:64}") int maxWriteMb) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.backupDir = Path.of(backupDir);
+        this.keep = Math.max(1, keep);
+        this.targetFillRate = targetFillRate;
+        this.maxWriteBytes = maxWriteMb * 1024 * 1024;
+    }
+
+    // KOPIA ZAPASOWA
+
+    // kopia do pliku tymczasowego, potem atomowa zmiana nazwy - w katalogu kopii nie ma niedokończonych plików
+    @Scheduled(cron = "${bookaroo.db.backup.cron:0 0 3 * * *}")
+    public synchronized Path backup() {
+        long start = System.currentTimeMillis();
+        Path target = backupDir.resolve("bookaroo-" + BACKUP_TIME.format(Instant.now()) + ".zip");
+        Path temp = backupDir.resolve(target.getFileName() + ".part");
+        try {
+            Files.createDirectories(backupDir);
+            jdbcTemplate.update("BACKUP TO ?", temp.toAbsolutePath().toString());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            int removed = prune();
+            log.info("Kopia bazy {} ({} KB) w {} ms, usunięto starych kopii: {}", target,
+                    Files.size(target) / 1024, System.currentTimeMillis() - start, removed);
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nie udało się zapisać kopii bazy " + target, e);
+        }
+    }
+
+    // najnowsze na początku
+    public List<Path> listBackups() throws IOException {
+        if (!Files.isDirectory(backupDir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(backupDir)) {
+            return files.filter(file -> BACKUP_NAME.matcher(file.getFileName().toString()).matches())
+                    .sorted(Comparator.comparing(Path::getFileName).reversed())
+                    .toList();
+        }
+    }
+
+    private int prune() throws IOException {
+        List<Path> backups = listBackups();
+        for (Path old : backups.subList(Math.min(keep, backups.size()), backups.size())) {
+            Files.deleteIfExists(old);
+        }
+        return Math.max(0, backups.size() - keep);
+    }
+
+    // KOMPAKTOWANIE
+
+    // Przepisanie słabo wypełnionych fragmentów pliku w trakcie pracy (to samo robi wątek tła MVStore,
+    // tu z większym limitem). Pełne przesunięcie fragmentów i skrócenie pliku - przy zamknięciu (MAX_COMPACT_TIME).
+    @Scheduled(initialDelayString = "${bookaroo.db.compact.interval-ms:3600000}",
+            fixedDelayString = "${bookaroo.db.compact.interval-ms:3600000}")
+    public synchronized void compact() {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            MVStore store = mvStore(connection.unwrap(JdbcConnection.class));
+            if (store == null) {
+                return null;
+            }
+            long start = System.currentTimeMillis();
+            int before = store.getFillRate();
+            boolean rewritten = store.compact(targetFillRate, maxWriteBytes);
+            log.info("Kompaktowanie bazy: wypełnienie {}% -> {}%{} w {} ms", before, store.getFillRate(),
+                    rewritten ? "" : " (bez zmian)", System.currentTimeMillis() - start);
+            return null;
+        });
+    }
+
+    // baza w pamięci albo zdalna (tryb serwera) - brak pliku do kompaktowania
+    private static MVStore mvStore(JdbcConnection connection) throws SQLException {
+        Session session = connection.getSession();
+        if (!(session instanceof SessionLocal local) || !local.getDatabase().isPersistent()) {
+            return null;
+        }
+        return local.getDatabase().getStore().getMvStore();
+    }
+}
@@ -4,43 +4,183 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.nio.file.*;
-import java.util.UUID;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 @Service
 public class FileStorageService {
 
-    private final Path rootLocation;
+    // rozmiary miniatur avatara, od największej - każda kolejna skalowana z poprzedniej
+    private static final int[] AVATAR_SIZES = {256, 64, 32};
+
+    // ochrona przed "bombą dekompresyjną" (mały plik, ogromna rozdzielczość)
+    private static final long MAX_AVATAR_PIXELS = 50_000_000L;
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private static final Pattern SAFE_EXTENSION = Pattern.compile("\\.[A-Za-z0-9]{1,10}");
+
+    private final ContentAddressedStore store;
 
     public FileStorageService(@Value("${file.upload-dir}") String uploadDir) {
-        this.rootLocation = Paths.get(uploadDir);
-        try {
-            Files.createDirectories(rootLocation);
-        } catch (IOException e) {
-            throw new RuntimeException("Nie można utworzyć folderu", e);
-        }
+        this.store = new ContentAddressedStore(Paths.get(uploadDir));
     }
 
-    public String saveFile(MultipartFile file) {
+    // Zapisuje oryginał i miniatury JPEG 256/64/32 px obok niego (<hash>_256.jpg itd.)
+    // Zwraca URL największej miniatury - mniejsze wylicza UserMapper.avatarVariant
+    public String saveAvatar(MultipartFile file) {
         if (file.isEmpty()) {
             return null;
         }
 
+        ContentAddressedStore.Blob original = null;
         try {
-            // unikalna nazwa, żeby pliki się nie nadpisywały
-            String originalFilename = file.getOriginalFilename();
-            String extension = "";
-            if (originalFilename != null && originalFilename.contains(".")) {
-                extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            }
-            String filename = UUID.randomUUID() + extension;
+            original = store.store(file.getInputStream(), extensionOf(file.getOriginalFilename()));
 
-            Files.copy(file.getInputStream(), this.rootLocation.resolve(filename), StandardCopyOption.REPLACE_EXISTING);
+            // ten sam obraz był już wgrany i przetworzony - bez ponownego dekodowania
+            if (original.created() || !variantsExist(original.hash())) {
+                // jedno dekodowanie, miniatury skalowane kaskadowo
+                BufferedImage current = decodeSquare(original.path(), AVATAR_SIZES[0]);
+                for (int size : AVATAR_SIZES) {
+                    current = scale(current, size);
+                    writeJpeg(current, store.derived(original.hash(), variantSuffix(size)));
+                }
+            }
 
-            return "/uploads/" + filename;
+            return "/uploads/" + store.keyOf(original.hash(), variantSuffix(AVATAR_SIZES[0]));
+        } catch (IllegalArgumentException e) {
+            deleteCreated(original);
+            throw e;
         } catch (IOException e) {
+            deleteCreated(original);
             throw new RuntimeException("Błąd podczas zapisu pliku " + file.getOriginalFilename(), e);
         }
     }
-}
\ No newline at end of file
+
+    // usuwa bloby nieużywane przez żaden wpis w bazie (skróty z URL-i avatarów)
+    public long collectGarbage(Set<String> liveHashes, Duration gracePeriod) throws IOException {
+        return store.collectGarbage(liveHashes::contains, gracePeriod);
+    }
+
+    private boolean variantsExist(String hash) {
+        for (int size : AVATAR_SIZES) {
+            if (!Files.exists(store.derived(hash, variantSuffix(size)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String variantSuffix(int size) {
+        return "_" + size + ".jpg";
+    }
+
+    // rozszerzenie tylko z bezpiecznych znaków - nazwa pliku od użytkownika nie trafia do ścieżki
+    private static String extensionOf(String originalFilename) {
+        if (originalFilename != null && originalFilename.contains(".")) {
+            String extension = originalFilename.substring(originalFilename.lastIndexOf(".")).toLowerCase();
+            if (SAFE_EXTENSION.matcher(extension).matches()) {
+                return extension;
+            }
+        }
+        return "";
+    }
+
+    // dekoduje tylko środkowy kwadrat, z pominięciem co n-tego piksela (subsampling) -
+    // zdjęcie 4000x3000 nie jest rozpakowywane w pełnej rozdzielczości
+    private static BufferedImage decodeSquare(Path path, int targetSize) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(path.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("Avatar musi być obrazem (JPEG, PNG, GIF lub BMP)");
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_AVATAR_PIXELS) {
+                    throw new IllegalArgumentException("Obraz avatara ma zbyt dużą rozdzielczość: " + width + "x" + height);
+                }
+
+                int side = Math.min(width, height);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceRegion(new Rectangle((width - side) / 2, (height - side) / 2, side, side));
+
+                // zostawiamy ~2x docelowego rozmiaru na końcowe wygładzenie
+                int step = Math.max(1, side / (targetSize * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // skalowanie po połowie (dwuliniowo) - jakość bliska bikubicznemu przy ułamku kosztu
+    private static BufferedImage scale(BufferedImage source, int size) {
+        BufferedImage current = source;
+        do {
+            int half = current.getWidth() / 2;
+            current = draw(current, half >= size ? half : size);
+        } while (current.getWidth() > size);
+        return current;
+    }
+
+    private static BufferedImage draw(BufferedImage source, int size) {
+        // RGB bez kanału alfa - przezroczyste tło PNG zamieniane na białe (JPEG nie ma alfy)
+        BufferedImage target = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, size, size);
+            g.drawImage(source, 0, 0, size, size, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // plik, który istniał wcześniej (deduplikacja), może być używany przez innego użytkownika
+    private void deleteCreated(ContentAddressedStore.Blob blob) {
+        if (blob == null || !blob.created()) {
+            return;
+        }
+        try {
+            store.deleteAll(blob.hash());
+        } catch (IOException ignored) {
+            // sprzątanie best-effort
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package org.example.bookaroo.service;
+
+import org.example.bookaroo.dto.BookDTO;
+import org.example.bookaroo.exception.ResourceNotFoundException;
+import org.example.bookaroo.repository.BookCardDao;
+import org.example.bookaroo.repository.BookCardDao.CardRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+// "Więcej takich" po gatunkach: gatunki książki jako maska bitowa long (bit = numer gatunku), maski w gęstej
+// tablicy po numerze porządkowym książki. Podobieństwo Jaccarda z popcount - skan całego katalogu bez zapytań.
+// Gatunków jest znacznie mniej niż 64; przy większej liczbie maska książki zajmuje kolejne słowa (stride).
+// Wynik per książka w pamięci podręcznej; zmiana gatunków książki unieważnia wpisy książek o wspólnych gatunkach.
+@Service
+public class GenreSimilarityService {
+
+    private static final Logger log = LoggerFactory.getLogger(GenreSimilarityService.class);
+
+    public static final int MAX_LIMIT = 50;
+
+    private final BookCardDao bookCardDao;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<BookDTO> cards = new ArrayList<>();
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final BitSet alive = new BitSet();
+    private final Map<UUID, Integer> genreBits = new HashMap<>();
+    private int words = 1;
+    private long[] masks = new long[0];
+
+    // numer książki -> numery najbardziej podobnych (MAX_LIMIT); karty dobierane przy odczycie
+    private final Map<Integer, int[]> cache = new ConcurrentHashMap<>();
+
+    public GenreSimilarityService(BookCardDao bookCardDao) {
+        this.bookCardDao = bookCardDao;
+    }
+
+    // ODCZYT
+
+    public List<BookDTO> similarTo(UUID bookId, int limit) {
+        lock.readLock().lock();
+        try {
+            Integer ord = ordinals.get(bookId);
+            if (ord == null || !alive.get(ord)) {
+                throw new ResourceNotFoundException("Book", "id", bookId);
+            }
+            // obliczenie pod blokadą odczytu - unieważnienie (blokada zapisu) nie przeplata się z nim
+            int[] similar = cache.computeIfAbsent(ord, this::scan);
+            int count = Math.min(Math.max(limit, 1), Math.min(similar.length, MAX_LIMIT));
+            List<BookDTO> books = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                books.add(cards.get(similar[i]));
+            }
+            return books;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // klucz: wynik (bity float, dodatni) w starszej połowie, odwrócony numer w młodszej -
+    // sortowanie rosnące stawia najlepsze na końcu, remis rozstrzyga niższy numer (kolejność tytułów)
+    private int[] scan(int target) {
+        long[] keys = new long[cards.size()];
+        int candidates = 0;
+        int base = target * words;
+        for (int ord = alive.nextSetBit(0); ord >= 0; ord = alive.nextSetBit(ord + 1)) {
+            if (ord == target) {
+                continue;
+            }
+            int common = 0;
+            int union = 0;
+            for (int w = 0, other = ord * words; w < words; w++) {
+                common += Long.bitCount(masks[base + w] & masks[other + w]);
+                union += Long.bitCount(masks[base + w] | masks[other + w]);
+            }
+            if (common > 0) {
+                float jaccard = (float) common / union;
+                keys[candidates++] = ((long) Float.floatToIntBits(jaccard) << 32) | (Integer.MAX_VALUE - ord);
+            }
+        }
+        Arrays.sort(keys, 0, candidates);
+        int[] similar = new int[Math.min(candidates, MAX_LIMIT)];
+        for (int i = 0; i < similar.length; i++) {
+            similar[i] = Integer.MAX_VALUE - (int) keys[candidates - 1 - i];
+        }
+        return similar;
+    }
+
+    // ZAPIS
+
+    // wywoływane po commicie (BookCardService), jak w indeksie faset
+    public synchronized void refreshBooks(Collection<UUID> bookIds) {
+        List<CardRow> rows = bookCardDao.findRows(bookIds);
+        Set<UUID> present = rows.stream().map(row -> row.card().id()).collect(Collectors.toSet());
+        lock.writeLock().lock();
+        try {
+            bookIds.forEach(bookId -> {
+                Integer ord = ordinals.get(bookId);
+                if (ord != null && !present.contains(bookId)) {
+                    remove(ord);
+                }
+            });
+            rows.forEach(this::index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // usunięcie autora usuwa jego książki - zdejmowane są pozycje autora, których nie ma już w bazie
+    public synchronized void refreshAuthor(UUID authorId) {
+        List<CardRow> rows = bookCardDao.findRowsByAuthor(authorId);
+        Set<UUID> present = rows.stream().map(row -> row.card().id()).collect(Collectors.toSet());
+        lock.writeLock().lock();
+        try {
+            for (int ord = alive.nextSetBit(0); ord >= 0; ord = alive.nextSetBit(ord + 1)) {
+                BookDTO card = cards.get(ord);
+                if (authorId.equals(card.authorId()) && !present.contains(card.id())) {
+                    remove(ord);
+                }
+            }
+            rows.forEach(this::index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // start (po kartach, BookCardService) - numery w kolejności tytułów
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        List<CardRow> rows = new ArrayList<>();
+        bookCardDao.forEachRow(rows::add);
+        lock.writeLock().lock();
+        try {
+            cards.clear();
+            ordinals.clear();
+            alive.clear();
+            genreBits.clear();
+            cache.clear();
+            rows.forEach(row -> row.genreIds().forEach(genreId -> genreBits.putIfAbsent(genreId, genreBits.size())));
+            words = Math.max(1, (genreBits.size() + 63) / 64);
+            masks = new long[rows.size() * words];
+            rows.forEach(this::index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Maski gatunków przebudowane w {} ms ({} książek, {} gatunków)",
+                System.currentTimeMillis() - start, rows.size(), genreBits.size());
+    }
+
+    // zmiana samej karty (tytuł, ocena po recenzji) nie rusza pamięci podręcznej - karty dobierane przy odczycie
+    private void index(CardRow row) {
+        BookDTO card = row.card();
+        Integer existing = ordinals.get(card.id());
+        int ord;
+        if (existing == null) {
+            ord = cards.size();
+            cards.add(card);
+            ordinals.put(card.id(), ord);
+        } else {
+            ord = existing;
+            cards.set(ord, card);
+        }
+        for (UUID genreId : row.genreIds()) {
+            genreBits.putIfAbsent(genreId, genreBits.size());
+        }
+        ensureCapacity(ord);
+
+        long[] mask = new long[words];
+        for (UUID genreId : row.genreIds()) {
+            int bit = genreBits.get(genreId);
+            mask[bit / 64] |= 1L << (bit % 64);
+        }
+        int base = ord * words;
+        if (!alive.get(ord) || !Arrays.equals(masks, base, base + words, mask, 0, words)) {
+            // unieważnienie wg starej i nowej maski
+            invalidate(ord);
+            System.arraycopy(mask, 0, masks, base, words);
+            invalidate(ord);
+        }
+        alive.set(ord);
+    }
+
+    // pozycja zostaje przypisana do książki; wpisy z nią w wyniku unieważniane przed wyzerowaniem maski
+    private void remove(int ord) {
+        invalidate(ord);
+        alive.clear(ord);
+        Arrays.fill(masks, ord * words, (ord + 1) * words, 0L);
+    }
+
+    // zmiana maski książki zmienia tylko wyniki książek, które mają z nią wspólny gatunek (przed albo po zmianie)
+    private void invalidate(int changed) {
+        cache.remove(changed);
+        int base = changed * words;
+        cache.keySet().removeIf(ord -> {
+            for (int w = 0; w < words; w++) {
+                if ((masks[base + w] & masks[ord * words + w]) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    // nowa książka dopisana na końcu; nowy gatunek ponad pojemność słowa poszerza maski
+    private void ensureCapacity(int ord) {
+        int required = Math.max(1, (genreBits.size() + 63) / 64);
+        if (required > words) {
+            long[] widened = new long[Math.max(cards.size(), masks.length / words) * required];
+            for (int book = 0; book < masks.length / words; book++) {
+                System.arraycopy(masks, book * words, widened, book * required, words);
+            }
+            masks = widened;
+            words = required;
+        }
+        if ((ord + 1) * words > masks.length) {
+            masks = Arrays.copyOf(masks, Math.max((ord + 1) * words, masks.length * 2));
+        }
+    }
+}
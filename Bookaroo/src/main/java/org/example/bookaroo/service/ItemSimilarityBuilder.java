@@ -0,0 +1,274 @@
+package org.example.bookaroo.service;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Podobieństwo książek z koszyków użytkowników (półki + recenzje): kosinus na wektorach binarnych,
+// co(i, j) / sqrt(deg(i) * deg(j)). Wszystko na tablicach prymitywów, bez obiektów per para.
+// 1. fork/join po partiach użytkowników: stopnie książek i odwrócony indeks książka -> użytkownicy (CSR)
+// 2. fork/join po zakresach książek: wiersz macierzy liczony licznikiem gęstym per wątek, zostaje top-N sąsiadów.
+// Osobne macierze per partia użytkowników trzeba by scalać - pamięć O(partie * pary); indeks odwrócony tego unika.
+public final class ItemSimilarityBuilder {
+
+    private static final int USER_PARTITION = 16_384;
+    private static final int ITEM_PARTITION = 256;
+
+    // sąsiedzi książki i w items[offsets[i] .. offsets[i + 1]), malejąco po scores
+    public record Neighbours(int[] offsets, int[] items, float[] scores) {
+
+        public int count(int item) {
+            return offsets[item + 1] - offsets[item];
+        }
+
+        public int item(int item, int rank) {
+            return items[offsets[item] + rank];
+        }
+
+        public float score(int item, int rank) {
+            return scores[offsets[item] + rank];
+        }
+    }
+
+    private ItemSimilarityBuilder() {
+    }
+
+    // baskets[u] - numery książek użytkownika u, bez powtórzeń
+    public static Neighbours build(int itemCount, int[][] baskets, int topN, int minCoOccurrence, ForkJoinPool pool) {
+        int[] degrees = pool.invoke(new DegreeTask(baskets, itemCount, 0, baskets.length));
+
+        int[] userOffsets = new int[itemCount + 1];
+        for (int i = 0; i < itemCount; i++) {
+            userOffsets[i + 1] = userOffsets[i] + degrees[i];
+        }
+        int[] users = new int[userOffsets[itemCount]];
+        AtomicIntegerArray cursors = new AtomicIntegerArray(Arrays.copyOf(userOffsets, itemCount));
+        pool.invoke(new FillTask(baskets, users, cursors, 0, baskets.length));
+
+        int[][] rowItems = new int[itemCount][];
+        float[][] rowScores = new float[itemCount][];
+        pool.invoke(new RowTask(new Input(baskets, degrees, userOffsets, users, topN, minCoOccurrence),
+                rowItems, rowScores, 0, itemCount));
+
+        // sklejenie wierszy w jedną tablicę
+        int[] offsets = new int[itemCount + 1];
+        for (int i = 0; i < itemCount; i++) {
+            offsets[i + 1] = offsets[i] + rowItems[i].length;
+        }
+        int[] items = new int[offsets[itemCount]];
+        float[] scores = new float[offsets[itemCount]];
+        for (int i = 0; i < itemCount; i++) {
+            System.arraycopy(rowItems[i], 0, items, offsets[i], rowItems[i].length);
+            System.arraycopy(rowScores[i], 0, scores, offsets[i], rowScores[i].length);
+        }
+        return new Neighbours(offsets, items, scores);
+    }
+
+    private record Input(int[][] baskets, int[] degrees, int[] userOffsets, int[] users, int topN, int minCoOccurrence) {}
+
+    // liczba użytkowników na książkę - partie sumowane parami
+    private static final class DegreeTask extends RecursiveTask<int[]> {
+        private final int[][] baskets;
+        private final int itemCount;
+        private final int from;
+        private final int to;
+
+        DegreeTask(int[][] baskets, int itemCount, int from, int to) {
+            this.baskets = baskets;
+            this.itemCount = itemCount;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= USER_PARTITION) {
+                int[] degrees = new int[itemCount];
+                for (int u = from; u < to; u++) {
+                    for (int item : baskets[u]) {
+                        degrees[item]++;
+                    }
+                }
+                return degrees;
+            }
+            int mid = (from + to) >>> 1;
+            DegreeTask left = new DegreeTask(baskets, itemCount, from, mid);
+            left.fork();
+            int[] right = new DegreeTask(baskets, itemCount, mid, to).compute();
+            int[] merged = left.join();
+            for (int i = 0; i < itemCount; i++) {
+                merged[i] += right[i];
+            }
+            return merged;
+        }
+    }
+
+    // odwrócony indeks - kolejność użytkowników w wierszu bez znaczenia, kursory atomowe
+    private static final class FillTask extends RecursiveAction {
+        private final int[][] baskets;
+        private final int[] users;
+        private final AtomicIntegerArray cursors;
+        private final int from;
+        private final int to;
+
+        FillTask(int[][] baskets, int[] users, AtomicIntegerArray cursors, int from, int to) {
+            this.baskets = baskets;
+            this.users = users;
+            this.cursors = cursors;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= USER_PARTITION) {
+                for (int u = from; u < to; u++) {
+                    for (int item : baskets[u]) {
+                        users[cursors.getAndIncrement(item)] = u;
+                    }
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new FillTask(baskets, users, cursors, from, mid), new FillTask(baskets, users, cursors, mid, to));
+        }
+    }
+
+    private static final class RowTask extends RecursiveAction {
+        private final Input input;
+        private final int[][] rowItems;
+        private final float[][] rowScores;
+        private final int from;
+        private final int to;
+
+        RowTask(Input input, int[][] rowItems, float[][] rowScores, int from, int to) {
+            this.input = input;
+            this.rowItems = rowItems;
+            this.rowScores = rowScores;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > ITEM_PARTITION) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RowTask(input, rowItems, rowScores, from, mid),
+                        new RowTask(input, rowItems, rowScores, mid, to));
+                return;
+            }
+            int itemCount = input.degrees().length;
+            // licznik gęsty zerowany tylko w dotkniętych pozycjach
+            int[] counts = new int[itemCount];
+            int[] touched = new int[itemCount];
+            TopN top = new TopN(input.topN());
+            for (int i = from; i < to; i++) {
+                int touchedCount = 0;
+                for (int p = input.userOffsets()[i]; p < input.userOffsets()[i + 1]; p++) {
+                    for (int j : input.baskets()[input.users()[p]]) {
+                        if (j != i && counts[j]++ == 0) {
+                            touched[touchedCount++] = j;
+                        }
+                    }
+                }
+                top.clear();
+                for (int t = 0; t < touchedCount; t++) {
+                    int j = touched[t];
+                    if (counts[j] >= input.minCoOccurrence()) {
+                        float score = (float) (counts[j] / Math.sqrt((double) input.degrees()[i] * input.degrees()[j]));
+                        top.offer(j, score);
+                    }
+                    counts[j] = 0;
+                }
+                top.drainInto(rowItems, rowScores, i);
+            }
+        }
+    }
+
+    // kopiec minimum na tablicach - najsłabszy z zachowanych na szczycie
+    private static final class TopN {
+        private final int[] items;
+        private final float[] scores;
+        private int size;
+
+        TopN(int capacity) {
+            this.items = new int[capacity];
+            this.scores = new float[capacity];
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        void offer(int item, float score) {
+            if (size < items.length) {
+                items[size] = item;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (items.length > 0 && better(item, score, 0)) {
+                items[0] = item;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        // ranking malejąco po wyniku, remis - niższy numer książki
+        private boolean better(int item, float score, int slot) {
+            return score > scores[slot] || (score == scores[slot] && item < items[slot]);
+        }
+
+        private void siftUp(int slot) {
+            while (slot > 0) {
+                int parent = (slot - 1) / 2;
+                if (!better(items[parent], scores[parent], slot)) {
+                    break;
+                }
+                swap(slot, parent);
+                slot = parent;
+            }
+        }
+
+        private void siftDown(int slot) {
+            while (true) {
+                int weakest = slot;
+                for (int child = 2 * slot + 1; child <= 2 * slot + 2 && child < size; child++) {
+                    if (better(items[weakest], scores[weakest], child)) {
+                        weakest = child;
+                    }
+                }
+                if (weakest == slot) {
+                    return;
+                }
+                swap(slot, weakest);
+                slot = weakest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int item = items[a];
+            items[a] = items[b];
+            items[b] = item;
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+
+        // zdejmowanie najsłabszego od końca daje kolejność malejącą; kopiec zostaje pusty
+        void drainInto(int[][] rowItems, float[][] rowScores, int row) {
+            int[] sortedItems = new int[size];
+            float[] sortedScores = new float[size];
+            for (int k = size - 1; k >= 0; k--) {
+                sortedItems[k] = items[0];
+                sortedScores[k] = scores[0];
+                size--;
+                items[0] = items[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            rowItems[row] = sortedItems;
+            rowScores[row] = sortedScores;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package org.example.bookaroo.service;
+
+import org.example.bookaroo.dto.JobDTO;
+import org.example.bookaroo.exception.JobNotReadyException;
+import org.example.bookaroo.exception.ResourceNotFoundException;
+import org.example.bookaroo.exception.TooManyJobsException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+
+// Eksport i import profilu w tle: żądanie dostaje id zadania od razu, wątek Tomcata i transakcja
+// nie są trzymane przez cały czas generowania pliku. Stan i gotowe pliki trzymane w pamięci
+// przez okres retencji - po restarcie aplikacji zadania przepadają (klient zleca ponownie).
+@Service
+public class JobService {
+
+    private static final Logger log = LoggerFactory.getLogger(JobService.class);
+
+    public enum JobType { EXPORT_JSON, EXPORT_CSV, EXPORT_PDF, IMPORT }
+
+    public enum JobStatus { QUEUED, RUNNING, SUCCEEDED, FAILED }
+
+    // gotowy plik do pobrania
+    public record JobArtifact(String filename, MediaType contentType, byte[] data) {}
+
+    @FunctionalInterface
+    private interface Work {
+        JobArtifact run(IntConsumer progress) throws Exception;
+    }
+
+    // pola volatile - zapisuje wątek roboczy, czyta wątek żądania (polling)
+    private static final class Job {
+        private final UUID id = UUID.randomUUID();
+        private final String username;
+        private final JobType type;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile int progress;
+        private volatile String error;
+        private volatile LocalDateTime finishedAt;
+        private volatile JobArtifact artifact;
+
+        private Job(String username, JobType type) {
+            this.username = username;
+            this.type = type;
+        }
+    }
+
+    // komunikat dla klienta - szczegóły wyjątku tylko w logu
+    static final String FAILURE_MESSAGE = "Zadanie nie powiodło się. Spróbuj ponownie później.";
+
+    private final Map<UUID, Job> jobs = new ConcurrentHashMap<>();
+    // wpis istnieje tylko, gdy użytkownik ma zadania w toku - zerowy licznik jest usuwany
+    private final Map<String, Integer> activePerUser = new ConcurrentHashMap<>();
+
+    private final BackupService backupService;
+    private final AsyncTaskExecutor jobExecutor;
+    private final int maxActivePerUser;
+    private final Duration retention;
+
+    public JobService(BackupService backupService,
+                      @Qualifier("jobExecutor") AsyncTaskExecutor jobExecutor,
+                      @Value("${bookaroo.jobs.max-per-user:2}") int maxActivePerUser,
+                      @Value("${bookaroo.jobs.retention-minutes:30}") long retentionMinutes) {
+        this.backupService = backupService;
+        this.jobExecutor = jobExecutor;
+        this.maxActivePerUser = maxActivePerUser;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+    }
+
+    public JobDTO submitExport(String username, String format) {
+        return switch (format.toLowerCase()) {
+            case "json" -> submit(username, JobType.EXPORT_JSON, progress -> new JobArtifact(
+                    "backup_" + username + ".json", MediaType.APPLICATION_JSON,
+                    backupService.exportUserDataToJson(username, progress)));
+            case "csv" -> submit(username, JobType.EXPORT_CSV, progress -> new JobArtifact(
+                    "recenzje_" + username + ".csv", new MediaType("text", "csv", StandardCharsets.UTF_8),
+                    backupService.exportUserReviewsToCsv(username, progress)));
+            case "pdf" -> submit(username, JobType.EXPORT_PDF, progress -> new JobArtifact(
+                    "recenzje_" + username + ".pdf", MediaType.APPLICATION_PDF,
+                    backupService.exportUserReviewsToPdf(username, progress)));
+            default -> throw new IllegalArgumentException("Nieobsługiwany format eksportu: " + format);
+        };
+    }
+
+    public JobDTO submitImport(String username, MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("Plik backupu jest pusty");
+        }
+        // kopia musi powstać jeszcze w wątku żądania - plik tymczasowy multipart znika po odpowiedzi
+        Path backupFile = backupService.stageImport(file);
+
+        return submit(username, JobType.IMPORT, progress -> {
+            backupService.importUserData(username, backupFile, progress);
+            return null;
+        });
+    }
+
+    // cudze zadanie wygląda jak nieistniejące - bez zdradzania, że id jest poprawne
+    public JobDTO getJob(UUID id, String username) {
+        return toDto(findOwned(id, username));
+    }
+
+    public JobArtifact getArtifact(UUID id, String username) {
+        Job job = findOwned(id, username);
+        JobArtifact artifact = job.artifact;
+        if (job.status != JobStatus.SUCCEEDED || artifact == null) {
+            throw new JobNotReadyException("Zadanie " + id + " nie ma pliku do pobrania (status: " + job.status + ")");
+        }
+        return artifact;
+    }
+
+    // zakończone zadania (wraz z plikami) usuwane po okresie retencji
+    @Scheduled(fixedDelayString = "${bookaroo.jobs.cleanup-interval-ms:60000}")
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    private JobDTO submit(String username, JobType type, Work work) {
+        acquireSlot(username);
+
+        Job job = new Job(username, type);
+        jobs.put(job.id, job);
+        try {
+            jobExecutor.execute(() -> run(job, work));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.id);
+            releaseSlot(username);
+            throw new TooManyJobsException("Kolejka zadań jest pełna. Spróbuj ponownie za chwilę.");
+        }
+        return toDto(job);
+    }
+
+    private void run(Job job, Work work) {
+        job.status = JobStatus.RUNNING;
+        try {
+            job.artifact = work.run(percent -> job.progress = Math.min(percent, 100));
+            job.progress = 100;
+            job.status = JobStatus.SUCCEEDED;
+        } catch (Exception e) {
+            log.warn("Zadanie {} ({}) użytkownika {} nie powiodło się", job.id, job.type, job.username, e);
+            job.error = FAILURE_MESSAGE;
+            job.status = JobStatus.FAILED;
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            releaseSlot(job.username);
+        }
+    }
+
+    // limit na użytkownika - jeden użytkownik nie zajmie całej puli; wyjątek w compute zostawia licznik bez zmian
+    private void acquireSlot(String username) {
+        activePerUser.compute(username, (user, active) -> {
+            int current = active == null ? 0 : active;
+            if (current >= maxActivePerUser) {
+                throw new TooManyJobsException("Masz już " + maxActivePerUser + " zadania w toku. Poczekaj na ich zakończenie.");
+            }
+            return current + 1;
+        });
+    }
+
+    // ostatnie zadanie użytkownika usuwa jego wpis - mapa nie rośnie z liczbą użytkowników, którzy kiedyś zlecili zadanie
+    private void releaseSlot(String username) {
+        activePerUser.computeIfPresent(username, (user, active) -> active > 1 ? active - 1 : null);
+    }
+
+    // liczba użytkowników z zadaniami w toku
+    int usersWithActiveJobs() {
+        return activePerUser.size();
+    }
+
+    private Job findOwned(UUID id, String username) {
+        Job job = jobs.get(id);
+        if (job == null || !job.username.equals(username)) {
+            throw new ResourceNotFoundException("Job", "id", id);
+        }
+        return job;
+    }
+
+    private JobDTO toDto(Job job) {
+        String downloadUrl = job.status == JobStatus.SUCCEEDED && job.artifact != null
+                ? "/api/v1/jobs/" + job.id + "/download"
+                : null;
+        return new JobDTO(job.id, job.type.name(), job.status.name(), job.progress, job.error,
+                job.createdAt, job.finishedAt, downloadUrl);
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.bookaroo.service;
+
+import org.example.bookaroo.dto.BookDTO;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+// Ograniczona tablica najlepszych wyników (top-K). Próg: każda książka spoza tablicy ma wynik <= threshold,
+// każda z tablicy >= threshold. Póki tablica ma co najmniej n pozycji, jej pierwsze n to dokładne top-n;
+// gdy członkowie spadną pod próg i tablica się skurczy - covers() zwraca false i trzeba ją przebudować.
+// Zapis synchronizowany, odczyt z niezmiennej migawki bez blokad.
+class Leaderboard {
+
+    record Entry(UUID bookId, double score, BookDTO card) {}
+
+    private record Snapshot(List<Entry> entries, double threshold) {}
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingDouble(Entry::score).reversed()
+            .thenComparing(Entry::bookId);
+
+    private final int capacity;
+    private final TreeSet<Entry> entries = new TreeSet<>(ORDER);
+    private final Map<UUID, Entry> byBook = new HashMap<>();
+    private double threshold = Double.NEGATIVE_INFINITY;
+    private volatile Snapshot snapshot = new Snapshot(List.of(), Double.NEGATIVE_INFINITY);
+
+    Leaderboard(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Pojemność tablicy musi być dodatnia");
+        }
+        this.capacity = capacity;
+    }
+
+    // nowy lub zmieniony wynik książki
+    synchronized void offer(Entry entry) {
+        Entry current = byBook.remove(entry.bookId());
+        if (current != null) {
+            entries.remove(current);
+        }
+        // członek zostaje, dopóki nie spadnie pod próg; nowa książka musi próg przebić
+        boolean keep = current != null ? entry.score() >= threshold : entry.score() > threshold;
+        if (keep) {
+            entries.add(entry);
+            byBook.put(entry.bookId(), entry);
+            if (entries.size() > capacity) {
+                Entry evicted = entries.pollLast();
+                byBook.remove(evicted.bookId());
+                threshold = Math.max(threshold, evicted.score());
+            }
+        }
+        publish();
+    }
+
+    // książki usunięte lub przed ponownym wstawieniem - próg bez zmian
+    synchronized void removeIf(Predicate<Entry> filter) {
+        if (entries.removeIf(filter)) {
+            byBook.values().removeIf(filter);
+            publish();
+        }
+    }
+
+    boolean covers(int n) {
+        Snapshot current = snapshot;
+        return current.entries().size() >= n || current.threshold() == Double.NEGATIVE_INFINITY;
+    }
+
+    List<BookDTO> top(int n) {
+        List<Entry> current = snapshot.entries();
+        return current.subList(0, Math.min(n, current.size())).stream()
+                .map(Entry::card)
+                .toList();
+    }
+
+    int size() {
+        return snapshot.entries().size();
+    }
+
+    private void publish() {
+        snapshot = new Snapshot(List.copyOf(entries), threshold);
+    }
+}
@@ -0,0 +1,218 @@
+package org.example.bookaroo.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Składa stronę z niezależnych zapytań uruchamianych równolegle.
+// Czas strony to najwolniejsze wywołanie (ścieżka krytyczna), a nie suma wszystkich.
+@Component
+public class PageAssembler {
+
+    private static final Logger log = LoggerFactory.getLogger(PageAssembler.class);
+
+    private final Executor executor;
+    private final MeterRegistry meterRegistry;
+    private final Duration callTimeout;
+
+    public PageAssembler(@Qualifier("pageAssemblyExecutor") Executor executor,
+                         MeterRegistry meterRegistry,
+                         @Value("${bookaroo.page.call-timeout-ms:2000}") long callTimeoutMs) {
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.callTimeout = Duration.ofMillis(callTimeoutMs);
+    }
+
+    public Assembly begin(String page) {
+        return new Assembly(page);
+    }
+
+    public class Assembly {
+
+        private final String page;
+        private final long startedAt = System.nanoTime();
+        private final List<Call<?>> calls = new ArrayList<>();
+
+        private Assembly(String page) {
+            this.page = page;
+        }
+
+        // wymagane dane - błąd przerywa składanie strony (np. 404 dla nieistniejącej książki)
+        public <T> CompletableFuture<T> required(String name, Supplier<T> supplier) {
+            return submit(name, supplier, true, null);
+        }
+
+        // opcjonalne dane - przy błędzie lub przekroczeniu czasu strona dostaje wartość zastępczą
+        public <T> CompletableFuture<T> optional(String name, Supplier<T> supplier, T fallback) {
+            return submit(name, supplier, false, fallback);
+        }
+
+        private <T> CompletableFuture<T> submit(String name, Supplier<T> supplier, boolean required, T fallback) {
+            Call<T> call = new Call<>(name, required);
+
+            CompletableFuture<T> result = new CompletableFuture<>();
+            FutureTask<T> task = new FutureTask<>(() -> {
+                long start = System.nanoTime();
+                try {
+                    return supplier.get();
+                } finally {
+                    call.nanos = System.nanoTime() - start;
+                }
+            }) {
+                @Override
+                protected void done() {
+                    if (isCancelled()) {
+                        return;
+                    }
+                    try {
+                        result.complete(get());
+                    } catch (ExecutionException e) {
+                        result.completeExceptionally(e.getCause());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        result.completeExceptionally(e);
+                    }
+                }
+            };
+            executor.execute(task);
+
+            // orTimeout kończy tylko future - samo zadanie przerywamy, żeby nie zajmowało wątku i połączenia z bazy
+            CompletableFuture<T> future = result.orTimeout(callTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            future.whenComplete((value, ex) -> {
+                if (ex instanceof TimeoutException) {
+                    task.cancel(true);
+                }
+            });
+
+            if (!required) {
+                future = future.exceptionally(ex -> {
+                    call.failure = unwrap(ex);
+                    log.warn("Strona {}: wywołanie {} zastąpione wartością domyślną ({})", page, name, call.failure.toString());
+                    return fallback;
+                });
+            }
+
+            call.future = future;
+            calls.add(call);
+            return future;
+        }
+
+        // czeka na wszystkie wywołania, zapisuje metryki i rzuca błąd pierwszego wymaganego wywołania
+        public void await() {
+            CompletableFuture<?>[] futures = calls.stream()
+                    .map(c -> c.future)
+                    .toArray(CompletableFuture[]::new);
+
+            try {
+                CompletableFuture.allOf(futures).join();
+            } catch (CompletionException ignored) {
+                // błędy obsługiwane poniżej, per wywołanie
+            }
+
+            RuntimeException firstFailure = null;
+            for (Call<?> call : calls) {
+                if (call.required && call.future.isCompletedExceptionally()) {
+                    call.failure = call.future.handle((v, ex) -> unwrap(ex)).join();
+                    if (firstFailure == null) {
+                        firstFailure = asRuntime(call);
+                    }
+                }
+            }
+
+            recordMetrics();
+
+            if (firstFailure != null) {
+                throw firstFailure;
+            }
+        }
+
+        private void recordMetrics() {
+            Call<?> slowest = null;
+            for (Call<?> call : calls) {
+                long nanos = call.failure instanceof TimeoutException ? callTimeout.toNanos() : call.nanos;
+                call.nanos = nanos;
+
+                Timer.builder("bookaroo.page.call")
+                        .tag("page", page)
+                        .tag("call", call.name)
+                        .tag("outcome", outcome(call))
+                        .register(meterRegistry)
+                        .record(nanos, TimeUnit.NANOSECONDS);
+
+                if (slowest == null || nanos > slowest.nanos) {
+                    slowest = call;
+                }
+            }
+
+            if (slowest != null) {
+                Timer.builder("bookaroo.page.critical-path")
+                        .tag("page", page)
+                        .tag("call", slowest.name)
+                        .register(meterRegistry)
+                        .record(slowest.nanos, TimeUnit.NANOSECONDS);
+            }
+
+            Timer.builder("bookaroo.page.assembly")
+                    .tag("page", page)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+
+        private RuntimeException asRuntime(Call<?> call) {
+            if (call.failure instanceof RuntimeException runtime) {
+                return runtime;
+            }
+            if (call.failure instanceof TimeoutException) {
+                return new IllegalStateException("Przekroczono czas oczekiwania na " + call.name + " (strona " + page + ")", call.failure);
+            }
+            return new IllegalStateException("Błąd podczas pobierania " + call.name + " (strona " + page + ")", call.failure);
+        }
+    }
+
+    private static String outcome(Call<?> call) {
+        if (call.failure == null) {
+            return "success";
+        }
+        if (call.failure instanceof TimeoutException) {
+            return "timeout";
+        }
+        return call.required ? "error" : "fallback";
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        Throwable current = ex;
+        while (current instanceof CompletionException && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+
+    private static class Call<T> {
+        private final String name;
+        private final boolean required;
+        private volatile long nanos;
+        private volatile Throwable failure;
+        private CompletableFuture<T> future;
+
+        private Call(String name, boolean required) {
+            this.name = name;
+            this.required = required;
+        }
+    }
+}
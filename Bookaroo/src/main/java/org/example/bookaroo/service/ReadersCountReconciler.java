@@ -0,0 +1,78 @@
+package org.example.bookaroo.service;
+
+import org.example.bookaroo.repository.BookCardDao;
+import org.example.bookaroo.repository.StatisticsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+// Okresowe uzgadnianie books.readers_count z bookshelf_books. Licznik zmieniają atomowo serwisy półek,
+// ale zapisy z pominięciem serwisów (data.sql, ręczne SQL, kaskady) mogą go rozjechać.
+// Paczki po id (keyset), każda w osobnej krótkiej transakcji - bez blokowania całej tabeli books.
+@Component
+public class ReadersCountReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadersCountReconciler.class);
+
+    private final StatisticsRepository statisticsRepository;
+    private final BookCardDao bookCardDao;
+    private final BookCardService bookCardService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public ReadersCountReconciler(StatisticsRepository statisticsRepository,
+                                  BookCardDao bookCardDao,
+                                  BookCardService bookCardService,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${bookaroo.readers.reconcile-chunk-size:1000}") int chunkSize) {
+        this.statisticsRepository = statisticsRepository;
+        this.bookCardDao = bookCardDao;
+        this.bookCardService = bookCardService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    // pierwsze przejście po starcie (data.sql wstawia wpisy na półkach bez liczników), ale dopiero po
+    // zbudowaniu kart i indeksów w pamięci - poprawki trafiają do gotowych indeksów zamiast ścigać się z budową
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void reconcileOnStartup() {
+        reconcile();
+    }
+
+    @Scheduled(initialDelayString = "${bookaroo.readers.reconcile-interval-ms:3600000}",
+            fixedDelayString = "${bookaroo.readers.reconcile-interval-ms:3600000}")
+    public int reconcile() {
+        int corrected = 0;
+        UUID after = null;
+        while (true) {
+            List<UUID> ids = statisticsRepository.findBookIdsAfter(after, chunkSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            corrected += transactionTemplate.execute(status -> {
+                List<UUID> drifted = statisticsRepository.reconcileReadersCounts(ids);
+                // karty czytają licznik z books, indeksy w pamięci (migawka, ranking, fasety) - z kart po commicie
+                bookCardDao.refreshBooks(drifted);
+                bookCardService.refreshIndexes(drifted);
+                return drifted.size();
+            });
+            after = ids.get(ids.size() - 1);
+        }
+        if (corrected > 0) {
+            log.info("Liczniki czytelników poprawione dla {} książek", corrected);
+        }
+        return corrected;
+    }
+}
@@ -0,0 +1,154 @@
+package org.example.bookaroo.service;
+
+import jakarta.annotation.PreDestroy;
+import org.example.bookaroo.dto.BookDTO;
+import org.example.bookaroo.repository.BookCardDao;
+import org.example.bookaroo.repository.StatisticsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+
+// "Czytelnicy, którzy mają tę książkę, mają też" - sąsiedzi z macierzy podobieństwa (ItemSimilarityBuilder)
+// budowanej okresowo z półek i recenzji. Gotowy model podmieniany atomowo, strona książki czyta tylko pamięć.
+// Karty sąsiadów zapamiętane przy budowie - tytuł czy liczniki odświeżają się z następną przebudową.
+@Service
+public class RecommendationService {
+
+    private static final Logger log = LoggerFactory.getLogger(RecommendationService.class);
+
+    private final StatisticsRepository statisticsRepository;
+    private final BookCardDao bookCardDao;
+    private final int neighbours;
+    private final int minCoOccurrence;
+    private final int maxBasket;
+    private final ForkJoinPool pool;
+
+    private record Model(Map<UUID, Integer> ordinals, BookDTO[] cards, ItemSimilarityBuilder.Neighbours neighbours) {}
+
+    private volatile Model model = new Model(Map.of(), new BookDTO[0],
+            new ItemSimilarityBuilder.Neighbours(new int[1], new int[0], new float[0]));
+
+    public RecommendationService(StatisticsRepository statisticsRepository,
+                                 BookCardDao bookCardDao,
+                                 @Value("${bookaroo.recommendations.neighbours:20}") int neighbours,
+                                 @Value("${bookaroo.recommendations.min-co-occurrence:2}") int minCoOccurrence,
+                                 @Value("${bookaroo.recommendations.max-basket:1000}") int maxBasket,
+                                 @Value("${bookaroo.recommendations.parallelism:0}") int parallelism) {
+        this.statisticsRepository = statisticsRepository;
+        this.bookCardDao = bookCardDao;
+        this.neighbours = neighbours;
+        this.minCoOccurrence = minCoOccurrence;
+        this.maxBasket = maxBasket;
+        // osobna pula - budowa nie zajmuje wspólnej puli ForkJoinPool (parallel streams, CompletableFuture)
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    // ODCZYT
+
+    public List<BookDTO> similarTo(UUID bookId, int limit) {
+        Model current = model;
+        Integer ordinal = current.ordinals().get(bookId);
+        if (ordinal == null) {
+            return List.of();
+        }
+        int count = Math.min(Math.max(limit, 0), current.neighbours().count(ordinal));
+        List<BookDTO> similar = new ArrayList<>(count);
+        for (int rank = 0; rank < count; rank++) {
+            similar.add(current.cards()[current.neighbours().item(ordinal, rank)]);
+        }
+        return similar;
+    }
+
+    // BUDOWA
+
+    @Scheduled(initialDelayString = "${bookaroo.recommendations.initial-delay-ms:10000}",
+            fixedDelayString = "${bookaroo.recommendations.rebuild-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+
+        List<BookDTO> cards = new ArrayList<>();
+        bookCardDao.forEachRow(row -> cards.add(row.card()));
+        Map<UUID, Integer> ordinals = new HashMap<>(cards.size() * 2);
+        for (int i = 0; i < cards.size(); i++) {
+            ordinals.put(cards.get(i).id(), i);
+        }
+
+        int[][] baskets = loadBaskets(ordinals);
+        long loaded = System.currentTimeMillis();
+
+        ItemSimilarityBuilder.Neighbours matrix =
+                ItemSimilarityBuilder.build(cards.size(), baskets, neighbours, minCoOccurrence, pool);
+        model = new Model(ordinals, cards.toArray(BookDTO[]::new), matrix);
+
+        log.info("Rekomendacje przebudowane: {} książek, {} użytkowników, {} par sąsiadów (odczyt {} ms, budowa {} ms)",
+                cards.size(), baskets.length, matrix.items().length,
+                loaded - start, System.currentTimeMillis() - loaded);
+    }
+
+    private int[][] loadBaskets(Map<UUID, Integer> ordinals) {
+        BasketCollector collector = new BasketCollector(ordinals, maxBasket);
+        statisticsRepository.forEachUserBook(collector);
+        return collector.finish();
+    }
+
+    // pary przychodzą pogrupowane po użytkowniku - koszyk zamykany przy zmianie użytkownika
+    private static final class BasketCollector implements BiConsumer<UUID, UUID> {
+        private final Map<UUID, Integer> ordinals;
+        private final int maxBasket;
+        private final List<int[]> baskets = new ArrayList<>();
+        private int[] items = new int[16];
+        private int size;
+        private UUID user;
+
+        BasketCollector(Map<UUID, Integer> ordinals, int maxBasket) {
+            this.ordinals = ordinals;
+            this.maxBasket = maxBasket;
+        }
+
+        @Override
+        public void accept(UUID userId, UUID bookId) {
+            if (!userId.equals(user)) {
+                close();
+                user = userId;
+            }
+            Integer ordinal = ordinals.get(bookId);
+            // limit koszyka - koszt rośnie z kwadratem jego wielkości
+            if (ordinal == null || size >= maxBasket) {
+                return;
+            }
+            if (size == items.length) {
+                items = Arrays.copyOf(items, items.length * 2);
+            }
+            items[size++] = ordinal;
+        }
+
+        int[][] finish() {
+            close();
+            return baskets.toArray(int[][]::new);
+        }
+
+        // koszyk z jedną książką nie tworzy żadnej pary
+        private void close() {
+            if (size > 1) {
+                baskets.add(Arrays.copyOf(items, size));
+            }
+            size = 0;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -3,10 +3,10 @@ package org.example.bookaroo.service;
 import jakarta.transaction.Transactional;
 import org.example.bookaroo.dto.ReviewDTO;
 import org.example.bookaroo.dto.mapper.ReviewMapper;
-import org.example.bookaroo.entity.Book;
-import org.example.bookaroo.entity.Review;
-import org.example.bookaroo.entity.User;
+import org.example.bookaroo.entity.ChangeLogEntry.EntityType;
+import org.example.bookaroo.entity.ChangeLogEntry.Operation;
 import org.example.bookaroo.repository.BookRepository;
+import org.example.bookaroo.repository.ReviewJdbcDao;
 import org.example.bookaroo.repository.ReviewRepository;
 import org.example.bookaroo.repository.UserRepository;
 import org.springframework.stereotype.Service;
@@ -18,27 +18,42 @@ import java.util.UUID;
 public class ReviewService {
 
     private final ReviewRepository reviewRepository;
+    private final ReviewJdbcDao reviewJdbcDao;
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
     private final BookService bookService;
+    private final ChangeFeedService changeFeedService;
+    private final TrendingService trendingService;
 
-    public ReviewService(ReviewRepository reviewRepository, BookRepository bookRepository, UserRepository userRepository, BookService bookService) {
+    public ReviewService(ReviewRepository reviewRepository, ReviewJdbcDao reviewJdbcDao, BookRepository bookRepository, UserRepository userRepository, BookService bookService, ChangeFeedService changeFeedService,
+                         TrendingService trendingService) {
         this.reviewRepository = reviewRepository;
+        this.reviewJdbcDao = reviewJdbcDao;
         this.bookRepository = bookRepository;
         this.userRepository = userRepository;
         this.bookService = bookService;
+        this.changeFeedService = changeFeedService;
+        this.trendingService = trendingService;
     }
 
+    // druga recenzja tej samej książki (np. podwójne wysłanie formularza) zastępuje ocenę i treść pierwszej
     @Transactional
     public void addReview(UUID userId, ReviewDTO dto) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        Book book = bookRepository.findById(dto.bookId())
-                .orElseThrow(() -> new IllegalArgumentException("Book not found"));
-
-        Review review = ReviewMapper.toEntity(dto, user, book);
-        reviewRepository.saveAndFlush(review);
-        updateBookAverageRating(dto.bookId());
+        if (!userRepository.existsById(userId)) {
+            throw new IllegalArgumentException("User not found");
+        }
+        if (!bookRepository.existsById(dto.bookId())) {
+            throw new IllegalArgumentException("Book not found");
+        }
+
+        ReviewJdbcDao.Upserted review = reviewJdbcDao.upsert(userId, dto.bookId(), dto.rating(), dto.content());
+        // recenzje są publiczne (widoczne na stronie książki) - wpis bez właściciela
+        changeFeedService.record(EntityType.REVIEW, review.reviewId(), dto.bookId(), Operation.UPSERT, null);
+        bookService.ratingChanged(dto.bookId());
+        // poprawka własnej recenzji to nie nowa aktywność
+        if (review.created()) {
+            trendingService.recordReview(dto.bookId());
+        }
     }
 
 
@@ -58,24 +73,10 @@ public class ReviewService {
 
     @Transactional
     public void deleteReview(UUID reviewId) {
-        Review review = reviewRepository.findById(reviewId)
+        UUID bookId = reviewJdbcDao.delete(reviewId)
                 .orElseThrow(() -> new IllegalArgumentException("Recenzja nie istnieje"));
 
-        UUID bookId = review.getBook().getId();
-
-        reviewRepository.deleteById(reviewId);
-
-        updateBookAverageRating(bookId);
-    }
-
-    private void updateBookAverageRating(UUID bookId) {
-        List<Review> reviews = reviewRepository.findByBookIdOrderByCreatedAtDesc(bookId);
-
-        double newAverage = reviews.stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
-
-        bookService.updateBookRating(bookId, newAverage);
+        changeFeedService.record(EntityType.REVIEW, reviewId, bookId, Operation.DELETE, null);
+        bookService.ratingChanged(bookId);
     }
 }
\ No newline at end of file
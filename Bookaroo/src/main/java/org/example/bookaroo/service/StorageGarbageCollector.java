@@ -0,0 +1,60 @@
+package org.example.bookaroo.service;
+
+import org.example.bookaroo.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Okresowe sprzątanie magazynów plików: bloby w uploads bez referencji w bazie (mark & sweep)
+// oraz kopie importowanych backupów starsze niż okres przechowywania
+@Component
+public class StorageGarbageCollector {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageGarbageCollector.class);
+
+    private final UserRepository userRepository;
+    private final FileStorageService fileStorageService;
+    private final BackupService backupService;
+    private final Duration gracePeriod;
+    private final Duration backupRetention;
+
+    public StorageGarbageCollector(UserRepository userRepository,
+                                   FileStorageService fileStorageService,
+                                   BackupService backupService,
+                                   @Value("${bookaroo.storage.gc-grace-hours:24}") long graceHours,
+                                   @Value("${bookaroo.storage.backup-retention-days:30}") long backupRetentionDays) {
+        this.userRepository = userRepository;
+        this.fileStorageService = fileStorageService;
+        this.backupService = backupService;
+        this.gracePeriod = Duration.ofHours(graceHours);
+        this.backupRetention = Duration.ofDays(backupRetentionDays);
+    }
+
+    @Scheduled(cron = "${bookaroo.storage.gc-cron:0 30 3 * * *}")
+    public void collect() {
+        try {
+            // mark - skróty wszystkich plików, do których prowadzi jakiś wpis w bazie
+            Set<String> liveHashes = userRepository.findAllAvatars().stream()
+                    .map(ContentAddressedStore::hashOf)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+
+            // sweep
+            long freedUploads = fileStorageService.collectGarbage(liveHashes, gracePeriod);
+            long freedBackups = backupService.purgeImportedBackups(backupRetention);
+
+            log.info("GC plików: żywych blobów {}, zwolniono {} KB (uploads) i {} KB (backups)",
+                    liveHashes.size(), freedUploads / 1024, freedBackups / 1024);
+        } catch (IOException e) {
+            log.error("GC plików przerwany", e);
+        }
+    }
+}
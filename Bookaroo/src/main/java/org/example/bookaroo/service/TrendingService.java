@@ -0,0 +1,205 @@
+package org.example.bookaroo.service;
+
+import org.example.bookaroo.dto.BookDTO;
+import org.example.bookaroo.dto.TrendingBookDTO;
+import org.example.bookaroo.repository.BookCardDao;
+import org.example.bookaroo.repository.BookCardDao.CardRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Popularne teraz: dodania na półki i recenzje liczone w 5-minutowych kubełkach per książka.
+// Zapis (gorąca ścieżka) bez blokad - LongAdder w ConcurrentHashMap, alokacja tylko przy pierwszym zdarzeniu w kubełku.
+// Okresowo: wynik per okno z wygaszaniem wykładniczym (połowa wagi co 1/4 okna), top-N z kopca,
+// gotowa lista podmieniana atomowo - /trending czyta tylko pamięć.
+@Service
+public class TrendingService {
+
+    public enum Window {
+        HOUR(Duration.ofHours(1)),
+        DAY(Duration.ofDays(1)),
+        WEEK(Duration.ofDays(7));
+
+        private final long millis;
+
+        Window(Duration length) {
+            this.millis = length.toMillis();
+        }
+
+        long halfLifeMillis() {
+            return millis / 4;
+        }
+
+        public static Window parse(String value) {
+            for (Window window : values()) {
+                if (window.name().equalsIgnoreCase(value)) {
+                    return window;
+                }
+            }
+            throw new IllegalArgumentException("Nieznane okno: " + value + " (dozwolone: hour, day, week)");
+        }
+    }
+
+    private static final long BUCKET_MILLIS = Duration.ofMinutes(5).toMillis();
+
+    // recenzja to większe zaangażowanie niż odłożenie na półkę
+    static final int SHELF_WEIGHT = 1;
+    static final int REVIEW_WEIGHT = 3;
+
+    private record Scored(UUID bookId, double score, long weightedEvents) {}
+
+    private static final Comparator<Scored> BY_SCORE = Comparator.comparingDouble(Scored::score)
+            .thenComparing(Scored::bookId);
+
+    private final BookCardDao bookCardDao;
+    private final Clock clock;
+    private final int topN;
+
+    // id książki -> numer kubełka -> licznik
+    private final ConcurrentHashMap<UUID, ConcurrentHashMap<Long, LongAdder>> activity = new ConcurrentHashMap<>();
+
+    private volatile Map<Window, List<TrendingBookDTO>> trending = emptyTrending();
+
+    @Autowired
+    public TrendingService(BookCardDao bookCardDao, @Value("${bookaroo.trending.top-n:50}") int topN) {
+        this(bookCardDao, Clock.systemUTC(), topN);
+    }
+
+    TrendingService(BookCardDao bookCardDao, Clock clock, int topN) {
+        this.bookCardDao = bookCardDao;
+        this.clock = clock;
+        this.topN = topN;
+    }
+
+    // ZAPIS
+
+    public void recordShelfAdd(UUID bookId) {
+        record(bookId, SHELF_WEIGHT);
+    }
+
+    public void recordReview(UUID bookId) {
+        record(bookId, REVIEW_WEIGHT);
+    }
+
+    // wywoływane w transakcji zapisu - liczy się dopiero po commicie, wycofany zapis nie jest aktywnością
+    private void record(UUID bookId, int weight) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    count(bookId, weight);
+                }
+            });
+        } else {
+            count(bookId, weight);
+        }
+    }
+
+    private void count(UUID bookId, int weight) {
+        long bucket = clock.millis() / BUCKET_MILLIS;
+        activity.computeIfAbsent(bookId, id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(bucket, b -> new LongAdder())
+                .add(weight);
+    }
+
+    // ODCZYT
+
+    public List<TrendingBookDTO> top(Window window, int limit) {
+        List<TrendingBookDTO> books = trending.get(window);
+        return books.subList(0, Math.min(Math.max(limit, 1), books.size()));
+    }
+
+    // PRZELICZENIE
+
+    @Scheduled(fixedDelayString = "${bookaroo.trending.refresh-interval-ms:60000}")
+    public synchronized void refresh() {
+        long currentBucket = clock.millis() / BUCKET_MILLIS;
+        long oldestBucket = currentBucket - Window.WEEK.millis / BUCKET_MILLIS;
+        prune(oldestBucket);
+
+        Map<Window, PriorityQueue<Scored>> heaps = new EnumMap<>(Window.class);
+        for (Window window : Window.values()) {
+            heaps.put(window, new PriorityQueue<>(BY_SCORE));
+        }
+        activity.forEach((bookId, buckets) -> {
+            for (Window window : Window.values()) {
+                Scored scored = score(bookId, buckets, window, currentBucket);
+                if (scored.weightedEvents() == 0) {
+                    continue;
+                }
+                // kopiec minimum ograniczony do N - na szczycie najsłabszy z najlepszych
+                PriorityQueue<Scored> heap = heaps.get(window);
+                heap.offer(scored);
+                if (heap.size() > topN) {
+                    heap.poll();
+                }
+            }
+        });
+
+        Set<UUID> ids = new HashSet<>();
+        heaps.values().forEach(heap -> heap.forEach(scored -> ids.add(scored.bookId())));
+        // usunięte książki nie mają karty - wypadają z listy
+        Map<UUID, BookDTO> cards = ids.isEmpty() ? Map.of() : bookCardDao.findRows(ids).stream()
+                .map(CardRow::card)
+                .collect(Collectors.toMap(BookDTO::id, Function.identity()));
+
+        Map<Window, List<TrendingBookDTO>> refreshed = new EnumMap<>(Window.class);
+        heaps.forEach((window, heap) -> {
+            List<Scored> best = new ArrayList<>(heap);
+            best.sort(BY_SCORE.reversed());
+            refreshed.put(window, best.stream()
+                    .filter(scored -> cards.containsKey(scored.bookId()))
+                    .map(scored -> new TrendingBookDTO(cards.get(scored.bookId()), scored.score(), scored.weightedEvents()))
+                    .toList());
+        });
+        trending = refreshed;
+    }
+
+    private Scored score(UUID bookId, Map<Long, LongAdder> buckets, Window window, long currentBucket) {
+        double score = 0;
+        long weightedEvents = 0;
+        for (Map.Entry<Long, LongAdder> bucket : buckets.entrySet()) {
+            long ageMillis = (currentBucket - bucket.getKey()) * BUCKET_MILLIS;
+            if (ageMillis < 0 || ageMillis >= window.millis) {
+                continue;
+            }
+            long count = bucket.getValue().sum();
+            score += count * Math.pow(0.5, (double) ageMillis / window.halfLifeMillis());
+            weightedEvents += count;
+        }
+        return new Scored(bookId, score, weightedEvents);
+    }
+
+    // zdarzenie zapisane równolegle do usuwanej pustej mapy może zginąć - pojedyncza utrata nie zmienia trendu
+    private void prune(long oldestBucket) {
+        activity.values().forEach(buckets -> buckets.keySet().removeIf(bucket -> bucket < oldestBucket));
+        activity.values().removeIf(Map::isEmpty);
+    }
+
+    private static Map<Window, List<TrendingBookDTO>> emptyTrending() {
+        Map<Window, List<TrendingBookDTO>> empty = new EnumMap<>(Window.class);
+        for (Window window : Window.values()) {
+            empty.put(window, List.of());
+        }
+        return empty;
+    }
+}
@@ -7,6 +7,8 @@ import org. example.bookaroo.dto.UserDTO;
 import org.example.bookaroo.dto.UserStatisticsDTO;
 import org.example.bookaroo.dto.mapper.UserMapper;
 import org.example.bookaroo.entity.*;
+import org.example.bookaroo.entity.ChangeLogEntry.EntityType;
+import org.example.bookaroo.entity.ChangeLogEntry.Operation;
 import org.example.bookaroo.exception.ResourceNotFoundException;
 import org.example.bookaroo. exception.UserAlreadyExistsException;
 import org.example.bookaroo.repository.*;
@@ -18,7 +20,9 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.HashSet;
 import java. util.List;
+import java.util.Set;
 import java. util.UUID;
 
 @Service
@@ -30,16 +34,26 @@ public class UserService {
     private final BookshelfService bookshelfService;
     private final FileStorageService fileStorageService;
     private final StatisticsRepository statisticsRepository;
+    private final BookCardService bookCardService;
+    private final ReviewJdbcDao reviewJdbcDao;
+    private final BookService bookService;
+    private final ChangeFeedService changeFeedService;
 
 
     public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
                        BookshelfService bookshelfService, FileStorageService fileStorageService,
-                       StatisticsRepository statisticsRepository) {
+                       StatisticsRepository statisticsRepository, BookCardService bookCardService,
+                       ReviewJdbcDao reviewJdbcDao, BookService bookService,
+                       ChangeFeedService changeFeedService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.bookshelfService = bookshelfService;
         this.fileStorageService = fileStorageService;
         this.statisticsRepository = statisticsRepository;
+        this.bookCardService = bookCardService;
+        this.reviewJdbcDao = reviewJdbcDao;
+        this.bookService = bookService;
+        this.changeFeedService = changeFeedService;
 
     }
 
@@ -121,7 +135,33 @@ public class UserService {
     public void deleteUser(UUID id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
+
+        // recenzje usuwamy przez ReviewJdbcDao przed kaskadą - średnia i liczba recenzji książek dostają różnicę;
+        // kolekcja givenReviews nie jest jeszcze wczytana, więc kaskada nie widzi już usuniętych wierszy
+        Set<UUID> ratedBooks = new HashSet<>();
+        for (UUID reviewId : reviewJdbcDao.findIdsByUser(id)) {
+            reviewJdbcDao.delete(reviewId).ifPresent(bookId -> {
+                changeFeedService.record(EntityType.REVIEW, reviewId, bookId, Operation.DELETE, null);
+                ratedBooks.add(bookId);
+            });
+        }
+
+        // półki znikają kaskadowo - karty tych książek mają mniej czytelników
+        Set<UUID> shelvedBooks = new HashSet<>();
+        for (Bookshelf shelf : user.getBookshelves()) {
+            for (Book book : shelf.getBooks()) {
+                statisticsRepository.adjustReadersCount(book.getId(), -1);
+                changeFeedService.record(EntityType.SHELF_ITEM, book.getId(), shelf.getId(), Operation.DELETE, id);
+                shelvedBooks.add(book.getId());
+            }
+            changeFeedService.record(EntityType.BOOKSHELF, shelf.getId(), null, Operation.DELETE, id);
+        }
+
+        statisticsRepository.deleteReadingCounters(id);
         userRepository.delete(user);
+        ratedBooks.forEach(bookService::ratingChanged);
+        shelvedBooks.removeAll(ratedBooks);
+        bookCardService.refreshBooks(shelvedBooks);
     }
 
     // GET USERS BY USERNAME (alphabetically)
@@ -138,7 +178,7 @@ public class UserService {
         user.setBio(bio);
 
         if (avatarFile != null && !avatarFile.isEmpty()) {
-            String avatarUrl = fileStorageService.saveFile(avatarFile);
+            String avatarUrl = fileStorageService.saveAvatar(avatarFile);
             user.setAvatar(avatarUrl);
         }
         userRepository.save(user);
@@ -169,15 +209,11 @@ public class UserService {
     public UserStatisticsDTO getUserStats(UUID userId) {
         int currentYear = java.time.LocalDate.now().getYear();
 
-        String challengeShelfName = "przeczytane";
-
         int readCount = 0;
 
         try {
-            Integer result = statisticsRepository.countBooksOnShelfInYear(userId, challengeShelfName, currentYear);
-            if (result != null) {
-                readCount = result;
-            }
+            // półka READ rozpoznawana po typie, nie po nazwie
+            readCount = statisticsRepository.countBooksReadInYear(userId, currentYear);
         } catch (Exception e) {
             System.err.println("Nie udało się pobrać statystyk czytania: " + e.getMessage());
             readCount = 0; // w razie błędu do pokazania 0
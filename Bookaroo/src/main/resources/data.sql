@@ -94,17 +94,17 @@ INSERT INTO book_genres (book_id, genre_id) VALUES
                                                 ('00000000-0000-0000-0000-000000000003', '660e8400-e29b-41d4-a716-446655440004');
 
 -- Półki (Bookshelf)
-INSERT INTO bookshelf (id, name, is_default, user_id)
+INSERT INTO bookshelf (id, name, is_default, shelf_type, user_id)
 VALUES
     -- Półki dla Jana Kowalskiego
-    ('770e8400-e29b-41d4-a716-446655440000', 'Chcę przeczytać', true, '550e8400-e29b-41d4-a716-446655440003'),
-    ('770e8400-e29b-41d4-a716-446655440001', 'W trakcie czytania', true, '550e8400-e29b-41d4-a716-446655440003'),
-    ('770e8400-e29b-41d4-a716-446655440002', 'Przeczytane', true, '550e8400-e29b-41d4-a716-446655440003'),
+    ('770e8400-e29b-41d4-a716-446655440000', 'Chcę przeczytać', true, 'WANT_TO_READ', '550e8400-e29b-41d4-a716-446655440003'),
+    ('770e8400-e29b-41d4-a716-446655440001', 'W trakcie czytania', true, 'CURRENTLY_READING', '550e8400-e29b-41d4-a716-446655440003'),
+    ('770e8400-e29b-41d4-a716-446655440002', 'Przeczytane', true, 'READ', '550e8400-e29b-41d4-a716-446655440003'),
 
     -- Półki dla Roberta Kubicy
-    ('770e8400-e29b-41d4-a716-446655440004', 'Chcę przeczytać', true, '550e8400-e29b-41d4-a716-446655440002'),
-    ('770e8400-e29b-41d4-a716-446655440005', 'W trakcie czytania', true, '550e8400-e29b-41d4-a716-446655440002'),
-    ('770e8400-e29b-41d4-a716-446655440006', 'Przeczytane', true, '550e8400-e29b-41d4-a716-446655440002');
+    ('770e8400-e29b-41d4-a716-446655440004', 'Chcę przeczytać', true, 'WANT_TO_READ', '550e8400-e29b-41d4-a716-446655440002'),
+    ('770e8400-e29b-41d4-a716-446655440005', 'W trakcie czytania', true, 'CURRENTLY_READING', '550e8400-e29b-41d4-a716-446655440002'),
+    ('770e8400-e29b-41d4-a716-446655440006', 'Przeczytane', true, 'READ', '550e8400-e29b-41d4-a716-446655440002');
 
 -- Powiązanie Książek z Półkami (Bookshelf_Books)
 INSERT INTO bookshelf_books (bookshelf_id, book_id, added_at)
@@ -135,5 +135,11 @@ INSERT INTO reviews (id, rating, content, created_at, book_id, user_id) VALUES
                                                                             -- Robert Kubica o->  7/10
                                                                             ('990e8400-e29b-41d4-a716-446655440006', 7, 'Dobre walki, ale polityka nudna.', CURRENT_TIMESTAMP, 'cccccccc-cccc-cccc-cccc-cccccccccccc', '550e8400-e29b-41d4-a716-446655440002');
 
+-- średnia i liczba recenzji zgodne z reviews - ReviewJdbcDao zmienia je później o różnicę
+UPDATE books b
+SET total_reviews = (SELECT COUNT(*) FROM reviews r WHERE r.book_id = b.id),
+    average_rating = (SELECT AVG(CAST(r.rating AS DOUBLE)) FROM reviews r WHERE r.book_id = b.id)
+WHERE EXISTS (SELECT 1 FROM reviews r WHERE r.book_id = b.id);
+
 -- UPDATE users SET role = 'ADMIN' WHERE username = 'jankowalski';
 -- mvn clean test jacoco:report
\ No newline at end of file
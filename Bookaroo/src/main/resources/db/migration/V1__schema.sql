@@ -0,0 +1,131 @@
+-- Schemat bazy w profilu prod (baza H2 w pliku). W pozostałych profilach schemat tworzy Hibernate
+-- (ddl-auto=create-drop) z encji - zgodność obu pilnuje FlywaySchemaTest.
+-- Zmiana encji = nowa migracja V<n>__opis.sql; zastosowanych migracji nie zmieniamy.
+
+CREATE TABLE users (
+    id                       UUID         NOT NULL PRIMARY KEY,
+    username                 VARCHAR(255) NOT NULL,
+    email                    VARCHAR(255) NOT NULL,
+    password                 VARCHAR(255) NOT NULL,
+    role                     VARCHAR(255) NOT NULL,
+    avatar                   VARCHAR(255),
+    bio                      VARCHAR(255),
+    is_locked                BOOLEAN      NOT NULL,
+    reading_challenge_target INTEGER,
+    created_at               TIMESTAMP(6),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE genres (
+    id          UUID         NOT NULL PRIMARY KEY,
+    name        VARCHAR(255) NOT NULL,
+    description VARCHAR,
+    CONSTRAINT uk_genres_name UNIQUE (name)
+);
+
+-- kolumny *_lower liczone przez bazę - podpowiedzi autorów po prefiksie (AuthorLookupDao)
+CREATE TABLE authors (
+    id            UUID         NOT NULL PRIMARY KEY,
+    name          VARCHAR(255) NOT NULL,
+    surname       VARCHAR(255) NOT NULL,
+    name_lower    VARCHAR(255) GENERATED ALWAYS AS (LOWER(name)),
+    surname_lower VARCHAR(255) GENERATED ALWAYS AS (LOWER(surname))
+);
+CREATE INDEX idx_authors_surname_lower ON authors (surname_lower, name_lower);
+CREATE INDEX idx_authors_name_lower ON authors (name_lower);
+
+CREATE TABLE books (
+    id               UUID             NOT NULL PRIMARY KEY,
+    title            VARCHAR(255)     NOT NULL,
+    isbn             VARCHAR(255)     NOT NULL,
+    description      VARCHAR(255),
+    publication_year INTEGER,
+    average_rating   DOUBLE PRECISION,
+    total_reviews    INTEGER,
+    readers_count    INTEGER DEFAULT 0 NOT NULL,
+    author_id        UUID             NOT NULL,
+    CONSTRAINT uk_books_isbn UNIQUE (isbn),
+    CONSTRAINT fk_books_author FOREIGN KEY (author_id) REFERENCES authors (id)
+);
+CREATE INDEX idx_books_author ON books (author_id);
+CREATE INDEX idx_books_year_title ON books (publication_year, title);
+CREATE INDEX idx_books_rating ON books (average_rating);
+
+CREATE TABLE book_genres (
+    book_id  UUID NOT NULL,
+    genre_id UUID NOT NULL,
+    CONSTRAINT fk_book_genres_book FOREIGN KEY (book_id) REFERENCES books (id),
+    CONSTRAINT fk_book_genres_genre FOREIGN KEY (genre_id) REFERENCES genres (id)
+);
+
+-- karty książek do list (BookCardDao) - odświeżane w transakcji zapisu książki
+CREATE TABLE book_cards (
+    id               UUID             NOT NULL PRIMARY KEY,
+    title            VARCHAR(255)     NOT NULL,
+    isbn             VARCHAR(255)     NOT NULL,
+    publication_year INTEGER,
+    author_id        UUID             NOT NULL,
+    author_name      VARCHAR(511)     NOT NULL,
+    average_rating   DOUBLE PRECISION,
+    review_count     INTEGER          NOT NULL,
+    readers_count    INTEGER          NOT NULL,
+    genres           VARCHAR(2000)
+);
+CREATE INDEX idx_book_cards_title ON book_cards (title, id);
+CREATE INDEX idx_book_cards_author ON book_cards (author_id, title);
+CREATE INDEX idx_book_cards_year ON book_cards (publication_year, title);
+
+CREATE TABLE bookshelf (
+    id         UUID    NOT NULL PRIMARY KEY,
+    name       VARCHAR(255),
+    is_default BOOLEAN NOT NULL,
+    shelf_type ENUM('CURRENTLY_READING', 'CUSTOM', 'READ', 'WANT_TO_READ') DEFAULT 'CUSTOM' NOT NULL,
+    user_id    UUID    NOT NULL,
+    CONSTRAINT fk_bookshelf_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+CREATE INDEX idx_bookshelf_user_type ON bookshelf (user_id, shelf_type);
+
+CREATE TABLE bookshelf_books (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
+    bookshelf_id UUID,
+    book_id      UUID,
+    added_at     TIMESTAMP(6),
+    CONSTRAINT fk_bookshelf_books_shelf FOREIGN KEY (bookshelf_id) REFERENCES bookshelf (id),
+    CONSTRAINT fk_bookshelf_books_book FOREIGN KEY (book_id) REFERENCES books (id)
+);
+CREATE INDEX idx_bookshelf_books_book ON bookshelf_books (book_id);
+CREATE INDEX idx_bookshelf_books_shelf_book ON bookshelf_books (bookshelf_id, book_id);
+CREATE INDEX idx_bookshelf_books_shelf_added ON bookshelf_books (bookshelf_id, added_at);
+
+CREATE TABLE reviews (
+    id         UUID    NOT NULL PRIMARY KEY,
+    rating     INTEGER NOT NULL,
+    content    VARCHAR,
+    created_at TIMESTAMP(6),
+    book_id    UUID    NOT NULL,
+    user_id    UUID    NOT NULL,
+    CONSTRAINT ck_reviews_rating CHECK (rating >= 1 AND rating <= 10),
+    CONSTRAINT fk_reviews_book FOREIGN KEY (book_id) REFERENCES books (id),
+    CONSTRAINT fk_reviews_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+CREATE INDEX idx_reviews_book_created ON reviews (book_id, created_at);
+CREATE INDEX idx_reviews_book_rating ON reviews (book_id, rating);
+CREATE INDEX idx_reviews_user ON reviews (user_id, book_id);
+
+CREATE TABLE reading_counters (
+    user_id    UUID    NOT NULL,
+    read_year  INTEGER NOT NULL,
+    read_count INTEGER NOT NULL,
+    PRIMARY KEY (read_year, user_id)
+);
+
+CREATE TABLE change_log (
+    sequence    BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
+    entity_type ENUM('BOOK', 'BOOKSHELF', 'REVIEW', 'SHELF_ITEM') NOT NULL,
+    entity_id   UUID NOT NULL,
+    parent_id   UUID,
+    user_id     UUID,
+    operation   ENUM('DELETE', 'UPSERT') NOT NULL,
+    changed_at  TIMESTAMP(6)
+);
@@ -0,0 +1,18 @@
+-- Jedna recenzja użytkownika na książkę (Review, uk_reviews_user_book).
+-- Z duplikatów zostaje najnowsza; agregaty książek przeliczone tam, gdzie liczba recenzji się nie zgadza.
+
+DELETE FROM reviews r
+ WHERE EXISTS (SELECT 1 FROM reviews n
+                WHERE n.user_id = r.user_id AND n.book_id = r.book_id
+                  AND (COALESCE(n.created_at, TIMESTAMP '1970-01-01 00:00:00') > COALESCE(r.created_at, TIMESTAMP '1970-01-01 00:00:00')
+                       OR (COALESCE(n.created_at, TIMESTAMP '1970-01-01 00:00:00') = COALESCE(r.created_at, TIMESTAMP '1970-01-01 00:00:00')
+                           AND n.id > r.id)));
+
+-- od tej wersji średnia i liczba recenzji zmieniają się o różnicę (ReviewJdbcDao) - punkt wyjścia musi być zgodny z reviews
+UPDATE books b
+   SET total_reviews = (SELECT COUNT(*) FROM reviews r WHERE r.book_id = b.id),
+       average_rating = COALESCE((SELECT AVG(CAST(r.rating AS DOUBLE PRECISION)) FROM reviews r WHERE r.book_id = b.id), 0.0)
+ WHERE COALESCE(b.total_reviews, 0) <> (SELECT COUNT(*) FROM reviews r WHERE r.book_id = b.id);
+
+ALTER TABLE reviews ADD CONSTRAINT uk_reviews_user_book UNIQUE (user_id, book_id);
+DROP INDEX idx_reviews_user;
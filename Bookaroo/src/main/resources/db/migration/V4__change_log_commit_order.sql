@@ -0,0 +1,6 @@
+-- Numer sekwencji change feedu nadawany po zatwierdzeniu transakcji, a nie przy wstawieniu.
+-- Dotychczasowy klucz (IDENTITY) zostaje wewnętrznym id; istniejące wpisy są już zatwierdzone i zachowują swoje numery.
+ALTER TABLE change_log ALTER COLUMN sequence RENAME TO id;
+ALTER TABLE change_log ADD COLUMN sequence BIGINT;
+UPDATE change_log SET sequence = id;
+ALTER TABLE change_log ADD CONSTRAINT uk_change_log_sequence UNIQUE (sequence);
@@ -0,0 +1,56 @@
+package org.example.bookaroo;
+
+import org.example.bookaroo.dto.BookDTO;
+import org.example.bookaroo.repository.ReactiveBookRepository;
+import org.example.bookaroo.service.BookService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Profil demo (opt-in) razem z prod: nowa baza w pliku dostaje dane demonstracyjne z db/demo
+@SpringBootTest
+@ActiveProfiles({"prod", "demo"})
+class DemoProfileTest {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void dataDir(DynamicPropertyRegistry registry) {
+        registry.add("bookaroo.data-dir", () -> dataDir.toString());
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private ReactiveBookRepository reactiveBookRepository;
+
+    @Test
+    @DisplayName("should load demo data on a new database and serve it through JDBC and R2DBC")
+    void shouldLoadDemoData() {
+        assertThat(Files.exists(dataDir.resolve("db/bookaroo.mv.db"))).isTrue();
+        assertThat(jdbcTemplate.queryForList("""
+                SELECT "version" FROM "flyway_schema_history" WHERE "version" IS NOT NULL ORDER BY "installed_rank"
+                """, String.class)).containsExactly("1", "2", "3", "4");
+
+        int books = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books", Integer.class);
+        assertThat(books).isPositive();
+        assertThat(bookService.findAllList()).hasSize(books);
+        List<BookDTO> reactive = reactiveBookRepository.findAll().collectList().block();
+        assertThat(reactive).hasSize(books);
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.bookaroo;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Migracje (profil prod) i schemat generowany przez Hibernate (pozostałe profile) muszą się zgadzać
+@SpringBootTest
+class FlywaySchemaTest {
+
+    private static final Set<String> TABLES = Set.of("users", "genres", "authors", "books", "book_genres", "book_cards",
+            "bookshelf", "bookshelf_books", "reviews", "reading_counters", "change_log");
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    @DisplayName("should create the same columns, indexes and unique keys as the Hibernate schema")
+    void shouldMatchHibernateSchema() {
+        DataSource migrated = new DriverManagerDataSource("jdbc:h2:mem:flyway_schema;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(migrated).locations("classpath:db/migration").load().migrate();
+
+        JdbcTemplate hibernate = new JdbcTemplate(dataSource);
+        JdbcTemplate flyway = new JdbcTemplate(migrated);
+
+        assertThat(tables(flyway)).containsExactlyInAnyOrderElementsOf(TABLES);
+        List<String> expectedColumns = columns(hibernate);
+        List<String> expectedIndexes = indexes(hibernate);
+        assertThat(expectedColumns).isNotEmpty();
+        assertThat(expectedIndexes).isNotEmpty();
+        assertThat(columns(flyway)).containsExactlyElementsOf(expectedColumns);
+        assertThat(indexes(flyway)).containsAll(expectedIndexes);
+        assertThat(uniqueKeys(flyway)).containsExactlyElementsOf(uniqueKeys(hibernate));
+    }
+
+    private static List<String> tables(JdbcTemplate jdbc) {
+        return jdbc.queryForList("""
+                SELECT LOWER(table_name) FROM information_schema.tables
+                WHERE table_schema = 'PUBLIC' AND table_type = 'BASE TABLE' AND LOWER(table_name) <> 'flyway_schema_history'
+                """, String.class);
+    }
+
+    // typ, długość, wymagalność i wyrażenie kolumn liczonych - bez kolejności kolumn w tabeli
+    private static List<String> columns(JdbcTemplate jdbc) {
+        return jdbc.query("""
+                SELECT LOWER(table_name) t, LOWER(column_name) c, data_type, character_maximum_length, is_nullable,
+                       generation_expression
+                FROM information_schema.columns
+                WHERE table_schema = 'PUBLIC' AND LOWER(table_name) IN (%s)
+                ORDER BY t, c
+                """.formatted(inList()), (rs, i) -> String.join(" ", rs.getString(1), rs.getString(2), rs.getString(3),
+                String.valueOf(rs.getObject(4)), rs.getString(5), String.valueOf(rs.getString(6)).toLowerCase()));
+    }
+
+    // indeksy zakładane przez @Index w encjach (nazwy idx_*) - z kolumnami
+    private static List<String> indexes(JdbcTemplate jdbc) {
+        return jdbc.queryForList("""
+                SELECT LOWER(i.index_name) || ' ' || LOWER(i.table_name) || ' '
+                       || LISTAGG(LOWER(c.column_name), ',') WITHIN GROUP (ORDER BY c.ordinal_position)
+                FROM information_schema.indexes i
+                JOIN information_schema.index_columns c
+                  ON c.index_schema = i.index_schema AND c.index_name = i.index_name
+                WHERE i.table_schema = 'PUBLIC' AND LOWER(i.index_name) LIKE 'idx\\_%' ESCAPE '\\'
+                GROUP BY i.index_name, i.table_name
+                ORDER BY 1
+                """, String.class);
+    }
+
+    // nazwy ograniczeń z @Column(unique = true) nadaje Hibernate - porównanie po tabeli i kolumnach
+    private static List<String> uniqueKeys(JdbcTemplate jdbc) {
+        return jdbc.queryForList("""
+                SELECT LOWER(t.table_name) || ' ' || LISTAGG(LOWER(k.column_name), ',') WITHIN GROUP (ORDER BY k.ordinal_position)
+                FROM information_schema.table_constraints t
+                JOIN information_schema.key_column_usage k
+                  ON k.constraint_schema = t.constraint_schema AND k.constraint_name = t.constraint_name
+                WHERE t.table_schema = 'PUBLIC' AND t.constraint_type = 'UNIQUE'
+                GROUP BY t.table_name, t.constraint_name
+                ORDER BY 1
+                """, String.class);
+    }
+
+    private static String inList() {
+        return String.join(",", TABLES.stream().map(table -> "'" + table + "'").toList());
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.bookaroo;
+
+import org.example.bookaroo.dto.BookDTO;
+import org.example.bookaroo.repository.ReactiveBookRepository;
+import org.example.bookaroo.service.BookService;
+import org.example.bookaroo.service.DatabaseMaintenanceService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Profil prod: baza H2 w pliku, schemat z migracji bez danych demo, Hibernate w trybie validate, kopie zapasowe
+@SpringBootTest
+@ActiveProfiles("prod")
+class ProdProfileTest {
+
+    @TempDir
+    static Path dataDir;
+
+    @DynamicPropertySource
+    static void dataDir(DynamicPropertyRegistry registry) {
+        registry.add("bookaroo.data-dir", () -> dataDir.toString());
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private ReactiveBookRepository reactiveBookRepository;
+    @Autowired
+    private DatabaseMaintenanceService maintenanceService;
+
+    @Test
+    @DisplayName("should migrate the file database without demo accounts and data")
+    void shouldMigrateFileDatabase() {
+        assertThat(Files.exists(dataDir.resolve("db/bookaroo.mv.db"))).isTrue();
+        assertThat(jdbcTemplate.queryForList("""
+                SELECT "version" FROM "flyway_schema_history" WHERE "version" IS NOT NULL ORDER BY "installed_rank"
+                """, String.class)).containsExactly("1", "3", "4");
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Integer.class)).isZero();
+        assertThat(bookService.findAllList()).isEmpty();
+        List<BookDTO> reactive = reactiveBookRepository.findAll().collectList().block();
+        assertThat(reactive).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should write a hot backup with the database file and keep the newest copies")
+    void shouldBackupAndCompact() throws IOException {
+        Path backup = maintenanceService.backup();
+
+        assertThat(backup.getParent()).isEqualTo(dataDir.resolve("backups"));
+        try (ZipFile zip = new ZipFile(backup.toFile())) {
+            assertThat(zip.getEntry("bookaroo.mv.db")).isNotNull();
+        }
+        assertThat(maintenanceService.listBackups()).contains(backup);
+        try (var files = Files.list(backup.getParent())) {
+            assertThat(files.map(Path::toString)).noneMatch(name -> name.endsWith(".part"));
+        }
+
+        maintenanceService.compact();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"flyway_schema_history\"", Integer.class)).isPositive();
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.bookaroo.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DatabaseRestoreListenerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path database;
+    private Path backup;
+
+    @BeforeEach
+    void setUp() {
+        database = tempDir.resolve("db/bookaroo");
+        backup = tempDir.resolve("bookaroo-20261019-030000.zip");
+        execute("CREATE TABLE books (title VARCHAR(255))", "INSERT INTO books VALUES ('Solaris')",
+                "BACKUP TO '" + backup + "'");
+        execute("INSERT INTO books VALUES ('Lalka')");
+    }
+
+    // każde wywołanie otwiera i zamyka bazę - jak kolejne uruchomienia aplikacji
+    private int execute(String... statements) {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource("jdbc:h2:file:" + database, "sa", "", true);
+        try {
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            for (String statement : statements) {
+                jdbc.execute(statement);
+            }
+            return jdbc.queryForObject("SELECT COUNT(*) FROM books", Integer.class);
+        } finally {
+            dataSource.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("should replace the database with the backup and keep the current file aside")
+    void shouldRestoreBackup() throws IOException {
+        Path restored = DatabaseRestoreListener.restore(backup, database);
+
+        assertThat(restored).isEqualTo(tempDir.resolve("db/bookaroo.mv.db"));
+        assertThat(execute()).isEqualTo(1);
+        try (var files = Files.list(database.getParent())) {
+            assertThat(files.map(file -> file.getFileName().toString()))
+                    .anyMatch(name -> name.startsWith("bookaroo.mv.db.before-restore-"))
+                    .noneMatch(name -> name.endsWith(".restore"));
+        }
+    }
+
+    @Test
+    @DisplayName("should restore the same backup only once unless forced")
+    void shouldRestoreOnce() throws IOException {
+        assertThat(DatabaseRestoreListener.restoreOnce(backup, database, false)).isTrue();
+        assertThat(execute("INSERT INTO books VALUES ('Nad Niemnem')")).isEqualTo(2);
+
+        // restart z tą samą opcją w poleceniu startowym - zapisy po odtworzeniu zostają
+        assertThat(DatabaseRestoreListener.restoreOnce(backup, database, false)).isFalse();
+        assertThat(execute()).isEqualTo(2);
+
+        assertThat(DatabaseRestoreListener.restoreOnce(backup, database, true)).isTrue();
+        assertThat(execute()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should restore into an empty data directory")
+    void shouldRestoreIntoEmptyDirectory() throws IOException {
+        Path fresh = tempDir.resolve("fresh/db/bookaroo");
+
+        DatabaseRestoreListener.restore(backup, fresh);
+
+        database = fresh;
+        assertThat(execute()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should leave the current database untouched when the archive has no database file")
+    void shouldRejectForeignArchive() throws IOException {
+        Path foreign = tempDir.resolve("foreign.zip");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(foreign))) {
+            zip.putNextEntry(new ZipEntry("notes.txt"));
+            zip.write("to nie jest kopia bazy".getBytes());
+            zip.closeEntry();
+        }
+
+        assertThatThrownBy(() -> DatabaseRestoreListener.restore(foreign, database))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("nie zawiera pliku bazy");
+        assertThat(execute()).isEqualTo(2);
+    }
+}
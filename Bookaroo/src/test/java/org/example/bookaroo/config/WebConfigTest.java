@@ -0,0 +1,102 @@
+package org.example.bookaroo.config;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// tylko konfiguracja MVC i security - bez kontrolerów aplikacji
+@WebMvcTest(useDefaultFilters = false)
+@Import({WebConfig.class, SecurityConfig.class})
+class WebConfigTest {
+
+    private static final String HASH = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+    private static final String AVATAR = "2c/f2/" + HASH + "_64.jpg";
+
+    @TempDir
+    static Path uploadDir;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @DynamicPropertySource
+    static void uploadDir(DynamicPropertyRegistry registry) {
+        registry.add("file.upload-dir", () -> uploadDir.toString());
+    }
+
+    @BeforeAll
+    static void createFiles() throws IOException {
+        Files.createDirectories(uploadDir.resolve("2c/f2"));
+        Files.writeString(uploadDir.resolve(AVATAR), "0123456789");
+        Files.writeString(uploadDir.resolve("legacy-avatar.png"), "legacy");
+        Files.writeString(uploadDir.resolve("2c/f2/" + HASH + ".txt"), "plain-text-content");
+        Files.writeString(uploadDir.resolve("2c/f2/" + HASH + ".txt.gz"), "gz");
+    }
+
+    @Test
+    @DisplayName("GET /uploads - plik adresowany treścią z immutable Cache-Control i mocnym ETagiem, bez logowania")
+    void shouldServeImmutableWithStrongEtag() throws Exception {
+        mockMvc.perform(get("/uploads/" + AVATAR))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + HASH + "_64.jpg\""))
+                .andExpect(content().string("0123456789"));
+    }
+
+    @Test
+    @DisplayName("GET /uploads - If-None-Match z tym samym ETagiem daje 304")
+    void shouldReturnNotModifiedForMatchingEtag() throws Exception {
+        MvcResult first = mockMvc.perform(get("/uploads/" + AVATAR)).andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/uploads/" + AVATAR).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("GET /uploads - obsługa Range")
+    void shouldHonorRangeRequests() throws Exception {
+        mockMvc.perform(get("/uploads/" + AVATAR).header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(content().string("2345"));
+    }
+
+    @Test
+    @DisplayName("GET /uploads - gotowy wariant .gz gdy klient akceptuje gzip")
+    void shouldServePrecompressedVariant() throws Exception {
+        mockMvc.perform(get("/uploads/2c/f2/" + HASH + ".txt").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT_ENCODING)))
+                .andExpect(content().string("gz"));
+    }
+
+    @Test
+    @DisplayName("GET /uploads - stary plik (losowa nazwa) bez ETaga, z Last-Modified")
+    void shouldNotGenerateEtagForLegacyNames() throws Exception {
+        MvcResult result = mockMvc.perform(get("/uploads/legacy-avatar.png"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn();
+
+        assertThat(result.getResponse().getHeader(HttpHeaders.ETAG)).isNull();
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.bookaroo.controller;
+
+import org.example.bookaroo.config.SecurityConfig;
+import org.example.bookaroo.dto.AuthorSummaryDTO;
+import org.example.bookaroo.service.BookService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AuthorRestController.class)
+@Import(SecurityConfig.class)
+class AuthorRestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private BookService bookService;
+
+    @Test
+    @DisplayName("GET /api/v1/authors/search - podpowiedzi autorów")
+    @WithMockUser(roles = "ADMIN")
+    void shouldReturnSuggestions() throws Exception {
+        when(bookService.searchAuthors("tol", 5))
+                .thenReturn(List.of(new AuthorSummaryDTO(UUID.randomUUID(), "J.R.R.", "Tolkien")));
+
+        mockMvc.perform(get("/api/v1/authors/search").param("q", "tol").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].surname").value("Tolkien"))
+                .andExpect(jsonPath("$[0].books").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/authors/search - wymaga zalogowania")
+    void shouldRequireAuthentication() throws Exception {
+        mockMvc.perform(get("/api/v1/authors/search").param("q", "tol"))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(bookService);
+    }
+}
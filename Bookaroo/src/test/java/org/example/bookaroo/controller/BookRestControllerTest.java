@@ -3,9 +3,18 @@ package org.example.bookaroo.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.bookaroo.config.SecurityConfig;
 import org.example.bookaroo.dto.BookDTO;
+import org.example.bookaroo.dto.BrowseResultDTO;
+import org.example.bookaroo.dto.FacetCountDTO;
+import org.example.bookaroo.dto.TrendingBookDTO;
+import org.example.bookaroo.dto.mapper.BookMapper;
 import org.example.bookaroo.entity.Author;
 import org.example.bookaroo.entity.Book;
+import org.example.bookaroo.exception.ResourceNotFoundException;
+import org.example.bookaroo.service.BookFacetService;
 import org.example.bookaroo.service.BookService;
+import org.example.bookaroo.service.CatalogExportService;
+import org.example.bookaroo.service.GenreSimilarityService;
+import org.example.bookaroo.service.TrendingService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,9 +27,10 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 import static org.hamcrest.Matchers.*;
@@ -44,12 +54,24 @@ class BookRestControllerTest {
     @MockitoBean
     private BookService bookService;
 
+    @MockitoBean
+    private CatalogExportService catalogExportService;
+
+    @MockitoBean
+    private BookFacetService bookFacetService;
+
+    @MockitoBean
+    private TrendingService trendingService;
+
+    @MockitoBean
+    private GenreSimilarityService genreSimilarityService;
+
     @Test
     @DisplayName("GET /api/v1/books - Zwraca listę wszystkich książek")
     @WithMockUser
     void shouldReturnAllBooks_whenAuthenticated() throws Exception {
         Book book = createTestBook("The Hobbit", "123");
-        Page<Book> bookPage = new PageImpl<>(List.of(book));
+        Page<BookDTO> bookPage = new PageImpl<>(List.of(BookMapper.toDto(book)));
 
         when(bookService.findAll(any(Pageable.class))).thenReturn(bookPage);
 
@@ -69,7 +91,7 @@ class BookRestControllerTest {
         Book book = createTestBook("1984", "456");
         book.setId(id);
 
-        when(bookService.findById(id)).thenReturn(Optional.of(book));
+        when(bookService.getBookDetails(id)).thenReturn(BookMapper.toDto(book));
 
         mockMvc.perform(get("/api/v1/books/{id}", id))
                 .andExpect(status().isOk())
@@ -81,7 +103,7 @@ class BookRestControllerTest {
     @WithMockUser
     void shouldReturn404_whenBookNotFound() throws Exception {
         UUID id = UUID.randomUUID();
-        when(bookService.findById(id)).thenReturn(Optional.empty());
+        when(bookService.getBookDetails(id)).thenThrow(new ResourceNotFoundException("Book", "id", id));
 
         mockMvc.perform(get("/api/v1/books/{id}", id))
                 .andExpect(status().isNotFound());
@@ -234,7 +256,7 @@ class BookRestControllerTest {
     @WithMockUser
     void shouldSearchBooks() throws Exception {
         Book book = createTestBook("Harry Potter", "777");
-        Page<Book> result = new PageImpl<>(List.of(book));
+        Page<BookDTO> result = new PageImpl<>(List.of(BookMapper.toDto(book)));
 
         when(bookService.searchBooks(eq("Harry"), any(Pageable.class))).thenReturn(result);
 
@@ -248,7 +270,7 @@ class BookRestControllerTest {
     @Test
     @DisplayName("GET /api/v1/books - Niezalogowani mogą widzieć książki (200)")
     void shouldReturnBooks_whenAnonymous() throws Exception {
-        Page<Book> emptyPage = new PageImpl<>(List.of());
+        Page<BookDTO> emptyPage = new PageImpl<>(List.of());
         when(bookService.findAll(any(Pageable.class))).thenReturn(emptyPage);
 
         mockMvc.perform(get("/api/v1/books")
@@ -262,7 +284,7 @@ class BookRestControllerTest {
     @WithMockUser
     void shouldGetBooksByAuthor() throws Exception {
         UUID authorId = UUID.randomUUID();
-        Page<Book> result = new PageImpl<>(List.of(createTestBook("Book A", "1")));
+        Page<BookDTO> result = new PageImpl<>(List.of(BookMapper.toDto(createTestBook("Book A", "1"))));
 
         when(bookService.getBooksByAuthorId(eq(authorId), any(Pageable.class))).thenReturn(result);
 
@@ -271,13 +293,82 @@ class BookRestControllerTest {
                 .andExpect(jsonPath("$.content", hasSize(1)));
     }
 
+    @Test
+    @DisplayName("GET /trending - Popularne w wybranym oknie")
+    void shouldReturnTrendingBooks() throws Exception {
+        TrendingBookDTO hobbit = new TrendingBookDTO(BookMapper.toDto(createTestBook("Hobbit", "100")), 4.5, 5);
+        when(trendingService.top(TrendingService.Window.WEEK, 3)).thenReturn(List.of(hobbit));
+
+        mockMvc.perform(get("/api/v1/books/trending")
+                        .param("window", "week")
+                        .param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].book.title").value("Hobbit"))
+                .andExpect(jsonPath("$[0].weightedEvents").value(5));
+    }
+
+    @Test
+    @DisplayName("GET /trending - 400 dla nieznanego okna")
+    void shouldRejectUnknownTrendingWindow() throws Exception {
+        mockMvc.perform(get("/api/v1/books/trending").param("window", "month"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /{id}/similar - Książki o podobnych gatunkach")
+    void shouldReturnSimilarBooks() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(genreSimilarityService.similarTo(id, 3))
+                .thenReturn(List.of(BookMapper.toDto(createTestBook("Silmarillion", "200"))));
+
+        mockMvc.perform(get("/api/v1/books/{id}/similar", id).param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].title").value("Silmarillion"));
+    }
+
+    @Test
+    @DisplayName("GET /{id}/similar - 404 dla nieznanej książki")
+    void shouldReturnNotFound_whenSimilarToUnknownBook() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(genreSimilarityService.similarTo(eq(id), anyInt()))
+                .thenThrow(new ResourceNotFoundException("Book", "id", id));
+
+        mockMvc.perform(get("/api/v1/books/{id}/similar", id))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("GET /browse - Łączy filtry faset i zwraca liczniki")
+    void shouldBrowseWithFacets() throws Exception {
+        UUID fantasy = UUID.randomUUID();
+        UUID horror = UUID.randomUUID();
+        BrowseResultDTO result = new BrowseResultDTO(1, 0, 20,
+                List.of(BookMapper.toDto(createTestBook("Hobbit", "100"))),
+                List.of(new FacetCountDTO(fantasy.toString(), "Fantasy", 1)),
+                List.of(new FacetCountDTO("1930", "1930-1939", 1)),
+                List.of(new FacetCountDTO("8", "8+", 1)));
+        when(bookFacetService.browse(List.of(fantasy, horror), true, List.of(1930), 8, 0, 20)).thenReturn(result);
+
+        mockMvc.perform(get("/api/v1/books/browse")
+                        .param("genreId", fantasy.toString(), horror.toString())
+                        .param("allGenres", "true")
+                        .param("decade", "1930")
+                        .param("minRating", "8"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.books[0].title").value("Hobbit"))
+                .andExpect(jsonPath("$.genres[0].label").value("Fantasy"))
+                .andExpect(jsonPath("$.ratings[0].value").value("8"));
+    }
+
     @Test
     @DisplayName("GET /top - Top ocenione książki")
     @WithMockUser
     void shouldReturnTopBooks() throws Exception {
-        List<Book> topBooks = List.of(createTestBook("Best Book", "100"));
+        List<BookDTO> topBooks = List.of(BookMapper.toDto(createTestBook("Best Book", "100")));
 
-        when(bookService.getTopRatedBooksViaSql(5)).thenReturn(topBooks);
+        when(bookService.getTopRatedBooks(5, null, null)).thenReturn(topBooks);
 
         mockMvc.perform(get("/api/v1/books/top")
                         .param("limit", "5"))
@@ -285,6 +376,41 @@ class BookRestControllerTest {
                 .andExpect(jsonPath("$", hasSize(1)));
     }
 
+    @Test
+    @DisplayName("GET /export - Strumień NDJSON całego katalogu")
+    void shouldStreamCatalogExport() throws Exception {
+        when(catalogExportService.exportNdjson(any(OutputStream.class), eq(false))).thenAnswer(inv -> {
+            OutputStream out = inv.getArgument(0);
+            out.write("{\"title\":\"Hobbit\"}\n".getBytes());
+            return 1L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/v1/books/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string("{\"title\":\"Hobbit\"}\n"));
+    }
+
+    @Test
+    @DisplayName("GET /export - gzip gdy klient go akceptuje")
+    void shouldGzipExport_whenAcceptEncodingGzip() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/books/export")
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"));
+
+        verify(catalogExportService).exportNdjson(any(OutputStream.class), eq(true));
+    }
+
     // m. pomocnicza
     private Book createTestBook(String title, String isbn) {
         Book book = new Book();
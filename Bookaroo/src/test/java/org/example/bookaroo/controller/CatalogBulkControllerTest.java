@@ -0,0 +1,92 @@
+package org.example.bookaroo.controller;
+
+import org.example.bookaroo.config.SecurityConfig;
+import org.example.bookaroo.dto.BulkImportReportDTO;
+import org.example.bookaroo.dto.BulkRowErrorDTO;
+import org.example.bookaroo.service.CatalogBulkImportService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.InputStream;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CatalogBulkController.class)
+@Import(SecurityConfig.class)
+class CatalogBulkControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private CatalogBulkImportService catalogBulkImportService;
+
+    private final BulkImportReportDTO report = new BulkImportReportDTO(2, 1, 1, 1, 0, 5,
+            List.of(new BulkRowErrorDTO(2, "111", "Książka o tym ISBN już istnieje")), false);
+
+    @Test
+    @DisplayName("POST /api/v1/admin/books/bulk (NDJSON) - raport importu")
+    @WithMockUser(roles = "ADMIN")
+    void shouldImportNdjson() throws Exception {
+        when(catalogBulkImportService.importNdjson(any(InputStream.class))).thenReturn(report);
+
+        mockMvc.perform(post("/api/v1/admin/books/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"title\":\"Hobbit\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted").value(1))
+                .andExpect(jsonPath("$.errors[0].row").value(2))
+                .andExpect(jsonPath("$.errors[0].isbn").value("111"));
+
+        verify(catalogBulkImportService, never()).importCsv(any());
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/admin/books/bulk (CSV) - wybór parsera po Content-Type")
+    @WithMockUser(roles = "ADMIN")
+    void shouldImportCsv() throws Exception {
+        when(catalogBulkImportService.importCsv(any(InputStream.class))).thenReturn(report);
+
+        mockMvc.perform(post("/api/v1/admin/books/bulk")
+                        .contentType("text/csv")
+                        .content("title,isbn,authorName,authorSurname\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRows").value(2));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/admin/books/bulk - 400 gdy brak kolumn")
+    @WithMockUser(roles = "ADMIN")
+    void shouldReturnBadRequestForInvalidHeader() throws Exception {
+        when(catalogBulkImportService.importCsv(any(InputStream.class)))
+                .thenThrow(new IllegalArgumentException("Brak wymaganej kolumny w nagłówku CSV: isbn"));
+
+        mockMvc.perform(post("/api/v1/admin/books/bulk")
+                        .contentType("text/csv")
+                        .content("title\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/admin/books/bulk - 403 dla zwykłego użytkownika")
+    @WithMockUser(roles = "USER")
+    void shouldForbidNonAdmin() throws Exception {
+        mockMvc.perform(post("/api/v1/admin/books/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{}\n"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(catalogBulkImportService);
+    }
+}
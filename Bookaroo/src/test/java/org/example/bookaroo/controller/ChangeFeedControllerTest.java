@@ -0,0 +1,102 @@
+package org.example.bookaroo.controller;
+
+import org.example.bookaroo.config.SecurityConfig;
+import org.example.bookaroo.dto.ChangeDTO;
+import org.example.bookaroo.dto.ChangeFeedDTO;
+import org.example.bookaroo.service.ChangeFeedService;
+import org.example.bookaroo.service.CustomUserDetailsService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ChangeFeedController.class)
+@Import(SecurityConfig.class)
+class ChangeFeedControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ChangeFeedService changeFeedService;
+
+    private static CustomUserDetailsService.BookarooUserDetails principal(UUID userId) {
+        return new CustomUserDetailsService.BookarooUserDetails("anna", "pass",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")), userId, false);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/changes - zwraca zmiany zalogowanego użytkownika i kursor")
+    void shouldReturnChangesSince() throws Exception {
+        UUID userId = UUID.randomUUID();
+        UUID bookId = UUID.randomUUID();
+        ChangeFeedDTO feed = new ChangeFeedDTO(
+                List.of(new ChangeDTO(11, "SHELF_ITEM", "DELETE", bookId, null)), 11, false);
+
+        when(changeFeedService.getChanges(10, 500, userId)).thenReturn(feed);
+
+        mockMvc.perform(get("/api/v1/changes")
+                        .param("since", "10")
+                        .with(user(principal(userId))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes", hasSize(1)))
+                .andExpect(jsonPath("$.changes[0].type").value("SHELF_ITEM"))
+                .andExpect(jsonPath("$.changes[0].id").value(bookId.toString()))
+                .andExpect(jsonPath("$.changes[0].parentId").doesNotExist())
+                .andExpect(jsonPath("$.nextSince").value(11))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/changes - userId z parametru ignorowany, cudze zmiany niedostępne")
+    void shouldIgnoreUserIdParameter() throws Exception {
+        UUID userId = UUID.randomUUID();
+        UUID otherUserId = UUID.randomUUID();
+        when(changeFeedService.getChanges(0, 500, userId)).thenReturn(new ChangeFeedDTO(List.of(), 0, false));
+
+        mockMvc.perform(get("/api/v1/changes")
+                        .param("userId", otherUserId.toString())
+                        .with(user(principal(userId))))
+                .andExpect(status().isOk());
+
+        verify(changeFeedService).getChanges(0, 500, userId);
+        verify(changeFeedService, never()).getChanges(anyLong(), anyInt(), eq(otherUserId));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/changes/latest - aktualny numer sekwencji")
+    @WithMockUser
+    void shouldReturnLatestSequence() throws Exception {
+        when(changeFeedService.getLatestSequence()).thenReturn(42L);
+
+        mockMvc.perform(get("/api/v1/changes/latest"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.latest").value(42));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/changes - 401 bez logowania")
+    void shouldRequireAuthentication() throws Exception {
+        mockMvc.perform(get("/api/v1/changes"))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,139 @@
+package org.example.bookaroo.controller;
+
+import org.example.bookaroo.config.SecurityConfig;
+import org.example.bookaroo.dto.JobDTO;
+import org.example.bookaroo.exception.JobNotReadyException;
+import org.example.bookaroo.exception.ResourceNotFoundException;
+import org.example.bookaroo.exception.TooManyJobsException;
+import org.example.bookaroo.service.JobService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(JobController.class)
+@Import(SecurityConfig.class)
+class JobControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private JobService jobService;
+
+    private JobDTO job(UUID id, String status, int progress, String downloadUrl) {
+        return new JobDTO(id, "EXPORT_PDF", status, progress, null, LocalDateTime.now(), null, downloadUrl);
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/jobs/export - 202 z id zadania i Location")
+    @WithMockUser(username = "janusz")
+    void shouldAcceptExport() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(jobService.submitExport("janusz", "pdf")).thenReturn(job(id, "QUEUED", 0, null));
+
+        mockMvc.perform(post("/api/v1/jobs/export").param("format", "pdf"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/v1/jobs/" + id))
+                .andExpect(jsonPath("$.id").value(id.toString()))
+                .andExpect(jsonPath("$.status").value("QUEUED"))
+                .andExpect(jsonPath("$.downloadUrl").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/jobs/import - 202 dla pliku backupu")
+    @WithMockUser(username = "janusz")
+    void shouldAcceptImport() throws Exception {
+        UUID id = UUID.randomUUID();
+        MockMultipartFile file = new MockMultipartFile("file", "backup.json", "application/json", "{}".getBytes());
+        when(jobService.submitImport(eq("janusz"), any())).thenReturn(job(id, "QUEUED", 0, null));
+
+        mockMvc.perform(multipart("/api/v1/jobs/import").file(file))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value(id.toString()));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/jobs/export - 429 po przekroczeniu limitu")
+    @WithMockUser(username = "janusz")
+    void shouldReturnTooManyRequests() throws Exception {
+        when(jobService.submitExport("janusz", "json")).thenThrow(new TooManyJobsException("limit"));
+
+        mockMvc.perform(post("/api/v1/jobs/export"))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/jobs/{id} - postęp zadania")
+    @WithMockUser(username = "janusz")
+    void shouldReturnProgress() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(jobService.getJob(id, "janusz")).thenReturn(job(id, "RUNNING", 40, null));
+
+        mockMvc.perform(get("/api/v1/jobs/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("RUNNING"))
+                .andExpect(jsonPath("$.progress").value(40));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/jobs/{id} - 404 dla nieznanego zadania")
+    @WithMockUser(username = "janusz")
+    void shouldReturnNotFound() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(jobService.getJob(id, "janusz")).thenThrow(new ResourceNotFoundException("Job", "id", id));
+
+        mockMvc.perform(get("/api/v1/jobs/{id}", id))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/jobs/{id}/download - plik gotowego eksportu")
+    @WithMockUser(username = "janusz")
+    void shouldDownloadArtifact() throws Exception {
+        UUID id = UUID.randomUUID();
+        byte[] pdf = "%PDF-1.4".getBytes();
+        when(jobService.getArtifact(id, "janusz"))
+                .thenReturn(new JobService.JobArtifact("recenzje_janusz.pdf", MediaType.APPLICATION_PDF, pdf));
+
+        mockMvc.perform(get("/api/v1/jobs/{id}/download", id))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", containsString("recenzje_janusz.pdf")))
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andExpect(content().bytes(pdf));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/jobs/{id}/download - 409 gdy zadanie trwa")
+    @WithMockUser(username = "janusz")
+    void shouldReturnConflictWhenNotReady() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(jobService.getArtifact(id, "janusz")).thenThrow(new JobNotReadyException("w toku"));
+
+        mockMvc.perform(get("/api/v1/jobs/{id}/download", id))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/jobs/{id} - wymaga zalogowania")
+    void shouldRequireAuthentication() throws Exception {
+        mockMvc.perform(get("/api/v1/jobs/{id}", UUID.randomUUID()))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.bookaroo.controller;
+
+import org.example.bookaroo.config.SecurityConfig;
+import org.example.bookaroo.dto.BookDTO;
+import org.example.bookaroo.repository.ReactiveBookRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ReactiveBookController.class)
+@Import(SecurityConfig.class)
+class ReactiveBookControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ReactiveBookRepository reactiveBookRepository;
+
+    private BookDTO book(String title) {
+        return new BookDTO(UUID.randomUUID(), title, "123", "Opis", 2000, UUID.randomUUID(), "Jan Kowalski", 4.0, List.of("Fantasy"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/reactive/books - strumień NDJSON dostępny bez logowania")
+    void shouldStreamBooksAsNdjson() throws Exception {
+        // emiter wysyła elementy na innym wątku - książki trafiają do strumienia dopiero po zakończeniu
+        // pierwszego przebiegu (filtry bezpieczeństwa zapisały już nagłówki odpowiedzi)
+        Sinks.Many<BookDTO> books = Sinks.many().unicast().onBackpressureBuffer();
+        when(reactiveBookRepository.findAll()).thenReturn(books.asFlux());
+
+        MvcResult result = mockMvc.perform(get("/api/v1/reactive/books").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        books.tryEmitNext(book("Hobbit"));
+        books.tryEmitNext(book("Dziady"));
+        books.tryEmitComplete();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("\"genres\":[\"Fantasy\"],\"readersCount\":0}\n")))
+                .andExpect(content().string(containsString("\"title\":\"Hobbit\"")))
+                .andExpect(content().string(containsString("\"title\":\"Dziady\"")));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/reactive/books/{id} - zwraca książkę")
+    void shouldReturnBookById() throws Exception {
+        BookDTO dto = book("Hobbit");
+        when(reactiveBookRepository.findById(dto.id())).thenReturn(Mono.just(dto));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/reactive/books/{id}", dto.id()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Hobbit"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/reactive/books/{id} - 404 gdy książka nie istnieje")
+    void shouldReturn404WhenBookMissing() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(reactiveBookRepository.findById(id)).thenReturn(Mono.empty());
+
+        MvcResult result = mockMvc.perform(get("/api/v1/reactive/books/{id}", id))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/reactive/books/top - przekazuje limit do repozytorium")
+    void shouldPassLimitToRepository() throws Exception {
+        // też NDJSON - jak wyżej, książka trafia do strumienia po pierwszym przebiegu
+        Sinks.Many<BookDTO> books = Sinks.many().unicast().onBackpressureBuffer();
+        when(reactiveBookRepository.findTopRated(3)).thenReturn(books.asFlux());
+
+        MvcResult result = mockMvc.perform(get("/api/v1/reactive/books/top").param("limit", "3"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        books.tryEmitNext(book("Hobbit"));
+        books.tryEmitComplete();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Hobbit")));
+    }
+}
@@ -1,5 +1,7 @@
 package org.example.bookaroo.controller.view;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bookaroo.config.AsyncConfig;
 import org.example.bookaroo.config.SecurityConfig;
 import org.example.bookaroo.dto.BookDTO;
 import org.example.bookaroo.dto.BookStatisticsDTO;
@@ -9,6 +11,8 @@ import org.example.bookaroo.exception.ResourceNotFoundException;
 import org.example.bookaroo.service.BookService;
 import org.example.bookaroo.service.BookshelfService;
 import org.example.bookaroo.service.CustomUserDetailsService;
+import org.example.bookaroo.service.PageAssembler;
+import org.example.bookaroo.service.RecommendationService;
 import org.example.bookaroo.service.ReviewService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -25,6 +29,7 @@ import static org.hamcrest.Matchers.*;
 import static org.mockito.Mockito.*;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -33,7 +38,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(BookDetailsController.class)
-@Import(SecurityConfig.class)
+@Import({SecurityConfig.class, AsyncConfig.class, PageAssembler.class, SimpleMeterRegistry.class})
 class BookDetailsControllerTest {
 
     @Autowired
@@ -48,6 +53,9 @@ class BookDetailsControllerTest {
     @MockitoBean
     private BookshelfService bookshelfService;
 
+    @MockitoBean
+    private RecommendationService recommendationService;
+
     // Wyświetlanie szczegółów (Anonim)
 
     @Test
@@ -66,6 +74,11 @@ class BookDetailsControllerTest {
         when(bookService.getBookDetails(bookId)).thenReturn(bookDto);
         when(reviewService.getReviewsForBook(bookId)).thenReturn(Collections.emptyList());
         when(bookService.getBookStatistics(bookId)).thenReturn(statsDto);
+        BookDTO similar = new BookDTO(
+                UUID.randomUUID(), "Podobna", "0987654321", "Opis", 2020,
+                UUID.randomUUID(), "Anna Nowak", 4.0, List.of("Fantasy")
+        );
+        when(recommendationService.similarTo(eq(bookId), anyInt())).thenReturn(List.of(similar));
 
         // When & Then
         mockMvc.perform(get("/book/{id}", bookId))
@@ -74,7 +87,9 @@ class BookDetailsControllerTest {
 
                 .andExpect(model().attribute("book", notNullValue()))
 
-                .andExpect(model().attribute("stats", statsDto));
+                .andExpect(model().attribute("stats", statsDto))
+                .andExpect(model().attribute("similarBooks", contains(similar)))
+                .andExpect(content().string(containsString("Podobna")));
 
         // dla niezalogowanego nie wołamy serwisu półek
         verifyNoInteractions(bookshelfService);
@@ -124,6 +139,25 @@ class BookDetailsControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("GET /book/{id} - Błąd recenzji nie blokuje strony (wartość zastępcza)")
+    void shouldShowBookDetails_WhenReviewsFail() throws Exception {
+        UUID bookId = UUID.randomUUID();
+        BookDTO bookDto = new BookDTO(
+                bookId, "Test Book", "1234567890", "Opis", 2024,
+                UUID.randomUUID(), "Jan Kowalski", 4.5, List.of("Fantasy")
+        );
+
+        when(bookService.getBookDetails(bookId)).thenReturn(bookDto);
+        when(reviewService.getReviewsForBook(bookId)).thenThrow(new RuntimeException("DB down"));
+        when(bookService.getBookStatistics(bookId)).thenReturn(createMockStats());
+
+        mockMvc.perform(get("/book/{id}", bookId))
+                .andExpect(status().isOk())
+                .andExpect(view().name("book-details"))
+                .andExpect(model().attribute("reviews", empty()));
+    }
+
     @Test
     @DisplayName("POST /review/add - Dodanie recenzji")
     void shouldAddReview_WhenLoggedIn() throws Exception {
@@ -1,10 +1,16 @@
 package org.example.bookaroo.controller.view;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bookaroo.config.AsyncConfig;
 import org.example.bookaroo.config.SecurityConfig;
+import org.example.bookaroo.dto.JobDTO;
 import org.example.bookaroo.entity.User;
+import org.example.bookaroo.exception.TooManyJobsException;
 import org.example.bookaroo.service.BackupService;
 import org.example.bookaroo.service.BookshelfService;
 import org.example.bookaroo.service.CustomUserDetailsService;
+import org.example.bookaroo.service.JobService;
+import org.example.bookaroo.service.PageAssembler;
 import org.example.bookaroo.service.UserService;
 import org.example.bookaroo.testutils.WithMockCustomUser;
 import org.junit.jupiter.api.DisplayName;
@@ -17,6 +23,7 @@ import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.UUID;
 
@@ -30,7 +37,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ProfileController.class)
-@Import(SecurityConfig.class)
+@Import({SecurityConfig.class, AsyncConfig.class, PageAssembler.class, SimpleMeterRegistry.class})
 class ProfileControllerTest {
 
     @Autowired
@@ -45,6 +52,13 @@ class ProfileControllerTest {
     @MockitoBean
     private BackupService backupService;
 
+    @MockitoBean
+    private JobService jobService;
+
+    private JobDTO queuedJob(String type) {
+        return new JobDTO(UUID.randomUUID(), type, "QUEUED", 0, null, LocalDateTime.now(), null, null);
+    }
+
     @Test
     @DisplayName("GET /profile/edit - Edycja profilu")
     @WithMockCustomUser(username = "magdaGessler")
@@ -146,7 +160,7 @@ class ProfileControllerTest {
     }
 
     @Test
-    @DisplayName("POST /profile/import - Import danych")
+    @DisplayName("POST /profile/import - Import danych zlecany w tle")
     @WithMockCustomUser(username = "magdaGessler")
     void shouldImportProfile() throws Exception {
         UUID userId = UUID.randomUUID();
@@ -154,16 +168,55 @@ class ProfileControllerTest {
         user.setId(userId);
 
         MockMultipartFile file = new MockMultipartFile("file", "backup.json", "application/json", "{}".getBytes());
+        JobDTO job = queuedJob("IMPORT");
 
         when(userService.findByUsername("magdaGessler")).thenReturn(user);
+        when(jobService.submitImport(eq("magdaGessler"), any())).thenReturn(job);
 
         mockMvc.perform(multipart("/profile/import")
                         .file(file)
                         .with(csrf()))
                 .andExpect(status().is3xxRedirection())
-                .andExpect(redirectedUrl("/profile/" + userId + "?success=restored"));
+                .andExpect(redirectedUrl("/profile/" + userId + "?job=" + job.id()));
+
+        verify(jobService).submitImport(eq("magdaGessler"), any());
+        verifyNoInteractions(backupService);
+    }
+
+    @Test
+    @DisplayName("POST /profile/export/job - Eksport zlecany w tle")
+    @WithMockCustomUser(username = "magdaGessler")
+    void shouldSubmitExportJob() throws Exception {
+        UUID userId = UUID.randomUUID();
+        User user = new User();
+        user.setId(userId);
+        JobDTO job = queuedJob("EXPORT_PDF");
+
+        when(userService.findByUsername("magdaGessler")).thenReturn(user);
+        when(jobService.submitExport("magdaGessler", "pdf")).thenReturn(job);
+
+        mockMvc.perform(post("/profile/export/job")
+                        .param("format", "pdf")
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/profile/" + userId + "?job=" + job.id()));
+    }
+
+    @Test
+    @DisplayName("POST /profile/export/job - Limit zadań użytkownika")
+    @WithMockCustomUser(username = "magdaGessler")
+    void shouldRedirectWithError_WhenTooManyJobs() throws Exception {
+        UUID userId = UUID.randomUUID();
+        User user = new User();
+        user.setId(userId);
 
-        verify(backupService).importUserData(eq("magdaGessler"), any());
+        when(userService.findByUsername("magdaGessler")).thenReturn(user);
+        when(jobService.submitExport("magdaGessler", "json")).thenThrow(new TooManyJobsException("limit"));
+
+        mockMvc.perform(post("/profile/export/job")
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/profile/" + userId + "?error=too_many_jobs"));
     }
 
     @Test
@@ -0,0 +1,59 @@
+package org.example.bookaroo.entity;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7GeneratorTest {
+
+    @Test
+    @DisplayName("should set version 7, the RFC variant and the creation time")
+    void shouldEncodeVersionAndTime() {
+        long before = System.currentTimeMillis();
+
+        UUID id = UuidV7Generator.next();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(UuidV7Generator.timestamp(id)).isBetween(before, System.currentTimeMillis() + 1);
+    }
+
+    @Test
+    @DisplayName("should keep ids increasing within one millisecond and when the clock goes back")
+    void shouldBeMonotonic() {
+        UuidV7Generator.Sequence sequence = new UuidV7Generator.Sequence();
+        long now = System.currentTimeMillis();
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(sequence.next(now));
+        }
+        ids.add(sequence.next(now - 5_000));
+
+        assertThat(ids).isSorted();
+        assertThat(new HashSet<>(ids)).hasSize(ids.size());
+        // licznik przepełniony w obrębie ms przesuwa czas o kilka ms, nie więcej
+        assertThat(UuidV7Generator.timestamp(ids.get(ids.size() - 1))).isBetween(now, now + 3);
+    }
+
+    @Test
+    @DisplayName("should generate unique ids from many threads")
+    void shouldBeUniqueAcrossThreads() {
+        ConcurrentLinkedQueue<UUID> ids = new ConcurrentLinkedQueue<>();
+
+        IntStream.range(0, 8).parallel().forEach(t -> {
+            for (int i = 0; i < 5_000; i++) {
+                ids.add(UuidV7Generator.next());
+            }
+        });
+
+        assertThat(new HashSet<>(ids)).hasSize(40_000);
+    }
+}
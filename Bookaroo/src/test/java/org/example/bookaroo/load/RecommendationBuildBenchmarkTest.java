@@ -0,0 +1,77 @@
+package org.example.bookaroo.load;
+
+import org.example.bookaroo.service.ItemSimilarityBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Pomiar budowy macierzy podobieństwa - uruchamiany tylko przez: mvn test -Pload-test
+// 1M użytkowników, 50k książek, popularność skośna (kilka bestsellerów w wielu koszykach)
+@Tag("load")
+class RecommendationBuildBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RecommendationBuildBenchmarkTest.class);
+
+    private static final int USERS = 1_000_000;
+    private static final int ITEMS = 50_000;
+    private static final int WARMUP = 1;
+    private static final int MEASURED = 3;
+
+    @Test
+    @DisplayName("budowa top-20 sąsiadów dla 1M koszyków - czas i pamięć wyniku")
+    void shouldBuildMillionUserMatrix() {
+        int[][] baskets = syntheticBaskets(new SplittableRandom(7));
+        long pairs = Arrays.stream(baskets).mapToLong(b -> b.length).sum();
+        log.info("Wejście: {} użytkowników, {} książek, {} par", USERS, ITEMS, pairs);
+        assertThat(pairs).isGreaterThan(USERS);
+
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            ItemSimilarityBuilder.Neighbours neighbours = null;
+            for (int i = 0; i < WARMUP; i++) {
+                neighbours = ItemSimilarityBuilder.build(ITEMS, baskets, 20, 2, pool);
+            }
+            long[] timings = new long[MEASURED];
+            for (int i = 0; i < MEASURED; i++) {
+                long start = System.nanoTime();
+                neighbours = ItemSimilarityBuilder.build(ITEMS, baskets, 20, 2, pool);
+                timings[i] = (System.nanoTime() - start) / 1_000_000;
+            }
+            Arrays.sort(timings);
+            long resultBytes = neighbours.offsets().length * 4L + neighbours.items().length * 8L;
+            log.info("Budowa ({} wątków): min {} ms, mediana {} ms, max {} ms; {} par sąsiadów, {} KB",
+                    pool.getParallelism(), timings[0], timings[MEASURED / 2], timings[MEASURED - 1],
+                    neighbours.items().length, resultBytes / 1024);
+
+            assertThat(neighbours.items()).isNotEmpty();
+            // co najwyżej 20 sąsiadów na książkę
+            assertThat(neighbours.offsets()).hasSize(ITEMS + 1);
+            assertThat(neighbours.items().length).isLessThanOrEqualTo(ITEMS * 20);
+            // przebudowa w tle co godzinę - górna granica z dużym zapasem na wolne maszyny CI
+            assertThat(timings[MEASURED / 2]).isLessThan(300_000);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // koszyk 4-16 książek (średnio 10), numer książki z rozkładu potęgowego
+    private static int[][] syntheticBaskets(SplittableRandom random) {
+        int[][] baskets = new int[USERS][];
+        for (int u = 0; u < USERS; u++) {
+            int size = 4 + random.nextInt(13);
+            baskets[u] = random.doubles(size)
+                    .mapToInt(x -> (int) (ITEMS * Math.pow(x, 3)))
+                    .distinct()
+                    .toArray();
+        }
+        return baskets;
+    }
+}
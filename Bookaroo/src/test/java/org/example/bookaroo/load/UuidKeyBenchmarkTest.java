@@ -0,0 +1,108 @@
+package org.example.bookaroo.load;
+
+import org.example.bookaroo.entity.UuidV7Generator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Pomiar kluczy głównych w H2 w pliku - uruchamiany tylko przez: mvn test -Pload-test
+// losowy UUID v4 vs UUIDv7, każdy jako binarny UUID (16 B) i jako VARCHAR(36) (wiązanie przez toString)
+@Tag("load")
+class UuidKeyBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(UuidKeyBenchmarkTest.class);
+
+    private static final int ROWS = 500_000;
+    private static final int WARMUP_ROWS = 50_000;
+    private static final int BATCH = 1_000;
+
+    @TempDir
+    Path tempDir;
+
+    private record Result(long insertMs, long lookupMs, long diskKb) {}
+
+    private record Layout(String name, String keyType, Supplier<UUID> keys, Function<UUID, Object> binding) {}
+
+    @Test
+    @DisplayName("UUIDv7 binarnie vs v4 i VARCHAR(36) - czas wstawiania, odczytu po kluczu i rozmiar na dysku")
+    void shouldCompareKeyLayouts() {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:file:" + tempDir.resolve("uuid-bench"), "sa", "", true);
+        try {
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            List<Layout> layouts = List.of(
+                    new Layout("v4 UUID", "UUID", UUID::randomUUID, id -> id),
+                    new Layout("v7 UUID", "UUID", UuidV7Generator::next, id -> id),
+                    new Layout("v4 VARCHAR(36)", "VARCHAR(36)", UUID::randomUUID, UUID::toString),
+                    new Layout("v7 VARCHAR(36)", "VARCHAR(36)", UuidV7Generator::next, UUID::toString));
+
+            // rozgrzewka JIT na osobnych tabelach - inaczej pierwszy wariant wypada najgorzej
+            for (int i = 0; i < layouts.size(); i++) {
+                measure(jdbc, "warmup_" + i, layouts.get(i), WARMUP_ROWS);
+            }
+            Map<String, Result> results = new LinkedHashMap<>();
+            for (int i = 0; i < layouts.size(); i++) {
+                results.put(layouts.get(i).name(), measure(jdbc, "bench_" + i, layouts.get(i), ROWS));
+            }
+
+            log.info("{} wierszy, paczki po {}", ROWS, BATCH);
+            results.forEach((name, r) -> log.info("{}: wstawianie {} ms ({} wierszy/s), odczyt {} ms, dysk {} KB",
+                    name, r.insertMs(), ROWS * 1000L / Math.max(1, r.insertMs()), r.lookupMs(), r.diskKb()));
+
+            // rosnące klucze dopisywane na końcu B-drzewa - wyraźnie szybciej niż losowe (bez twardego progu na CI)
+            assertThat(results.get("v7 UUID").insertMs()).isLessThan(results.get("v4 UUID").insertMs());
+            // binarny klucz zajmuje mniej niż tekst, niezależnie od wersji
+            assertThat(results.get("v7 UUID").diskKb()).isLessThan(results.get("v4 VARCHAR(36)").diskKb());
+            assertThat(results.get("v4 UUID").diskKb()).isLessThan(results.get("v4 VARCHAR(36)").diskKb());
+        } finally {
+            dataSource.destroy();
+        }
+    }
+
+    private static Result measure(JdbcTemplate jdbc, String table, Layout layout, int rows) {
+        jdbc.execute("CREATE TABLE " + table + " (id " + layout.keyType() + " PRIMARY KEY, title VARCHAR(255), publication_year INT)");
+        String insert = "INSERT INTO " + table + " (id, title, publication_year) VALUES (?, ?, ?)";
+
+        List<UUID> sample = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int offset = 0; offset < rows; offset += BATCH) {
+            List<Object[]> batch = new ArrayList<>(BATCH);
+            for (int i = 0; i < BATCH; i++) {
+                UUID id = layout.keys().get();
+                if ((offset + i) % 50 == 0) {
+                    sample.add(id);
+                }
+                batch.add(new Object[]{layout.binding().apply(id), "Książka " + (offset + i), 1900 + (offset + i) % 125});
+            }
+            jdbc.batchUpdate(insert, batch);
+        }
+        long insertMs = (System.nanoTime() - start) / 1_000_000;
+
+        String select = "SELECT publication_year FROM " + table + " WHERE id = ?";
+        start = System.nanoTime();
+        for (UUID id : sample) {
+            jdbc.queryForObject(select, Integer.class, layout.binding().apply(id));
+        }
+        long lookupMs = (System.nanoTime() - start) / 1_000_000;
+
+        jdbc.execute("CHECKPOINT");
+        Long diskBytes = jdbc.queryForObject("SELECT DISK_SPACE_USED('" + table + "')", Long.class);
+        return new Result(insertMs, lookupMs, diskBytes / 1024);
+    }
+}
@@ -0,0 +1,134 @@
+package org.example.bookaroo.load;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Test obciążeniowy trybu wirtualnych wątków - uruchamiany tylko przez: mvn test -Pload-test (Java 21+)
+@Tag("load")
+@EnabledForJreRange(min = JRE.JAVA_21)
+@ActiveProfiles("virtual")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class VirtualThreadLoadTest {
+
+    private static final int CLIENTS = 10_000;
+    private static final long BLOCKING_MS = 1_000;
+    // czas zapytania przy zajętym połączeniu - CLIENTS * QUERY_MS / pula = ~1 s pracy bazy
+    private static final int QUERY_MS = 2;
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size}")
+    private int poolSize;
+
+    @Test
+    @DisplayName("10k równoczesnych wolnych żądań - czas zbliżony do jednego żądania, baza ograniczona pulą Hikari")
+    void shouldServeTenThousandConcurrentSlowClients() throws Exception {
+        // Given
+        URI uri = URI.create("http://localhost:" + port + "/api/v1/books/load-probe");
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+
+        // klient HTTP jest nieblokujący - pula obsługuje tylko callbacki odpowiedzi
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(16);
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clientExecutor)
+                    .build();
+
+            // When
+            long start = System.nanoTime();
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>(CLIENTS);
+            for (int i = 0; i < CLIENTS; i++) {
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+            CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).join();
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+            // Then
+            long ok = responses.stream().map(CompletableFuture::join).filter(r -> r.statusCode() == 200).count();
+            double throughput = CLIENTS * 1000.0 / elapsedMs;
+
+            // żadne żądanie nie przekroczyło connection-timeout Hikari
+            assertThat(ok).isEqualTo(CLIENTS);
+            // pula 200 wątków platformowych potrzebowałaby ~CLIENTS / 200 * BLOCKING_MS = 50 s
+            assertThat(elapsedMs).isLessThan(BLOCKING_MS * 15);
+            assertThat(throughput).isGreaterThan(CLIENTS / 15.0);
+            // wirtualnych wątków jest 10k, ale zapytania równolegle wykonuje najwyżej tyle połączeń, ile ma pula
+            assertThat(SlowQuery.peak.get()).isLessThanOrEqualTo(poolSize).isGreaterThan(1);
+        } finally {
+            clientExecutor.shutdownNow();
+        }
+    }
+
+    // endpoint symulujący blokujące I/O (wolny serwis zewnętrzny), a potem wolne zapytanie przez JDBC i pulę Hikari
+    @TestConfiguration
+    static class SlowEndpointConfig {
+
+        @Bean
+        SlowController slowController(JdbcTemplate jdbcTemplate) {
+            jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS SLOW_QUERY FOR \"" + SlowQuery.class.getName() + ".run\"");
+            return new SlowController(jdbcTemplate);
+        }
+    }
+
+    @RestController
+    static class SlowController {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        SlowController(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @GetMapping("/api/v1/books/load-probe")
+        String probe() throws InterruptedException {
+            Thread.sleep(BLOCKING_MS);
+            Integer books = jdbcTemplate.queryForObject("SELECT SLOW_QUERY(?) + COUNT(*) FROM books", Integer.class, QUERY_MS);
+            return "ok " + books;
+        }
+    }
+
+    // funkcja H2 wykonywana na połączeniu z puli - liczy, ile zapytań trwa jednocześnie
+    public static class SlowQuery {
+
+        static final AtomicInteger active = new AtomicInteger();
+        static final AtomicInteger peak = new AtomicInteger();
+
+        public static int run(int millis) throws InterruptedException {
+            peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(millis);
+                return 0;
+            } finally {
+                active.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.bookaroo.repository;
+
+import org.example.bookaroo.dto.AuthorSummaryDTO;
+import org.example.bookaroo.entity.Author;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(AuthorLookupDao.class)
+class AuthorLookupDaoTest {
+
+    @Autowired
+    private AuthorLookupDao authorLookupDao;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        persistAuthor("Zygmunt", "Tolkowski");
+        persistAuthor("Tolek", "Banan");
+        persistAuthor("George", "Orwell");
+        persistAuthor("Georg", "Orwellowski");
+        entityManager.flush();
+    }
+
+    @Test
+    @DisplayName("should match name or surname prefix ignoring case")
+    void shouldMatchNameOrSurnamePrefix() {
+        List<AuthorSummaryDTO> result = authorLookupDao.searchByPrefix("TOL", 10);
+
+        assertThat(result).extracting(AuthorSummaryDTO::surname)
+                .contains("Tolkowski", "Banan")
+                .doesNotContain("Orwell");
+    }
+
+    @Test
+    @DisplayName("should match first token to name and rest to surname")
+    void shouldMatchNameAndSurnameTokens() {
+        List<AuthorSummaryDTO> result = authorLookupDao.searchByPrefix("george orw", 10);
+
+        assertThat(result).extracting(AuthorSummaryDTO::surname).containsExactly("Orwell");
+        assertThat(authorLookupDao.searchByPrefix("orwell geo", 10))
+                .extracting(AuthorSummaryDTO::name).contains("George", "Georg");
+    }
+
+    @Test
+    @DisplayName("should respect limit")
+    void shouldRespectLimit() {
+        assertThat(authorLookupDao.searchByPrefix("o", 1)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("should treat LIKE wildcards literally")
+    void shouldTreatWildcardsLiterally() {
+        assertThat(authorLookupDao.searchByPrefix("%", 10)).isEmpty();
+        assertThat(authorLookupDao.searchByPrefix("_rwell", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should keep generated lower-case columns in sync on update")
+    void shouldKeepGeneratedColumnsInSync() {
+        jdbcTemplate.update("UPDATE authors SET surname = 'Huxley' WHERE surname = 'Orwell'");
+
+        assertThat(authorLookupDao.searchByPrefix("hux", 10)).extracting(AuthorSummaryDTO::name).containsExactly("George");
+    }
+
+    @Test
+    @DisplayName("should list all authors by surname and load selected ones by id")
+    void shouldListAllAndFindByIds() {
+        List<AuthorSummaryDTO> all = authorLookupDao.findAll();
+
+        assertThat(all).extracting(AuthorSummaryDTO::surname).contains("Banan", "Orwell", "Tolkowski");
+        assertThat(all).isSortedAccordingTo(Comparator.comparing(author -> author.surname().toLowerCase()));
+
+        List<UUID> ids = all.stream().filter(author -> author.name().startsWith("Geo")).map(AuthorSummaryDTO::id).toList();
+        assertThat(authorLookupDao.findByIds(ids)).extracting(AuthorSummaryDTO::surname)
+                .containsExactlyInAnyOrder("Orwell", "Orwellowski");
+        assertThat(authorLookupDao.findByIds(List.of())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should use lower-case indexes for prefix lookup")
+    void shouldUseIndexes() {
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT id FROM authors WHERE surname_lower >= 'tol' AND surname_lower < 'tol" + Character.MAX_VALUE + "'",
+                String.class);
+
+        assertThat(plan).containsIgnoringCase("IDX_AUTHORS_SURNAME_LOWER");
+    }
+
+    private void persistAuthor(String name, String surname) {
+        Author author = new Author();
+        author.setName(name);
+        author.setSurname(surname);
+        entityManager.persist(author);
+    }
+}
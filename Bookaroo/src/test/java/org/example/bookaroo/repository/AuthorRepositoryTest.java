@@ -34,6 +34,23 @@ class AuthorRepositoryTest {
         assertThat(savedAuthor.getId()).isNotNull();
     }
 
+    @Test
+    @DisplayName("ID autora to UUIDv7 - kolejne zapisy dostają rosnące klucze")
+    void shouldGenerateTimeOrderedIds() {
+        Author first = new Author();
+        first.setName("Stanisław");
+        first.setSurname("Lem");
+        Author second = new Author();
+        second.setName("Olga");
+        second.setSurname("Tokarczuk");
+
+        UUID firstId = entityManager.persistAndFlush(first).getId();
+        UUID secondId = entityManager.persistAndFlush(second).getId();
+
+        assertThat(firstId.version()).isEqualTo(7);
+        assertThat(secondId).isGreaterThan(firstId);
+    }
+
     @Test
     @DisplayName("Poprawne zapisanie danych autora")
     void shouldPersistDataCorrectly() {
@@ -0,0 +1,233 @@
+package org.example.bookaroo.repository;
+
+import org.example.bookaroo.dto.BookDTO;
+import org.example.bookaroo.entity.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(BookCardDao.class)
+class BookCardDaoTest {
+
+    @Autowired
+    private BookCardDao bookCardDao;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Author author;
+    private Book hobbit;
+    private Book silmarillion;
+    private Bookshelf shelf;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("cardReader");
+        user.setEmail("card@test.com");
+        user.setPassword("pass");
+        user.setRole("USER");
+        entityManager.persist(user);
+
+        shelf = new Bookshelf();
+        shelf.setName("Przeczytane");
+        shelf.setUser(user);
+        entityManager.persist(shelf);
+
+        author = new Author();
+        author.setName("J.R.R.");
+        author.setSurname("Tolkien");
+        entityManager.persist(author);
+
+        Genre fantasy = new Genre();
+        fantasy.setName("Fantasy");
+        entityManager.persist(fantasy);
+        Genre adventure = new Genre();
+        adventure.setName("Adventure");
+        entityManager.persist(adventure);
+
+        hobbit = book("Hobbit", "111", 1937);
+        hobbit.getGenres().add(fantasy);
+        hobbit.getGenres().add(adventure);
+        entityManager.persist(hobbit);
+
+        silmarillion = book("Silmarillion", "222", 1977);
+        entityManager.persist(silmarillion);
+
+        entityManager.persist(new BookshelfBook(shelf, hobbit));
+
+        Review review = new Review();
+        review.setUser(user);
+        review.setBook(hobbit);
+        review.setRating(8);
+        review.setContent("Świetna");
+        entityManager.persist(review);
+
+        entityManager.flush();
+        // liczniki i średnią utrzymują serwisy półek i ReviewJdbcDao - tu ustawione ręcznie
+        jdbcTemplate.update("UPDATE books SET readers_count = 1, average_rating = 8.0, total_reviews = 1 WHERE id = ?",
+                hobbit.getId());
+        bookCardDao.rebuildAll();
+    }
+
+    private Book book(String title, String isbn, int year) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setIsbn(isbn);
+        book.setPublicationYear(year);
+        book.setDescription("Długi opis, którego karta nie przechowuje");
+        book.setAuthor(author);
+        return book;
+    }
+
+    @Test
+    @DisplayName("should build card with author name, sorted genres and counters")
+    void shouldBuildCard() {
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM book_cards WHERE isbn = '111'");
+
+        assertThat(row.get("AUTHOR_NAME")).isEqualTo("J.R.R. Tolkien");
+        assertThat(row.get("GENRES")).isEqualTo("Adventure|Fantasy");
+        assertThat(row.get("REVIEW_COUNT")).isEqualTo(1);
+        assertThat(row.get("READERS_COUNT")).isEqualTo(1);
+
+        BookDTO card = bookCardDao.findAll().get(0);
+        assertThat(card.title()).isEqualTo("Hobbit");
+        assertThat(card.description()).isNull();
+        assertThat(card.genres()).containsExactly("Adventure", "Fantasy");
+        assertThat(card.averageRating()).isEqualTo(8.0);
+        assertThat(card.readersCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should keep missing publication year as null")
+    void shouldKeepMissingYearNull() {
+        jdbcTemplate.update("UPDATE books SET publication_year = NULL WHERE id = ?", silmarillion.getId());
+        bookCardDao.refreshBooks(List.of(silmarillion.getId()));
+
+        BookDTO card = bookCardDao.findRows(List.of(silmarillion.getId())).get(0).card();
+
+        assertThat(card.publicationYear()).isNull();
+    }
+
+    @Test
+    @DisplayName("should page, filter and search cards")
+    void shouldQueryCards() {
+        assertThat(bookCardDao.findPage(1, 1)).extracting(BookDTO::title).containsExactly("Silmarillion");
+        assertThat(bookCardDao.count()).isEqualTo(2);
+        assertThat(bookCardDao.findByAuthor(author.getId(), 0, 10)).hasSize(2);
+        assertThat(bookCardDao.findByYear(1977)).extracting(BookDTO::isbn).containsExactly("222");
+        assertThat(bookCardDao.search("tolk", 0, 10)).hasSize(2);
+        assertThat(bookCardDao.countSearch("silma")).isEqualTo(1);
+        assertThat(bookCardDao.search("%", 0, 10)).isEmpty();
+
+        UUID fantasyId = hobbit.getGenres().stream().filter(g -> g.getName().equals("Fantasy")).findFirst().orElseThrow().getId();
+        assertThat(bookCardDao.findByGenre(fantasyId, 0, 10)).extracting(BookDTO::title).containsExactly("Hobbit");
+        assertThat(bookCardDao.countByGenre(fantasyId)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should read index rows with review aggregates and genre ids aligned with names")
+    void shouldReadIndexRows() {
+        // średnia w books jest nieaktualna - wiersz liczy ją z recenzji
+        jdbcTemplate.update("UPDATE books SET average_rating = NULL WHERE id = ?", hobbit.getId());
+        bookCardDao.rebuildAll();
+
+        List<BookCardDao.CardRow> rows = new ArrayList<>();
+        bookCardDao.forEachRow(rows::add);
+
+        assertThat(rows).extracting(r -> r.card().title()).containsExactly("Hobbit", "Silmarillion");
+        BookCardDao.CardRow row = rows.get(0);
+        assertThat(row.card().averageRating()).isEqualTo(8.0);
+        assertThat(row.reviewCount()).isEqualTo(1);
+        assertThat(row.card().genres()).containsExactly("Adventure", "Fantasy");
+        assertThat(row.genreIds()).containsExactlyElementsOf(hobbit.getGenres().stream()
+                .sorted(Comparator.comparing(Genre::getName)).map(Genre::getId).toList());
+
+        BookCardDao.CardRow unrated = rows.get(1);
+        assertThat(unrated.reviewCount()).isZero();
+        assertThat(unrated.card().averageRating()).isNull();
+        assertThat(unrated.genreIds()).isEmpty();
+
+        assertThat(bookCardDao.findRows(List.of(hobbit.getId(), UUID.randomUUID())))
+                .extracting(r -> r.card().id()).containsExactly(hobbit.getId());
+        assertThat(bookCardDao.findRowsByAuthor(author.getId())).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("should read catalog rows with description for the catalog snapshot")
+    void shouldReadCatalogRows() {
+        List<BookCardDao.CardRow> rows = new ArrayList<>();
+        bookCardDao.forEachCatalogRow(rows::add);
+
+        assertThat(rows).extracting(r -> r.card().title()).containsExactly("Hobbit", "Silmarillion");
+        assertThat(rows.get(0).card().description()).isEqualTo("Długi opis, którego karta nie przechowuje");
+        assertThat(rows.get(0).card().readersCount()).isEqualTo(1);
+        assertThat(rows.get(0).genreIds()).hasSize(2);
+
+        assertThat(bookCardDao.findCatalogRows(List.of(silmarillion.getId(), UUID.randomUUID())))
+                .extracting(r -> r.card().id()).containsExactly(silmarillion.getId());
+        assertThat(bookCardDao.findCatalogRowsByAuthor(author.getId()))
+                .allSatisfy(r -> assertThat(r.card().description()).isNotNull())
+                .hasSize(2);
+    }
+
+    @Test
+    @DisplayName("should group shelf cards by shelf id")
+    void shouldFindByShelfIds() {
+        Map<UUID, List<BookDTO>> byShelf = bookCardDao.findByShelfIds(List.of(shelf.getId()));
+
+        assertThat(byShelf.get(shelf.getId())).extracting(BookDTO::title).containsExactly("Hobbit");
+        assertThat(bookCardDao.findByShelfIds(List.of())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should refresh changed books and drop cards of deleted books")
+    void shouldRefreshBooks() {
+        jdbcTemplate.update("UPDATE books SET title = 'Hobbit, czyli tam i z powrotem' WHERE id = ?", hobbit.getId());
+        jdbcTemplate.update("DELETE FROM books WHERE id = ?", silmarillion.getId());
+
+        bookCardDao.refreshBooks(List.of(hobbit.getId(), silmarillion.getId()));
+
+        assertThat(bookCardDao.findAll()).extracting(BookDTO::title).containsExactly("Hobbit, czyli tam i z powrotem");
+    }
+
+    @Test
+    @DisplayName("should refresh author name on all author's cards")
+    void shouldRefreshAuthor() {
+        jdbcTemplate.update("UPDATE authors SET name = 'John Ronald Reuel' WHERE id = ?", author.getId());
+
+        bookCardDao.refreshAuthor(author.getId());
+
+        assertThat(bookCardDao.findAll()).extracting(BookDTO::authorName)
+                .containsOnly("John Ronald Reuel Tolkien");
+    }
+
+    @Test
+    @DisplayName("should read listings through book_cards indexes")
+    void shouldUseIndexes() {
+        String byAuthor = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT id FROM book_cards WHERE author_id = '" + author.getId() + "' ORDER BY title", String.class);
+        String byYear = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT id FROM book_cards WHERE publication_year = 1937 ORDER BY title", String.class);
+
+        assertThat(byAuthor).containsIgnoringCase("IDX_BOOK_CARDS_AUTHOR");
+        assertThat(byYear).containsIgnoringCase("IDX_BOOK_CARDS_YEAR");
+    }
+}
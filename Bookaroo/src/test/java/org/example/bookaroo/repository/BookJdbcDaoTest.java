@@ -30,7 +30,7 @@ class BookJdbcDaoTest {
 
         jdbcTemplate.execute("""
             CREATE TABLE books (
-                id VARCHAR(36) PRIMARY KEY,
+                id UUID PRIMARY KEY,
                 title VARCHAR(255),
                 isbn VARCHAR(255),
                 description VARCHAR(255),
@@ -142,26 +142,20 @@ class BookJdbcDaoTest {
     }
 
     @Test
-    @DisplayName("Aktualizacja oceny dla istniejącej książki")
-    void shouldUpdateRating() {
-        UUID id = UUID.randomUUID();
-        insertBook(id, "Title", "ISBN", "Desc", 2020, 3.0, 5);
-
-        int rowsAffected = bookJdbcDao.updateBookRating(id, 4.8);
-
-        assertThat(rowsAffected).isEqualTo(1);
-
-        Double newRating = jdbcTemplate.queryForObject(
-                "SELECT average_rating FROM books WHERE id = ?", Double.class, id.toString());
-        assertThat(newRating).isEqualTo(4.8);
-    }
-
-    @Test
-    @DisplayName("Zwrócenie 0 rows affected podczas aktualizacji non-existent book")
-    void shouldReturnZero_whenBookNotFoundForUpdate() {
-        int rowsAffected = bookJdbcDao.updateBookRating(UUID.randomUUID(), 5.0);
-
-        assertThat(rowsAffected).isZero();
+    @DisplayName("Klucz zapisywany i usuwany jako binarny UUID")
+    void shouldInsertAndDeleteWithBinaryKey() {
+        Book book = new Book();
+        book.setId(UUID.randomUUID());
+        book.setTitle("Solaris");
+        book.setIsbn("978-83-08-04939-5");
+        book.setPublicationYear(1961);
+        book.setTotalReviews(0);
+
+        assertThat(bookJdbcDao.insertBook(book)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT id FROM books", Object.class)).isEqualTo(book.getId());
+
+        assertThat(bookJdbcDao.deleteBook(book.getId())).isEqualTo(1);
+        assertThat(bookJdbcDao.findBooksByPublicationYear(1961)).isEmpty();
     }
 
     // m. pomocnicza
@@ -170,6 +164,6 @@ class BookJdbcDaoTest {
         jdbcTemplate.update("""
             INSERT INTO books (id, title, isbn, description, publication_year, average_rating, total_reviews)
             VALUES (?, ?, ?, ?, ?, ?, ?)
-        """, id.toString(), title, isbn, desc, year, rating, reviews);
+        """, id, title, isbn, desc, year, rating, reviews);
     }
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package org.example.bookaroo.repository;
+
+import org.example.bookaroo.entity.Author;
+import org.example.bookaroo.entity.Book;
+import org.example.bookaroo.entity.Genre;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(CatalogBulkDao.class)
+class CatalogBulkDaoTest {
+
+    @Autowired
+    private CatalogBulkDao catalogBulkDao;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("should load dictionaries keyed case-insensitively")
+    void shouldLoadDictionaries() {
+        Author author = new Author();
+        author.setName("Andrzej ");
+        author.setSurname("Sapkowski");
+        entityManager.persist(author);
+
+        Genre genre = new Genre();
+        genre.setName("Fantasy");
+        entityManager.persist(genre);
+
+        Book book = new Book();
+        book.setTitle("Wiedźmin");
+        book.setIsbn("123");
+        book.setAuthor(author);
+        entityManager.persist(book);
+        entityManager.flush();
+
+        assertThat(catalogBulkDao.loadAuthorIds())
+                .containsEntry(CatalogBulkDao.authorKey("andrzej", "SAPKOWSKI"), author.getId());
+        assertThat(catalogBulkDao.loadGenreIds()).containsEntry("fantasy", genre.getId());
+        assertThat(catalogBulkDao.loadIsbns()).containsExactly("123");
+    }
+
+    @Test
+    @DisplayName("should batch insert authors, genres, books with links and change log")
+    void shouldBatchInsert() {
+        UUID authorId = UUID.randomUUID();
+        UUID genreId = UUID.randomUUID();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        catalogBulkDao.insertAuthors(List.of(new CatalogBulkDao.NewAuthor(authorId, "Olga", "Tokarczuk")));
+        catalogBulkDao.insertGenres(List.of(new CatalogBulkDao.NewGenre(genreId, "Powieść")));
+        catalogBulkDao.insertBooks(List.of(
+                new CatalogBulkDao.NewBook(first, "Bieguni", "A1", "opis", 2007, authorId),
+                new CatalogBulkDao.NewBook(second, "Księgi Jakubowe", "A2", null, null, authorId)
+        ));
+        catalogBulkDao.insertBookGenres(List.of(
+                new CatalogBulkDao.BookGenreLink(first, genreId),
+                new CatalogBulkDao.BookGenreLink(second, genreId)
+        ));
+        catalogBulkDao.insertBookChanges(List.of(first, second));
+        entityManager.clear();
+
+        Book bieguni = entityManager.find(Book.class, first);
+        assertThat(bieguni.getTitle()).isEqualTo("Bieguni");
+        assertThat(bieguni.getPublicationYear()).isEqualTo(2007);
+        assertThat(bieguni.getTotalReviews()).isZero();
+        assertThat(bieguni.getAuthor().getSurname()).isEqualTo("Tokarczuk");
+        assertThat(bieguni.getGenres()).extracting(Genre::getName).containsExactly("Powieść");
+        assertThat(entityManager.find(Book.class, second).getPublicationYear()).isNull();
+        assertThat(entityManager.getEntityManager()
+                .createQuery("SELECT COUNT(c) FROM ChangeLogEntry c", Long.class).getSingleResult()).isEqualTo(2L);
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.bookaroo.repository;
+
+import org.example.bookaroo.dto.BookDTO;
+import org.example.bookaroo.entity.Author;
+import org.example.bookaroo.entity.Book;
+import org.example.bookaroo.entity.Genre;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(CatalogExportDao.class)
+class CatalogExportDaoTest {
+
+    @Autowired
+    private CatalogExportDao catalogExportDao;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        Author tolkien = new Author();
+        tolkien.setName("J.R.R.");
+        tolkien.setSurname("Tolkien");
+        entityManager.persist(tolkien);
+
+        Genre fantasy = new Genre();
+        fantasy.setName("Fantasy");
+        entityManager.persist(fantasy);
+
+        Genre adventure = new Genre();
+        adventure.setName("Adventure");
+        entityManager.persist(adventure);
+
+        Book hobbit = book("Hobbit", "111", tolkien);
+        hobbit.getGenres().add(fantasy);
+        hobbit.getGenres().add(adventure);
+        entityManager.persist(hobbit);
+
+        Book silmarillion = book("Silmarillion", "222", tolkien);
+        silmarillion.getGenres().add(fantasy);
+        entityManager.persist(silmarillion);
+
+        entityManager.persist(book("Listy", "333", tolkien));
+        entityManager.flush();
+    }
+
+    private Book book(String title, String isbn, Author author) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setIsbn(isbn);
+        book.setPublicationYear(1937);
+        book.setAuthor(author);
+        return book;
+    }
+
+    private Map<String, BookDTO> exportByTitle() {
+        List<BookDTO> exported = new ArrayList<>();
+        catalogExportDao.streamCatalog(exported::add);
+        return exported.stream().collect(Collectors.toMap(BookDTO::title, Function.identity()));
+    }
+
+    @Test
+    @DisplayName("Każda książka eksportowana dokładnie raz, mimo wielu wierszy na gatunki")
+    void shouldEmitEachBookOnce() {
+        List<BookDTO> exported = new ArrayList<>();
+
+        long count = catalogExportDao.streamCatalog(exported::add);
+
+        assertThat(count).isEqualTo(3);
+        assertThat(exported).extracting(BookDTO::title)
+                .containsExactlyInAnyOrder("Hobbit", "Silmarillion", "Listy");
+    }
+
+    @Test
+    @DisplayName("Gatunki zebrane z kolejnych wierszy, posortowane po nazwie")
+    void shouldGroupGenresOfBook() {
+        Map<String, BookDTO> books = exportByTitle();
+
+        assertThat(books.get("Hobbit").genres()).containsExactly("Adventure", "Fantasy");
+        assertThat(books.get("Silmarillion").genres()).containsExactly("Fantasy");
+        assertThat(books.get("Listy").genres()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Autor dołączony do eksportu")
+    void shouldIncludeAuthor() {
+        BookDTO hobbit = exportByTitle().get("Hobbit");
+
+        assertThat(hobbit.authorName()).isEqualTo("J.R.R. Tolkien");
+        assertThat(hobbit.authorId()).isNotNull();
+        assertThat(hobbit.averageRating()).isNull();
+    }
+
+    @Test
+    @DisplayName("Strony po kluczu - każda książka raz, rosnąco po id, także gdy ostatnia strona jest pełna")
+    void shouldPageThroughCatalogByKey() {
+        for (int pageSize : new int[]{1, 2, 3}) {
+            List<BookDTO> exported = new ArrayList<>();
+
+            long count = new CatalogExportDao(jdbcTemplate, pageSize).streamCatalog(exported::add);
+
+            assertThat(count).isEqualTo(3);
+            assertThat(exported).extracting(BookDTO::id).doesNotHaveDuplicates()
+                    .isSortedAccordingTo(Comparator.naturalOrder());
+        }
+    }
+
+    @Test
+    @DisplayName("Pusty katalog - consumer nie jest wywoływany")
+    void shouldHandleEmptyCatalog() {
+        entityManager.getEntityManager().createNativeQuery("DELETE FROM book_genres").executeUpdate();
+        entityManager.getEntityManager().createNativeQuery("DELETE FROM books").executeUpdate();
+
+        List<BookDTO> exported = new ArrayList<>();
+
+        assertThat(catalogExportDao.streamCatalog(exported::add)).isZero();
+        assertThat(exported).isEmpty();
+    }
+}
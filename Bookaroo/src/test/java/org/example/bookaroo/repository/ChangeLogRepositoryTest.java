@@ -0,0 +1,86 @@
+package org.example.bookaroo.repository;
+
+import org.example.bookaroo.entity.ChangeLogEntry;
+import org.example.bookaroo.entity.ChangeLogEntry.EntityType;
+import org.example.bookaroo.entity.ChangeLogEntry.Operation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class ChangeLogRepositoryTest {
+
+    @Autowired
+    private ChangeLogRepository changeLogRepository;
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+
+    private ChangeLogEntry bookChange;
+    private ChangeLogEntry aliceShelfChange;
+    private ChangeLogEntry bobShelfChange;
+
+    private ChangeLogEntry pendingChange;
+
+    @BeforeEach
+    void setUp() {
+        bookChange = published(new ChangeLogEntry(EntityType.BOOK, UUID.randomUUID(), null, Operation.UPSERT, null), 1);
+        aliceShelfChange = published(new ChangeLogEntry(EntityType.SHELF_ITEM, UUID.randomUUID(), UUID.randomUUID(), Operation.UPSERT, alice), 2);
+        bobShelfChange = published(new ChangeLogEntry(EntityType.SHELF_ITEM, UUID.randomUUID(), null, Operation.DELETE, bob), 3);
+        // zapisany, ale jeszcze bez numeru (transakcja przed publish)
+        pendingChange = changeLogRepository.save(new ChangeLogEntry(EntityType.BOOK, UUID.randomUUID(), null, Operation.UPSERT, null));
+    }
+
+    private ChangeLogEntry published(ChangeLogEntry entry, long sequence) {
+        entry.setSequence(sequence);
+        return changeLogRepository.save(entry);
+    }
+
+    @Test
+    @DisplayName("Wpisy bez numeru - w kolejności zapisu")
+    void shouldFindUnpublishedEntries() {
+        assertThat(bookChange.getId()).isLessThan(pendingChange.getId());
+        assertThat(changeLogRepository.findBySequenceIsNullOrderByIdAsc())
+                .extracting(ChangeLogEntry::getId).containsExactly(pendingChange.getId());
+    }
+
+    @Test
+    @DisplayName("Bez użytkownika - tylko zmiany katalogu")
+    void shouldReturnOnlyCatalogChanges() {
+        List<ChangeLogEntry> changes = changeLogRepository
+                .findBySequenceGreaterThanAndUserIdIsNullOrderBySequenceAsc(0, PageRequest.of(0, 10));
+
+        assertThat(changes).extracting(ChangeLogEntry::getSequence).containsExactly(bookChange.getSequence());
+    }
+
+    @Test
+    @DisplayName("Z użytkownikiem - katalog i własne zmiany, bez cudzych")
+    void shouldReturnCatalogAndOwnChanges() {
+        List<ChangeLogEntry> changes = changeLogRepository.findChangesForUser(0, alice, PageRequest.of(0, 10));
+
+        assertThat(changes).extracting(ChangeLogEntry::getSequence)
+                .containsExactly(bookChange.getSequence(), aliceShelfChange.getSequence());
+    }
+
+    @Test
+    @DisplayName("since pomija zmiany już pobrane")
+    void shouldSkipChangesUpToSince() {
+        List<ChangeLogEntry> changes = changeLogRepository.findChangesForUser(bookChange.getSequence(), bob, PageRequest.of(0, 10));
+
+        assertThat(changes).extracting(ChangeLogEntry::getSequence).containsExactly(bobShelfChange.getSequence());
+    }
+
+    @Test
+    @DisplayName("Najnowszy numer sekwencji")
+    void shouldReturnLatestSequence() {
+        assertThat(changeLogRepository.findLatestSequence()).isEqualTo(bobShelfChange.getSequence());
+    }
+}
@@ -0,0 +1,345 @@
+package org.example.bookaroo.repository;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Role;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Regresja planów zapytań: każde zapytanie BookJdbcDao, StatisticsRepository i @Query wykonywane na
+// wygenerowanym katalogu, przechwycone (SQL + parametry) i sprawdzone przez EXPLAIN.
+// Test pada, gdy w planie pojawia się pełny skan tabeli spoza listy dozwolonych dla danego zapytania.
+@DataJpaTest
+@Import({BookJdbcDao.class, StatisticsRepository.class, QueryPlanRegressionTest.CaptureConfig.class})
+class QueryPlanRegressionTest {
+
+    private static final int AUTHORS = 500;
+    private static final int BOOKS = 5_000;
+    private static final int USERS = 200;
+    private static final int ENTRIES_PER_USER = 40;
+    private static final int REVIEWS_PER_USER = 40;
+
+    // H2: "/* PUBLIC.BOOKS.tableScan */"
+    private static final Pattern TABLE_SCAN = Pattern.compile("PUBLIC\\.(\\w+)\\.tableScan");
+    private static final String DIRECT_LOOKUP = "/* direct lookup */";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SqlCapture capture;
+
+    @Autowired
+    private BookJdbcDao bookJdbcDao;
+
+    @Autowired
+    private StatisticsRepository statisticsRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ChangeLogRepository changeLogRepository;
+
+    private final List<UUID> bookIds = new ArrayList<>();
+    private final List<UUID> userIds = new ArrayList<>();
+
+    @BeforeEach
+    void generateCatalog() {
+        List<UUID> authorIds = new ArrayList<>();
+        List<Object[]> authors = new ArrayList<>();
+        for (int i = 0; i < AUTHORS; i++) {
+            UUID id = UUID.randomUUID();
+            authorIds.add(id);
+            authors.add(new Object[]{id, "Imię" + i, "Nazwisko" + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO authors (id, name, surname) VALUES (?, ?, ?)", authors);
+
+        List<Object[]> books = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            UUID id = UUID.randomUUID();
+            bookIds.add(id);
+            books.add(new Object[]{id, "Tytuł " + i, "isbn-" + i, authorIds.get(i % AUTHORS), 1900 + i % 120, (i % 100) / 10.0});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO books (id, title, isbn, author_id, publication_year, average_rating) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", books);
+
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> shelves = new ArrayList<>();
+        List<Object[]> entries = new ArrayList<>();
+        List<Object[]> reviews = new ArrayList<>();
+        for (int u = 0; u < USERS; u++) {
+            UUID userId = UUID.randomUUID();
+            userIds.add(userId);
+            users.add(new Object[]{userId, "user" + u, "user" + u + "@test.com", u % 3 == 0 ? "/uploads/a" + u + ".png" : null});
+
+            UUID readShelf = UUID.randomUUID();
+            UUID wantShelf = UUID.randomUUID();
+            shelves.add(new Object[]{readShelf, "Przeczytane", "READ", userId});
+            shelves.add(new Object[]{wantShelf, "Chcę przeczytać", "WANT_TO_READ", userId});
+            for (int e = 0; e < ENTRIES_PER_USER; e++) {
+                UUID bookId = bookIds.get((u * ENTRIES_PER_USER + e) % BOOKS);
+                Timestamp addedAt = Timestamp.valueOf(LocalDateTime.of(2015 + e % 10, 1 + e % 12, 1, 12, 0));
+                entries.add(new Object[]{e % 2 == 0 ? readShelf : wantShelf, bookId, addedAt});
+            }
+            for (int r = 0; r < REVIEWS_PER_USER; r++) {
+                UUID bookId = bookIds.get((u * 7 + r * 31) % BOOKS);
+                reviews.add(new Object[]{UUID.randomUUID(), 1 + r % 10, bookId, userId});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, username, email, password, role, is_locked, avatar) "
+                + "VALUES (?, ?, ?, 'pass', 'USER', false, ?)", users);
+        jdbcTemplate.batchUpdate("INSERT INTO bookshelf (id, name, is_default, shelf_type, user_id) VALUES (?, ?, true, ?, ?)", shelves);
+        jdbcTemplate.batchUpdate("INSERT INTO bookshelf_books (bookshelf_id, book_id, added_at) VALUES (?, ?, ?)", entries);
+        jdbcTemplate.batchUpdate("INSERT INTO reviews (id, rating, content, created_at, book_id, user_id) "
+                + "VALUES (?, ?, 'Recenzja', CURRENT_TIMESTAMP, ?, ?)", reviews);
+
+        List<Object[]> changes = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            changes.add(new Object[]{bookIds.get(i), i % 2 == 0 ? null : userIds.get(i % USERS)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO change_log (entity_type, entity_id, operation, user_id, changed_at) "
+                + "VALUES ('BOOK', ?, 'UPSERT', ?, CURRENT_TIMESTAMP)", changes);
+    }
+
+    @Test
+    @DisplayName("BookJdbcDao - lookups go through indexes")
+    void bookJdbcDaoPlans() {
+        assertPlans(() -> bookJdbcDao.findTopRatedBooks(10));
+        assertPlans(() -> bookJdbcDao.findBooksByPublicationYear(1990));
+        assertPlans(() -> bookJdbcDao.deleteBook(UUID.randomUUID()));
+    }
+
+    @Test
+    @DisplayName("StatisticsRepository - lookups go through indexes")
+    void statisticsRepositoryPlans() {
+        UUID userId = userIds.get(7);
+        UUID bookId = bookIds.get(280);
+
+        assertPlans(() -> statisticsRepository.countBooksReadInYear(userId, 2016));
+        assertPlans(() -> statisticsRepository.adjustBooksReadInYear(userId, 2016, bookId, 1));
+        // drugie wywołanie czyta już licznik po kluczu
+        assertPlans(() -> statisticsRepository.countBooksReadInYear(userId, 2016));
+        assertPlans(() -> statisticsRepository.deleteReadingCounters(userId));
+        assertPlans(() -> statisticsRepository.getReadersCount(bookId));
+        assertPlans(() -> statisticsRepository.adjustReadersCount(bookId, 1));
+        assertPlans(() -> statisticsRepository.findBookIdsAfter(null, 100));
+        assertPlans(() -> statisticsRepository.findBookIdsAfter(bookId, 100));
+        assertPlans(() -> statisticsRepository.reconcileReadersCounts(bookIds.subList(0, 100)));
+        assertPlans(() -> statisticsRepository.getAverageRating(bookId));
+        assertPlans(() -> statisticsRepository.getRawRatingDistribution(bookId));
+        // przelicza średnie wszystkich książek - czyta cały indeks recenzji, nie tabelę
+        assertPlans(() -> statisticsRepository.getAllBookAverageRatings());
+    }
+
+    @Test
+    @DisplayName("@Query methods - only expected scans")
+    void queryMethodPlans() {
+        UUID userId = userIds.get(3);
+
+        // LIKE '%fraza%' nie ma indeksu - listy idą przez book_cards, to zapytanie zostaje dla zgodności
+        assertPlans(() -> bookRepository.searchBooks("tytuł 4999"), "BOOKS", "AUTHORS");
+        assertPlans(() -> bookRepository.searchBooks("tytuł 4999", PageRequest.of(0, 20)), "BOOKS", "AUTHORS");
+        // sprzątanie osieroconych plików - z założenia przegląda wszystkich użytkowników
+        assertPlans(() -> userRepository.findAllAvatars(), "USERS");
+        assertPlans(() -> changeLogRepository.findChangesForUser(BOOKS - 50L, userId, PageRequest.of(0, 100)));
+        assertPlans(() -> changeLogRepository.findLatestSequence());
+    }
+
+    // wykonuje wywołanie, a potem EXPLAIN każdego wysłanego zapytania z tymi samymi parametrami
+    private void assertPlans(Runnable call, String... allowedScans) {
+        capture.start();
+        try {
+            call.run();
+        } finally {
+            capture.stop();
+        }
+        List<CapturedStatement> statements = capture.drain();
+        assertThat(statements).as("zapytania wywołania").isNotEmpty();
+
+        for (CapturedStatement statement : statements) {
+            String plan = explain(statement);
+            if (plan.contains(DIRECT_LOOKUP)) {
+                // MIN/MAX po indeksie - H2 opisuje źródło jako tableScan, ale czyta jeden wiersz
+                continue;
+            }
+            Set<String> scanned = new TreeSet<>();
+            Matcher matcher = TABLE_SCAN.matcher(plan);
+            while (matcher.find()) {
+                scanned.add(matcher.group(1));
+            }
+            assertThat(scanned)
+                    .as("pełny skan w planie:%n%s", plan)
+                    .isSubsetOf(allowedScans);
+        }
+    }
+
+    private String explain(CapturedStatement statement) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement("EXPLAIN " + statement.sql())) {
+                for (Binding binding : statement.bindings()) {
+                    binding.setter().invoke(ps, binding.args());
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    StringBuilder plan = new StringBuilder();
+                    while (rs.next()) {
+                        plan.append(rs.getString(1)).append('\n');
+                    }
+                    return plan.toString();
+                }
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    record Binding(Method setter, Object[] args) {
+    }
+
+    record CapturedStatement(String sql, List<Binding> bindings) {
+    }
+
+    // Owija połączenia DataSource - zapisuje SQL i wywołania setXxx(index, value) na PreparedStatement.
+    // Obejmuje JdbcTemplate i Hibernate (@Query), bo oba biorą połączenia z tego samego beana.
+    static class SqlCapture {
+
+        private final List<CapturedStatement> statements = new ArrayList<>();
+        private volatile boolean active;
+
+        void start() {
+            statements.clear();
+            active = true;
+        }
+
+        void stop() {
+            active = false;
+        }
+
+        synchronized List<CapturedStatement> drain() {
+            List<CapturedStatement> copy = new ArrayList<>(statements);
+            statements.clear();
+            return copy;
+        }
+
+        private synchronized void add(CapturedStatement statement) {
+            statements.add(statement);
+        }
+
+        Connection wrap(Connection connection) {
+            return proxy(Connection.class, connection, (method, args) -> {
+                Object result = call(connection, method, args);
+                if (!active) {
+                    return result;
+                }
+                if (method.getName().equals("prepareStatement")) {
+                    CapturedStatement statement = new CapturedStatement((String) args[0], new ArrayList<>());
+                    add(statement);
+                    return wrapPrepared((PreparedStatement) result, statement);
+                }
+                if (method.getName().equals("createStatement")) {
+                    return wrapPlain((Statement) result);
+                }
+                return result;
+            });
+        }
+
+        private PreparedStatement wrapPrepared(PreparedStatement target, CapturedStatement statement) {
+            return proxy(PreparedStatement.class, target, (method, args) -> {
+                if (method.getName().startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    statement.bindings().add(new Binding(method, args.clone()));
+                }
+                return call(target, method, args);
+            });
+        }
+
+        // zwykłe Statement (zapytania bez parametrów) - SQL przychodzi dopiero w execute*
+        private Statement wrapPlain(Statement target) {
+            return proxy(Statement.class, target, (method, args) -> {
+                if (active && method.getName().startsWith("execute") && args != null && args[0] instanceof String sql) {
+                    add(new CapturedStatement(sql, List.of()));
+                }
+                return call(target, method, args);
+            });
+        }
+
+        private interface Handler {
+            Object handle(Method method, Object[] args) throws Throwable;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target, Handler handler) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                    (proxy, method, args) -> handler.handle(method, args));
+        }
+
+        private static Object call(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class CaptureConfig {
+
+        @Bean
+        @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+        static SqlCapture sqlCapture() {
+            return new SqlCapture();
+        }
+
+        @Bean
+        static BeanPostProcessor capturingDataSource(SqlCapture sqlCapture) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource)) {
+                        return bean;
+                    }
+                    ProxyFactory factory = new ProxyFactory(bean);
+                    factory.addAdvice((MethodInterceptor) invocation -> {
+                        Object result = invocation.proceed();
+                        return result instanceof Connection connection ? sqlCapture.wrap(connection) : result;
+                    });
+                    return factory.getProxy();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.bookaroo.repository;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.example.bookaroo.dto.BookDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReactiveBookRepositoryTest {
+
+    private static final UUID AUTHOR_ID = UUID.randomUUID();
+    private static final UUID HOBBIT_ID = UUID.randomUUID();
+    private static final UUID ORWELL_ID = UUID.randomUUID();
+    private static final UUID NO_AUTHOR_ID = UUID.randomUUID();
+
+    private DatabaseClient client;
+    private ReactiveBookRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        ConnectionFactory connectionFactory = ConnectionFactories.get("r2dbc:h2:mem:///reactive_repo_test?options=DB_CLOSE_DELAY=-1");
+        client = DatabaseClient.create(connectionFactory);
+        repository = new ReactiveBookRepository(client);
+
+        Flux.just(
+                "DROP TABLE IF EXISTS book_genres",
+                "DROP TABLE IF EXISTS genres",
+                "DROP TABLE IF EXISTS books",
+                "DROP TABLE IF EXISTS authors",
+                "CREATE TABLE authors (id UUID PRIMARY KEY, name VARCHAR(255), surname VARCHAR(255))",
+                """
+                CREATE TABLE books (id UUID PRIMARY KEY, title VARCHAR(255), isbn VARCHAR(255), description VARCHAR(255),
+                                    publication_year INT, average_rating DOUBLE, author_id UUID,
+                                    readers_count INT DEFAULT 0 NOT NULL)
+                """,
+                "CREATE TABLE genres (id UUID PRIMARY KEY, name VARCHAR(255))",
+                "CREATE TABLE book_genres (book_id UUID, genre_id UUID)"
+        ).concatMap(sql -> client.sql(sql).then()).blockLast();
+
+        UUID fantasy = UUID.randomUUID();
+        UUID adventure = UUID.randomUUID();
+        UUID dystopia = UUID.randomUUID();
+
+        execute("INSERT INTO authors VALUES ('" + AUTHOR_ID + "', 'J.R.R.', 'Tolkien')");
+        execute("INSERT INTO books VALUES ('" + HOBBIT_ID + "', 'Hobbit', '111', 'Opis', 1937, 4.8, '" + AUTHOR_ID + "', 3)");
+        execute("INSERT INTO books VALUES ('" + ORWELL_ID + "', 'Rok 1984', '222', 'Opis', 1949, 4.2, '" + AUTHOR_ID + "', 0)");
+        execute("INSERT INTO books VALUES ('" + NO_AUTHOR_ID + "', 'Anonim', '333', 'Opis', 1937, NULL, NULL, 0)");
+        execute("INSERT INTO genres VALUES ('" + fantasy + "', 'Fantasy'), ('" + adventure + "', 'Adventure'), ('" + dystopia + "', 'Dystopia')");
+        execute("INSERT INTO book_genres VALUES ('" + HOBBIT_ID + "', '" + fantasy + "'), ('" + HOBBIT_ID + "', '" + adventure + "'), ('" + ORWELL_ID + "', '" + dystopia + "')");
+    }
+
+    private void execute(String sql) {
+        client.sql(sql).then().block();
+    }
+
+    @Test
+    @DisplayName("findAll - strumień wszystkich książek posortowany po tytule")
+    void shouldStreamAllBooksOrderedByTitle() {
+        StepVerifier.create(repository.findAll().map(BookDTO::title))
+                .expectNext("Anonim", "Hobbit", "Rok 1984")
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("findById - mapuje autora i gatunki z jednego zapytania")
+    void shouldMapAuthorAndGenres() {
+        StepVerifier.create(repository.findById(HOBBIT_ID))
+                .assertNext(dto -> {
+                    assertThat(dto.id()).isEqualTo(HOBBIT_ID);
+                    assertThat(dto.authorId()).isEqualTo(AUTHOR_ID);
+                    assertThat(dto.authorName()).isEqualTo("J.R.R. Tolkien");
+                    assertThat(dto.publicationYear()).isEqualTo(1937);
+                    assertThat(dto.averageRating()).isEqualTo(4.8);
+                    assertThat(dto.genres()).isEqualTo(List.of("Adventure", "Fantasy"));
+                    assertThat(dto.readersCount()).isEqualTo(3);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("findById - książka bez autora i gatunków")
+    void shouldHandleBookWithoutAuthorAndGenres() {
+        StepVerifier.create(repository.findById(NO_AUTHOR_ID))
+                .assertNext(dto -> {
+                    assertThat(dto.authorName()).isNull();
+                    assertThat(dto.genres()).isEmpty();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("findById - pusty Mono dla nieistniejącego ID")
+    void shouldReturnEmptyForUnknownId() {
+        StepVerifier.create(repository.findById(UUID.randomUUID()))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("search - ignoruje wielkość liter i szuka też po autorze")
+    void shouldSearchByTitleAndAuthor() {
+        StepVerifier.create(repository.search("HOBB").map(BookDTO::title))
+                .expectNext("Hobbit")
+                .verifyComplete();
+
+        StepVerifier.create(repository.search("tolkien").map(BookDTO::title))
+                .expectNext("Hobbit", "Rok 1984")
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("findTopRated - pomija książki bez oceny i respektuje limit")
+    void shouldReturnTopRatedWithLimit() {
+        StepVerifier.create(repository.findTopRated(1).map(BookDTO::title))
+                .expectNext("Hobbit")
+                .verifyComplete();
+
+        StepVerifier.create(repository.findTopRated(10))
+                .expectNextCount(2)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("findByPublicationYear - filtruje po roku")
+    void shouldFilterByYear() {
+        StepVerifier.create(repository.findByPublicationYear(1937).map(BookDTO::title))
+                .expectNext("Anonim", "Hobbit")
+                .verifyComplete();
+    }
+}
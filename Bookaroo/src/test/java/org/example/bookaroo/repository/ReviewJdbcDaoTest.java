@@ -0,0 +1,177 @@
+package org.example.bookaroo.repository;
+
+import org.example.bookaroo.entity.Author;
+import org.example.bookaroo.entity.Book;
+import org.example.bookaroo.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@Import(ReviewJdbcDao.class)
+class ReviewJdbcDaoTest {
+
+    @Autowired
+    private ReviewJdbcDao reviewJdbcDao;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID anna;
+    private UUID piotr;
+    private UUID bookId;
+
+    @BeforeEach
+    void setUp() {
+        anna = user("anna").getId();
+        piotr = user("piotr").getId();
+
+        Author author = new Author();
+        author.setName("Olga");
+        author.setSurname("Tokarczuk");
+        entityManager.persist(author);
+
+        Book book = new Book();
+        book.setTitle("Bieguni");
+        book.setIsbn("978-83-08-04210-5");
+        book.setAuthor(author);
+        entityManager.persist(book);
+        bookId = book.getId();
+
+        entityManager.flush();
+    }
+
+    private User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@test.com");
+        user.setPassword("pass");
+        user.setRole("USER");
+        return entityManager.persist(user);
+    }
+
+    private Map<String, Object> aggregates() {
+        return jdbcTemplate.queryForMap("SELECT average_rating, total_reviews FROM books WHERE id = ?", bookId);
+    }
+
+    private int reviewCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reviews WHERE book_id = ?", Integer.class, bookId);
+    }
+
+    @Test
+    @DisplayName("should retry a losing concurrent first review as an edit of the committed one")
+    void shouldRetryAsUpdate_whenConcurrentFirstReviewWins() {
+        // Given - druga transakcja wstawia recenzję między blokadą a MERGE tej transakcji
+        JdbcTemplate racing = spy(jdbcTemplate);
+        doAnswer(invocation -> {
+            reviewJdbcDao.upsert(anna, bookId, 6, "Pierwsza");
+            throw new DuplicateKeyException("uk_reviews_user_book");
+        }).doCallRealMethod().when(racing).update(startsWith("MERGE INTO reviews"), any(Object[].class));
+
+        // When
+        ReviewJdbcDao.Upserted upserted = new ReviewJdbcDao(racing).upsert(anna, bookId, 9, "Druga");
+
+        // Then
+        assertThat(upserted.created()).isFalse();
+        assertThat(reviewCount()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT content FROM reviews WHERE id = ?", String.class, upserted.reviewId()))
+                .isEqualTo("Druga");
+        assertThat(aggregates()).containsEntry("AVERAGE_RATING", 9.0).containsEntry("TOTAL_REVIEWS", 1);
+    }
+
+    @Test
+    @DisplayName("should insert a new review and add it to the book average")
+    void shouldInsertNewReview() {
+        ReviewJdbcDao.Upserted first = reviewJdbcDao.upsert(anna, bookId, 8, "Świetna");
+        ReviewJdbcDao.Upserted second = reviewJdbcDao.upsert(piotr, bookId, 5, "Średnia");
+
+        assertThat(first.created()).isTrue();
+        assertThat(second.created()).isTrue();
+        assertThat(first.reviewId().version()).isEqualTo(7);
+        assertThat(reviewCount()).isEqualTo(2);
+        assertThat(aggregates()).containsEntry("AVERAGE_RATING", 6.5).containsEntry("TOTAL_REVIEWS", 2);
+    }
+
+    @Test
+    @DisplayName("should update a repeated review in place and apply only the rating difference")
+    void shouldUpdateExistingReviewInPlace() {
+        ReviewJdbcDao.Upserted first = reviewJdbcDao.upsert(anna, bookId, 8, "Świetna");
+        reviewJdbcDao.upsert(piotr, bookId, 6, "Dobra");
+
+        ReviewJdbcDao.Upserted again = reviewJdbcDao.upsert(anna, bookId, 10, "Po drugim czytaniu - arcydzieło");
+
+        assertThat(again.created()).isFalse();
+        assertThat(again.reviewId()).isEqualTo(first.reviewId());
+        assertThat(reviewCount()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForMap("SELECT rating, content FROM reviews WHERE id = ?", first.reviewId()))
+                .containsEntry("RATING", 10).containsEntry("CONTENT", "Po drugim czytaniu - arcydzieło");
+        assertThat(aggregates()).containsEntry("AVERAGE_RATING", 8.0).containsEntry("TOTAL_REVIEWS", 2);
+    }
+
+    @Test
+    @DisplayName("should keep an existing review when importing one for the same book")
+    void shouldInsertOnlyWhenAbsent() {
+        reviewJdbcDao.upsert(anna, bookId, 8, "Świetna");
+
+        assertThat(reviewJdbcDao.insertIfAbsent(anna, bookId, 2, "Stara kopia")).isEmpty();
+        assertThat(reviewJdbcDao.insertIfAbsent(piotr, bookId, 4, "Z kopii")).isPresent();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT rating FROM reviews WHERE user_id = ?", Integer.class, anna))
+                .isEqualTo(8);
+        assertThat(aggregates()).containsEntry("AVERAGE_RATING", 6.0).containsEntry("TOTAL_REVIEWS", 2);
+    }
+
+    @Test
+    @DisplayName("should remove the review from the book average and reset it after the last one")
+    void shouldDeleteReview() {
+        ReviewJdbcDao.Upserted first = reviewJdbcDao.upsert(anna, bookId, 8, "Świetna");
+        ReviewJdbcDao.Upserted second = reviewJdbcDao.upsert(piotr, bookId, 4, "Słaba");
+
+        assertThat(reviewJdbcDao.delete(first.reviewId())).contains(bookId);
+        assertThat(aggregates()).containsEntry("AVERAGE_RATING", 4.0).containsEntry("TOTAL_REVIEWS", 1);
+
+        assertThat(reviewJdbcDao.delete(second.reviewId())).contains(bookId);
+        assertThat(aggregates()).containsEntry("AVERAGE_RATING", 0.0).containsEntry("TOTAL_REVIEWS", 0);
+
+        assertThat(reviewJdbcDao.delete(second.reviewId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should find the ids of all reviews written by a user")
+    void shouldFindIdsByUser() {
+        UUID annaReview = reviewJdbcDao.upsert(anna, bookId, 8, "Świetna").reviewId();
+        reviewJdbcDao.upsert(piotr, bookId, 5, "Średnia");
+
+        assertThat(reviewJdbcDao.findIdsByUser(anna)).containsExactly(annaReview);
+    }
+
+    @Test
+    @DisplayName("should reject a second row for the same user and book")
+    void shouldEnforceOneReviewPerUserAndBook() {
+        reviewJdbcDao.upsert(anna, bookId, 8, "Świetna");
+
+        assertThatThrownBy(() -> jdbcTemplate.update(
+                "INSERT INTO reviews (id, user_id, book_id, rating, content) VALUES (?, ?, ?, 3, 'Duplikat')",
+                UUID.randomUUID(), anna, bookId))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+}
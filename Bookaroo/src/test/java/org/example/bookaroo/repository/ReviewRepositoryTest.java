@@ -54,6 +54,15 @@ class ReviewRepositoryTest {
         entityManager.flush();
     }
 
+    private User otherReviewer() {
+        User user = new User();
+        user.setUsername("otherReviewer");
+        user.setEmail("other@email.com");
+        user.setPassword("pass");
+        user.setRole("USER");
+        return entityManager.persist(user);
+    }
+
     // TESTY CRUD
 
     @Test
@@ -93,9 +102,9 @@ class ReviewRepositoryTest {
     @Test
     @DisplayName("should return all reviews")
     void shouldReturnAllReviews() {
-        // Given
+        // Given - jedna recenzja użytkownika na książkę, więc druga od innego czytelnika
         Review r1 = new Review(5, "A", testUser, testBook);
-        Review r2 = new Review(4, "B", testUser, testBook);
+        Review r2 = new Review(4, "B", otherReviewer(), testBook);
         entityManager.persist(r1);
         entityManager.persist(r2);
         entityManager.flush();
@@ -213,7 +222,7 @@ class ReviewRepositoryTest {
         Review oldReview = new Review(1, "Old", testUser, testBook);
         entityManager.persist(oldReview);
 
-        Review newReview = new Review(5, "New", testUser, testBook);
+        Review newReview = new Review(5, "New", otherReviewer(), testBook);
         entityManager.persist(newReview);
 
         entityManager.flush();
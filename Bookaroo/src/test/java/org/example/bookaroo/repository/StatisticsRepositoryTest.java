@@ -9,6 +9,8 @@ import org.springframework.context.annotation.Import;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -40,7 +42,7 @@ class StatisticsRepositoryTest {
         int year = LocalDate.now().getYear();
 
         // When
-        Integer count = statisticsRepository.countBooksOnShelfInYear(userId, "Przeczytane", year);
+        int count = statisticsRepository.countBooksReadInYear(userId, year);
 
         // Then
         assertThat(count).isEqualTo(0);
@@ -54,13 +56,13 @@ class StatisticsRepositoryTest {
         int currentYear = LocalDate.now().getYear();
 
         insertUser(userId);
-        insertShelf(shelfId, userId, "Przeczytane");
+        insertShelf(shelfId, userId, "Przeczytane", "READ");
 
         insertBookshelfBook(shelfId, UUID.randomUUID(), LocalDate.now());
         insertBookshelfBook(shelfId, UUID.randomUUID(), LocalDate.now().withDayOfYear(1));
 
         // When
-        Integer count = statisticsRepository.countBooksOnShelfInYear(userId, "Przeczytane", currentYear);
+        int count = statisticsRepository.countBooksReadInYear(userId, currentYear);
 
         // Then
         assertThat(count).isEqualTo(2);
@@ -74,13 +76,13 @@ class StatisticsRepositoryTest {
         int currentYear = LocalDate.now().getYear();
 
         insertUser(userId);
-        insertShelf(shelfId, userId, "Przeczytane");
+        insertShelf(shelfId, userId, "Przeczytane", "READ");
 
         // książka z zeszłym rokiem
         insertBookshelfBook(shelfId, UUID.randomUUID(), LocalDate.now().minusYears(1));
 
         // When
-        Integer count = statisticsRepository.countBooksOnShelfInYear(userId, "Przeczytane", currentYear);
+        int count = statisticsRepository.countBooksReadInYear(userId, currentYear);
 
         // Then
         assertThat(count).isEqualTo(0);
@@ -94,16 +96,98 @@ class StatisticsRepositoryTest {
         int currentYear = LocalDate.now().getYear();
 
         insertUser(userId);
-        insertShelf(shelfId, userId, "Chcę przeczytać");
+        insertShelf(shelfId, userId, "Chcę przeczytać", "WANT_TO_READ");
         insertBookshelfBook(shelfId, UUID.randomUUID(), LocalDate.now());
 
         // When
-        Integer count = statisticsRepository.countBooksOnShelfInYear(userId, "Przeczytane", currentYear);
+        int count = statisticsRepository.countBooksReadInYear(userId, currentYear);
 
         // Then
         assertThat(count).isEqualTo(0);
     }
 
+    @Test
+    @DisplayName("should find read shelf by type, not by name")
+    void shouldFindReadShelf_byType() {
+        // Given
+        UUID renamedShelf = UUID.randomUUID();
+        UUID customShelf = UUID.randomUUID();
+        int currentYear = LocalDate.now().getYear();
+
+        insertUser(userId);
+        insertShelf(renamedShelf, userId, "Read", "READ");
+        insertShelf(customShelf, userId, "przeczytane", "CUSTOM");
+        insertBookshelfBook(renamedShelf, UUID.randomUUID(), LocalDate.now());
+        insertBookshelfBook(customShelf, UUID.randomUUID(), LocalDate.now());
+
+        // When
+        int count = statisticsRepository.countBooksReadInYear(userId, currentYear);
+
+        // Then
+        assertThat(count).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should seed missing counter from other entries and read it by key afterwards")
+    void shouldSeedAndAdjustReadingCounter() {
+        // Given
+        UUID shelfId = UUID.randomUUID();
+        UUID newBook = UUID.randomUUID();
+        int currentYear = LocalDate.now().getYear();
+
+        insertUser(userId);
+        insertShelf(shelfId, userId, "Przeczytane", "READ");
+        insertBookshelfBook(shelfId, UUID.randomUUID(), LocalDate.now());
+        insertBookshelfBook(shelfId, newBook, LocalDate.now());
+
+        // When
+        statisticsRepository.adjustBooksReadInYear(userId, currentYear, newBook, 1);
+        // wpis z pominięciem licznika - odczyt idzie już po kluczu
+        insertBookshelfBook(shelfId, UUID.randomUUID(), LocalDate.now());
+        int afterAdd = statisticsRepository.countBooksReadInYear(userId, currentYear);
+        statisticsRepository.adjustBooksReadInYear(userId, currentYear, newBook, -1);
+
+        // Then
+        assertThat(afterAdd).isEqualTo(2);
+        assertThat(statisticsRepository.countBooksReadInYear(userId, currentYear)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should fall back to date range for years without counter")
+    void shouldFallBackToRange_forHistoricalYears() {
+        // Given
+        UUID shelfId = UUID.randomUUID();
+        UUID book = UUID.randomUUID();
+        int currentYear = LocalDate.now().getYear();
+
+        insertUser(userId);
+        insertShelf(shelfId, userId, "Przeczytane", "READ");
+        insertBookshelfBook(shelfId, UUID.randomUUID(), LocalDate.of(currentYear - 1, 12, 31));
+        insertBookshelfBook(shelfId, book, LocalDate.now());
+        statisticsRepository.adjustBooksReadInYear(userId, currentYear, book, 1);
+
+        // When
+        int lastYear = statisticsRepository.countBooksReadInYear(userId, currentYear - 1);
+
+        // Then
+        assertThat(lastYear).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should delete reading counters of user")
+    void shouldDeleteReadingCounters() {
+        // Given
+        insertUser(userId);
+        statisticsRepository.adjustBooksReadInYear(userId, 2020, UUID.randomUUID(), 1);
+
+        // When
+        statisticsRepository.deleteReadingCounters(userId);
+
+        // Then
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reading_counters WHERE user_id = ?", Integer.class, userId))
+                .isZero();
+    }
+
     // BOOK STATS
 
     @Test
@@ -140,8 +224,111 @@ class StatisticsRepositoryTest {
         assertThat(result).containsEntry(book2, 3.0);
     }
 
+    @Test
+    @DisplayName("should average all ratings regardless of book")
+    void shouldReturnGlobalAverage() {
+        assertThat(statisticsRepository.getGlobalAverageRating()).isNull();
+
+        insertReview(UUID.randomUUID(), 3);
+        insertReview(UUID.randomUUID(), 4);
+        insertReview(UUID.randomUUID(), 8);
+
+        assertThat(statisticsRepository.getGlobalAverageRating()).isEqualTo(5.0);
+    }
+
+    // REKOMENDACJE
+
+    @Test
+    @DisplayName("should stream distinct user-book pairs from shelves and reviews grouped by user")
+    void shouldStreamUserBookPairs() {
+        // Given
+        UUID otherUser = UUID.randomUUID();
+        UUID shelfId = UUID.randomUUID();
+        UUID hobbit = UUID.randomUUID();
+        UUID dune = UUID.randomUUID();
+        insertShelf(shelfId, userId, "Przeczytane", "READ");
+        insertBookshelfBook(shelfId, hobbit, LocalDate.now());
+        // ta sama para z półki i z recenzji liczona raz
+        insertReview(userId, hobbit, 9);
+        insertReview(userId, dune, 7);
+        insertReview(otherUser, dune, 5);
+
+        // When
+        List<Map.Entry<UUID, UUID>> pairs = new ArrayList<>();
+        statisticsRepository.forEachUserBook((user, book) -> pairs.add(Map.entry(user, book)));
+
+        // Then
+        assertThat(pairs).containsExactlyInAnyOrder(
+                Map.entry(userId, hobbit), Map.entry(userId, dune), Map.entry(otherUser, dune));
+        List<UUID> users = pairs.stream().map(Map.Entry::getKey).toList();
+        // pogrupowane - pary użytkownika nie przeplatają się z parami innego
+        assertThat(users.indexOf(otherUser)).isIn(0, 2);
+    }
+
+    // READERS COUNT
+
+    @Test
+    @DisplayName("should read and atomically adjust readers counter")
+    void shouldAdjustReadersCount() {
+        // Given
+        UUID bookId = insertBook("111");
+
+        // When
+        statisticsRepository.adjustReadersCount(bookId, 1);
+        statisticsRepository.adjustReadersCount(bookId, 1);
+        statisticsRepository.adjustReadersCount(bookId, -1);
+
+        // Then
+        assertThat(statisticsRepository.getReadersCount(bookId)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("should walk book ids in keyset chunks")
+    void shouldWalkBookIdsInChunks() {
+        // Given
+        insertBook("111");
+        insertBook("222");
+        insertBook("333");
+
+        // When
+        List<UUID> first = statisticsRepository.findBookIdsAfter(null, 2);
+        List<UUID> second = statisticsRepository.findBookIdsAfter(first.get(1), 2);
+
+        // Then
+        assertThat(first).hasSize(2);
+        assertThat(second).hasSize(1).doesNotContainAnyElementsOf(first);
+    }
+
+    @Test
+    @DisplayName("should correct only drifted readers counters")
+    void shouldReconcileDriftedCounters() {
+        // Given
+        UUID drifted = insertBook("111");
+        UUID correct = insertBook("222");
+        UUID shelfId = UUID.randomUUID();
+        insertBookshelfBook(shelfId, drifted, LocalDate.now());
+        insertBookshelfBook(UUID.randomUUID(), drifted, LocalDate.now());
+        statisticsRepository.adjustReadersCount(drifted, 5);
+
+        // When
+        List<UUID> corrected = statisticsRepository.reconcileReadersCounts(List.of(drifted, correct));
+
+        // Then
+        assertThat(corrected).containsExactly(drifted);
+        assertThat(statisticsRepository.getReadersCount(drifted)).isEqualTo(2);
+        assertThat(statisticsRepository.getReadersCount(correct)).isZero();
+    }
+
     // m. pomocnicze
 
+    private UUID insertBook(String isbn) {
+        UUID authorId = UUID.randomUUID();
+        UUID bookId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO authors (id, name, surname) VALUES (?, 'Jan', 'Kowalski')", authorId);
+        jdbcTemplate.update("INSERT INTO books (id, title, isbn, author_id) VALUES (?, 'Tytuł', ?, ?)", bookId, isbn, authorId);
+        return bookId;
+    }
+
     private void createSchema() {
         jdbcTemplate.execute("DROP TABLE IF EXISTS bookshelf_books");
         jdbcTemplate.execute("DROP TABLE IF EXISTS bookshelf");
@@ -149,17 +336,17 @@ class StatisticsRepositoryTest {
         jdbcTemplate.execute("DROP TABLE IF EXISTS users");
 
         jdbcTemplate.execute("CREATE TABLE users (id UUID PRIMARY KEY, username VARCHAR(255))");
-        jdbcTemplate.execute("CREATE TABLE bookshelf (id UUID PRIMARY KEY, user_id UUID, name VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE bookshelf (id UUID PRIMARY KEY, user_id UUID, name VARCHAR(255), shelf_type VARCHAR(20))");
         jdbcTemplate.execute("CREATE TABLE bookshelf_books (bookshelf_id UUID, book_id UUID, added_at TIMESTAMP)");
-        jdbcTemplate.execute("CREATE TABLE reviews (id UUID PRIMARY KEY, book_id UUID, rating INT)");
+        jdbcTemplate.execute("CREATE TABLE reviews (id UUID PRIMARY KEY, user_id UUID, book_id UUID, rating INT)");
     }
 
     private void insertUser(UUID id) {
         jdbcTemplate.update("INSERT INTO users (id, username) VALUES (?, ?)", id, "testUser");
     }
 
-    private void insertShelf(UUID id, UUID userId, String name) {
-        jdbcTemplate.update("INSERT INTO bookshelf (id, user_id, name) VALUES (?, ?, ?)", id, userId, name);
+    private void insertShelf(UUID id, UUID userId, String name, String type) {
+        jdbcTemplate.update("INSERT INTO bookshelf (id, user_id, name, shelf_type) VALUES (?, ?, ?, ?)", id, userId, name, type);
     }
 
     private void insertBookshelfBook(UUID shelfId, UUID bId, LocalDate addedAt) {
@@ -168,7 +355,11 @@ class StatisticsRepositoryTest {
     }
 
     private void insertReview(UUID bId, int rating) {
-        jdbcTemplate.update("INSERT INTO reviews (id, book_id, rating) VALUES (?, ?, ?)",
-                UUID.randomUUID(), bId, rating);
+        insertReview(UUID.randomUUID(), bId, rating);
+    }
+
+    private void insertReview(UUID reviewerId, UUID bId, int rating) {
+        jdbcTemplate.update("INSERT INTO reviews (id, user_id, book_id, rating) VALUES (?, ?, ?, ?)",
+                UUID.randomUUID(), reviewerId, bId, rating);
     }
 }
\ No newline at end of file
@@ -347,6 +347,20 @@ public class UserRepositoryTest {
         assertThat(usersPage.getContent()).hasSize(5); // pozostałe elementy
     }
 
+    @Test
+    @Tag("custom-query")
+    void shouldReturnOnlySetAvatars_whenFindingAllAvatars() {
+        User withAvatar = createUser("avatar_user", "avatar@gmail.com", "USER");
+        withAvatar.setAvatar("/uploads/ab/cd/abcd_256.jpg");
+        userRepository.save(withAvatar);
+        userRepository.save(createUser("no_avatar", "noavatar@gmail.com", "USER"));
+        entityManager.flush();
+
+        List<String> avatars = userRepository.findAllAvatars();
+
+        assertThat(avatars).containsExactly("/uploads/ab/cd/abcd_256.jpg");
+    }
+
     // pomocnicze tworzenie usera
     private User createUser(String username, String email, String role) {
         User user = new User();
@@ -8,7 +8,8 @@ import org.example.bookaroo.entity.*;
 import org.example.bookaroo.exception.ResourceNotFoundException;
 import org.example.bookaroo.repository.BookRepository;
 import org.example.bookaroo.repository.BookshelfRepository;
-import org.example.bookaroo.repository.ReviewRepository;
+import org.example.bookaroo.repository.ReviewJdbcDao;
+import org.example.bookaroo.repository.StatisticsRepository;
 import org.example.bookaroo.repository.UserRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -23,9 +24,12 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -38,8 +42,11 @@ class BackupServiceTest {
     @Mock private UserRepository userRepository;
     @Mock private BookRepository bookRepository;
     @Mock private BookshelfRepository bookshelfRepository;
-    @Mock private ReviewRepository reviewRepository;
+    @Mock private ReviewJdbcDao reviewJdbcDao;
     @Mock private ObjectMapper objectMapper;
+    @Mock private BookCardService bookCardService;
+    @Mock private StatisticsRepository statisticsRepository;
+    @Mock private ChangeFeedService changeFeedService;
 
     @InjectMocks
     private BackupService backupService;
@@ -107,6 +114,29 @@ class BackupServiceTest {
         assertTrue(csvContent.contains("\"5\""));
     }
 
+    @Test
+    void exportUserReviewsToCsv_ShouldReportProgressPerReview() {
+        // Given
+        Review first = new Review();
+        first.setBook(book);
+        first.setRating(5);
+        first.setContent("Super");
+        Review second = new Review();
+        second.setBook(book);
+        second.setRating(3);
+        second.setContent("Średnia");
+        user.setGivenReviews(List.of(first, second));
+
+        when(userRepository.findByUsername("janusz")).thenReturn(Optional.of(user));
+        List<Integer> progress = new ArrayList<>();
+
+        // When
+        backupService.exportUserReviewsToCsv("janusz", progress::add);
+
+        // Then
+        assertEquals(List.of(50, 100), progress);
+    }
+
     @Test
     void exportUserReviewsToPdf_ShouldGeneratePdfBytes() {
         // Given
@@ -154,12 +184,39 @@ class BackupServiceTest {
         when(objectMapper.readValue(any(InputStream.class), eq(UserBackupDTO.class))).thenReturn(backupDTO);
         when(userRepository.findByUsername("janusz")).thenReturn(Optional.of(user));
         when(bookRepository.findByIsbn("1234567890")).thenReturn(Optional.of(book));
+        UUID reviewId = UUID.randomUUID();
+        when(reviewJdbcDao.insertIfAbsent(user.getId(), book.getId(), 5, "Nowa recenzja")).thenReturn(Optional.of(reviewId));
 
         // When
         backupService.importUserData("janusz", file);
 
         // Then
-        verify(reviewRepository, times(1)).save(any(Review.class));
+        verify(reviewJdbcDao, times(1)).insertIfAbsent(user.getId(), book.getId(), 5, "Nowa recenzja");
+        verify(changeFeedService).record(ChangeLogEntry.EntityType.REVIEW, reviewId, book.getId(),
+                ChangeLogEntry.Operation.UPSERT, null);
+        verify(changeFeedService).record(ChangeLogEntry.EntityType.BOOK, book.getId(), ChangeLogEntry.Operation.UPSERT);
+        verify(bookCardService).refreshBooks(Set.of(book.getId()));
+    }
+
+    @Test
+    void importUserData_ShouldKeepExistingReview_WhenBookAlreadyReviewed() throws IOException {
+        // Given
+        MockMultipartFile file = new MockMultipartFile("file", "backup.json", "application/json", "{}".getBytes());
+        UserBackupDTO backupDTO = new UserBackupDTO(new ArrayList<>(),
+                List.of(new ReviewBackupDTO("1234567890", "Stara kopia", 2)));
+
+        when(objectMapper.readValue(any(InputStream.class), eq(UserBackupDTO.class))).thenReturn(backupDTO);
+        when(userRepository.findByUsername("janusz")).thenReturn(Optional.of(user));
+        when(bookRepository.findByIsbn("1234567890")).thenReturn(Optional.of(book));
+        // recenzja tej książki już jest - klucz (user_id, book_id) zatrzymuje wstawienie
+        when(reviewJdbcDao.insertIfAbsent(user.getId(), book.getId(), 2, "Stara kopia")).thenReturn(Optional.empty());
+
+        // When
+        backupService.importUserData("janusz", file);
+
+        // Then
+        verify(bookCardService).refreshBooks(Set.of());
+        verifyNoInteractions(changeFeedService);
     }
 
     @Test
@@ -169,6 +226,7 @@ class BackupServiceTest {
 
         // istniejąca półka usera
         Bookshelf existingShelf = new Bookshelf();
+        existingShelf.setId(UUID.randomUUID());
         existingShelf.setName("Do przeczytania");
         existingShelf.setUser(user);
         existingShelf.setItems(new ArrayList<>()); // pusta półka
@@ -191,18 +249,46 @@ class BackupServiceTest {
         assertEquals(1, existingShelf.getBooks().size());
         assertEquals("Wiedźmin", existingShelf.getBooks().get(0).getTitle());
         verify(bookshelfRepository, times(1)).save(existingShelf);
+        verify(changeFeedService).record(ChangeLogEntry.EntityType.SHELF_ITEM, book.getId(), existingShelf.getId(),
+                ChangeLogEntry.Operation.UPSERT, user.getId());
     }
 
-    // usuwanie plików tymczasowych stworzonych przez import
+    @Test
+    void importUserData_ShouldReportProgress_FromStagedFile() throws IOException {
+        // Given - plik skopiowany w wątku żądania, import później w tle
+        MockMultipartFile file = new MockMultipartFile("file", "backup.json", "application/json", "{}".getBytes());
+        Path staged = backupService.stageImport(file);
+
+        List<ReviewBackupDTO> reviews = List.of(
+                new ReviewBackupDTO("1234567890", "Pierwsza", 5),
+                new ReviewBackupDTO("0000000000", "Druga", 3)
+        );
+        UserBackupDTO backupDTO = new UserBackupDTO(new ArrayList<>(), reviews);
+
+        when(objectMapper.readValue(any(InputStream.class), eq(UserBackupDTO.class))).thenReturn(backupDTO);
+        when(userRepository.findByUsername("janusz")).thenReturn(Optional.of(user));
+        when(bookRepository.findByIsbn(any())).thenReturn(Optional.empty());
+
+        // When
+        List<Integer> progress = new ArrayList<>();
+        backupService.importUserData("janusz", staged, progress::add);
+
+        // Then
+        assertTrue(Files.exists(staged));
+        assertEquals(List.of(50, 100, 100), progress);
+    }
+
+    // usuwanie plików tymczasowych stworzonych przez import (razem z podkatalogami magazynu)
     @AfterEach
     void cleanUp() {
-        File dir = new File("backups/");
-        if (dir.exists()) {
-            File[] files = dir.listFiles();
-            if (files != null) {
-                for (File f : files) f.delete();
-            }
-            dir.delete();
+        deleteRecursively(new File("backups/"));
+    }
+
+    private void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) deleteRecursively(child);
         }
+        file.delete();
     }
 }
\ No newline at end of file
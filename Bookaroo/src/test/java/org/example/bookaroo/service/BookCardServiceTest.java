@@ -0,0 +1,158 @@
+package org.example.bookaroo.service;
+
+import jakarta.persistence.EntityManager;
+import org.example.bookaroo.repository.BookCardDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookCardServiceTest {
+
+    @Mock
+    private BookCardDao bookCardDao;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private BookRankingService bookRankingService;
+    @Mock
+    private BookFacetService bookFacetService;
+    @Mock
+    private GenreSimilarityService genreSimilarityService;
+    @Mock
+    private CatalogSnapshotService catalogSnapshotService;
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private BookCardService bookCardService;
+
+    @BeforeEach
+    void setUp() {
+        bookCardService = service(0);
+    }
+
+    private BookCardService service(long refreshDelayMs) {
+        return new BookCardService(bookCardDao, entityManager, bookRankingService, bookFacetService,
+                genreSimilarityService, catalogSnapshotService, taskScheduler, refreshDelayMs);
+    }
+
+    @Test
+    @DisplayName("should flush pending entity changes before refreshing cards")
+    void shouldFlushBeforeRefresh() {
+        // Given
+        UUID bookId = UUID.randomUUID();
+
+        // When
+        bookCardService.refreshBook(bookId);
+
+        // Then
+        InOrder inOrder = inOrder(entityManager, bookCardDao);
+        inOrder.verify(entityManager).flush();
+        inOrder.verify(bookCardDao).refreshBooks(List.of(bookId));
+        // bez aktywnej transakcji indeksy odświeżane od razu
+        verify(bookRankingService).refreshBooks(List.of(bookId));
+        verify(bookFacetService).refreshBooks(List.of(bookId));
+        verify(genreSimilarityService).refreshBooks(List.of(bookId));
+        verify(catalogSnapshotService).refreshBooks(List.of(bookId));
+    }
+
+    @Test
+    @DisplayName("should skip refresh when no books were touched")
+    void shouldSkipEmptyRefresh() {
+        bookCardService.refreshBooks(List.of());
+
+        verifyNoInteractions(entityManager, bookCardDao, bookRankingService, bookFacetService, genreSimilarityService,
+                catalogSnapshotService);
+    }
+
+    @Test
+    @DisplayName("should refresh only in-memory indexes when cards were refreshed by the caller")
+    void shouldRefreshIndexesOnly() {
+        // Given
+        List<UUID> bookIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+
+        // When
+        bookCardService.refreshIndexes(bookIds);
+
+        // Then
+        verifyNoInteractions(entityManager, bookCardDao);
+        verify(bookRankingService).refreshBooks(bookIds);
+        verify(bookFacetService).refreshBooks(bookIds);
+        verify(genreSimilarityService).refreshBooks(bookIds);
+        verify(catalogSnapshotService).refreshBooks(bookIds);
+    }
+
+    @Test
+    @DisplayName("should coalesce index refreshes within the delay into one batch")
+    void shouldCoalesceIndexRefreshes() {
+        // Given
+        bookCardService = service(200);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        // When
+        bookCardService.refreshIndexes(List.of(first));
+        bookCardService.refreshIndexes(List.of(second, first));
+
+        // Then - jedno zlecenie, indeksy nieruszone do jego wykonania
+        ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler).schedule(flush.capture(), any(Instant.class));
+        verifyNoInteractions(bookRankingService, catalogSnapshotService);
+
+        flush.getValue().run();
+
+        verify(bookRankingService).refreshBooks(List.of(first, second));
+        verify(bookFacetService).refreshBooks(List.of(first, second));
+        verify(genreSimilarityService).refreshBooks(List.of(first, second));
+        verify(catalogSnapshotService).refreshBooks(List.of(first, second));
+
+        // kolejna zmiana po odświeżeniu - nowe zlecenie
+        bookCardService.refreshIndexes(List.of(second));
+        verify(taskScheduler, times(2)).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    @DisplayName("should refresh all cards of an author")
+    void shouldRefreshAuthor() {
+        // Given
+        UUID authorId = UUID.randomUUID();
+
+        // When
+        bookCardService.refreshAuthor(authorId);
+
+        // Then
+        verify(entityManager).flush();
+        verify(bookCardDao).refreshAuthor(authorId);
+        verify(bookRankingService).refreshAuthor(authorId);
+        verify(bookFacetService).refreshAuthor(authorId);
+        verify(genreSimilarityService).refreshAuthor(authorId);
+        verify(catalogSnapshotService).refreshAuthor(authorId);
+    }
+
+    @Test
+    @DisplayName("should rebuild all cards, then the in-memory indexes built from them")
+    void shouldRebuild() {
+        bookCardService.rebuild();
+
+        InOrder inOrder = inOrder(bookCardDao, bookRankingService, bookFacetService, genreSimilarityService,
+                catalogSnapshotService);
+        inOrder.verify(bookCardDao).rebuildAll();
+        inOrder.verify(bookRankingService).rebuild();
+        inOrder.verify(bookFacetService).rebuild();
+        inOrder.verify(genreSimilarityService).rebuild();
+        inOrder.verify(catalogSnapshotService).rebuild();
+    }
+}
@@ -0,0 +1,183 @@
+package org.example.bookaroo.service;
+
+import org.example.bookaroo.dto.BookDTO;
+import org.example.bookaroo.dto.BrowseResultDTO;
+import org.example.bookaroo.dto.FacetCountDTO;
+import org.example.bookaroo.repository.BookCardDao;
+import org.example.bookaroo.repository.BookCardDao.CardRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookFacetServiceTest {
+
+    @Mock
+    private BookCardDao bookCardDao;
+
+    private BookFacetService facetService;
+
+    private final UUID fantasy = UUID.randomUUID();
+    private final UUID adventure = UUID.randomUUID();
+    private final UUID horror = UUID.randomUUID();
+    private final UUID tolkien = UUID.randomUUID();
+    private final UUID king = UUID.randomUUID();
+
+    private CardRow hobbit;
+    private CardRow silmarillion;
+    private CardRow shining;
+    private CardRow it;
+
+    @BeforeEach
+    void setUp() {
+        facetService = new BookFacetService(bookCardDao);
+
+        hobbit = row("Hobbit", 1937, 8.7, tolkien, List.of(adventure, fantasy), List.of("Adventure", "Fantasy"));
+        silmarillion = row("Silmarillion", 1977, 7.2, tolkien, List.of(fantasy), List.of("Fantasy"));
+        shining = row("Lśnienie", 1977, 9.1, king, List.of(horror), List.of("Horror"));
+        it = row("To", 1986, null, king, List.of(horror), List.of("Horror"));
+        rebuildWith(hobbit, shining, silmarillion, it);
+    }
+
+    private static CardRow row(String title, int year, Double average, UUID authorId, List<UUID> genreIds, List<String> genres) {
+        BookDTO card = new BookDTO(UUID.randomUUID(), title, "isbn-" + title, null, year, authorId, "Autor", average, genres);
+        return new CardRow(card, average == null ? 0 : 10, genreIds);
+    }
+
+    private static CardRow changed(CardRow row, Double average) {
+        BookDTO c = row.card();
+        return new CardRow(new BookDTO(c.id(), c.title(), c.isbn(), null, c.publicationYear(), c.authorId(),
+                c.authorName(), average, c.genres()), 10, row.genreIds());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rebuildWith(CardRow... rows) {
+        doAnswer(invocation -> {
+            Consumer<CardRow> action = invocation.getArgument(0);
+            for (CardRow row : rows) {
+                action.accept(row);
+            }
+            return null;
+        }).when(bookCardDao).forEachRow(any(Consumer.class));
+        facetService.rebuild();
+    }
+
+    private BrowseResultDTO browse(List<UUID> genres, boolean all, List<Integer> decades, Integer minRating) {
+        return facetService.browse(genres, all, decades, minRating, 0, 20);
+    }
+
+    private static List<String> titles(BrowseResultDTO result) {
+        return result.books().stream().map(BookDTO::title).toList();
+    }
+
+    private static List<String> counts(List<FacetCountDTO> facet) {
+        return facet.stream().map(f -> f.label() + "=" + f.count()).toList();
+    }
+
+    @Test
+    @DisplayName("should return the whole catalog with facet counts when no filter is set")
+    void shouldBrowseAll() {
+        BrowseResultDTO result = browse(null, false, null, null);
+
+        // kolejność numerów porządkowych = kolejność z przebudowy
+        assertThat(titles(result)).containsExactly("Hobbit", "Lśnienie", "Silmarillion", "To");
+        assertThat(result.total()).isEqualTo(4);
+        assertThat(counts(result.genres())).containsExactly("Fantasy=2", "Horror=2", "Adventure=1");
+        assertThat(counts(result.decades())).containsExactly("1930-1939=1", "1970-1979=2", "1980-1989=1");
+        assertThat(counts(result.ratings())).containsExactly("9+=1", "8+=2", "7+=3", "6+=3", "5+=3", "4+=3", "3+=3", "2+=3", "1+=3");
+    }
+
+    @Test
+    @DisplayName("should AND facets together and count each facet without its own filter")
+    void shouldCombineFilters() {
+        BrowseResultDTO result = browse(List.of(fantasy), false, List.of(1970), 7);
+
+        assertThat(titles(result)).containsExactly("Silmarillion");
+        // gatunki przy dekadzie 1970 i ocenie 7+
+        assertThat(counts(result.genres())).containsExactly("Fantasy=1", "Horror=1");
+        // dekady przy Fantasy i ocenie 7+
+        assertThat(counts(result.decades())).containsExactly("1930-1939=1", "1970-1979=1");
+        // oceny przy Fantasy i dekadzie 1970
+        assertThat(counts(result.ratings()).get(0)).isEqualTo("7+=1");
+    }
+
+    @Test
+    @DisplayName("should OR genres by default and AND them when all genres are required")
+    void shouldMatchAnyOrAllGenres() {
+        assertThat(titles(browse(List.of(adventure, horror), false, null, null)))
+                .containsExactly("Hobbit", "Lśnienie", "To");
+        assertThat(titles(browse(List.of(adventure, fantasy), true, null, null))).containsExactly("Hobbit");
+        assertThat(browse(List.of(fantasy, UUID.randomUUID()), true, null, null).total()).isZero();
+    }
+
+    @Test
+    @DisplayName("should accept a year in place of its decade and skip unrated books for rating filters")
+    void shouldFilterByDecadeAndRating() {
+        assertThat(titles(browse(null, false, List.of(1979, 1986), null))).containsExactly("Lśnienie", "Silmarillion", "To");
+        assertThat(titles(browse(null, false, null, 8))).containsExactly("Hobbit", "Lśnienie");
+    }
+
+    @Test
+    @DisplayName("should page over matching books")
+    void shouldPage() {
+        BrowseResultDTO second = facetService.browse(null, false, null, null, 1, 3);
+
+        assertThat(titles(second)).containsExactly("To");
+        assertThat(second.total()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("should move a refreshed book between rating bands and drop deleted books")
+    void shouldRefreshBooks() {
+        UUID itId = it.card().id();
+        UUID shiningId = shining.card().id();
+        when(bookCardDao.findRows(List.of(itId, shiningId))).thenReturn(List.of(changed(it, 8.2)));
+
+        facetService.refreshBooks(List.of(itId, shiningId));
+
+        assertThat(titles(browse(null, false, null, 8))).containsExactly("Hobbit", "To");
+        assertThat(counts(browse(null, false, null, null).genres())).contains("Horror=1");
+        assertThat(browse(null, false, null, null).total()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("should append new books and remove all books of a deleted author")
+    void shouldRefreshAuthorAndAppend() {
+        CardRow newBook = row("Atlas", 2001, 6.0, king, List.of(horror), List.of("Horror"));
+        when(bookCardDao.findRows(List.of(newBook.card().id()))).thenReturn(List.of(newBook));
+        facetService.refreshBooks(List.of(newBook.card().id()));
+        // nowa książka na końcu numeracji, nie w kolejności tytułów
+        assertThat(titles(browse(List.of(horror), false, null, null))).containsExactly("Lśnienie", "To", "Atlas");
+
+        when(bookCardDao.findRowsByAuthor(tolkien)).thenReturn(new ArrayList<>());
+        facetService.refreshAuthor(tolkien);
+
+        BrowseResultDTO result = browse(null, false, null, null);
+        assertThat(titles(result)).containsExactly("Lśnienie", "To", "Atlas");
+        assertThat(counts(result.genres())).containsExactly("Horror=3");
+    }
+
+    @Test
+    @DisplayName("should reject invalid paging and rating threshold")
+    void shouldValidateArguments() {
+        assertThatThrownBy(() -> facetService.browse(null, false, null, null, -1, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> facetService.browse(null, false, null, null, 0, BookFacetService.MAX_PAGE_SIZE + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> facetService.browse(null, false, null, 10, 0, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,184 @@
+package org.example.bookaroo.service;
+
+import org.example.bookaroo.dto.BookDTO;
+import org.example.bookaroo.repository.BookCardDao;
+import org.example.bookaroo.repository.BookCardDao.CardRow;
+import org.example.bookaroo.repository.StatisticsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookRankingServiceTest {
+
+    @Mock
+    private BookCardDao bookCardDao;
+    @Mock
+    private StatisticsRepository statisticsRepository;
+
+    private final List<Runnable> scheduled = new ArrayList<>();
+
+    private BookRankingService rankingService;
+
+    private final UUID fantasy = UUID.randomUUID();
+    private final UUID horror = UUID.randomUUID();
+    private final UUID authorId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        rankingService = new BookRankingService(bookCardDao, statisticsRepository, scheduled::add, 10, 100);
+    }
+
+    private CardRow row(String title, int year, double average, int reviews, UUID... genres) {
+        BookDTO card = new BookDTO(UUID.randomUUID(), title, "isbn-" + title, null, year, authorId, "Autor", average, List.of());
+        return new CardRow(card, reviews, List.of(genres));
+    }
+
+    private static CardRow changed(CardRow row, double average, int reviews) {
+        BookDTO c = row.card();
+        BookDTO card = new BookDTO(c.id(), c.title(), c.isbn(), null, c.publicationYear(), c.authorId(), c.authorName(),
+                average, c.genres());
+        return new CardRow(card, reviews, row.genreIds());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rebuildWith(double globalAverage, CardRow... rows) {
+        when(statisticsRepository.getGlobalAverageRating()).thenReturn(globalAverage);
+        doAnswer(invocation -> {
+            Consumer<CardRow> action = invocation.getArgument(0);
+            for (CardRow row : rows) {
+                action.accept(row);
+            }
+            return null;
+        }).when(bookCardDao).forEachRow(any(Consumer.class));
+        rankingService.rebuild();
+    }
+
+    private static List<String> titles(List<BookDTO> books) {
+        return books.stream().map(BookDTO::title).toList();
+    }
+
+    @Test
+    @DisplayName("should rank by Bayesian score - a single perfect rating does not beat many good ones")
+    void shouldRankByBayesianScore() {
+        rebuildWith(6.0,
+                row("Jedna dziesiątka", 2000, 10.0, 1),
+                row("Klasyk", 1990, 9.0, 500),
+                row("Przeciętna", 2010, 6.5, 40));
+
+        assertThat(titles(rankingService.top(5, null, null)))
+                .containsExactly("Klasyk", "Przeciętna", "Jedna dziesiątka");
+        assertThat(rankingService.score(10.0, 1, 6.0)).isCloseTo(6.3636, offset(0.001));
+    }
+
+    @Test
+    @DisplayName("should skip books without reviews")
+    void shouldSkipUnreviewedBooks() {
+        rebuildWith(6.0, row("Bez recenzji", 2000, 0.0, 0), row("Klasyk", 1990, 9.0, 500));
+
+        assertThat(titles(rankingService.top(5, null, null))).containsExactly("Klasyk");
+        assertThat(rankingService.top(5, null, 2000)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should serve genre and year leaderboards")
+    void shouldServeGenreAndYearBoards() {
+        rebuildWith(5.0,
+                row("Hobbit", 1937, 9.0, 100, fantasy),
+                row("Lśnienie", 1977, 8.5, 100, horror),
+                row("Silmarillion", 1977, 8.0, 100, fantasy));
+
+        assertThat(titles(rankingService.top(5, fantasy, null))).containsExactly("Hobbit", "Silmarillion");
+        assertThat(titles(rankingService.top(5, null, 1977))).containsExactly("Lśnienie", "Silmarillion");
+        assertThat(rankingService.top(5, UUID.randomUUID(), null)).isEmpty();
+        assertThat(rankingService.top(5, null, 1800)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should apply a changed aggregate to all boards of the book")
+    void shouldRefreshIncrementally() {
+        CardRow hobbit = row("Hobbit", 1937, 7.0, 100, fantasy);
+        CardRow dune = row("Diuna", 1965, 8.0, 100);
+        rebuildWith(5.0, hobbit, dune);
+
+        UUID hobbitId = hobbit.card().id();
+        when(bookCardDao.findRows(Set.of(hobbitId))).thenReturn(List.of(changed(hobbit, 9.0, 120)));
+        rankingService.refreshBooks(List.of(hobbitId));
+
+        assertThat(titles(rankingService.top(2, null, null))).containsExactly("Hobbit", "Diuna");
+        assertThat(rankingService.top(1, fantasy, null).get(0).averageRating()).isEqualTo(9.0);
+    }
+
+    @Test
+    @DisplayName("should drop books that lost all reviews or were deleted")
+    void shouldDropUnratedBooks() {
+        CardRow hobbit = row("Hobbit", 1937, 9.0, 100, fantasy);
+        rebuildWith(5.0, hobbit, row("Diuna", 1965, 8.0, 100));
+
+        when(bookCardDao.findRows(Set.of(hobbit.card().id()))).thenReturn(List.of());
+        rankingService.refreshBooks(List.of(hobbit.card().id()));
+
+        assertThat(titles(rankingService.top(5, null, null))).containsExactly("Diuna");
+        assertThat(rankingService.top(5, fantasy, null)).isEmpty();
+        assertThat(rankingService.top(5, null, 1937)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should remove all author's entries when the author's books are gone")
+    void shouldRefreshAuthor() {
+        rebuildWith(5.0, row("Hobbit", 1937, 9.0, 100), row("Silmarillion", 1977, 8.0, 100));
+        when(bookCardDao.findRowsByAuthor(authorId)).thenReturn(List.of());
+
+        rankingService.refreshAuthor(authorId);
+
+        assertThat(rankingService.top(5, null, null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should clamp limit and reject genre combined with year")
+    void shouldValidateArguments() {
+        rebuildWith(5.0, row("Hobbit", 1937, 9.0, 100, fantasy), row("Diuna", 1965, 8.0, 100));
+
+        assertThat(rankingService.top(0, null, null)).hasSize(1);
+        assertThat(rankingService.top(1000, null, null)).hasSize(2);
+        assertThatThrownBy(() -> rankingService.top(5, fantasy, 1937))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("should serve what a shrunk board covers and rebuild it once in the background")
+    void shouldRebuildShrunkBoardInBackground() {
+        CardRow[] rows = new CardRow[BookRankingService.MAX_LIMIT + 1];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = row("Książka " + i, 2000, 9.0 - i * 0.01, 100);
+        }
+        rebuildWith(5.0, rows);
+        UUID leaderId = rows[0].card().id();
+        when(bookCardDao.findRows(Set.of(leaderId))).thenReturn(List.of());
+        rankingService.refreshBooks(List.of(leaderId));
+
+        assertThat(rankingService.top(BookRankingService.MAX_LIMIT, null, null)).hasSize(BookRankingService.MAX_LIMIT - 1);
+        assertThat(rankingService.top(BookRankingService.MAX_LIMIT, null, null)).hasSize(BookRankingService.MAX_LIMIT - 1);
+        assertThat(scheduled).hasSize(1);
+
+        scheduled.remove(0).run();
+
+        assertThat(rankingService.top(BookRankingService.MAX_LIMIT, null, null)).hasSize(BookRankingService.MAX_LIMIT);
+        assertThat(scheduled).isEmpty();
+    }
+}
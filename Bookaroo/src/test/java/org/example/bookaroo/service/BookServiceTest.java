@@ -1,11 +1,18 @@
 package org.example.bookaroo.service;
 
+import org.example.bookaroo.dto.AuthorSummaryDTO;
 import org.example.bookaroo.dto.BookDTO;
 import org.example.bookaroo.dto.BookStatisticsDTO;
 import org.example.bookaroo.entity.Author;
 import org.example.bookaroo.entity.Book;
+import org.example.bookaroo.entity.ChangeLogEntry.EntityType;
+import org.example.bookaroo.entity.ChangeLogEntry.Operation;
+import org.example.bookaroo.entity.Review;
 import org.example.bookaroo.exception.ResourceNotFoundException;
+import org.example.bookaroo.repository.AuthorLookupDao;
 import org.example.bookaroo.repository.AuthorRepository;
+import org.example.bookaroo.repository.BookCardDao;
+import org.example.bookaroo.repository.BookCardDao.CardRow;
 import org.example.bookaroo.repository.BookJdbcDao;
 import org.example.bookaroo.repository.BookRepository;
 import org.example.bookaroo.repository.StatisticsRepository;
@@ -38,6 +45,18 @@ class BookServiceTest {
     private StatisticsRepository statisticsRepository;
     @Mock
     private AuthorRepository authorRepository;
+    @Mock
+    private ChangeFeedService changeFeedService;
+    @Mock
+    private AuthorLookupDao authorLookupDao;
+    @Mock
+    private BookCardDao bookCardDao;
+    @Mock
+    private BookCardService bookCardService;
+    @Mock
+    private BookRankingService bookRankingService;
+    @Mock
+    private CatalogSnapshotService catalogSnapshotService;
 
     @InjectMocks
     private BookService bookService;
@@ -202,24 +221,10 @@ class BookServiceTest {
     // FIND & SEARCH
 
     @Test
-    @DisplayName("should return list of all books")
+    @DisplayName("should list books from book cards")
     void shouldReturnAllBooks() {
         // Given
-        Book book1 = new Book();
-        book1.setTitle("Test");
-        Author author = new Author();
-        author.setName("A"); author.setSurname("B");
-        book1.setAuthor(author);
-        book1.setPublicationYear(1999);
-
-        Book book2 = new Book();
-        book2.setTitle("Test");
-        Author author2 = new Author();
-        author2.setName("A"); author2.setSurname("B");
-        book2.setAuthor(author2);
-        book2.setPublicationYear(2000);
-
-        when(bookRepository.findAll()).thenReturn(List.of(book1, book2));
+        when(bookCardDao.findAll()).thenReturn(List.of(card("Test"), card("Test")));
 
         // When
         List<BookDTO> result = bookService.findAllList();
@@ -227,24 +232,26 @@ class BookServiceTest {
         // Then
         assertThat(result).hasSize(2);
 
-        verify(bookRepository).findAll();
+        verify(bookCardDao).findAll();
+        verifyNoInteractions(bookRepository);
     }
 
     @Test
-    @DisplayName("should delegate search to repository")
+    @DisplayName("should delegate search to book cards with paging")
     void shouldDelegateSearch() {
         // Given
         String query = "Harry Potter";
-        Pageable pageable = PageRequest.of(0, 10);
-        Page<Book> page = new PageImpl<>(List.of(new Book()));
+        Pageable pageable = PageRequest.of(1, 10);
 
-        when(bookRepository.searchBooks(query, pageable)).thenReturn(page);
+        when(bookCardDao.search(query, 10, 10)).thenReturn(List.of(card("Harry Potter")));
+        when(bookCardDao.countSearch(query)).thenReturn(11L);
 
         // When
-        Page<Book> result = bookService.searchBooks(query, pageable);
+        Page<BookDTO> result = bookService.searchBooks(query, pageable);
 
         // Then
         assertThat(result.getContent()).isNotEmpty();
+        assertThat(result.getTotalElements()).isEqualTo(11);
     }
 
     @Test
@@ -275,6 +282,8 @@ class BookServiceTest {
 
         // Then
         verify(bookRepository).deleteById(id);
+        verify(changeFeedService).record(EntityType.BOOK, id, Operation.DELETE);
+        verify(bookCardService).refreshBook(id);
     }
 
     // BOOKS BY AUTHOR ID
@@ -284,15 +293,14 @@ class BookServiceTest {
     void shouldReturnBooksByAuthor_whenAuthorExists() {
         // Given
         UUID authorId = UUID.randomUUID();
-        Author author = new Author();
         Pageable pageable = PageRequest.of(0, 5);
-        Page<Book> page = new PageImpl<>(List.of(new Book()));
 
-        when(authorRepository.findById(authorId)).thenReturn(Optional.of(author));
-        when(bookRepository.findByAuthor(author, pageable)).thenReturn(page);
+        when(authorRepository.existsById(authorId)).thenReturn(true);
+        when(bookCardDao.findByAuthor(authorId, 0, 5)).thenReturn(List.of(card("Book A")));
+        when(bookCardDao.countByAuthor(authorId)).thenReturn(1L);
 
         // When
-        Page<Book> result = bookService.getBooksByAuthorId(authorId, pageable);
+        Page<BookDTO> result = bookService.getBooksByAuthorId(authorId, pageable);
 
         // Then
         assertThat(result).isNotEmpty();
@@ -303,7 +311,7 @@ class BookServiceTest {
     void shouldThrowException_whenGettingBooksByInvalidAuthorId() {
         // Given
         UUID authorId = UUID.randomUUID();
-        when(authorRepository.findById(authorId)).thenReturn(Optional.empty());
+        when(authorRepository.existsById(authorId)).thenReturn(false);
 
         // When & Then
         assertThatThrownBy(() -> bookService.getBooksByAuthorId(authorId, Pageable.unpaged()))
@@ -313,33 +321,34 @@ class BookServiceTest {
     // JDBC & STATISTICS
 
     @Test
-    @DisplayName("should delegate top rated books query to JDBC DAO")
+    @DisplayName("should read top rated books from the in-memory ranking")
     void shouldDelegateTopRatedQuery() {
         // Given
         int limit = 5;
-        when(bookJdbcDao.findTopRatedBooks(limit)).thenReturn(List.of(new Book()));
+        UUID genreId = UUID.randomUUID();
+        when(bookRankingService.top(limit, genreId, null)).thenReturn(List.of(card("Best")));
 
         // When
-        List<Book> result = bookService.getTopRatedBooksViaSql(limit);
+        List<BookDTO> result = bookService.getTopRatedBooks(limit, genreId, null);
 
         // Then
         assertThat(result).hasSize(1);
 
-        verify(bookJdbcDao).findTopRatedBooks(limit);
+        verifyNoInteractions(bookCardDao, bookJdbcDao);
     }
 
     @Test
-    @DisplayName("should delegate rating update to JDBC DAO")
-    void shouldDelegateRatingUpdate() {
+    @DisplayName("should refresh cards of all author's books after rename")
+    void shouldRefreshCardsAfterAuthorRename() {
         // Given
-        UUID bookId = UUID.randomUUID();
-        Double newRating = 4.5;
+        Author author = new Author();
+        author.setId(UUID.randomUUID());
 
         // When
-        bookService.updateBookRatingViaSql(bookId, newRating);
+        bookService.saveAuthor(author);
 
         // Then
-        verify(bookJdbcDao).updateBookRating(bookId, newRating);
+        verify(bookCardService).refreshAuthor(author.getId());
     }
 
     @Test
@@ -468,4 +477,99 @@ class BookServiceTest {
         // Then
         verify(authorRepository).deleteById(id);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("should record DELETE entries for the author's books and their reviews")
+    void shouldRecordCascadedDeletes_whenDeletingAuthor() {
+        // Given
+        UUID authorId = UUID.randomUUID();
+        Book book = new Book();
+        book.setId(UUID.randomUUID());
+        Review review = new Review();
+        review.setId(UUID.randomUUID());
+        book.setReviews(List.of(review));
+        Author author = new Author();
+        author.setBooks(List.of(book));
+        when(authorRepository.findById(authorId)).thenReturn(Optional.of(author));
+
+        // When
+        bookService.deleteAuthor(authorId);
+
+        // Then
+        verify(changeFeedService).record(EntityType.REVIEW, review.getId(), book.getId(), Operation.DELETE, null);
+        verify(changeFeedService).record(EntityType.BOOK, book.getId(), Operation.DELETE);
+        verify(bookCardService).refreshAuthor(authorId);
+    }
+
+    @Test
+    @DisplayName("should cap author suggestions limit")
+    void shouldCapAuthorSuggestionsLimit() {
+        // Given
+        AuthorSummaryDTO tolkien = new AuthorSummaryDTO(UUID.randomUUID(), "J.R.R.", "Tolkien");
+        when(authorLookupDao.searchByPrefix("tol", BookService.MAX_AUTHOR_SUGGESTIONS)).thenReturn(List.of(tolkien));
+
+        // When
+        List<AuthorSummaryDTO> result = bookService.searchAuthors("tol", 10_000);
+
+        // Then
+        assertThat(result).containsExactly(tolkien);
+    }
+
+    @Test
+    @DisplayName("should return no suggestions for blank query")
+    void shouldReturnNoSuggestionsForBlankQuery() {
+        assertThat(bookService.searchAuthors("  ", 10)).isEmpty();
+        verifyNoInteractions(authorLookupDao);
+    }
+
+    // CATALOG SNAPSHOT
+
+    @Test
+    @DisplayName("should serve book details from the catalog snapshot without touching the database")
+    void shouldServeBookDetailsFromSnapshot() {
+        // Given
+        BookDTO book = new BookDTO(UUID.randomUUID(), "Lalka", "ISBN", "Opis", 1890, UUID.randomUUID(), "B P", 8.0, List.of());
+        when(catalogSnapshotService.current()).thenReturn(CatalogSnapshot.of(
+                List.of(new CardRow(book, 1, List.of())), List.of()));
+
+        // When
+        BookDTO result = bookService.getBookDetails(book.id());
+
+        // Then
+        assertThat(result.description()).isEqualTo("Opis");
+        assertThatThrownBy(() -> bookService.getBookDetails(UUID.randomUUID()))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    @DisplayName("should page, search and list by author from the catalog snapshot")
+    void shouldServeListsFromSnapshot() {
+        // Given
+        AuthorSummaryDTO author = new AuthorSummaryDTO(UUID.randomUUID(), "Bolesław", "Prus");
+        List<CardRow> rows = List.of(
+                new CardRow(new BookDTO(UUID.randomUUID(), "Lalka", "1", null, 1890, author.id(), "Bolesław Prus", null, List.of()), 0, List.of()),
+                new CardRow(new BookDTO(UUID.randomUUID(), "Emancypantki", "2", null, 1894, author.id(), "Bolesław Prus", null, List.of()), 0, List.of()),
+                new CardRow(new BookDTO(UUID.randomUUID(), "Chłopi", "3", null, 1904, UUID.randomUUID(), "W R", null, List.of()), 0, List.of()));
+        when(catalogSnapshotService.current()).thenReturn(CatalogSnapshot.of(rows, List.of(author)));
+
+        // When
+        Page<BookDTO> page = bookService.findAll(PageRequest.of(0, 2));
+        Page<BookDTO> search = bookService.searchBooks("prus", PageRequest.of(0, 10));
+        Page<BookDTO> byAuthor = bookService.getBooksByAuthorId(author.id(), PageRequest.of(1, 1));
+
+        // Then
+        assertThat(page.getContent()).extracting(BookDTO::title).containsExactly("Chłopi", "Emancypantki");
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(search.getContent()).extracting(BookDTO::title).containsExactly("Emancypantki", "Lalka");
+        assertThat(byAuthor.getContent()).extracting(BookDTO::title).containsExactly("Lalka");
+        assertThat(byAuthor.getTotalElements()).isEqualTo(2);
+        assertThatThrownBy(() -> bookService.getBooksByAuthorId(UUID.randomUUID(), PageRequest.of(0, 5)))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verifyNoInteractions(bookCardDao, authorRepository);
+    }
+
+    private static BookDTO card(String title) {
+        return new BookDTO(UUID.randomUUID(), title, "ISBN", null, 2000, UUID.randomUUID(), "A B", null, List.of());
+    }
+}
@@ -3,11 +3,16 @@ package org.example.bookaroo.service;
 import org.example.bookaroo.dto.BookshelfDTO;
 import org.example.bookaroo.entity.Book;
 import org.example.bookaroo.entity.Bookshelf;
+import org.example.bookaroo.entity.Bookshelf.ShelfType;
 import org.example.bookaroo.entity.BookshelfBook;
+import org.example.bookaroo.entity.ChangeLogEntry.EntityType;
+import org.example.bookaroo.entity.ChangeLogEntry.Operation;
 import org.example.bookaroo.entity.User;
+import org.example.bookaroo.repository.BookCardDao;
 import org.example.bookaroo.repository.BookRepository;
 import org.example.bookaroo.repository.BookshelfBookRepository;
 import org.example.bookaroo.repository.BookshelfRepository;
+import org.example.bookaroo.repository.StatisticsRepository;
 import org.example.bookaroo.repository.UserRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -22,6 +27,8 @@ import java.util.*;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +42,16 @@ class BookshelfServiceTest {
     private UserRepository userRepository;
     @Mock
     private BookshelfBookRepository bookshelfBookRepository;
+    @Mock
+    private ChangeFeedService changeFeedService;
+    @Mock
+    private BookCardDao bookCardDao;
+    @Mock
+    private BookCardService bookCardService;
+    @Mock
+    private StatisticsRepository statisticsRepository;
+    @Mock
+    private TrendingService trendingService;
 
     @InjectMocks
     private BookshelfService bookshelfService;
@@ -83,6 +100,18 @@ class BookshelfServiceTest {
         assertThat(result).allMatch(Bookshelf::getIsDefault);
     }
 
+    @Test
+    @DisplayName("should mark default shelves with their type")
+    void shouldSetShelfTypes() {
+        // When
+        List<Bookshelf> result = bookshelfService.generateDefaultShelves(new User());
+
+        // Then
+        assertThat(result)
+                .extracting(Bookshelf::getType)
+                .containsExactlyInAnyOrder(ShelfType.READ, ShelfType.WANT_TO_READ, ShelfType.CURRENTLY_READING);
+    }
+
     // CREATE CUSTOM SHELF
 
     @Test
@@ -251,15 +280,129 @@ class BookshelfServiceTest {
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
         when(bookshelfRepository.findById(targetShelfId)).thenReturn(Optional.of(targetShelf));
+        when(bookshelfBookRepository.deleteByBookshelfIdAndBookId(oldShelf.getId(), bookId)).thenReturn(1L);
 
         // When
         bookshelfService.addOrMoveBook(userId, bookId, targetShelfId);
 
         // Then
+        // przeniesienie nie zmienia liczby czytelników
+        verify(statisticsRepository, never()).adjustReadersCount(any(), anyInt());
         // czy usunięto ze starych
         verify(bookshelfBookRepository).deleteByBookshelfIdAndBookId(oldShelf.getId(), bookId);
         // czy dodano do nowej
         verify(bookshelfBookRepository).save(any(BookshelfBook.class));
+        // czy zmiana trafiła do dziennika
+        verify(changeFeedService).record(EntityType.SHELF_ITEM, bookId, targetShelfId, Operation.UPSERT, userId);
+        // liczba czytelników w karcie książki
+        verify(bookCardService).refreshBook(bookId);
+        // przeniesienie to nie nowa aktywność na liście popularnych
+        verify(trendingService, never()).recordShelfAdd(any());
+    }
+
+    @Test
+    @DisplayName("should increment readers count when book lands on first shelf")
+    void shouldIncrementReadersCount_whenBookAddedFirstTime() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        UUID bookId = UUID.randomUUID();
+        UUID targetShelfId = UUID.randomUUID();
+
+        User user = new User();
+        user.setId(userId);
+        user.setBookshelves(List.of());
+
+        Book book = new Book();
+        book.setId(bookId);
+
+        Bookshelf targetShelf = new Bookshelf();
+        targetShelf.setId(targetShelfId);
+        targetShelf.setUser(user);
+        targetShelf.setItems(new ArrayList<>());
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
+        when(bookshelfRepository.findById(targetShelfId)).thenReturn(Optional.of(targetShelf));
+
+        // When
+        bookshelfService.addOrMoveBook(userId, bookId, targetShelfId);
+
+        // Then
+        verify(statisticsRepository).adjustReadersCount(bookId, 1);
+        // aktywność do listy popularnych
+        verify(trendingService).recordShelfAdd(bookId);
+    }
+
+    @Test
+    @DisplayName("should move read counter from year of old entry when book leaves read shelf")
+    void shouldAdjustReadCounters_whenMovingBetweenReadAndOtherShelf() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        UUID bookId = UUID.randomUUID();
+        UUID targetShelfId = UUID.randomUUID();
+
+        User user = new User();
+        user.setId(userId);
+
+        Book book = new Book();
+        book.setId(bookId);
+
+        Bookshelf readShelf = new Bookshelf();
+        readShelf.setId(UUID.randomUUID());
+        readShelf.setType(ShelfType.READ);
+        BookshelfBook oldItem = new BookshelfBook(readShelf, book);
+        oldItem.setAddedAt(java.time.LocalDateTime.of(2020, 5, 1, 12, 0));
+        readShelf.setItems(List.of(oldItem));
+
+        Bookshelf targetShelf = new Bookshelf();
+        targetShelf.setId(targetShelfId);
+        targetShelf.setUser(user);
+        targetShelf.setType(ShelfType.CURRENTLY_READING);
+        targetShelf.setItems(new ArrayList<>());
+        user.setBookshelves(List.of(readShelf, targetShelf));
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
+        when(bookshelfRepository.findById(targetShelfId)).thenReturn(Optional.of(targetShelf));
+
+        // When
+        bookshelfService.addOrMoveBook(userId, bookId, targetShelfId);
+
+        // Then
+        verify(statisticsRepository).adjustBooksReadInYear(userId, 2020, bookId, -1);
+        verify(statisticsRepository, never()).adjustBooksReadInYear(any(), anyInt(), any(), eq(1));
+    }
+
+    @Test
+    @DisplayName("should count book in current year when it lands on read shelf")
+    void shouldIncrementReadCounter_whenMovedToReadShelf() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        UUID bookId = UUID.randomUUID();
+        UUID targetShelfId = UUID.randomUUID();
+
+        User user = new User();
+        user.setId(userId);
+        user.setBookshelves(List.of());
+
+        Book book = new Book();
+        book.setId(bookId);
+
+        Bookshelf readShelf = new Bookshelf();
+        readShelf.setId(targetShelfId);
+        readShelf.setUser(user);
+        readShelf.setType(ShelfType.READ);
+        readShelf.setItems(new ArrayList<>());
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
+        when(bookshelfRepository.findById(targetShelfId)).thenReturn(Optional.of(readShelf));
+
+        // When
+        bookshelfService.addOrMoveBook(userId, bookId, targetShelfId);
+
+        // Then
+        verify(statisticsRepository).adjustBooksReadInYear(userId, java.time.LocalDate.now().getYear(), bookId, 1);
     }
 
     @Test
@@ -293,6 +436,7 @@ class BookshelfServiceTest {
         // Then
         verify(bookshelfBookRepository, never()).deleteByBookshelfIdAndBookId(any(), any());
         verify(bookshelfBookRepository, never()).save(any());
+        verifyNoInteractions(changeFeedService);
     }
 
     @Test
@@ -337,6 +481,7 @@ class BookshelfServiceTest {
         user.setBookshelves(List.of(s1, s2));
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(bookshelfBookRepository.deleteByBookshelfIdAndBookId(s1.getId(), bookId)).thenReturn(1L);
 
         // When
         bookshelfService.removeBookFromLibrary(userId, bookId);
@@ -344,5 +489,27 @@ class BookshelfServiceTest {
         // Then
         verify(bookshelfBookRepository).deleteByBookshelfIdAndBookId(s1.getId(), bookId);
         verify(bookshelfBookRepository).deleteByBookshelfIdAndBookId(s2.getId(), bookId);
+        verify(changeFeedService).record(EntityType.SHELF_ITEM, bookId, null, Operation.DELETE, userId);
+        verify(statisticsRepository).adjustReadersCount(bookId, -1);
+    }
+    @Test
+    @DisplayName("should not record a DELETE change when the book was not on any shelf")
+    void shouldSkipChange_whenNothingRemoved() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        UUID bookId = UUID.randomUUID();
+
+        User user = new User();
+        Bookshelf s1 = new Bookshelf(); s1.setId(UUID.randomUUID());
+        user.setBookshelves(List.of(s1));
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+        // When
+        bookshelfService.removeBookFromLibrary(userId, bookId);
+
+        // Then
+        verify(bookshelfBookRepository).deleteByBookshelfIdAndBookId(s1.getId(), bookId);
+        verifyNoInteractions(changeFeedService, statisticsRepository);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,201 @@
+package org.example.bookaroo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.bookaroo.dto.BulkImportReportDTO;
+import org.example.bookaroo.repository.BookCardDao;
+import org.example.bookaroo.repository.CatalogBulkDao;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+// bez transakcji testu - serwis sam otwiera transakcję na każdą paczkę
+@DataJpaTest
+@Import({CatalogBulkDao.class, BookCardDao.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CatalogBulkImportServiceTest {
+
+    @Autowired
+    private CatalogBulkDao catalogBulkDao;
+
+    @Autowired
+    private BookCardDao bookCardDao;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final BookCardService bookCardService = mock(BookCardService.class);
+    private final ChangeFeedService changeFeedService = mock(ChangeFeedService.class);
+
+    private CatalogBulkImportService service;
+
+    @BeforeEach
+    void setUp() {
+        // mała paczka, żeby test przechodził przez kilka transakcji
+        service = new CatalogBulkImportService(catalogBulkDao, bookCardDao, bookCardService, changeFeedService, new ObjectMapper(), transactionManager, 2, 1000);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM change_log");
+        jdbcTemplate.update("DELETE FROM book_cards");
+        jdbcTemplate.update("DELETE FROM book_genres");
+        jdbcTemplate.update("DELETE FROM books");
+        jdbcTemplate.update("DELETE FROM genres");
+        jdbcTemplate.update("DELETE FROM authors");
+    }
+
+    private InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+
+    @Test
+    @DisplayName("should insert NDJSON rows in chunks, reusing authors and genres")
+    void shouldImportNdjson() throws IOException {
+        String ndjson = """
+                {"title": "Hobbit", "isbn": "111", "authorName": "J.R.R.", "authorSurname": "Tolkien", "publicationYear": 1937, "genres": ["Fantasy", "Przygoda"]}
+                {"title": "Silmarillion", "isbn": "222", "authorName": "j.r.r.", "authorSurname": "TOLKIEN", "genres": ["fantasy"]}
+
+                {"title": "Rok 1984", "isbn": "333", "authorName": "George", "authorSurname": "Orwell", "publicationYear": 1949}
+                """;
+
+        BulkImportReportDTO report = service.importNdjson(stream(ndjson));
+
+        assertThat(report.totalRows()).isEqualTo(3);
+        assertThat(report.inserted()).isEqualTo(3);
+        assertThat(report.failed()).isZero();
+        assertThat(report.authorsCreated()).isEqualTo(2);
+        assertThat(report.genresCreated()).isEqualTo(2);
+        assertThat(count("SELECT COUNT(*) FROM books")).isEqualTo(3);
+        assertThat(count("SELECT COUNT(*) FROM authors")).isEqualTo(2);
+        assertThat(count("SELECT COUNT(*) FROM book_genres")).isEqualTo(3);
+        // change feed widzi nowe książki
+        assertThat(count("SELECT COUNT(*) FROM change_log WHERE entity_type = 'BOOK'")).isEqualTo(3);
+        // karty listingu powstają w tej samej transakcji co książki
+        assertThat(jdbcTemplate.queryForObject("SELECT genres FROM book_cards WHERE isbn = '111'", String.class))
+                .isEqualTo("Fantasy|Przygoda");
+        // indeksy w pamięci odświeżane per paczka (2 + 1)
+        verify(bookCardService, times(2)).refreshIndexes(anyCollection());
+    }
+
+    @Test
+    @DisplayName("should report invalid, malformed and duplicate rows without stopping the import")
+    void shouldReportRowErrors() throws IOException {
+        jdbcTemplate.update("INSERT INTO authors (id, name, surname) VALUES (?, 'Stanisław', 'Lem')", UUID.randomUUID());
+        UUID lemId = jdbcTemplate.queryForObject("SELECT id FROM authors", UUID.class);
+        jdbcTemplate.update("INSERT INTO books (id, title, isbn, total_reviews, author_id) VALUES (?, 'Solaris', '999', 0, ?)",
+                UUID.randomUUID(), lemId);
+
+        String ndjson = """
+                {"title": "Cyberiada", "isbn": "100", "authorName": "Stanisław", "authorSurname": "Lem"}
+                {"title": "Solaris (wznowienie)", "isbn": "999", "authorName": "Stanisław", "authorSurname": "Lem"}
+                {"title": "", "isbn": "101", "authorName": "Stanisław", "authorSurname": "Lem"}
+                {"title": "Bez autora", "isbn": "102"}
+                {not json
+                {"title": "Cyberiada (kopia)", "isbn": "100", "authorName": "Stanisław", "authorSurname": "Lem"}
+                """;
+
+        BulkImportReportDTO report = service.importNdjson(stream(ndjson));
+
+        assertThat(report.totalRows()).isEqualTo(6);
+        assertThat(report.inserted()).isEqualTo(1);
+        assertThat(report.failed()).isEqualTo(5);
+        assertThat(report.authorsCreated()).isZero();
+        assertThat(report.errors()).extracting(e -> e.row()).containsExactly(2L, 3L, 4L, 5L, 6L);
+        assertThat(report.errors().get(0).message()).contains("ISBN");
+        assertThat(report.errors().get(3).message()).startsWith("Niepoprawny JSON");
+    }
+
+    @Test
+    @DisplayName("should fall back to single rows when a chunk fails and keep the good rows")
+    void shouldIsolateFailingRowInChunk() throws IOException {
+        // wiersz poprawny dla walidacji, ale odrzucony przez bazę (CHECK dodany na czas testu)
+        String ndjson = """
+                {"title": "Dobra", "isbn": "201", "authorName": "Jan", "authorSurname": "Nowak"}
+                {"title": "Zła", "isbn": "202", "authorName": "Jan", "authorSurname": "Nowak", "publicationYear": 1}
+                """;
+        service = new CatalogBulkImportService(catalogBulkDao, bookCardDao, bookCardService, changeFeedService, new ObjectMapper(), transactionManager, 10, 1000);
+        jdbcTemplate.execute("ALTER TABLE books ADD CONSTRAINT test_year CHECK (publication_year IS NULL OR publication_year > 1000)");
+        try {
+            BulkImportReportDTO report = service.importNdjson(stream(ndjson));
+
+            assertThat(report.inserted()).isEqualTo(1);
+            assertThat(report.failed()).isEqualTo(1);
+            assertThat(report.errors().get(0).row()).isEqualTo(2);
+            assertThat(report.errors().get(0).message()).startsWith("Błąd zapisu");
+            assertThat(report.authorsCreated()).isEqualTo(1);
+            assertThat(count("SELECT COUNT(*) FROM authors")).isEqualTo(1);
+            assertThat(count("SELECT COUNT(*) FROM books WHERE isbn = '201'")).isEqualTo(1);
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE books DROP CONSTRAINT test_year");
+        }
+    }
+
+    @Test
+    @DisplayName("should import CSV with semicolon separator, BOM and genre list")
+    void shouldImportCsv() throws IOException {
+        String csv = """
+                \uFEFFtitle;isbn;author_name;author_surname;publication_year;genres
+                Hobbit;111;J.R.R.;Tolkien;1937;Fantasy|Przygoda
+                "Rok 1984; wydanie II";333;George;Orwell;abc;
+                Folwark zwierzęcy;334;George;Orwell;;
+                """;
+
+        BulkImportReportDTO report = service.importCsv(stream(csv));
+
+        assertThat(report.totalRows()).isEqualTo(3);
+        assertThat(report.inserted()).isEqualTo(2);
+        assertThat(report.errors()).singleElement()
+                .satisfies(error -> {
+                    assertThat(error.row()).isEqualTo(2);
+                    assertThat(error.isbn()).isEqualTo("333");
+                    assertThat(error.message()).contains("rok wydania");
+                });
+        assertThat(count("SELECT COUNT(*) FROM book_genres")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should reject CSV without required columns")
+    void shouldRejectCsvWithoutRequiredColumns() {
+        assertThatThrownBy(() -> service.importCsv(stream("title,isbn\nHobbit,111\n")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("authorname");
+    }
+
+    @Test
+    @DisplayName("should cap reported errors but keep counting")
+    void shouldTruncateErrorReport() throws IOException {
+        service = new CatalogBulkImportService(catalogBulkDao, bookCardDao, bookCardService, changeFeedService, new ObjectMapper(), transactionManager, 2, 2);
+
+        BulkImportReportDTO report = service.importNdjson(stream("x\ny\nz\n"));
+
+        assertThat(report.failed()).isEqualTo(3);
+        assertThat(report.errors()).hasSize(2);
+        assertThat(report.errorsTruncated()).isTrue();
+    }
+}
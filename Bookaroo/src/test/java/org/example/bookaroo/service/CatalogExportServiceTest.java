@@ -0,0 +1,107 @@
+package org.example.bookaroo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.bookaroo.dto.BookDTO;
+import org.example.bookaroo.repository.CatalogExportDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogExportServiceTest {
+
+    @Mock
+    private CatalogExportDao catalogExportDao;
+
+    private CatalogExportService catalogExportService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        catalogExportService = new CatalogExportService(catalogExportDao, objectMapper);
+    }
+
+    private BookDTO book(String title) {
+        return new BookDTO(UUID.randomUUID(), title, "123", null, 2000, UUID.randomUUID(), "Jan Kowalski", null, List.of("Fantasy"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void catalogOf(BookDTO... books) {
+        when(catalogExportDao.streamCatalog(any(Consumer.class))).thenAnswer(inv -> {
+            Consumer<BookDTO> consumer = inv.getArgument(0);
+            for (BookDTO book : books) {
+                consumer.accept(book);
+            }
+            return (long) books.length;
+        });
+    }
+
+    @Test
+    @DisplayName("Jedna książka na linię, każda linia to poprawny JSON")
+    void shouldWriteOneJsonObjectPerLine() throws IOException {
+        catalogOf(book("Hobbit"), book("Dziady"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = catalogExportService.exportNdjson(out, false);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8)).endsWith("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[0], BookDTO.class).title()).isEqualTo("Hobbit");
+        assertThat(objectMapper.readValue(lines[1], BookDTO.class).genres()).containsExactly("Fantasy");
+    }
+
+    @Test
+    @DisplayName("Gzip - wynik dekompresuje się do tego samego NDJSON")
+    void shouldGzipOutput() throws IOException {
+        catalogOf(book("Hobbit"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        catalogExportService.exportNdjson(out, true);
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            String ndjson = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertThat(objectMapper.readValue(ndjson.trim(), BookDTO.class).title()).isEqualTo("Hobbit");
+        }
+    }
+
+    @Test
+    @DisplayName("Błąd zapisu (zerwane połączenie) przerywa eksport jako IOException")
+    void shouldPropagateWriteFailure() {
+        BookDTO[] books = new BookDTO[600];
+        for (int i = 0; i < books.length; i++) {
+            books[i] = book("Książka " + i);
+        }
+        catalogOf(books);
+
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThatThrownBy(() -> catalogExportService.exportNdjson(broken, false))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Broken pipe");
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.bookaroo.service;
+
+import org.example.bookaroo.dto.AuthorSummaryDTO;
+import org.example.bookaroo.dto.BookDTO;
+import org.example.bookaroo.repository.BookCardDao.CardRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogSnapshotFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+    private CatalogSnapshot snapshot;
+
+    private final UUID fantasy = UUID.randomUUID();
+    private final UUID adventure = UUID.randomUUID();
+    private final AuthorSummaryDTO sapkowski = new AuthorSummaryDTO(UUID.randomUUID(), "Andrzej", "Sapkowski");
+    private final AuthorSummaryDTO lem = new AuthorSummaryDTO(UUID.randomUUID(), "Stanisław", "Lem");
+
+    @BeforeEach
+    void setUp() {
+        file = tempDir.resolve("catalog/catalog.snapshot");
+        snapshot = CatalogSnapshot.of(List.of(
+                row("Ostatnie życzenie", sapkowski, 1993, "Zbiór opowiadań o wiedźminie", 8.5, 3, 12, List.of(adventure, fantasy),
+                        List.of("Przygodowa", "Fantasy")),
+                row("Miecz przeznaczenia", sapkowski, null, null, null, 0, 0, List.of(fantasy), List.of("Fantasy")),
+                row("Solaris", lem, 1961, "Ocean myśli", 9.0, 1, 4, List.of(), List.of())
+        ), List.of(sapkowski, lem));
+    }
+
+    private static CardRow row(String title, AuthorSummaryDTO author, Integer year, String description, Double rating,
+                               int reviews, int readers, List<UUID> genreIds, List<String> genreNames) {
+        BookDTO card = new BookDTO(UUID.randomUUID(), title, "isbn-" + title, description, year, author.id(),
+                author.name() + " " + author.surname(), rating, genreNames, readers);
+        return new CardRow(card, reviews, genreIds);
+    }
+
+    @Test
+    @DisplayName("should round-trip the whole catalog, including nulls and Polish characters")
+    void shouldRoundTrip() throws IOException {
+        Instant before = Instant.now().minusSeconds(1);
+
+        CatalogSnapshotFile.write(snapshot, file);
+        CatalogSnapshotFile.Contents contents = CatalogSnapshotFile.read(file);
+
+        CatalogSnapshot loaded = contents.snapshot();
+        assertThat(loaded.rows()).isEqualTo(snapshot.rows());
+        assertThat(loaded.authors()).isEqualTo(snapshot.authors());
+        assertThat(loaded.cards()).isEqualTo(snapshot.cards());
+        assertThat(loaded.byGenre(fantasy, 0, 10)).extracting(BookDTO::title)
+                .containsExactly("Miecz przeznaczenia", "Ostatnie życzenie");
+        assertThat(loaded.search("stanisław", 0, 10)).extracting(BookDTO::title).containsExactly("Solaris");
+        assertThat(loaded.heapBytes()).isEqualTo(snapshot.heapBytes());
+        assertThat(contents.writtenAt()).isAfter(before);
+        assertThat(file.getParent().toFile().list()).containsExactly("catalog.snapshot");
+    }
+
+    @Test
+    @DisplayName("should store repeated strings once in the string heap")
+    void shouldDeduplicateStrings() throws IOException {
+        CatalogSnapshotFile.write(snapshot, file);
+        CatalogSnapshot loaded = CatalogSnapshotFile.read(file).snapshot();
+
+        String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        assertThat(content.split("Andrzej Sapkowski", -1)).hasSize(2);
+        // ten sam napis po odczycie to ten sam obiekt
+        assertThat(loaded.cards().get(0).authorName()).isSameAs(loaded.cards().get(1).authorName());
+    }
+
+    @Test
+    @DisplayName("should round-trip an empty catalog")
+    void shouldRoundTripEmptyCatalog() throws IOException {
+        CatalogSnapshotFile.write(CatalogSnapshot.empty(), file);
+
+        assertThat(CatalogSnapshotFile.read(file).snapshot().size()).isZero();
+    }
+
+    @Test
+    @DisplayName("should reject a file whose checksum does not match")
+    void shouldRejectCorruptedFile() throws IOException {
+        CatalogSnapshotFile.write(snapshot, file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 0x55;
+        Files.write(file, bytes);
+
+        assertThatThrownBy(() -> CatalogSnapshotFile.read(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Suma kontrolna");
+    }
+
+    @Test
+    @DisplayName("should reject a file written by another format version")
+    void shouldRejectOtherVersion() throws IOException {
+        CatalogSnapshotFile.write(snapshot, file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, CatalogSnapshotFile.VERSION + 1), 4);
+        }
+
+        assertThatThrownBy(() -> CatalogSnapshotFile.read(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("wersja");
+    }
+
+    @Test
+    @DisplayName("should reject truncated and foreign files")
+    void shouldRejectTruncatedFile() throws IOException {
+        CatalogSnapshotFile.write(snapshot, file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 10));
+
+        assertThatThrownBy(() -> CatalogSnapshotFile.read(file)).isInstanceOf(IOException.class);
+
+        Files.writeString(file, "to nie jest migawka katalogu, tylko zwykły tekst w pliku o tej nazwie");
+        assertThatThrownBy(() -> CatalogSnapshotFile.read(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("nie jest migawką");
+    }
+}
@@ -0,0 +1,168 @@
+package org.example.bookaroo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bookaroo.dto.AuthorSummaryDTO;
+import org.example.bookaroo.dto.BookDTO;
+import org.example.bookaroo.repository.AuthorLookupDao;
+import org.example.bookaroo.repository.BookCardDao;
+import org.example.bookaroo.repository.BookCardDao.CardRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSnapshotServiceTest {
+
+    @Mock
+    private BookCardDao bookCardDao;
+    @Mock
+    private AuthorLookupDao authorLookupDao;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CatalogSnapshotService snapshotService;
+
+    private final AuthorSummaryDTO tolkien = new AuthorSummaryDTO(UUID.randomUUID(), "J.R.R.", "Tolkien");
+    private CardRow hobbit;
+    private CardRow silmarillion;
+
+    @BeforeEach
+    void setUp() {
+        snapshotService = new CatalogSnapshotService(bookCardDao, authorLookupDao, meterRegistry, 1, "");
+        hobbit = row(UUID.randomUUID(), "Hobbit", tolkien, null);
+        silmarillion = row(UUID.randomUUID(), "Silmarillion", tolkien, null);
+    }
+
+    private static CardRow row(UUID id, String title, AuthorSummaryDTO author, Double rating) {
+        BookDTO card = new BookDTO(id, title, "isbn", "Opis", 2000, author.id(),
+                author.name() + " " + author.surname(), rating, List.of(), 0);
+        return new CardRow(card, 0, List.of());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rebuildWith(List<AuthorSummaryDTO> authors, CardRow... rows) {
+        doAnswer(invocation -> {
+            Consumer<CardRow> action = invocation.getArgument(0);
+            for (CardRow row : rows) {
+                action.accept(row);
+            }
+            return null;
+        }).when(bookCardDao).forEachCatalogRow(any());
+        when(authorLookupDao.findAll()).thenReturn(authors);
+        snapshotService.rebuild();
+    }
+
+    @Test
+    @DisplayName("should ignore refreshes before the first build and publish gauges after it")
+    void shouldPublishAfterFirstBuild() {
+        snapshotService.refreshBooks(List.of(hobbit.card().id()));
+        snapshotService.refreshAuthor(tolkien.id());
+
+        assertThat(snapshotService.current()).isNull();
+        assertThat(meterRegistry.get("bookaroo.catalog.snapshot.heap").gauge().value()).isZero();
+        verifyNoInteractions(bookCardDao, authorLookupDao);
+
+        rebuildWith(List.of(tolkien), hobbit, silmarillion);
+
+        assertThat(snapshotService.current().size()).isEqualTo(2);
+        assertThat(meterRegistry.get("bookaroo.catalog.snapshot.books").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("bookaroo.catalog.snapshot.heap").gauge().value())
+                .isEqualTo(snapshotService.current().heapBytes());
+    }
+
+    @Test
+    @DisplayName("should apply a small change as a delta, loading only changed rows and new authors")
+    void shouldApplyDelta() {
+        rebuildWith(List.of(tolkien), hobbit);
+        CatalogSnapshot before = snapshotService.current();
+        AuthorSummaryDTO lewis = new AuthorSummaryDTO(UUID.randomUUID(), "C.S.", "Lewis");
+        CardRow narnia = row(UUID.randomUUID(), "Narnia", lewis, 7.0);
+        when(bookCardDao.findCatalogRows(List.of(narnia.card().id()))).thenReturn(List.of(narnia));
+        when(authorLookupDao.findByIds(any())).thenReturn(List.of(lewis));
+
+        snapshotService.refreshBooks(List.of(narnia.card().id()));
+
+        assertThat(snapshotService.current()).isNotSameAs(before);
+        assertThat(snapshotService.current().byAuthor(lewis.id(), 0, 10)).extracting(BookDTO::title).containsExactly("Narnia");
+        verify(authorLookupDao).findByIds(Set.of(lewis.id()));
+        verify(bookCardDao, times(1)).forEachCatalogRow(any());
+        assertThat(before.contains(narnia.card().id())).isFalse();
+    }
+
+    @Test
+    @DisplayName("should rebuild from the database when a change exceeds the delta limit")
+    void shouldRebuildAboveDeltaLimit() {
+        rebuildWith(List.of(tolkien), hobbit);
+
+        snapshotService.refreshBooks(List.of(hobbit.card().id(), silmarillion.card().id()));
+
+        verify(bookCardDao, times(2)).forEachCatalogRow(any());
+        verify(bookCardDao, never()).findCatalogRows(any());
+    }
+
+    @Test
+    @DisplayName("should persist changed snapshots to the file and serve them after restart before the first build")
+    void shouldPersistAndLoadFile(@TempDir Path tempDir) {
+        Path file = tempDir.resolve("catalog.snapshot");
+        CatalogSnapshotService writer = new CatalogSnapshotService(bookCardDao, authorLookupDao, meterRegistry, 1,
+                file.toString());
+        writer.load();
+        writer.persist();
+        assertThat(file).doesNotExist();
+
+        snapshotService = writer;
+        rebuildWith(List.of(tolkien), hobbit, silmarillion);
+        writer.persist();
+        long modified = file.toFile().lastModified();
+        writer.persist();
+
+        CatalogSnapshotService restarted = new CatalogSnapshotService(bookCardDao, authorLookupDao,
+                new SimpleMeterRegistry(), 1, file.toString());
+        restarted.load();
+
+        assertThat(file.toFile().lastModified()).isEqualTo(modified);
+        assertThat(restarted.current().cards()).isEqualTo(writer.current().cards());
+        assertThat(restarted.current().book(hobbit.card().id())).get().extracting(BookDTO::description).isEqualTo("Opis");
+        verify(bookCardDao, times(1)).forEachCatalogRow(any());
+    }
+
+    @Test
+    @DisplayName("should ignore an unreadable snapshot file and wait for the first build")
+    void shouldIgnoreUnreadableFile(@TempDir Path tempDir) throws IOException {
+        Path file = Files.writeString(tempDir.resolve("catalog.snapshot"), "uszkodzony");
+        CatalogSnapshotService service = new CatalogSnapshotService(bookCardDao, authorLookupDao, meterRegistry, 1,
+                file.toString());
+
+        service.load();
+
+        assertThat(service.current()).isNull();
+    }
+
+    @Test
+    @DisplayName("should drop a deleted author together with their books")
+    void shouldRefreshDeletedAuthor() {
+        rebuildWith(List.of(tolkien), hobbit, silmarillion);
+        when(bookCardDao.findCatalogRowsByAuthor(tolkien.id())).thenReturn(List.of());
+        when(authorLookupDao.findByIds(List.of(tolkien.id()))).thenReturn(List.of());
+
+        snapshotService.refreshAuthor(tolkien.id());
+
+        assertThat(snapshotService.current().size()).isZero();
+        assertThat(snapshotService.current().hasAuthor(tolkien.id())).isFalse();
+    }
+}
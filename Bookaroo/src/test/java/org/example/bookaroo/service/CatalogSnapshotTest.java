@@ -0,0 +1,151 @@
+package org.example.bookaroo.service;
+
+import org.example.bookaroo.dto.AuthorSummaryDTO;
+import org.example.bookaroo.dto.BookDTO;
+import org.example.bookaroo.repository.BookCardDao.CardRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogSnapshotTest {
+
+    private final UUID fantasy = UUID.randomUUID();
+    private final UUID adventure = UUID.randomUUID();
+    private final AuthorSummaryDTO tolkien = new AuthorSummaryDTO(UUID.randomUUID(), "J.R.R.", "Tolkien");
+    private final AuthorSummaryDTO lewis = new AuthorSummaryDTO(UUID.randomUUID(), "C.S.", "Lewis");
+
+    private CardRow hobbit;
+    private CardRow silmarillion;
+    private CardRow narnia;
+    private CatalogSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        hobbit = row(UUID.randomUUID(), "Hobbit", 1937, tolkien, 8.0, List.of(adventure, fantasy), List.of("Adventure", "Fantasy"));
+        silmarillion = row(UUID.randomUUID(), "Silmarillion", 1977, tolkien, null, List.of(fantasy), List.of("Fantasy"));
+        narnia = row(UUID.randomUUID(), "Narnia", 1950, lewis, 7.0, List.of(fantasy), List.of("Fantasy"));
+        snapshot = CatalogSnapshot.of(List.of(silmarillion, narnia, hobbit), List.of(tolkien, lewis));
+    }
+
+    private static CardRow row(UUID id, String title, int year, AuthorSummaryDTO author, Double rating,
+                               List<UUID> genreIds, List<String> genreNames) {
+        BookDTO card = new BookDTO(id, title, "isbn-" + title, "Opis: " + title, year, author.id(),
+                author.name() + " " + author.surname(), rating, genreNames, 0);
+        return new CardRow(card, 0, genreIds);
+    }
+
+    @Test
+    @DisplayName("should order cards by title and drop descriptions from list cards")
+    void shouldOrderCardsByTitle() {
+        assertThat(snapshot.cards()).extracting(BookDTO::title).containsExactly("Hobbit", "Narnia", "Silmarillion");
+        assertThat(snapshot.cards()).extracting(BookDTO::description).containsOnlyNulls();
+        assertThat(snapshot.book(hobbit.card().id())).get().extracting(BookDTO::description).isEqualTo("Opis: Hobbit");
+        assertThat(snapshot.book(UUID.randomUUID())).isEmpty();
+        assertThat(snapshot.page(1, 5)).extracting(BookDTO::title).containsExactly("Narnia", "Silmarillion");
+        assertThat(snapshot.page(10, 5)).isEmpty();
+        assertThatThrownBy(() -> snapshot.cards().set(0, null)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    @DisplayName("should break title ties by id compared as unsigned, like the database")
+    void shouldBreakTitleTiesByUnsignedId() {
+        CardRow low = row(new UUID(1L, 0L), "Hobbit", 1937, tolkien, null, List.of(), List.of());
+        CardRow high = row(new UUID(-1L, 0L), "Hobbit", 1937, tolkien, null, List.of(), List.of());
+
+        CatalogSnapshot tied = CatalogSnapshot.of(List.of(high, low), List.of(tolkien));
+
+        assertThat(tied.cards()).extracting(BookDTO::id).containsExactly(low.card().id(), high.card().id());
+    }
+
+    @Test
+    @DisplayName("should list books by author and genre in catalog order")
+    void shouldListByAuthorAndGenre() {
+        assertThat(snapshot.byAuthor(tolkien.id(), 0, 10)).extracting(BookDTO::title).containsExactly("Hobbit", "Silmarillion");
+        assertThat(snapshot.byAuthor(tolkien.id(), 1, 10)).extracting(BookDTO::title).containsExactly("Silmarillion");
+        assertThat(snapshot.countByAuthor(tolkien.id())).isEqualTo(2);
+        assertThat(snapshot.byAuthor(UUID.randomUUID(), 0, 10)).isEmpty();
+
+        assertThat(snapshot.byGenre(fantasy, 0, 2)).extracting(BookDTO::title).containsExactly("Hobbit", "Narnia");
+        assertThat(snapshot.countByGenre(fantasy)).isEqualTo(3);
+        assertThat(snapshot.genreName(adventure)).contains("Adventure");
+        assertThat(snapshot.byYear(1950)).extracting(BookDTO::title).containsExactly("Narnia");
+    }
+
+    @Test
+    @DisplayName("should search title, author name and isbn ignoring case")
+    void shouldSearch() {
+        assertThat(snapshot.search("TOLKIEN", 0, 10)).extracting(BookDTO::title).containsExactly("Hobbit", "Silmarillion");
+        assertThat(snapshot.search("tolkien", 1, 10)).extracting(BookDTO::title).containsExactly("Silmarillion");
+        assertThat(snapshot.search("isbn-narnia", 0, 10)).extracting(BookDTO::title).containsExactly("Narnia");
+        assertThat(snapshot.countSearch("i")).isEqualTo(3);
+        // fraza nie łączy tytułu z nazwiskiem
+        assertThat(snapshot.countSearch("hobbitj")).isZero();
+    }
+
+    @Test
+    @DisplayName("should copy only card arrays when a card changes without moving in any list")
+    void shouldApplyCardOnlyChange() {
+        CardRow rated = row(silmarillion.card().id(), "Silmarillion", 1977, tolkien, 9.0, List.of(fantasy), List.of("Fantasy"));
+
+        CatalogSnapshot next = snapshot.apply(List.of(rated.card().id()), List.of(rated), List.of(), List.of());
+
+        assertThat(next.book(rated.card().id())).get().extracting(BookDTO::averageRating).isEqualTo(9.0);
+        assertThat(next.byAuthor(tolkien.id(), 0, 10)).extracting(BookDTO::averageRating).containsExactly(8.0, 9.0);
+        assertThat(next.averageRatings()).containsEntry(rated.card().id(), 9.0);
+        // poprzednia migawka bez zmian - czytelnicy trzymający starą referencję
+        assertThat(snapshot.book(rated.card().id())).get().extracting(BookDTO::averageRating).isNull();
+        assertThat(snapshot.averageRatings()).doesNotContainKey(rated.card().id());
+    }
+
+    @Test
+    @DisplayName("should rebuild lists when title or genres change, and drop removed books")
+    void shouldApplyStructuralChange() {
+        CardRow renamed = row(hobbit.card().id(), "Tam i z powrotem", 1937, tolkien, 8.0, List.of(fantasy), List.of("Fantasy"));
+
+        CatalogSnapshot next = snapshot.apply(List.of(renamed.card().id(), narnia.card().id()), List.of(renamed),
+                List.of(), List.of());
+
+        assertThat(next.cards()).extracting(BookDTO::title).containsExactly("Silmarillion", "Tam i z powrotem");
+        assertThat(next.countByGenre(adventure)).isZero();
+        assertThat(next.contains(narnia.card().id())).isFalse();
+        assertThat(next.search("powrotem", 0, 10)).hasSize(1);
+        assertThat(snapshot.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("should replace or remove authors together with their books")
+    void shouldApplyAuthorChange() {
+        AuthorSummaryDTO renamed = new AuthorSummaryDTO(lewis.id(), "Clive Staples", "Lewis");
+        CardRow narniaRenamed = row(narnia.card().id(), "Narnia", 1950, renamed, 7.0, List.of(fantasy), List.of("Fantasy"));
+
+        CatalogSnapshot next = snapshot.apply(List.of(narnia.card().id()), List.of(narniaRenamed),
+                List.of(lewis.id()), List.of(renamed));
+        CatalogSnapshot removed = next.apply(List.of(narnia.card().id()), List.of(), List.of(lewis.id()), List.of());
+
+        assertThat(next.author(lewis.id())).contains(renamed);
+        assertThat(next.search("clive", 0, 10)).extracting(BookDTO::title).containsExactly("Narnia");
+        assertThat(removed.hasAuthor(lewis.id())).isFalse();
+        assertThat(removed.cards()).extracting(BookDTO::title).containsExactly("Hobbit", "Silmarillion");
+    }
+
+    @Test
+    @DisplayName("should estimate heap footprint and track it across deltas")
+    void shouldEstimateHeapBytes() {
+        CardRow longer = new CardRow(new BookDTO(silmarillion.card().id(), "Silmarillion", "isbn-Silmarillion", "x".repeat(1000), 1977,
+                tolkien.id(), "J.R.R. Tolkien", null, List.of("Fantasy"), 0), 0, List.of(fantasy));
+
+        CatalogSnapshot next = snapshot.apply(List.of(longer.card().id()), List.of(longer), List.of(), List.of());
+
+        assertThat(CatalogSnapshot.empty().heapBytes()).isPositive();
+        assertThat(snapshot.heapBytes()).isGreaterThan(CatalogSnapshot.empty().heapBytes());
+        assertThat(next.heapBytes()).isGreaterThan(snapshot.heapBytes() + 900);
+        assertThat(next.heapBytes()).isEqualTo(CatalogSnapshot.of(List.of(hobbit, narnia, longer),
+                List.of(tolkien, lewis)).heapBytes());
+    }
+}
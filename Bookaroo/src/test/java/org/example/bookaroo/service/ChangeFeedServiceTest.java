@@ -0,0 +1,171 @@
+package org.example.bookaroo.service;
+
+import org.example.bookaroo.dto.ChangeFeedDTO;
+import org.example.bookaroo.entity.ChangeLogEntry;
+import org.example.bookaroo.entity.ChangeLogEntry.EntityType;
+import org.example.bookaroo.entity.ChangeLogEntry.Operation;
+import org.example.bookaroo.repository.ChangeLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeFeedServiceTest {
+
+    @Mock
+    private ChangeLogRepository changeLogRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ChangeFeedService changeFeedService;
+
+    @BeforeEach
+    void setUp() {
+        changeFeedService = new ChangeFeedService(changeLogRepository, transactionManager, 100);
+    }
+
+    private ChangeLogEntry entry(long sequence) {
+        ChangeLogEntry entry = new ChangeLogEntry(EntityType.BOOK, UUID.randomUUID(), null, Operation.UPSERT, null);
+        entry.setSequence(sequence);
+        return entry;
+    }
+
+    @Test
+    @DisplayName("record - zapisuje wpis z typem, operacją i właścicielem")
+    void shouldSaveEntry() {
+        UUID bookId = UUID.randomUUID();
+        UUID shelfId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+
+        changeFeedService.record(EntityType.SHELF_ITEM, bookId, shelfId, Operation.UPSERT, userId);
+
+        ArgumentCaptor<ChangeLogEntry> captor = ArgumentCaptor.forClass(ChangeLogEntry.class);
+        verify(changeLogRepository).save(captor.capture());
+        assertThat(captor.getValue().getEntityType()).isEqualTo(EntityType.SHELF_ITEM);
+        assertThat(captor.getValue().getEntityId()).isEqualTo(bookId);
+        assertThat(captor.getValue().getParentId()).isEqualTo(shelfId);
+        assertThat(captor.getValue().getOperation()).isEqualTo(Operation.UPSERT);
+        assertThat(captor.getValue().getUserId()).isEqualTo(userId);
+    }
+
+    @Test
+    @DisplayName("publish - numery po ostatnim nadanym, w kolejności zapisu")
+    void shouldAssignSequencesAfterLatest() {
+        ChangeLogEntry first = entry(0);
+        ChangeLogEntry second = entry(0);
+        first.setSequence(null);
+        second.setSequence(null);
+        when(changeLogRepository.findBySequenceIsNullOrderByIdAsc()).thenReturn(List.of(first, second));
+        when(changeLogRepository.findLatestSequence()).thenReturn(41L);
+
+        changeFeedService.publish();
+
+        assertThat(first.getSequence()).isEqualTo(42);
+        assertThat(second.getSequence()).isEqualTo(43);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("record - numer nadawany dopiero po zatwierdzeniu transakcji")
+    void shouldPublishAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            changeFeedService.record(EntityType.BOOK, UUID.randomUUID(), Operation.UPSERT);
+            verify(changeLogRepository, never()).findBySequenceIsNullOrderByIdAsc();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(changeLogRepository).findBySequenceIsNullOrderByIdAsc();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("publish - brak nowych wpisów nie zmienia numeracji")
+    void shouldSkipPublishWhenNothingPending() {
+        when(changeLogRepository.findBySequenceIsNullOrderByIdAsc()).thenReturn(List.of());
+
+        changeFeedService.publish();
+
+        verify(changeLogRepository, never()).findLatestSequence();
+    }
+
+    @Test
+    @DisplayName("record - brak ID (niezapisana encja) nie tworzy wpisu")
+    void shouldSkipEntryWithoutId() {
+        changeFeedService.record(EntityType.BOOK, null, Operation.UPSERT);
+
+        verifyNoInteractions(changeLogRepository);
+    }
+
+    @Test
+    @DisplayName("getChanges - kursor wskazuje ostatnią zwróconą zmianę")
+    void shouldReturnNextSinceFromLastChange() {
+        when(changeLogRepository.findBySequenceGreaterThanAndUserIdIsNullOrderBySequenceAsc(eq(5L), any(Pageable.class)))
+                .thenReturn(List.of(entry(6), entry(9)));
+
+        ChangeFeedDTO feed = changeFeedService.getChanges(5, 10, null);
+
+        assertThat(feed.changes()).extracting("seq").containsExactly(6L, 9L);
+        assertThat(feed.changes().get(0).type()).isEqualTo("BOOK");
+        assertThat(feed.nextSince()).isEqualTo(9);
+        assertThat(feed.hasMore()).isFalse();
+    }
+
+    @Test
+    @DisplayName("getChanges - brak zmian zostawia kursor bez zmian")
+    void shouldKeepSinceWhenNoChanges() {
+        when(changeLogRepository.findBySequenceGreaterThanAndUserIdIsNullOrderBySequenceAsc(eq(42L), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        ChangeFeedDTO feed = changeFeedService.getChanges(42, 10, null);
+
+        assertThat(feed.changes()).isEmpty();
+        assertThat(feed.nextSince()).isEqualTo(42);
+    }
+
+    @Test
+    @DisplayName("getChanges - hasMore gdy zmian jest więcej niż limit")
+    void shouldDetectMoreChanges() {
+        UUID userId = UUID.randomUUID();
+        List<ChangeLogEntry> entries = LongStream.rangeClosed(1, 4).mapToObj(this::entry).toList();
+        when(changeLogRepository.findChangesForUser(eq(0L), eq(userId), any(Pageable.class))).thenReturn(entries);
+
+        ChangeFeedDTO feed = changeFeedService.getChanges(0, 3, userId);
+
+        assertThat(feed.changes()).hasSize(3);
+        assertThat(feed.nextSince()).isEqualTo(3);
+        assertThat(feed.hasMore()).isTrue();
+    }
+
+    @Test
+    @DisplayName("getChanges - limit przycięty do maksimum")
+    void shouldCapLimit() {
+        when(changeLogRepository.findBySequenceGreaterThanAndUserIdIsNullOrderBySequenceAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        changeFeedService.getChanges(0, 1_000_000, null);
+
+        ArgumentCaptor<Pageable> captor = ArgumentCaptor.forClass(Pageable.class);
+        verify(changeLogRepository).findBySequenceGreaterThanAndUserIdIsNullOrderBySequenceAsc(eq(0L), captor.capture());
+        assertThat(captor.getValue().getPageSize()).isEqualTo(101);
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.bookaroo.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ContentAddressedStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ContentAddressedStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ContentAddressedStore(tempDir);
+    }
+
+    private InputStream content(String text) {
+        return new ByteArrayInputStream(text.getBytes());
+    }
+
+    private void makeOld(Path file) throws IOException {
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - Duration.ofDays(2).toMillis()));
+    }
+
+    @Test
+    @DisplayName("should compute SHA-256 while copying and shard by its first bytes")
+    void shouldStoreUnderShardedHash() throws IOException {
+        ContentAddressedStore.Blob blob = store.store(content("hello"), ".txt");
+
+        assertThat(blob.hash()).isEqualTo("2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824");
+        assertThat(blob.key()).isEqualTo("2c/f2/" + blob.hash() + ".txt");
+        assertThat(blob.created()).isTrue();
+        assertThat(Files.readString(blob.path())).isEqualTo("hello");
+    }
+
+    @Test
+    @DisplayName("should deduplicate identical content and leave no temp files")
+    void shouldDeduplicate() throws IOException {
+        ContentAddressedStore.Blob first = store.store(content("same"), "");
+        ContentAddressedStore.Blob second = store.store(content("same"), "");
+
+        assertThat(second.key()).isEqualTo(first.key());
+        assertThat(second.created()).isFalse();
+        try (var parts = Files.list(tempDir.resolve(".tmp"))) {
+            assertThat(parts).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("should reject suffix with path characters")
+    void shouldRejectUnsafeSuffix() {
+        assertThatThrownBy(() -> store.store(content("x"), "/../x"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("should extract hash from key or URL and ignore foreign names")
+    void shouldExtractHash() throws IOException {
+        ContentAddressedStore.Blob blob = store.store(content("a"), ".png");
+
+        assertThat(ContentAddressedStore.hashOf("/uploads/" + store.keyOf(blob.hash(), "_64.jpg"))).isEqualTo(blob.hash());
+        assertThat(ContentAddressedStore.hashOf("/uploads/3f2a-legacy.png")).isNull();
+        assertThat(ContentAddressedStore.hashOf(null)).isNull();
+    }
+
+    @Test
+    @DisplayName("GC should remove old unreferenced blob together with derived files")
+    void shouldCollectUnreferencedGroup() throws IOException {
+        ContentAddressedStore.Blob dead = store.store(content("dead"), ".png");
+        Path derived = store.derived(dead.hash(), "_256.jpg");
+        Files.writeString(derived, "thumb");
+        makeOld(dead.path());
+        makeOld(derived);
+
+        ContentAddressedStore.Blob live = store.store(content("live"), ".png");
+        makeOld(live.path());
+
+        long freed = store.collectGarbage(Set.of(live.hash())::contains, Duration.ofDays(1));
+
+        assertThat(freed).isEqualTo("dead".length() + "thumb".length());
+        assertThat(dead.path()).doesNotExist();
+        assertThat(derived).doesNotExist();
+        assertThat(live.path()).exists();
+    }
+
+    @Test
+    @DisplayName("GC should keep unreferenced blob within grace period")
+    void shouldKeepRecentBlob() throws IOException {
+        ContentAddressedStore.Blob fresh = store.store(content("fresh"), "");
+
+        store.collectGarbage(hash -> false, Duration.ofDays(1));
+
+        assertThat(fresh.path()).exists();
+    }
+
+    @Test
+    @DisplayName("GC should keep whole group when re-upload renewed the original")
+    void shouldKeepGroupRenewedByDeduplication() throws IOException {
+        ContentAddressedStore.Blob blob = store.store(content("avatar"), ".png");
+        Path derived = store.derived(blob.hash(), "_256.jpg");
+        Files.writeString(derived, "thumb");
+        makeOld(blob.path());
+        makeOld(derived);
+
+        // ponowne wgranie tej samej treści odnawia karencję
+        store.store(content("avatar"), ".png");
+        store.collectGarbage(hash -> false, Duration.ofDays(1));
+
+        assertThat(blob.path()).exists();
+        assertThat(derived).exists();
+    }
+
+    @Test
+    @DisplayName("GC should not touch files outside the store naming scheme")
+    void shouldIgnoreLegacyFiles() throws IOException {
+        Path legacy = Files.writeString(tempDir.resolve("3f2a-legacy.png"), "old");
+        makeOld(legacy);
+
+        store.collectGarbage(hash -> false, Duration.ofDays(1));
+
+        assertThat(legacy).exists();
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.bookaroo.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DatabaseMaintenanceServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private Path backupDir;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:file:" + tempDir.resolve("db/bookaroo"), "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE books (title VARCHAR(255))");
+        jdbcTemplate.execute("INSERT INTO books VALUES ('Solaris')");
+        backupDir = tempDir.resolve("backups");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.destroy();
+    }
+
+    private DatabaseMaintenanceService service(int keep) {
+        return new DatabaseMaintenanceService(jdbcTemplate, backupDir.toString(), keep, 80, 16);
+    }
+
+    @Test
+    @DisplayName("should write a zip with the database file under a timestamped name")
+    void shouldBackupDatabase() throws IOException {
+        Path backup = service(7).backup();
+
+        assertThat(backup.getFileName().toString()).matches("bookaroo-\\d{8}-\\d{6}\\.zip");
+        try (ZipFile zip = new ZipFile(backup.toFile())) {
+            assertThat(zip.getEntry("bookaroo.mv.db")).isNotNull();
+        }
+        assertThat(backupDir.toFile().list()).containsExactly(backup.getFileName().toString());
+    }
+
+    @Test
+    @DisplayName("should keep only the newest backups and ignore unrelated files")
+    void shouldPruneOldBackups() throws IOException {
+        Files.createDirectories(backupDir);
+        for (String name : List.of("bookaroo-20261016-030000.zip", "bookaroo-20261017-030000.zip",
+                "bookaroo-20261018-030000.zip", "notatki.txt")) {
+            Files.writeString(backupDir.resolve(name), name);
+        }
+        DatabaseMaintenanceService service = service(2);
+
+        Path backup = service.backup();
+
+        assertThat(service.listBackups()).extracting(path -> path.getFileName().toString())
+                .containsExactly(backup.getFileName().toString(), "bookaroo-20261018-030000.zip");
+        assertThat(backupDir.resolve("notatki.txt")).exists();
+    }
+
+    @Test
+    @DisplayName("should compact a file database online and skip in-memory ones")
+    void shouldCompactOnline() {
+        jdbcTemplate.execute("INSERT INTO books SELECT 'Tytuł ' || X FROM SYSTEM_RANGE(1, 20000)");
+        jdbcTemplate.execute("DELETE FROM books WHERE title <> 'Solaris'");
+
+        service(7).compact();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books", Integer.class)).isEqualTo(1);
+
+        SingleConnectionDataSource memory = new SingleConnectionDataSource("jdbc:h2:mem:maintenance", "sa", "", true);
+        try {
+            new DatabaseMaintenanceService(new JdbcTemplate(memory), backupDir.toString(), 7, 80, 16).compact();
+        } finally {
+            memory.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("should report no backups before the directory exists")
+    void shouldListNothingWithoutDirectory() throws IOException {
+        assertThat(service(7).listBackups()).isEmpty();
+    }
+}
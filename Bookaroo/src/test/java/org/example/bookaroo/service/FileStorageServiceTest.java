@@ -1,5 +1,6 @@
 package org.example.bookaroo.service;
 
+import org.example.bookaroo.dto.mapper.UserMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -9,10 +10,17 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -34,96 +42,178 @@ class FileStorageServiceTest {
         fileStorageService = new FileStorageService(tempDir.toString());
     }
 
+    // AVATARY
+
+    private byte[] pngImage(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.ORANGE);
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    // pliki w magazynie (bez katalogu tymczasowego)
+    private List<String> storedFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(f -> !f.startsWith(tempDir.resolve(".tmp")))
+                    .map(f -> f.getFileName().toString())
+                    .toList();
+        }
+    }
+
+    private BufferedImage readUpload(String url) throws IOException {
+        return ImageIO.read(tempDir.resolve(url.replace("/uploads/", "")).toFile());
+    }
+
     @Test
-    @DisplayName("should return path starting with /uploads/ when file is valid")
-    void shouldReturnCorrectPathPrefix_whenFileIsValid() throws IOException {
+    @DisplayName("should return null when avatar file is empty")
+    void shouldReturnNull_whenFileIsEmpty() {
         // Given
-        when(multipartFile.isEmpty()).thenReturn(false);
-        when(multipartFile.getOriginalFilename()).thenReturn("image.jpg");
-        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("test content".getBytes()));
+        when(multipartFile.isEmpty()).thenReturn(true);
 
         // When
-        String result = fileStorageService.saveFile(multipartFile);
+        String result = fileStorageService.saveAvatar(multipartFile);
 
         // Then
-        assertThat(result).startsWith("/uploads/");
+        assertThat(result).isNull();
     }
 
     @Test
-    @DisplayName("should preserve file extension when saving")
-    void shouldPreserveExtension_whenSavingFile() throws IOException {
+    @DisplayName("should handle null original filename")
+    void shouldHandleNullFilename() throws IOException {
         // Given
         when(multipartFile.isEmpty()).thenReturn(false);
-        when(multipartFile.getOriginalFilename()).thenReturn("document.pdf");
-        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("data".getBytes()));
+        when(multipartFile.getOriginalFilename()).thenReturn(null);
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(pngImage(300, 300)));
 
         // When
-        String result = fileStorageService.saveFile(multipartFile);
+        String result = fileStorageService.saveAvatar(multipartFile);
 
         // Then
-        assertThat(result).endsWith(".pdf");
+        assertThat(result).startsWith("/uploads/");
+    }
+
+    @Test
+    @DisplayName("should throw RuntimeException when IOException occurs during stream reading")
+    void shouldThrowException_whenIoExceptionOccurs() throws IOException {
+        // Given
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("test.jpg");
+        // błąd wejścia/wyjścia (np. uszkodzony plik)
+        when(multipartFile.getInputStream()).thenThrow(new IOException("Stream error"));
+
+        // When & Then
+        assertThatThrownBy(() -> fileStorageService.saveAvatar(multipartFile))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Błąd podczas zapisu pliku");
     }
 
     @Test
-    @DisplayName("should actually create file in the directory")
-    void shouldCreateFileOnDisk_whenSaving() throws IOException {
+    @DisplayName("should store original and square JPEG variants 256/64/32 for avatar")
+    void shouldCreateAvatarVariants() throws IOException {
         // Given
         when(multipartFile.isEmpty()).thenReturn(false);
-        when(multipartFile.getOriginalFilename()).thenReturn("test.txt");
-        byte[] content = "Hello World".getBytes();
-        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(content));
+        when(multipartFile.getOriginalFilename()).thenReturn("me.png");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(pngImage(1200, 800)));
 
         // When
-        String resultPath = fileStorageService.saveFile(multipartFile);
+        String result = fileStorageService.saveAvatar(multipartFile);
 
         // Then
-        String filename = resultPath.replace("/uploads/", "");
-
-        // czy plik fizycznie istnieje w katalogu tymczasowym
-        Path savedFile = tempDir.resolve(filename);
-        assertThat(Files.exists(savedFile)).isTrue();
+        assertThat(result).startsWith("/uploads/").endsWith("_256.jpg");
+        for (int size : new int[]{256, 64, 32}) {
+            BufferedImage variant = readUpload(UserMapper.avatarVariant(result, size));
+            assertThat(variant.getWidth()).isEqualTo(size);
+            assertThat(variant.getHeight()).isEqualTo(size);
+        }
+
+        // oryginał zostaje obok miniatur
+        assertThat(storedFiles()).anyMatch(name -> name.endsWith(".png")).hasSize(4);
     }
 
     @Test
-    @DisplayName("should return null when file is empty")
-    void shouldReturnNull_whenFileIsEmpty() {
+    @DisplayName("should upscale avatar smaller than largest variant")
+    void shouldUpscaleSmallAvatar() throws IOException {
         // Given
-        when(multipartFile.isEmpty()).thenReturn(true);
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("tiny.png");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(pngImage(40, 50)));
 
         // When
-        String result = fileStorageService.saveFile(multipartFile);
+        String result = fileStorageService.saveAvatar(multipartFile);
 
         // Then
-        assertThat(result).isNull();
+        assertThat(readUpload(result).getWidth()).isEqualTo(256);
+        assertThat(readUpload(UserMapper.avatarVariant(result, 32)).getWidth()).isEqualTo(32);
     }
 
     @Test
-    @DisplayName("should handle null original filename")
-    void shouldHandleNullFilename() throws IOException {
+    @DisplayName("should reject non-image avatar and remove uploaded file")
+    void shouldRejectNonImageAvatar() throws IOException {
         // Given
         when(multipartFile.isEmpty()).thenReturn(false);
-        when(multipartFile.getOriginalFilename()).thenReturn(null);
-        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("data".getBytes()));
+        when(multipartFile.getOriginalFilename()).thenReturn("virus.jpg");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream("not an image".getBytes()));
+
+        // When & Then
+        assertThatThrownBy(() -> fileStorageService.saveAvatar(multipartFile))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(storedFiles()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should keep legacy and external avatar URLs unchanged when resolving variant")
+    void shouldKeepLegacyAvatarUrl() {
+        assertThat(UserMapper.avatarVariant("/uploads/abc_256.jpg", 64)).isEqualTo("/uploads/abc_64.jpg");
+        assertThat(UserMapper.avatarVariant("/uploads/old-avatar.png", 64)).isEqualTo("/uploads/old-avatar.png");
+        assertThat(UserMapper.avatarVariant("https://cdn.example.com/a_256.jpg", 64)).isEqualTo("https://cdn.example.com/a_256.jpg");
+        assertThat(UserMapper.avatarVariant(null, 64)).isNull();
+    }
+
+    // DEDUPLIKACJA
+
+    @Test
+    @DisplayName("should not use path characters from original filename")
+    void shouldIgnoreUnsafeExtension() throws IOException {
+        // Given
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("x./../../evil");
+        when(multipartFile.getInputStream()).thenReturn(new ByteArrayInputStream(pngImage(300, 300)));
 
         // When
-        String result = fileStorageService.saveFile(multipartFile);
+        fileStorageService.saveAvatar(multipartFile);
 
         // Then
-        assertThat(result).startsWith("/uploads/");
+        assertThat(storedFiles()).noneMatch(name -> name.contains("..") || name.contains("evil"));
     }
 
     @Test
-    @DisplayName("should throw RuntimeException when IOException occurs during stream reading")
-    void shouldThrowException_whenIoExceptionOccurs() throws IOException {
+    @DisplayName("should reuse existing avatar variants for identical upload")
+    void shouldReuseAvatarVariants() throws IOException {
         // Given
+        byte[] image = pngImage(300, 300);
         when(multipartFile.isEmpty()).thenReturn(false);
-        when(multipartFile.getOriginalFilename()).thenReturn("test.jpg");
-        // błąd wejścia/wyjścia (np. uszkodzony plik)
-        when(multipartFile.getInputStream()).thenThrow(new IOException("Stream error"));
+        when(multipartFile.getOriginalFilename()).thenReturn("me.png");
+        when(multipartFile.getInputStream())
+                .thenReturn(new ByteArrayInputStream(image))
+                .thenReturn(new ByteArrayInputStream(image));
 
-        // When & Then
-        assertThatThrownBy(() -> fileStorageService.saveFile(multipartFile))
-                .isInstanceOf(RuntimeException.class)
-                .hasMessageContaining("Błąd podczas zapisu pliku");
+        String first = fileStorageService.saveAvatar(multipartFile);
+        Path variant = tempDir.resolve(first.replace("/uploads/", ""));
+        Files.setLastModifiedTime(variant, FileTime.fromMillis(1_000));
+
+        // When
+        String second = fileStorageService.saveAvatar(multipartFile);
+
+        // Then - miniatura nie została wygenerowana ponownie
+        assertThat(second).isEqualTo(first);
+        assertThat(Files.getLastModifiedTime(variant).toMillis()).isEqualTo(1_000);
+        assertThat(storedFiles()).hasSize(4);
     }
 }
\ No newline at end of file
@@ -0,0 +1,160 @@
+package org.example.bookaroo.service;
+
+import org.example.bookaroo.dto.BookDTO;
+import org.example.bookaroo.exception.ResourceNotFoundException;
+import org.example.bookaroo.repository.BookCardDao;
+import org.example.bookaroo.repository.BookCardDao.CardRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GenreSimilarityServiceTest {
+
+    @Mock
+    private BookCardDao bookCardDao;
+
+    private GenreSimilarityService similarityService;
+
+    private final UUID fantasy = UUID.randomUUID();
+    private final UUID adventure = UUID.randomUUID();
+    private final UUID horror = UUID.randomUUID();
+    private final UUID tolkien = UUID.randomUUID();
+
+    private CardRow hobbit;
+    private CardRow silmarillion;
+    private CardRow narnia;
+    private CardRow shining;
+
+    @BeforeEach
+    void setUp() {
+        similarityService = new GenreSimilarityService(bookCardDao);
+
+        hobbit = row("Hobbit", tolkien, List.of(adventure, fantasy));
+        silmarillion = row("Silmarillion", tolkien, List.of(fantasy));
+        narnia = row("Narnia", UUID.randomUUID(), List.of(adventure, fantasy));
+        shining = row("Lśnienie", UUID.randomUUID(), List.of(horror));
+        rebuildWith(hobbit, narnia, shining, silmarillion);
+    }
+
+    private static CardRow row(String title, UUID authorId, List<UUID> genreIds) {
+        return row(UUID.randomUUID(), title, authorId, genreIds);
+    }
+
+    private static CardRow row(UUID id, String title, UUID authorId, List<UUID> genreIds) {
+        BookDTO card = new BookDTO(id, title, "isbn-" + title, null, 2000, authorId, "Autor", null, List.of());
+        return new CardRow(card, 0, genreIds);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rebuildWith(CardRow... rows) {
+        doAnswer(invocation -> {
+            Consumer<CardRow> action = invocation.getArgument(0);
+            for (CardRow row : rows) {
+                action.accept(row);
+            }
+            return null;
+        }).when(bookCardDao).forEachRow(any(Consumer.class));
+        similarityService.rebuild();
+    }
+
+    private List<String> similarTitles(CardRow row) {
+        return similarityService.similarTo(row.card().id(), 10).stream().map(BookDTO::title).toList();
+    }
+
+    @Test
+    @DisplayName("should rank by Jaccard similarity of genres and skip books without common genres")
+    void shouldRankByJaccard() {
+        // Narnia 2/2, Silmarillion 1/2; Lśnienie bez wspólnego gatunku
+        assertThat(similarTitles(hobbit)).containsExactly("Narnia", "Silmarillion");
+        // Hobbit i Narnia po 1/2 - remis w kolejności przebudowy
+        assertThat(similarTitles(silmarillion)).containsExactly("Hobbit", "Narnia");
+        assertThat(similarTitles(shining)).isEmpty();
+        assertThat(similarityService.similarTo(hobbit.card().id(), 1)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("should reject unknown books")
+    void shouldRejectUnknownBook() {
+        assertThatThrownBy(() -> similarityService.similarTo(UUID.randomUUID(), 5))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("should invalidate cached results when a book's genres change")
+    void shouldInvalidateOnGenreEdit() {
+        assertThat(similarTitles(shining)).isEmpty();
+        assertThat(similarTitles(hobbit)).containsExactly("Narnia", "Silmarillion");
+
+        // Silmarillion dostaje gatunek horror - zmienia wyniki Lśnienia i Hobbita
+        CardRow edited = row(silmarillion.card().id(), "Silmarillion", tolkien, List.of(horror));
+        when(bookCardDao.findRows(List.of(edited.card().id()))).thenReturn(List.of(edited));
+        similarityService.refreshBooks(List.of(edited.card().id()));
+
+        assertThat(similarTitles(shining)).containsExactly("Silmarillion");
+        assertThat(similarTitles(hobbit)).containsExactly("Narnia");
+    }
+
+    @Test
+    @DisplayName("should show fresh cards without recomputing when only the card changed")
+    void shouldRefreshCardWithoutInvalidation() {
+        assertThat(similarTitles(hobbit)).containsExactly("Narnia", "Silmarillion");
+
+        CardRow renamed = row(narnia.card().id(), "Opowieści z Narnii", narnia.card().authorId(), narnia.genreIds());
+        when(bookCardDao.findRows(List.of(renamed.card().id()))).thenReturn(List.of(renamed));
+        similarityService.refreshBooks(List.of(renamed.card().id()));
+
+        assertThat(similarTitles(hobbit)).containsExactly("Opowieści z Narnii", "Silmarillion");
+    }
+
+    @Test
+    @DisplayName("should add new books and drop deleted ones")
+    void shouldAddAndRemoveBooks() {
+        CardRow lotr = row("Władca Pierścieni", tolkien, List.of(adventure, fantasy));
+        when(bookCardDao.findRows(List.of(lotr.card().id()))).thenReturn(List.of(lotr));
+        similarityService.refreshBooks(List.of(lotr.card().id()));
+        assertThat(similarTitles(hobbit)).containsExactly("Narnia", "Władca Pierścieni", "Silmarillion");
+
+        // usunięcie autora - jego książek już nie ma w bazie
+        when(bookCardDao.findRowsByAuthor(tolkien)).thenReturn(List.of());
+        similarityService.refreshAuthor(tolkien);
+
+        assertThat(similarTitles(narnia)).isEmpty();
+        assertThatThrownBy(() -> similarityService.similarTo(hobbit.card().id(), 5))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("should widen masks beyond 64 genres")
+    void shouldSupportMoreThan64Genres() {
+        List<UUID> genres = IntStream.range(0, 64).mapToObj(i -> UUID.randomUUID()).toList();
+        List<CardRow> rows = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            rows.add(row("Książka " + i, UUID.randomUUID(), List.of(genres.get(i))));
+        }
+        rebuildWith(rows.toArray(CardRow[]::new));
+
+        // 65. gatunek nie mieści się w jednym słowie - maski poszerzane przy dopisaniu
+        CardRow twin = row("Bliźniak", UUID.randomUUID(), List.of(genres.get(63), UUID.randomUUID()));
+        when(bookCardDao.findRows(List.of(twin.card().id()))).thenReturn(List.of(twin));
+        similarityService.refreshBooks(List.of(twin.card().id()));
+
+        assertThat(similarTitles(rows.get(63))).containsExactly("Bliźniak");
+        assertThat(similarTitles(twin)).containsExactly("Książka 63");
+        assertThat(similarTitles(rows.get(5))).isEmpty();
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.bookaroo.service;
+
+import org.example.bookaroo.service.ItemSimilarityBuilder.Neighbours;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ItemSimilarityBuilderTest {
+
+    private static ForkJoinPool pool;
+
+    // 0 i 1 często razem, 2 czasem z każdą z nich, 3 zawsze sama
+    private static final int[][] BASKETS = {{0, 1}, {0, 1}, {0, 2}, {1, 2}, {3}};
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdownNow();
+    }
+
+    private static int[] items(Neighbours neighbours, int item) {
+        return IntStream.range(0, neighbours.count(item)).map(rank -> neighbours.item(item, rank)).toArray();
+    }
+
+    @Test
+    @DisplayName("should score pairs by cosine and order neighbours by score, ties by ordinal")
+    void shouldComputeCosine() {
+        Neighbours neighbours = ItemSimilarityBuilder.build(4, BASKETS, 10, 1, pool);
+
+        assertThat(items(neighbours, 0)).containsExactly(1, 2);
+        assertThat(neighbours.score(0, 0)).isCloseTo((float) (2 / 3.0), within(1e-6f));
+        assertThat(neighbours.score(0, 1)).isCloseTo((float) (1 / Math.sqrt(6)), within(1e-6f));
+        // 0 i 1 z tym samym wynikiem - niższy numer pierwszy
+        assertThat(items(neighbours, 2)).containsExactly(0, 1);
+        assertThat(neighbours.count(3)).isZero();
+    }
+
+    @Test
+    @DisplayName("should drop pairs below minimum co-occurrence and keep only top N")
+    void shouldApplyThresholdAndTopN() {
+        Neighbours strict = ItemSimilarityBuilder.build(4, BASKETS, 10, 2, pool);
+        assertThat(items(strict, 0)).containsExactly(1);
+        assertThat(items(strict, 1)).containsExactly(0);
+        assertThat(strict.count(2)).isZero();
+
+        Neighbours single = ItemSimilarityBuilder.build(4, BASKETS, 1, 1, pool);
+        assertThat(items(single, 0)).containsExactly(1);
+        assertThat(items(single, 2)).containsExactly(0);
+    }
+
+    @Test
+    @DisplayName("should handle empty input")
+    void shouldHandleEmptyInput() {
+        Neighbours neighbours = ItemSimilarityBuilder.build(3, new int[0][], 5, 1, pool);
+
+        assertThat(neighbours.items()).isEmpty();
+        assertThat(neighbours.count(2)).isZero();
+    }
+
+    @Test
+    @DisplayName("should match a brute-force computation when work is split across many partitions")
+    void shouldMatchBruteForce() {
+        int itemCount = 600;
+        int[][] baskets = randomBaskets(new Random(42), 40_000, itemCount);
+
+        Neighbours neighbours = ItemSimilarityBuilder.build(itemCount, baskets, 5, 2, pool);
+
+        int[] degrees = new int[itemCount];
+        int[][] co = new int[itemCount][itemCount];
+        for (int[] basket : baskets) {
+            for (int i : basket) {
+                degrees[i]++;
+                for (int j : basket) {
+                    if (i != j) {
+                        co[i][j]++;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < itemCount; i += 37) {
+            int item = i;
+            List<Integer> candidates = new ArrayList<>();
+            for (int j = 0; j < itemCount; j++) {
+                if (co[item][j] >= 2) {
+                    candidates.add(j);
+                }
+            }
+            float[] scores = new float[itemCount];
+            candidates.forEach(j -> scores[j] = (float) (co[item][j] / Math.sqrt((double) degrees[item] * degrees[j])));
+            int[] expected = candidates.stream()
+                    .sorted(Comparator.<Integer>comparingDouble(j -> -scores[j]).thenComparing(j -> j))
+                    .limit(5)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+
+            assertThat(items(neighbours, item)).as("sąsiedzi %d", item).containsExactly(expected);
+        }
+    }
+
+    // popularność skośna - niskie numery dużo częściej
+    private static int[][] randomBaskets(Random random, int users, int itemCount) {
+        int[][] baskets = new int[users][];
+        for (int u = 0; u < users; u++) {
+            baskets[u] = random.ints(2 + random.nextInt(6), 0, itemCount)
+                    .map(i -> (int) ((long) i * i / itemCount))
+                    .distinct()
+                    .toArray();
+        }
+        return baskets;
+    }
+}
@@ -0,0 +1,221 @@
+package org.example.bookaroo.service;
+
+import org.example.bookaroo.dto.JobDTO;
+import org.example.bookaroo.exception.JobNotReadyException;
+import org.example.bookaroo.exception.ResourceNotFoundException;
+import org.example.bookaroo.exception.TooManyJobsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JobServiceTest {
+
+    @Mock
+    private BackupService backupService;
+
+    // zadania wykonywane od razu w wątku testu
+    private final AsyncTaskExecutor directExecutor = new TaskExecutorAdapter(Runnable::run);
+
+    // zadania odkładane bez wykonania - symulacja długo trwających
+    private final List<Runnable> pending = new ArrayList<>();
+    private final AsyncTaskExecutor holdingExecutor = new TaskExecutorAdapter(pending::add);
+
+    private JobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        jobService = new JobService(backupService, directExecutor, 2, 30);
+    }
+
+    @Test
+    @DisplayName("should run export in background and expose artifact for download")
+    void shouldCompleteExport() throws Exception {
+        byte[] pdf = "%PDF-1.4".getBytes();
+        when(backupService.exportUserReviewsToPdf(eq("janusz"), any())).thenReturn(pdf);
+
+        JobDTO submitted = jobService.submitExport("janusz", "pdf");
+        JobDTO job = jobService.getJob(submitted.id(), "janusz");
+
+        assertThat(job.status()).isEqualTo("SUCCEEDED");
+        assertThat(job.progress()).isEqualTo(100);
+        assertThat(job.downloadUrl()).isEqualTo("/api/v1/jobs/" + job.id() + "/download");
+
+        JobService.JobArtifact artifact = jobService.getArtifact(job.id(), "janusz");
+        assertThat(artifact.filename()).isEqualTo("recenzje_janusz.pdf");
+        assertThat(artifact.contentType()).isEqualTo(MediaType.APPLICATION_PDF);
+        assertThat(artifact.data()).isEqualTo(pdf);
+    }
+
+    @Test
+    @DisplayName("should mark job as failed with a generic error message")
+    void shouldRecordFailure() {
+        when(backupService.exportUserReviewsToCsv(eq("janusz"), any()))
+                .thenThrow(new RuntimeException("Błąd podczas generowania CSV: /srv/bookaroo/fonts"));
+
+        JobDTO job = jobService.getJob(jobService.submitExport("janusz", "csv").id(), "janusz");
+
+        assertThat(job.status()).isEqualTo("FAILED");
+        // treść wyjątku tylko w logu
+        assertThat(job.error()).isEqualTo(JobService.FAILURE_MESSAGE);
+        assertThat(job.downloadUrl()).isNull();
+        assertThatThrownBy(() -> jobService.getArtifact(job.id(), "janusz"))
+                .isInstanceOf(JobNotReadyException.class);
+    }
+
+    @Test
+    @DisplayName("should report export progress from worker")
+    void shouldReportExportProgress() throws Exception {
+        jobService = new JobService(backupService, holdingExecutor, 2, 30);
+        JobDTO job = jobService.submitExport("janusz", "json");
+
+        when(backupService.exportUserDataToJson(eq("janusz"), any())).thenAnswer(invocation -> {
+            IntConsumer progress = invocation.getArgument(1);
+            progress.accept(60);
+            assertThat(jobService.getJob(job.id(), "janusz").progress()).isEqualTo(60);
+            return "{}".getBytes();
+        });
+
+        pending.forEach(Runnable::run);
+
+        assertThat(jobService.getJob(job.id(), "janusz").progress()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("should reject unknown export format")
+    void shouldRejectUnknownFormat() {
+        assertThatThrownBy(() -> jobService.submitExport("janusz", "docx"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("should stage import file in request thread and report progress from worker")
+    void shouldRunImportWithProgress() throws Exception {
+        Path staged = Path.of("backups/aa/bb/staged.json");
+        MockMultipartFile file = new MockMultipartFile("file", "backup.json", "application/json", "{}".getBytes());
+        when(backupService.stageImport(file)).thenReturn(staged);
+
+        jobService = new JobService(backupService, holdingExecutor, 2, 30);
+        JobDTO job = jobService.submitImport("janusz", file);
+
+        // plik skopiowany przed wykonaniem zadania
+        verify(backupService).stageImport(file);
+        verify(backupService, never()).importUserData(any(), any(Path.class), any());
+        assertThat(job.status()).isEqualTo("QUEUED");
+
+        doAnswer(invocation -> {
+            IntConsumer progress = invocation.getArgument(2);
+            progress.accept(40);
+            assertThat(jobService.getJob(job.id(), "janusz").progress()).isEqualTo(40);
+            assertThat(jobService.getJob(job.id(), "janusz").status()).isEqualTo("RUNNING");
+            return null;
+        }).when(backupService).importUserData(eq("janusz"), eq(staged), any());
+
+        pending.forEach(Runnable::run);
+
+        JobDTO done = jobService.getJob(job.id(), "janusz");
+        assertThat(done.status()).isEqualTo("SUCCEEDED");
+        assertThat(done.downloadUrl()).isNull();
+    }
+
+    @Test
+    @DisplayName("should reject empty import file")
+    void shouldRejectEmptyImport() {
+        MockMultipartFile empty = new MockMultipartFile("file", "backup.json", "application/json", new byte[0]);
+
+        assertThatThrownBy(() -> jobService.submitImport("janusz", empty))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("should limit active jobs per user and free slot when job finishes")
+    void shouldEnforcePerUserLimit() throws Exception {
+        jobService = new JobService(backupService, holdingExecutor, 2, 30);
+
+        jobService.submitExport("janusz", "json");
+        jobService.submitExport("janusz", "csv");
+
+        assertThatThrownBy(() -> jobService.submitExport("janusz", "pdf"))
+                .isInstanceOf(TooManyJobsException.class);
+        // inny użytkownik ma własny limit
+        jobService.submitExport("grazyna", "pdf");
+
+        pending.remove(0).run();
+        jobService.submitExport("janusz", "pdf");
+    }
+
+    @Test
+    @DisplayName("should forget users without active jobs")
+    void shouldRemoveIdleUserCounters() {
+        jobService = new JobService(backupService, holdingExecutor, 2, 30);
+        jobService.submitExport("janusz", "json");
+        jobService.submitExport("grazyna", "json");
+        assertThat(jobService.usersWithActiveJobs()).isEqualTo(2);
+
+        pending.forEach(Runnable::run);
+
+        assertThat(jobService.usersWithActiveJobs()).isZero();
+    }
+
+    @Test
+    @DisplayName("should translate full queue into TooManyJobsException and release slot")
+    void shouldHandleRejectedTask() {
+        AsyncTaskExecutor rejecting = new TaskExecutorAdapter(task -> {
+            throw new TaskRejectedException("full");
+        });
+        jobService = new JobService(backupService, rejecting, 1, 30);
+
+        assertThatThrownBy(() -> jobService.submitExport("janusz", "json"))
+                .isInstanceOf(TooManyJobsException.class);
+        assertThatThrownBy(() -> jobService.submitExport("janusz", "json"))
+                .isInstanceOf(TooManyJobsException.class)
+                .hasMessageContaining("Kolejka");
+        assertThat(jobService.usersWithActiveJobs()).isZero();
+    }
+
+    @Test
+    @DisplayName("should hide other users' jobs")
+    void shouldNotExposeForeignJob() throws Exception {
+        when(backupService.exportUserDataToJson(eq("janusz"), any())).thenReturn("{}".getBytes());
+        UUID id = jobService.submitExport("janusz", "json").id();
+
+        assertThatThrownBy(() -> jobService.getJob(id, "grazyna"))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> jobService.getArtifact(id, "grazyna"))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("should purge finished jobs after retention")
+    void shouldPurgeExpiredJobs() throws Exception {
+        jobService = new JobService(backupService, directExecutor, 2, 0);
+        when(backupService.exportUserDataToJson(eq("janusz"), any())).thenReturn("{}".getBytes());
+        UUID id = jobService.submitExport("janusz", "json").id();
+
+        Thread.sleep(5);
+        jobService.purgeExpired();
+
+        assertThatThrownBy(() -> jobService.getJob(id, "janusz"))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+}
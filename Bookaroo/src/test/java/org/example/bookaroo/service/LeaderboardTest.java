@@ -0,0 +1,99 @@
+package org.example.bookaroo.service;
+
+import org.example.bookaroo.dto.BookDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LeaderboardTest {
+
+    private static Leaderboard.Entry entry(String title, double score) {
+        UUID id = UUID.randomUUID();
+        BookDTO card = new BookDTO(id, title, "isbn-" + title, null, 2000, UUID.randomUUID(), "Autor", score, List.of());
+        return new Leaderboard.Entry(id, score, card);
+    }
+
+    private static List<String> titles(Leaderboard board, int n) {
+        return board.top(n).stream().map(BookDTO::title).toList();
+    }
+
+    @Test
+    @DisplayName("should keep best entries in score order and evict the weakest over capacity")
+    void shouldKeepTopK() {
+        Leaderboard board = new Leaderboard(2);
+
+        board.offer(entry("B", 7.0));
+        board.offer(entry("A", 9.0));
+        board.offer(entry("C", 5.0));
+        board.offer(entry("D", 4.0)); // poniżej progu po eksmisji C
+
+        assertThat(titles(board, 10)).containsExactly("A", "B");
+        assertThat(board.covers(2)).isTrue();
+    }
+
+    @Test
+    @DisplayName("should move an entry when its score changes")
+    void shouldUpdateMember() {
+        Leaderboard board = new Leaderboard(3);
+        Leaderboard.Entry a = entry("A", 9.0);
+        board.offer(a);
+        board.offer(entry("B", 8.0));
+
+        board.offer(new Leaderboard.Entry(a.bookId(), 6.0, a.card()));
+
+        assertThat(titles(board, 3)).containsExactly("B", "A");
+        assertThat(board.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("should report missing coverage when a member drops below the eviction threshold")
+    void shouldDetectShrinkBelowThreshold() {
+        Leaderboard board = new Leaderboard(2);
+        Leaderboard.Entry a = entry("A", 9.0);
+        board.offer(a);
+        board.offer(entry("B", 8.0));
+        board.offer(entry("C", 7.0)); // wypada, próg = 7.0
+
+        board.offer(new Leaderboard.Entry(a.bookId(), 6.0, a.card()));
+
+        // C (7.0) mogłaby być lepsza od A, ale tablica jej nie zna
+        assertThat(titles(board, 2)).containsExactly("B");
+        assertThat(board.covers(1)).isTrue();
+        assertThat(board.covers(2)).isFalse();
+    }
+
+    @Test
+    @DisplayName("should cover any size until something was evicted")
+    void shouldCoverWhileComplete() {
+        Leaderboard board = new Leaderboard(5);
+        board.offer(entry("A", 9.0));
+
+        assertThat(board.covers(100)).isTrue();
+        assertThat(titles(board, 100)).containsExactly("A");
+    }
+
+    @Test
+    @DisplayName("should remove matching entries")
+    void shouldRemoveIf() {
+        Leaderboard board = new Leaderboard(5);
+        Leaderboard.Entry a = entry("A", 9.0);
+        board.offer(a);
+        board.offer(entry("B", 8.0));
+
+        board.removeIf(e -> e.bookId().equals(a.bookId()));
+        board.offer(entry("C", 1.0));
+
+        assertThat(titles(board, 5)).containsExactly("B", "C");
+    }
+
+    @Test
+    @DisplayName("should reject non-positive capacity")
+    void shouldRejectInvalidCapacity() {
+        assertThatThrownBy(() -> new Leaderboard(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
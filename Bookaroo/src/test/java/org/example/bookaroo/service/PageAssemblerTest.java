@@ -0,0 +1,153 @@
+package org.example.bookaroo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bookaroo.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageAssemblerTest {
+
+    private ExecutorService executor;
+    private SimpleMeterRegistry meterRegistry;
+    private PageAssembler pageAssembler;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        meterRegistry = new SimpleMeterRegistry();
+        pageAssembler = new PageAssembler(executor, meterRegistry, 500);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("should run independent calls concurrently")
+    void shouldRunCallsConcurrently() {
+        // Given
+        PageAssembler.Assembly page = pageAssembler.begin("test");
+        long start = System.nanoTime();
+
+        // When
+        CompletableFuture<String> a = page.required("a", () -> sleepAndReturn(200, "A"));
+        CompletableFuture<String> b = page.required("b", () -> sleepAndReturn(200, "B"));
+        CompletableFuture<String> c = page.required("c", () -> sleepAndReturn(200, "C"));
+        page.await();
+
+        // Then
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        assertThat(a.join() + b.join() + c.join()).isEqualTo("ABC");
+        assertThat(elapsedMs).isLessThan(500);
+    }
+
+    @Test
+    @DisplayName("should use fallback when optional call fails")
+    void shouldUseFallback_whenOptionalCallFails() {
+        // Given
+        PageAssembler.Assembly page = pageAssembler.begin("test");
+
+        // When
+        CompletableFuture<String> value = page.optional("broken", () -> {
+            throw new IllegalStateException("boom");
+        }, "fallback");
+        page.await();
+
+        // Then
+        assertThat(value.join()).isEqualTo("fallback");
+        assertThat(meterRegistry.find("bookaroo.page.call").tag("outcome", "fallback").timer()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("should use fallback when optional call times out")
+    void shouldUseFallback_whenOptionalCallTimesOut() {
+        // Given
+        PageAssembler.Assembly page = pageAssembler.begin("test");
+
+        // When
+        CompletableFuture<String> value = page.optional("slow", () -> sleepAndReturn(2_000, "late"), "fallback");
+        page.await();
+
+        // Then
+        assertThat(value.join()).isEqualTo("fallback");
+        assertThat(meterRegistry.find("bookaroo.page.call").tag("outcome", "timeout").timer()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("should interrupt the task of a call that timed out")
+    void shouldInterruptTask_whenCallTimesOut() throws InterruptedException {
+        // Given
+        PageAssembler.Assembly page = pageAssembler.begin("test");
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        // When
+        page.optional("slow", () -> {
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return "late";
+        }, "fallback");
+        page.await();
+
+        // Then
+        assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @DisplayName("should rethrow original exception when required call fails")
+    void shouldRethrow_whenRequiredCallFails() {
+        // Given
+        PageAssembler.Assembly page = pageAssembler.begin("test");
+
+        // When
+        page.required("book", () -> {
+            throw new ResourceNotFoundException("Book", "id", "x");
+        });
+        page.optional("reviews", () -> "ok", "fallback");
+
+        // Then
+        assertThatThrownBy(page::await).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("should record slowest call as critical path")
+    void shouldRecordCriticalPath() {
+        // Given
+        PageAssembler.Assembly page = pageAssembler.begin("test");
+
+        // When
+        page.required("fast", () -> "fast");
+        page.required("slow", () -> sleepAndReturn(100, "slow"));
+        page.await();
+
+        // Then
+        assertThat(meterRegistry.find("bookaroo.page.critical-path")
+                .tag("page", "test")
+                .tag("call", "slow")
+                .timer()).isNotNull();
+    }
+
+    // m. pomocnicza
+    private static String sleepAndReturn(long millis, String value) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.bookaroo.service;
+
+import org.example.bookaroo.repository.BookCardDao;
+import org.example.bookaroo.repository.StatisticsRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+// bez transakcji testu - reconciler sam otwiera transakcję na każdą paczkę
+@DataJpaTest
+@Import({StatisticsRepository.class, BookCardDao.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReadersCountReconcilerTest {
+
+    @Autowired
+    private StatisticsRepository statisticsRepository;
+
+    @Autowired
+    private BookCardDao bookCardDao;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final BookCardService bookCardService = mock(BookCardService.class);
+
+    private ReadersCountReconciler reconciler;
+    private UUID authorId;
+    private UUID shelfId;
+
+    @BeforeEach
+    void setUp() {
+        // mała paczka, żeby test przechodził przez kilka transakcji
+        reconciler = new ReadersCountReconciler(statisticsRepository, bookCardDao, bookCardService, transactionManager, 2);
+
+        UUID userId = UUID.randomUUID();
+        authorId = UUID.randomUUID();
+        shelfId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, role, is_locked) "
+                + "VALUES (?, 'reader', 'reader@test.com', 'pass', 'USER', false)", userId);
+        jdbcTemplate.update("INSERT INTO bookshelf (id, name, is_default, user_id) VALUES (?, 'Przeczytane', true, ?)", shelfId, userId);
+        jdbcTemplate.update("INSERT INTO authors (id, name, surname) VALUES (?, 'Jan', 'Kowalski')", authorId);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM book_cards");
+        jdbcTemplate.update("DELETE FROM bookshelf_books");
+        jdbcTemplate.update("DELETE FROM books");
+        jdbcTemplate.update("DELETE FROM authors");
+        jdbcTemplate.update("DELETE FROM bookshelf");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    private UUID insertBook(String isbn, boolean onShelf, int counter) {
+        UUID bookId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO books (id, title, isbn, author_id, readers_count) VALUES (?, 'Tytuł', ?, ?, ?)",
+                bookId, isbn, authorId, counter);
+        if (onShelf) {
+            jdbcTemplate.update("INSERT INTO bookshelf_books (bookshelf_id, book_id, added_at) VALUES (?, ?, CURRENT_TIMESTAMP)",
+                    shelfId, bookId);
+        }
+        return bookId;
+    }
+
+    private int counter(UUID bookId) {
+        return statisticsRepository.getReadersCount(bookId);
+    }
+
+    @Test
+    @DisplayName("should correct drifted counters across chunks and refresh their cards and indexes")
+    void shouldReconcileAcrossChunks() {
+        // Given - wpisy na półce wstawione z pominięciem serwisów
+        UUID missing = insertBook("111", true, 0);
+        UUID stale = insertBook("222", false, 3);
+        UUID correct = insertBook("333", true, 1);
+        UUID empty = insertBook("444", false, 0);
+        UUID alsoMissing = insertBook("555", true, 0);
+        bookCardDao.rebuildAll();
+
+        // When
+        int corrected = reconciler.reconcile();
+
+        // Then
+        assertThat(corrected).isEqualTo(3);
+        assertThat(counter(missing)).isEqualTo(1);
+        assertThat(counter(stale)).isZero();
+        assertThat(counter(correct)).isEqualTo(1);
+        assertThat(counter(empty)).isZero();
+        assertThat(counter(alsoMissing)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT readers_count FROM book_cards WHERE id = ?", Integer.class, missing))
+                .isEqualTo(1);
+        // indeksy w pamięci dostają tylko poprawione książki
+        verify(bookCardService, atLeastOnce()).refreshIndexes(anyCollection());
+        verify(bookCardService, never()).refreshIndexes(argThat(ids -> ids.contains(correct) || ids.contains(empty)));
+        verify(bookCardService).refreshIndexes(argThat(ids -> ids.contains(alsoMissing)));
+    }
+
+    @Test
+    @DisplayName("should report nothing when counters are in sync")
+    void shouldDoNothing_whenInSync() {
+        insertBook("111", true, 1);
+        insertBook("222", false, 0);
+
+        assertThat(reconciler.reconcile()).isZero();
+        verify(bookCardService, never()).refreshIndexes(argThat(ids -> !ids.isEmpty()));
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.bookaroo.service;
+
+import org.example.bookaroo.dto.BookDTO;
+import org.example.bookaroo.repository.BookCardDao;
+import org.example.bookaroo.repository.BookCardDao.CardRow;
+import org.example.bookaroo.repository.StatisticsRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecommendationServiceTest {
+
+    @Mock
+    private StatisticsRepository statisticsRepository;
+
+    @Mock
+    private BookCardDao bookCardDao;
+
+    private RecommendationService recommendationService;
+
+    private final BookDTO hobbit = card("Hobbit");
+    private final BookDTO silmarillion = card("Silmarillion");
+    private final BookDTO dune = card("Diuna");
+    private final BookDTO solaris = card("Solaris");
+
+    private final UUID anna = UUID.randomUUID();
+    private final UUID jan = UUID.randomUUID();
+    private final UUID ola = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        // limit koszyka 3 - czwarta książka użytkownika pomijana
+        recommendationService = new RecommendationService(statisticsRepository, bookCardDao, 20, 1, 3, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        recommendationService.shutdown();
+    }
+
+    private static BookDTO card(String title) {
+        return new BookDTO(UUID.randomUUID(), title, "isbn-" + title, null, 2000, UUID.randomUUID(), "Autor", null, List.of());
+    }
+
+    private static List<String> titles(List<BookDTO> books) {
+        return books.stream().map(BookDTO::title).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rebuildWith(List<BookDTO> cards, List<Map.Entry<UUID, UUID>> pairs) {
+        doAnswer(invocation -> {
+            Consumer<CardRow> action = invocation.getArgument(0);
+            cards.forEach(card -> action.accept(new CardRow(card, 0, List.of())));
+            return null;
+        }).when(bookCardDao).forEachRow(any(Consumer.class));
+        doAnswer(invocation -> {
+            BiConsumer<UUID, UUID> action = invocation.getArgument(0);
+            pairs.forEach(pair -> action.accept(pair.getKey(), pair.getValue()));
+            return null;
+        }).when(statisticsRepository).forEachUserBook(any(BiConsumer.class));
+        recommendationService.rebuild();
+    }
+
+    @Test
+    @DisplayName("should recommend books shelved together, strongest first")
+    void shouldRecommendCoOccurringBooks() {
+        rebuildWith(List.of(hobbit, silmarillion, dune, solaris), List.of(
+                Map.entry(anna, hobbit.id()), Map.entry(anna, silmarillion.id()),
+                Map.entry(jan, hobbit.id()), Map.entry(jan, silmarillion.id()), Map.entry(jan, dune.id()),
+                Map.entry(ola, solaris.id())));
+
+        assertThat(titles(recommendationService.similarTo(hobbit.id(), 10))).containsExactly("Silmarillion", "Diuna");
+        assertThat(titles(recommendationService.similarTo(hobbit.id(), 1))).containsExactly("Silmarillion");
+        // jedyny czytelnik Solaris nie ma innych książek
+        assertThat(recommendationService.similarTo(solaris.id(), 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should skip unknown books and cap oversized baskets")
+    void shouldSkipUnknownAndCapBaskets() {
+        UUID deleted = UUID.randomUUID();
+        rebuildWith(List.of(hobbit, silmarillion, dune, solaris), List.of(
+                Map.entry(anna, deleted), Map.entry(anna, hobbit.id()), Map.entry(anna, dune.id()),
+                Map.entry(jan, hobbit.id()), Map.entry(jan, silmarillion.id()), Map.entry(jan, dune.id()),
+                Map.entry(jan, solaris.id())));
+
+        assertThat(titles(recommendationService.similarTo(hobbit.id(), 10))).containsExactly("Diuna", "Silmarillion");
+        assertThat(recommendationService.similarTo(solaris.id(), 10)).isEmpty();
+        assertThat(recommendationService.similarTo(deleted, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should return nothing before the first build and replace the model on rebuild")
+    void shouldSwapModelOnRebuild() {
+        assertThat(recommendationService.similarTo(hobbit.id(), 5)).isEmpty();
+
+        rebuildWith(List.of(hobbit, dune), List.of(Map.entry(anna, hobbit.id()), Map.entry(anna, dune.id())));
+        assertThat(titles(recommendationService.similarTo(hobbit.id(), 5))).containsExactly("Diuna");
+
+        rebuildWith(List.of(hobbit, dune), List.of());
+        assertThat(recommendationService.similarTo(hobbit.id(), 5)).isEmpty();
+    }
+}
@@ -2,15 +2,17 @@ package org.example.bookaroo.service;
 
 import org.example.bookaroo.dto.ReviewDTO;
 import org.example.bookaroo.entity.Book;
+import org.example.bookaroo.entity.ChangeLogEntry.EntityType;
+import org.example.bookaroo.entity.ChangeLogEntry.Operation;
 import org.example.bookaroo.entity.Review;
 import org.example.bookaroo.entity.User;
 import org.example.bookaroo.repository.BookRepository;
+import org.example.bookaroo.repository.ReviewJdbcDao;
 import org.example.bookaroo.repository.ReviewRepository;
 import org.example.bookaroo.repository.UserRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -22,7 +24,6 @@ import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,110 +32,64 @@ class ReviewServiceTest {
     @Mock
     private ReviewRepository reviewRepository;
     @Mock
+    private ReviewJdbcDao reviewJdbcDao;
+    @Mock
     private BookRepository bookRepository;
     @Mock
     private UserRepository userRepository;
     @Mock
     private BookService bookService;
+    @Mock
+    private ChangeFeedService changeFeedService;
+    @Mock
+    private TrendingService trendingService;
 
     @InjectMocks
     private ReviewService reviewService;
 
     @Test
-    @DisplayName("should save review to repository when data is valid")
+    @DisplayName("should upsert review and refresh book rating when data is valid")
     void shouldSaveReview_whenDataIsValid() {
         // Given
         UUID userId = UUID.randomUUID();
         UUID bookId = UUID.randomUUID();
+        UUID reviewId = UUID.randomUUID();
 
         ReviewDTO dto = new ReviewDTO(null, 5, "Great!", null, null, null, null, bookId, null);
 
-        User user = new User();
-        user.setId(userId);
-
-        Book book = new Book();
-        book.setId(bookId);
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
-        // pusta lista recenzji, żeby średnia się policzyła
-        when(reviewRepository.findByBookIdOrderByCreatedAtDesc(bookId)).thenReturn(List.of());
-
-        // When
-        reviewService.addReview(userId, dto);
-
-        // Then
-        verify(reviewRepository).saveAndFlush(any(Review.class));
-    }
-
-    @Test
-    @DisplayName("should save review with correct content and rating")
-    void shouldSaveCorrectData_whenAddingReview() {
-        // Given
-        UUID userId = UUID.randomUUID();
-        UUID bookId = UUID.randomUUID();
-        String content = "Amazing content";
-        int rating = 5;
-
-        ReviewDTO dto = new ReviewDTO(null, rating, content, null, null, null, null, bookId, null);
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(new Book()));
-        when(reviewRepository.findByBookIdOrderByCreatedAtDesc(bookId)).thenReturn(List.of());
-
-        // When
-        reviewService.addReview(userId, dto);
-
-        // Then
-        ArgumentCaptor<Review> reviewCaptor = ArgumentCaptor.forClass(Review.class);
-        verify(reviewRepository).saveAndFlush(reviewCaptor.capture());
-
-        Review savedReview = reviewCaptor.getValue();
-        assertThat(savedReview.getContent()).isEqualTo(content);
-        assertThat(savedReview.getRating()).isEqualTo(rating);
-    }
-
-    @Test
-    @DisplayName("should call updateBookRating with correct average")
-    void shouldCallUpdateBookRating_withCorrectAverage() {
-        // Given
-        UUID userId = UUID.randomUUID();
-        UUID bookId = UUID.randomUUID();
-        ReviewDTO dto = new ReviewDTO(null, 5, "New", null, null, null, null, bookId, null);
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(new Book()));
-
-        Review r1 = new Review(); r1.setRating(4);
-        Review r2 = new Review(); r2.setRating(5);
-        when(reviewRepository.findByBookIdOrderByCreatedAtDesc(bookId)).thenReturn(List.of(r1, r2));
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(bookRepository.existsById(bookId)).thenReturn(true);
+        when(reviewJdbcDao.upsert(userId, bookId, 5, "Great!")).thenReturn(new ReviewJdbcDao.Upserted(reviewId, true));
 
         // When
         reviewService.addReview(userId, dto);
 
         // Then
-        // (4 + 5) / 2 = 4.5
-        verify(bookService).updateBookRating(bookId, 4.5);
+        verify(changeFeedService).record(EntityType.REVIEW, reviewId, bookId, Operation.UPSERT, null);
+        verify(bookService).ratingChanged(bookId);
+        verify(trendingService).recordReview(bookId);
     }
 
     @Test
-    @DisplayName("should update rating to 0.0 when no reviews found")
-    void shouldUpdateRatingToZero_whenListIsEmpty() {
+    @DisplayName("should not count an edit of own review as new trending activity")
+    void shouldNotRecordTrending_whenReviewUpdated() {
         // Given
         UUID userId = UUID.randomUUID();
         UUID bookId = UUID.randomUUID();
-        ReviewDTO dto = new ReviewDTO(null, 5, "New", null, null, null, null, bookId, null);
-
-        when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(new Book()));
+        UUID reviewId = UUID.randomUUID();
+        ReviewDTO dto = new ReviewDTO(null, 8, "Po namyśle lepsza", null, null, null, null, bookId, null);
 
-        when(reviewRepository.findByBookIdOrderByCreatedAtDesc(bookId)).thenReturn(List.of());
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(bookRepository.existsById(bookId)).thenReturn(true);
+        when(reviewJdbcDao.upsert(userId, bookId, 8, "Po namyśle lepsza")).thenReturn(new ReviewJdbcDao.Upserted(reviewId, false));
 
         // When
         reviewService.addReview(userId, dto);
 
         // Then
-        verify(bookService).updateBookRating(bookId, 0.0);
+        verify(changeFeedService).record(EntityType.REVIEW, reviewId, bookId, Operation.UPSERT, null);
+        verify(bookService).ratingChanged(bookId);
+        verifyNoInteractions(trendingService);
     }
 
     @Test
@@ -143,10 +98,11 @@ class ReviewServiceTest {
         UUID userId = UUID.randomUUID();
         ReviewDTO dto = new ReviewDTO(null, 5, "C", null, null, null, null, UUID.randomUUID(), null);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userRepository.existsById(userId)).thenReturn(false);
 
         assertThatThrownBy(() -> reviewService.addReview(userId, dto))
                 .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(reviewJdbcDao);
     }
 
     @Test
@@ -157,12 +113,13 @@ class ReviewServiceTest {
         UUID bookId = UUID.randomUUID();
         ReviewDTO dto = new ReviewDTO(null, 5, "content", null, null, null, null, bookId, null);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
-        when(bookRepository.findById(bookId)).thenReturn(Optional.empty());
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(bookRepository.existsById(bookId)).thenReturn(false);
 
         // When & Then
         assertThatThrownBy(() -> reviewService.addReview(userId, dto))
                 .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(reviewJdbcDao);
     }
 
     @Test
@@ -212,27 +169,30 @@ class ReviewServiceTest {
     }
 
     @Test
-    @DisplayName("should call deleteById on repository")
+    @DisplayName("should delete review and refresh book rating")
     void shouldCallDelete_whenDeletingReview() {
         // Given
         UUID reviewId = UUID.randomUUID();
         UUID bookId = UUID.randomUUID();
 
-        Book book = new Book();
-        book.setId(bookId);
-
-        Review review = new Review();
-        review.setId(reviewId);
-        review.setBook(book);
-
-        when(reviewRepository.findById(reviewId)).thenReturn(Optional.of(review));
-        when(reviewRepository.findByBookIdOrderByCreatedAtDesc(bookId)).thenReturn(List.of());
+        when(reviewJdbcDao.delete(reviewId)).thenReturn(Optional.of(bookId));
 
         // When
         reviewService.deleteReview(reviewId);
 
         // Then
-        verify(reviewRepository).deleteById(reviewId);
-        verify(bookService).updateBookRating(bookId, 0.0);
+        verify(bookService).ratingChanged(bookId);
+        verify(changeFeedService).record(EntityType.REVIEW, reviewId, bookId, Operation.DELETE, null);
+    }
+
+    @Test
+    @DisplayName("should throw exception when deleting missing review")
+    void shouldThrowException_whenDeletingMissingReview() {
+        UUID reviewId = UUID.randomUUID();
+        when(reviewJdbcDao.delete(reviewId)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> reviewService.deleteReview(reviewId))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(changeFeedService, bookService);
     }
 }
\ No newline at end of file
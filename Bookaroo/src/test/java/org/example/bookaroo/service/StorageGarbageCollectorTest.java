@@ -0,0 +1,63 @@
+package org.example.bookaroo.service;
+
+import org.example.bookaroo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StorageGarbageCollectorTest {
+
+    private static final String HASH = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private FileStorageService fileStorageService;
+    @Mock
+    private BackupService backupService;
+
+    private StorageGarbageCollector collector;
+
+    @BeforeEach
+    void setUp() {
+        collector = new StorageGarbageCollector(userRepository, fileStorageService, backupService, 24, 30);
+    }
+
+    @Test
+    @DisplayName("should mark hashes referenced by avatars and skip legacy/external URLs")
+    void shouldPassReferencedHashesToSweep() throws IOException {
+        when(userRepository.findAllAvatars()).thenReturn(List.of(
+                "/uploads/2c/f2/" + HASH + "_256.jpg",
+                "/uploads/old-uuid-avatar.png",
+                "https://cdn.example.com/a.png"
+        ));
+
+        collector.collect();
+
+        verify(fileStorageService).collectGarbage(Set.of(HASH), Duration.ofHours(24));
+        verify(backupService).purgeImportedBackups(Duration.ofDays(30));
+    }
+
+    @Test
+    @DisplayName("should not propagate I/O errors from scheduled run")
+    void shouldSwallowIoErrors() throws IOException {
+        when(userRepository.findAllAvatars()).thenReturn(List.of());
+        when(fileStorageService.collectGarbage(any(), any())).thenThrow(new IOException("disk"));
+
+        collector.collect();
+
+        verifyNoInteractions(backupService);
+    }
+}
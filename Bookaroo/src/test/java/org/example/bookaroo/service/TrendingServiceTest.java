@@ -0,0 +1,205 @@
+package org.example.bookaroo.service;
+
+import org.example.bookaroo.dto.BookDTO;
+import org.example.bookaroo.dto.TrendingBookDTO;
+import org.example.bookaroo.repository.BookCardDao;
+import org.example.bookaroo.repository.BookCardDao.CardRow;
+import org.example.bookaroo.service.TrendingService.Window;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TrendingServiceTest {
+
+    @Mock
+    private BookCardDao bookCardDao;
+
+    private MutableClock clock;
+    private TrendingService trendingService;
+
+    private final UUID hobbit = UUID.randomUUID();
+    private final UUID dune = UUID.randomUUID();
+    private final UUID solaris = UUID.randomUUID();
+
+    // zegar przesuwany ręcznie - kubełki i wygaszanie zależą od czasu
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-03-01T12:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        trendingService = new TrendingService(bookCardDao, clock, 2);
+    }
+
+    private void stubCards() {
+        lenient().when(bookCardDao.findRows(anyCollection())).thenAnswer(invocation -> {
+            Collection<UUID> ids = invocation.getArgument(0);
+            return ids.stream()
+                    .map(id -> new CardRow(new BookDTO(id, title(id), "isbn", null, 2000, UUID.randomUUID(), "Autor",
+                            null, List.of()), 0, List.of()))
+                    .toList();
+        });
+    }
+
+    private String title(UUID id) {
+        return id.equals(hobbit) ? "Hobbit" : id.equals(dune) ? "Diuna" : "Solaris";
+    }
+
+    private List<String> titles(Window window) {
+        return trendingService.top(window, 10).stream().map(t -> t.book().title()).toList();
+    }
+
+    @Test
+    @DisplayName("should count activity recorded in a transaction only after commit")
+    void shouldCountOnlyCommittedActivity() {
+        stubCards();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            trendingService.recordShelfAdd(hobbit);
+            trendingService.recordReview(dune);
+            trendingService.refresh();
+            assertThat(titles(Window.HOUR)).isEmpty();
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            // zatwierdzona tylko pierwsza - druga jak po wycofaniu transakcji
+            synchronizations.get(0).afterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        trendingService.refresh();
+
+        assertThat(titles(Window.HOUR)).containsExactly("Hobbit");
+    }
+
+    @Test
+    @DisplayName("should rank recent activity above older activity of the same size")
+    void shouldDecayOlderActivity() {
+        stubCards();
+        trendingService.recordShelfAdd(hobbit);
+        trendingService.recordShelfAdd(hobbit);
+        clock.advance(Duration.ofHours(5));
+        trendingService.recordShelfAdd(dune);
+        trendingService.recordShelfAdd(dune);
+
+        trendingService.refresh();
+
+        // w oknie dnia obie, ale świeższa wyżej; w oknie godziny tylko świeża
+        assertThat(titles(Window.DAY)).containsExactly("Diuna", "Hobbit");
+        assertThat(titles(Window.HOUR)).containsExactly("Diuna");
+        List<TrendingBookDTO> day = trendingService.top(Window.DAY, 10);
+        assertThat(day.get(0).weightedEvents()).isEqualTo(2);
+        assertThat(day.get(1).score()).isLessThan(day.get(0).score());
+    }
+
+    @Test
+    @DisplayName("should weight a review more than a shelf addition")
+    void shouldWeightReviews() {
+        stubCards();
+        trendingService.recordShelfAdd(hobbit);
+        trendingService.recordShelfAdd(hobbit);
+        trendingService.recordReview(dune);
+
+        trendingService.refresh();
+
+        assertThat(titles(Window.HOUR)).containsExactly("Diuna", "Hobbit");
+        assertThat(trendingService.top(Window.HOUR, 10).get(0).weightedEvents()).isEqualTo(TrendingService.REVIEW_WEIGHT);
+    }
+
+    @Test
+    @DisplayName("should keep only top N per window and respect the limit")
+    void shouldBoundToTopN() {
+        stubCards();
+        trendingService.recordReview(hobbit);
+        trendingService.recordShelfAdd(dune);
+        trendingService.recordShelfAdd(dune);
+        trendingService.recordShelfAdd(solaris);
+
+        trendingService.refresh();
+
+        assertThat(titles(Window.WEEK)).containsExactly("Hobbit", "Diuna");
+        assertThat(trendingService.top(Window.WEEK, 1)).hasSize(1);
+        assertThat(trendingService.top(Window.WEEK, 0)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("should forget activity older than a week and skip deleted books")
+    void shouldExpireAndSkipDeleted() {
+        trendingService.recordShelfAdd(hobbit);
+        clock.advance(Duration.ofDays(8));
+        trendingService.recordShelfAdd(dune);
+        // Diuna usunięta - brak karty
+        when(bookCardDao.findRows(anyCollection())).thenReturn(List.of());
+
+        trendingService.refresh();
+
+        assertThat(trendingService.top(Window.WEEK, 10)).isEmpty();
+        verify(bookCardDao).findRows(argThat(ids -> ids.size() == 1 && ids.contains(dune)));
+    }
+
+    @Test
+    @DisplayName("should count every event recorded concurrently")
+    void shouldCountConcurrentEvents() throws InterruptedException {
+        stubCards();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8_000; i++) {
+            executor.execute(() -> trendingService.recordShelfAdd(hobbit));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        trendingService.refresh();
+
+        assertThat(trendingService.top(Window.HOUR, 1).get(0).weightedEvents()).isEqualTo(8_000);
+    }
+
+    @Test
+    @DisplayName("should parse window names case-insensitively and reject unknown ones")
+    void shouldParseWindow() {
+        assertThat(Window.parse("week")).isEqualTo(Window.WEEK);
+        assertThatThrownBy(() -> Window.parse("month")).isInstanceOf(IllegalArgumentException.class);
+        assertThat(trendingService.top(Window.DAY, 5)).isEmpty();
+    }
+}
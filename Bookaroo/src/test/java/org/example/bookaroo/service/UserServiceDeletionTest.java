@@ -0,0 +1,102 @@
+package org.example.bookaroo.service;
+
+import org.example.bookaroo.entity.Author;
+import org.example.bookaroo.entity.Book;
+import org.example.bookaroo.entity.User;
+import org.example.bookaroo.repository.ReviewJdbcDao;
+import org.example.bookaroo.repository.StatisticsRepository;
+import org.example.bookaroo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+// usunięcie recenzenta na prawdziwej bazie - kaskada JPA nie może ominąć różnic średniej
+@DataJpaTest
+@Import({ReviewJdbcDao.class, StatisticsRepository.class})
+class UserServiceDeletionTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReviewJdbcDao reviewJdbcDao;
+
+    @Autowired
+    private StatisticsRepository statisticsRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final BookService bookService = mock(BookService.class);
+
+    private UserService userService;
+    private UUID anna;
+    private UUID piotr;
+    private UUID bookId;
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserService(userRepository, mock(PasswordEncoder.class), mock(BookshelfService.class),
+                mock(FileStorageService.class), statisticsRepository, mock(BookCardService.class),
+                reviewJdbcDao, bookService, mock(ChangeFeedService.class));
+
+        anna = user("anna").getId();
+        piotr = user("piotr").getId();
+
+        Author author = new Author();
+        author.setName("Olga");
+        author.setSurname("Tokarczuk");
+        entityManager.persist(author);
+
+        Book book = new Book();
+        book.setTitle("Bieguni");
+        book.setIsbn("978-83-08-04210-5");
+        book.setAuthor(author);
+        entityManager.persist(book);
+        bookId = book.getId();
+
+        entityManager.flush();
+        reviewJdbcDao.upsert(anna, bookId, 9, "Świetna");
+        reviewJdbcDao.upsert(piotr, bookId, 5, "Średnia");
+        entityManager.clear();
+    }
+
+    private User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@test.com");
+        user.setPassword("pass");
+        user.setRole("USER");
+        return entityManager.persist(user);
+    }
+
+    @Test
+    @DisplayName("should remove a deleted reviewer's rating from the book average")
+    void shouldUpdateAggregates_whenReviewerDeleted() {
+        // When
+        userService.deleteUser(anna);
+        entityManager.flush();
+
+        // Then
+        Map<String, Object> aggregates = jdbcTemplate.queryForMap(
+                "SELECT average_rating, total_reviews FROM books WHERE id = ?", bookId);
+        assertThat(aggregates).containsEntry("AVERAGE_RATING", 5.0).containsEntry("TOTAL_REVIEWS", 1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE id = ?", Integer.class, anna)).isZero();
+        verify(bookService).ratingChanged(bookId);
+    }
+}
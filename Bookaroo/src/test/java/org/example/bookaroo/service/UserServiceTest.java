@@ -3,6 +3,11 @@ package org.example.bookaroo.service;
 import org.example.bookaroo.dto.CreateUserDTO;
 import org.example.bookaroo.dto.UpdateUserDTO;
 import org.example.bookaroo.dto.UserDTO;
+import org.example.bookaroo.dto.UserStatisticsDTO;
+import org.example.bookaroo.entity.Book;
+import org.example.bookaroo.entity.Bookshelf;
+import org.example.bookaroo.entity.ChangeLogEntry.EntityType;
+import org.example.bookaroo.entity.ChangeLogEntry.Operation;
 import org.example.bookaroo.entity.User;
 import org.example.bookaroo.exception.ResourceNotFoundException;
 import org.example.bookaroo.exception.UserAlreadyExistsException;
@@ -10,6 +15,7 @@ import org.example.bookaroo.repository.*;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -20,6 +26,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -41,6 +48,16 @@ class UserServiceTest {
     private BookshelfService bookshelfService;
     @Mock
     private FileStorageService fileStorageService;
+    @Mock
+    private BookCardService bookCardService;
+    @Mock
+    private StatisticsRepository statisticsRepository;
+    @Mock
+    private ReviewJdbcDao reviewJdbcDao;
+    @Mock
+    private BookService bookService;
+    @Mock
+    private ChangeFeedService changeFeedService;
 
     @InjectMocks
     private UserService userService;
@@ -265,6 +282,54 @@ class UserServiceTest {
 
         // Then
         verify(userRepository).delete(user);
+        verify(statisticsRepository).deleteReadingCounters(userId);
+    }
+
+    @Test
+    @DisplayName("should delete the user's reviews through the review DAO before the cascade")
+    void shouldDeleteReviewsThroughDao_whenDeletingUser() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        UUID reviewId = UUID.randomUUID();
+        UUID bookId = UUID.randomUUID();
+        User user = new User();
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(reviewJdbcDao.findIdsByUser(userId)).thenReturn(List.of(reviewId));
+        when(reviewJdbcDao.delete(reviewId)).thenReturn(Optional.of(bookId));
+
+        // When
+        userService.deleteUser(userId);
+
+        // Then
+        InOrder inOrder = inOrder(reviewJdbcDao, userRepository, bookService);
+        inOrder.verify(reviewJdbcDao).delete(reviewId);
+        inOrder.verify(userRepository).delete(user);
+        inOrder.verify(bookService).ratingChanged(bookId);
+        verify(changeFeedService).record(EntityType.REVIEW, reviewId, bookId, Operation.DELETE, null);
+    }
+
+    @Test
+    @DisplayName("should record DELETE entries for the user's shelves and shelf items")
+    void shouldRecordShelfDeletes_whenDeletingUser() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        Book book = new Book();
+        book.setId(UUID.randomUUID());
+        Bookshelf shelf = new Bookshelf();
+        shelf.setId(UUID.randomUUID());
+        shelf.setItems(new ArrayList<>());
+        shelf.addBook(book);
+        User user = new User();
+        user.setBookshelves(List.of(shelf));
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+        // When
+        userService.deleteUser(userId);
+
+        // Then
+        verify(changeFeedService).record(EntityType.SHELF_ITEM, book.getId(), shelf.getId(), Operation.DELETE, userId);
+        verify(changeFeedService).record(EntityType.BOOKSHELF, shelf.getId(), null, Operation.DELETE, userId);
+        verify(statisticsRepository).adjustReadersCount(book.getId(), -1);
     }
 
     @Test
@@ -297,7 +362,7 @@ class UserServiceTest {
         userService.updateUserProfile(username, "Bio", file);
 
         // Then
-        verify(fileStorageService).saveFile(file);
+        verify(fileStorageService).saveAvatar(file);
     }
 
     @Test
@@ -332,4 +397,21 @@ class UserServiceTest {
                 .isInstanceOf(IllegalArgumentException.class);
     }
 
-}
\ No newline at end of file
+    // STATS
+
+    @Test
+    @DisplayName("should read yearly challenge counter for current year")
+    void shouldReturnReadCount_forCurrentYear() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        int year = java.time.LocalDate.now().getYear();
+        when(statisticsRepository.countBooksReadInYear(userId, year)).thenReturn(7);
+
+        // When
+        UserStatisticsDTO stats = userService.getUserStats(userId);
+
+        // Then
+        assertThat(stats.readCount()).isEqualTo(7);
+        assertThat(stats.currentYear()).isEqualTo(year);
+    }
+}